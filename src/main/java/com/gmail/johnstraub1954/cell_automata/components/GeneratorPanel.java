@@ -5,24 +5,32 @@ import java.awt.Dimension;
 import java.beans.PropertyChangeEvent;
 import java.text.DecimalFormat;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
+import javax.swing.JSpinner;
 import javax.swing.JTextField;
 import javax.swing.JToggleButton;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingWorker;
 import javax.swing.event.ChangeEvent;
 
 import com.gmail.johnstraub1954.cell_automata.main.CAConstants;
 import com.gmail.johnstraub1954.cell_automata.main.CATimer;
 import com.gmail.johnstraub1954.cell_automata.main.CheckpointStack;
 import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+import com.gmail.johnstraub1954.cell_automata.main.HashLifeEngine;
 import com.gmail.johnstraub1954.cell_automata.main.Parameters;
 import com.gmail.johnstraub1954.cell_automata.main.RLEInput;
+import com.gmail.johnstraub1954.cell_automata.main.RuleTable;
+import com.gmail.johnstraub1954.cell_automata.main.Utils;
 
 /**
  * Encapsulates the components used to control generation propagation:
@@ -33,6 +41,10 @@ import com.gmail.johnstraub1954.cell_automata.main.RLEInput;
  * </li>
  * <li>Slider to adjust "generations per second" propagation</li>
  * <li>Toggle button to enable/disable auto-propagation (animation)</li>
+ * <li>
+ * Spinner and pushbutton to advance 2<sup>n</sup> generations
+ * in a single step
+ * </li>
  * </ol>
  * 
  * Also in charge of managing timer tasks when animation is enabled.
@@ -55,6 +67,10 @@ public class GeneratorPanel extends JPanel
     private static final int            millisPerSecond = 1000;
     private static final DecimalFormat gpsFormatter     = 
         new DecimalFormat( "#0.00" );
+    /** Initial value of the jump spinner (log2 generations). */
+    private static final int            jumpExpInit     = 10;
+    /** Maximum value of the jump spinner (log2 generations). */
+    private static final int            jumpExpMax      = 30;
     
     private final Parameters    params          = Parameters.INSTANCE;
     private final CATimer       caTimer         = CATimer.INSTANCE;
@@ -66,8 +82,18 @@ public class GeneratorPanel extends JPanel
     private final JSlider       slider          = getSlider();
     private final JToggleButton animateToggle   =
         new JToggleButton( "Animate", false );
+    private final JSpinner      jumpSpinner     = new JSpinner(
+        new SpinnerNumberModel( jumpExpInit, 0, jumpExpMax, 1 )
+    );
+    private final JButton       jumpButton      = new JButton( "Jump" );
     
     private TimerTask       task                = null;
+    /** 
+     * Engine used only by jumps, so that a jump in progress
+     * shares no state with the engines used by Utils;
+     * null until the first jump.
+     */
+    private HashLifeEngine  jumpEngine          = null;
     
     /**
      * Constructor.
@@ -95,6 +121,8 @@ public class GeneratorPanel extends JPanel
         rewindButton.setEnabled( rewindButtonStatus );
         rewindButton.setName( CAConstants.GEN_REWIND_BUTTON_CN );
         add( rewindButton );
+        add( new Box.Filler( minFiller, prefFiller, prefFiller ) );
+        add( getJumpPanel() );
         
         // a bit more space between the next-gen button and the 
         // feedback box
@@ -131,6 +159,156 @@ public class GeneratorPanel extends JPanel
         proc.accept( null );
     }
     
+    /**
+     * Advance the pattern by 2<sup>n</sup> generations,
+     * where <em>n</em> is the value of the jump spinner.
+     * A large jump can take a long time,
+     * so a copy of the pattern is advanced on a worker thread;
+     * animation is stopped, and the propagation controls
+     * are disabled, until the jump is complete.
+     * The rule and the HashLife engine are obtained
+     * on the event dispatch thread before the worker starts,
+     * so the worker touches nothing that the event dispatch thread
+     * may change while it runs.
+     * If the current configuration does not support jumps
+     * the reason is displayed instead.
+     */
+    private void jump()
+    {
+        int     exponent    = (Integer)jumpSpinner.getValue();
+        long    generations = 1L << exponent;
+        String  restriction = Utils.INSTANCE.getJumpRestriction();
+        if ( restriction != null )
+        {
+            JOptionPane.showMessageDialog(
+                this, restriction, "Jump", JOptionPane.WARNING_MESSAGE
+            );
+            return;
+        }
+        
+        GridMap         gridMap     = params.getGridMap();
+        GridMap         pattern     = new GridMap( gridMap );
+        RuleTable       rule        = Utils.INSTANCE.getRuleTable();
+        int             maxNodes    = params.getHashLifeMaxNodes();
+        if ( jumpEngine == null )
+            jumpEngine = new HashLifeEngine( maxNodes );
+        else
+            jumpEngine.setMaxNodes( maxNodes );
+        HashLifeEngine  engine      = jumpEngine;
+        
+        animateToggle.setSelected( false );
+        setPropagationEnabled( false );
+        SwingWorker<Void, Void>  worker  = new SwingWorker<Void, Void>()
+        {
+            @Override
+            protected Void doInBackground()
+            {
+                engine.advance( pattern, rule, generations );
+                return null;
+            }
+            
+            @Override
+            protected void done()
+            {
+                finishJump( this, gridMap, pattern, rule );
+            }
+        };
+        worker.execute();
+    }
+    
+    /**
+     * Complete a jump started by {@link #jump()}.
+     * If the jump succeeded, and neither the pattern
+     * nor the rule has been replaced in the meantime,
+     * the advanced copy of the pattern is written to the grid map;
+     * otherwise the reason for the failure is displayed.
+     * 
+     * @param worker    the worker that advanced the pattern
+     * @param gridMap   the grid map that was current
+     *                  when the jump started
+     * @param pattern   the advanced copy of the pattern
+     * @param rule      the rule under which the pattern was advanced
+     */
+    private void finishJump( 
+        SwingWorker<Void, Void> worker,
+        GridMap gridMap,
+        GridMap pattern,
+        RuleTable rule
+    )
+    {
+        setPropagationEnabled( true );
+        String  message = null;
+        try
+        {
+            worker.get();
+            // the configuration may have changed during the jump
+            String  restriction = Utils.INSTANCE.getJumpRestriction();
+            if ( restriction != null )
+                message = restriction;
+            else if ( !rule.equals( Utils.INSTANCE.getRuleTable() ) )
+                message = "The rule was changed during the jump";
+            else if ( params.getGridMap() == gridMap )
+            {
+                gridMap.clear();
+                pattern.forEachLive( (xco, yco, state) ->
+                    gridMap.putState( xco, yco, state )
+                );
+                params.reset();
+            }
+        }
+        catch ( ExecutionException exc )
+        {
+            // some causes, such as OutOfMemoryError, have no message
+            Throwable   cause   = exc.getCause();
+            message = cause.getMessage() != null ?
+                cause.getMessage() : cause.toString();
+        }
+        catch ( InterruptedException exc )
+        {
+            message = "Jump interrupted";
+        }
+        
+        if ( message != null )
+            JOptionPane.showMessageDialog(
+                this, message, "Jump", JOptionPane.WARNING_MESSAGE
+            );
+    }
+    
+    /**
+     * Enable or disable the controls that propagate the pattern.
+     * 
+     * @param enabled   true to enable the controls, false to disable them
+     */
+    private void setPropagationEnabled( boolean enabled )
+    {
+        nextGenButton.setEnabled( enabled );
+        jumpButton.setEnabled( enabled );
+        animateToggle.setEnabled( enabled );
+    }
+    
+    /**
+     * Create and configure the panel containing the jump controls.
+     * 
+     * @return the newly created panel
+     */
+    private JPanel getJumpPanel()
+    {
+        JPanel  panel   = new JPanel();
+        panel.setAlignmentX( Component.CENTER_ALIGNMENT );
+        panel.add( new JLabel( "2^" ) );
+        
+        jumpSpinner.setName( CAConstants.GEN_JUMP_SPINNER_CN );
+        jumpSpinner.setToolTipText( "log2 of the number of generations to jump" );
+        panel.add( jumpSpinner );
+        
+        jumpButton.setName( CAConstants.GEN_JUMP_BUTTON_CN );
+        jumpButton.addActionListener( e -> jump() );
+        panel.add( jumpButton );
+        panel.setMaximumSize( panel.getPreferredSize() );
+        
+        return panel;
+    }
+    
     /**
      * Catch ChangeEvents for the Animate toggle.
      * Trigger a change event for property CAConstants.AUTO_REGEN_ON_PN.
@@ -11,6 +11,8 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_LINE_
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_LINE_SHOW_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_LINE_WIDTH_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MAP_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_VOXEL_SLICE_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.VOXEL_MAP_PN;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
@@ -22,6 +24,7 @@ import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.beans.PropertyChangeEvent;
@@ -35,10 +38,19 @@ import com.gmail.johnstraub1954.cell_automata.main.Cell;
 import com.gmail.johnstraub1954.cell_automata.main.Direction;
 import com.gmail.johnstraub1954.cell_automata.main.GridMap;
 import com.gmail.johnstraub1954.cell_automata.main.Parameters;
+import com.gmail.johnstraub1954.cell_automata.main.VoxelGridMap;
 
 /**
  * Encapsulates the physical grid that displays the state
  * of live and dead cells.
+ * If a three-dimensional automaton is running
+ * (see {@link Parameters#getVoxelMap()})
+ * the grid displays one slice of its voxels,
+ * those whose z-coordinate is given by 
+ * {@link Parameters#getGridVoxelSlice()},
+ * and clicking a cell toggles the corresponding voxel.
+ * The mouse wheel scrolls the grid up and down
+ * (see {@link Parameters#scrollGrid(Point)}).
  * 
  * @author Jack Straub
  *
@@ -52,6 +64,17 @@ public class Grid extends JPanel implements PropertyChangeListener
     private final   Parameters  params              = Parameters.INSTANCE;
     
     private GridMap         gridMap             = params.getGridMap(); 
+    private VoxelGridMap    voxelMap            = params.getVoxelMap();
+    private int             voxelSlice          = params.getGridVoxelSlice();
+    
+    /** The most recent slice of the voxel map to be displayed. */
+    private GridMap         sliceMap            = null;
+    /** The voxel map from which sliceMap was taken. */
+    private VoxelGridMap    sliceSource         = null;
+    /** The index of the slice in sliceMap. */
+    private int             sliceIndex          = 0;
+    /** The modification count of sliceSource when sliceMap was taken. */
+    private int             sliceModCount       = 0;
     
     private Color           gridColor           = params.getGridColor();
     private boolean         gridLineShow        = params.isGridLineShow();
@@ -82,7 +105,9 @@ public class Grid extends JPanel implements PropertyChangeListener
         params.addNotificationListener( ACTION_RESET_PN, e -> repaint() );
         params.addNotificationListener(
             GC_CENTER_GRID, e -> centerGrid() );
-        this.addMouseListener( new MouseMonitor() );
+        MouseMonitor    monitor = new MouseMonitor();
+        this.addMouseListener( monitor );
+        this.addMouseWheelListener( monitor );
     }
 
     @Override
@@ -120,6 +145,16 @@ public class Grid extends JPanel implements PropertyChangeListener
         case GRID_MAP_PN:
             gridMap = (GridMap)newValue;
             break;
+        case VOXEL_MAP_PN:
+            voxelMap = (VoxelGridMap)newValue;
+            sliceMap = null;
+            sliceSource = null;
+            repaint();
+            break;
+        case GRID_VOXEL_SLICE_PN:
+            voxelSlice = (Integer)newValue;
+            repaint();
+            break;
         default:
             break;
         }
@@ -164,9 +199,41 @@ public class Grid extends JPanel implements PropertyChangeListener
         gtx = null;
     }
     
+    /**
+     * Returns the map of cells to display:
+     * the current slice of the voxel map,
+     * if a three-dimensional automaton is running,
+     * otherwise the grid map.
+     * A slice is decoded from the voxel map only when
+     * the voxel map, its contents, or the slice index
+     * have changed since the last slice was decoded.
+     * 
+     * @return  the map of cells to display
+     */
+    private GridMap getDisplayMap()
+    {
+        GridMap map = gridMap;
+        if ( voxelMap != null )
+        {
+            int modCount    = voxelMap.getModificationCount();
+            if ( sliceMap == null 
+                || sliceSource != voxelMap
+                || sliceIndex != voxelSlice
+                || sliceModCount != modCount )
+            {
+                sliceMap = voxelMap.getSlice( voxelSlice );
+                sliceSource = voxelMap;
+                sliceIndex = voxelSlice;
+                sliceModCount = modCount;
+            }
+            map = sliceMap;
+        }
+        return map;
+    }
+    
     private void centerGrid()
     {
-        Rectangle   rect    = gridMap.getLiveRectangle();
+        Rectangle   rect    = getDisplayMap().getLiveRectangle();
         int         width   = getWidth() / gridCellSize;
         int         height  = getHeight() / gridCellSize;
         int         physX   = width / 2 - rect.width / 2;
@@ -272,7 +339,7 @@ public class Grid extends JPanel implements PropertyChangeListener
             // Rectangle enclosing all visible cells.
             Rectangle rect    = 
                 new Rectangle( xco, yco, widthCells, heightCells );
-            cellIterator = gridMap.iterator( rect );
+            cellIterator = getDisplayMap().iterator( rect );
         }
 
         @Override
@@ -323,8 +390,37 @@ public class Grid extends JPanel implements PropertyChangeListener
                 evt.getX() / gridCellSize + gridCellULC.x;
             int     yco     = 
                 evt.getY() / gridCellSize + gridCellULC.y;
-            Cell    cell    = gridMap.get( xco, yco );
-            params.selectGridCell( cell );
+            if ( voxelMap == null )
+            {
+                Cell    cell    = gridMap.get( xco, yco );
+                params.selectGridCell( cell );
+            }
+            else
+            {
+                boolean alive   = voxelMap.get( xco, yco, voxelSlice );
+                voxelMap.put( xco, yco, voxelSlice, !alive );
+                repaint();
+            }
+        }
+        
+        /**
+         * Processes mouse wheel rotation.
+         * Scrolls the grid up or down by the number of rows
+         * given by the event, 
+         * via Parameters.scrollGrid(),
+         * which turns off centering and generates a notification 
+         * for CAConstants.GRID_SCROLLED_PN.
+         * 
+         * @param   evt     event associated with the mouse wheel
+         */
+        @Override
+        public void mouseWheelMoved( MouseWheelEvent evt )
+        {
+            int     rows    = evt.getUnitsToScroll();
+            Point   origin  = 
+                new Point( gridCellULC.x, gridCellULC.y + rows );
+            params.scrollGrid( origin );
+            repaint();
         }
     }
 }
@@ -1,7 +1,6 @@
 package com.gmail.johnstraub1954.cell_automata.components;
 
 import java.awt.Component;
-import java.awt.Point;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
@@ -16,7 +15,6 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,12 +22,10 @@ import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.text.JTextComponent;
 
-import com.gmail.johnstraub1954.cell_automata.main.Cell;
 import com.gmail.johnstraub1954.cell_automata.main.CheckpointStack;
 import com.gmail.johnstraub1954.cell_automata.main.CAException;
 import com.gmail.johnstraub1954.cell_automata.main.GridMap;
 import com.gmail.johnstraub1954.cell_automata.main.Parameters;
-import com.gmail.johnstraub1954.cell_automata.main.RLEGridDecoder;
 import com.gmail.johnstraub1954.cell_automata.main.RLEInput;
 
 /**
@@ -209,8 +205,10 @@ public class URLManager extends DropTargetAdapter
         params.setGridCellOrigin( input.getUpperLeft() );
         params.setSurvivalStates( input.getSurvivalRules() );
         params.setBirthStates( input.getBirthRules() );
+        params.setIsotropicRule( input.getIsotropicRule() );
+        params.setGameStates( Math.max( 2, input.getGameStates() ) );
         
-        GridMap map = getGridMap( input );
+        GridMap map = input.getGridMap();
         params.setGridMap( map );
         params.setGridLatestData( input );
         
@@ -219,40 +217,6 @@ public class URLManager extends DropTargetAdapter
         params.reset();
     }
     
-    /**
-     * Parse a grid map from a given RLE input source.
-     * 
-     * @param input the given RLE input source
-     * 
-     * @return  the resultant grid map
-     */
-    private static GridMap getGridMap( RLEInput input )
-    {
-        Point               origin  = input.getUpperLeft();
-        RLEGridDecoder      decoder = input.getGridDecoder();
-        Iterator<Character> iter    = decoder.iterator();
-        GridMap             gridMap = new GridMap();
-        int currX   = origin.x;
-        int currY   = origin.y;
-        while ( iter.hasNext() )
-        {
-            char    nextChar    = iter.next();
-            if ( nextChar == '$' )
-            {
-                ++currY;
-                currX = origin.x;
-            }
-            else
-            {
-                boolean state   = nextChar == 'o';
-                Cell    cell    = new Cell( currX++, currY, state );
-                gridMap.put( cell );
-            }
-        }
-        
-        return gridMap;
-    }
-    
     /**
      * Catches link/file location 
      * dropped into the encapsulated text component
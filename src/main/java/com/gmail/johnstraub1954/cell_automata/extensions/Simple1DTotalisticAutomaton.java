@@ -1,25 +1,162 @@
-/**
- * 
- */
 package com.gmail.johnstraub1954.cell_automata.extensions;
 
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import com.gmail.johnstraub1954.cell_automata.components.GridFrame;
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+import com.gmail.johnstraub1954.cell_automata.main.Parameters;
+
 /**
  * This class represents a simple implementation
- * of a 3 color, 1 dimensional totalistic automaton.
- * 
+ * of a k color, 1 dimensional totalistic automaton.
+ * The operator is asked for the number of colors
+ * and the Wolfram code number of the rule;
+ * for example, 3 colors with code 777.
+ * Each generation occupies the row beneath its parent,
+ * and each cell is written to the grid map with its color
+ * as its state.
+ *
  * @author Jack Straub
  *
+ * @see Totalistic1DKernel
  */
 public class Simple1DTotalisticAutomaton
 {
+    /** Workspace parameters */
+    private static final Parameters params          = Parameters.INSTANCE;
+
+    /** Map containing successive generations. */
+    private final GridMap           gridMap         = params.getGridMap();
+
+    /** Calculates successive generations. */
+    private final Totalistic1DKernel    kernel;
+
+    /** Row containing the last generation */
+    private int                     lastRow         = 0;
 
     /**
-     * @param args
+     * Entry point.
+     * @param args  command line arguments; not used
      */
     public static void main(String[] args)
     {
-        // TODO Auto-generated method stub
+        GridFrame   frame   = new GridFrame();
+        SwingUtilities.invokeLater( () -> frame.run() );
+        new Simple1DTotalisticAutomaton();
+    }
+
+    /**
+     * Constructor.
+     * Initializes the grid with a single cell of color 1.
+     */
+    public Simple1DTotalisticAutomaton()
+    {
+        // Initialize map; center grid with the occupied cell
+        // at the top of the grid.
+        gridMap.putState( 0, 0, 1 );
+        params.centerGrid();
+        params.setGridKeepCentered( true );
+
+        // register the propagation proc
+        params.setPropagateProc( o -> generateNext( o ) );
+
+        // Get the rule
+        int     colors  = getColors();
+        long    code    = getCode( colors );
+        kernel = Totalistic1DKernel.ofLightCone( colors, code );
+
+        params.reset();
+    }
+
+    /**
+     * Calculate the next generation.
+     * Only the cells in the visible width of the grid
+     * are written to the grid map.
+     *
+     * @param   obj control object (not used)
+     */
+    private void generateNext( Object obj )
+    {
+        int     halfWidth   = params.getGridWidth() / 2 + 1;
+        kernel.nextGeneration();
+        ++lastRow;
+        kernel.copyTo( gridMap, lastRow, -halfWidth, halfWidth );
+
+        params.reset();
+    }
+
+    /**
+     * Ask the operator for the number of colors.
+     *
+     * @return the number of colors
+     */
+    private static int getColors()
+    {
+        String  prompt  = "Enter the number of colors ("
+            + Totalistic1DKernel.MIN_COLORS + " - "
+            + Totalistic1DKernel.MAX_COLORS + ")";
+        long    colors  = getNumber(
+            prompt,
+            Totalistic1DKernel.MIN_COLORS,
+            Totalistic1DKernel.MAX_COLORS
+        );
+        return (int)colors;
+    }
 
+    /**
+     * Ask the operator for the code number of the rule.
+     *
+     * @param colors    the number of colors
+     *
+     * @return the code number
+     */
+    private static long getCode( int colors )
+    {
+        long    max     = Totalistic1DKernel.getCodeLimit( colors ) - 1;
+        String  prompt  = "Enter the code number (0 - " + max + ")";
+        long    code    = getNumber( prompt, 0, max );
+        return code;
     }
 
+    /**
+     * Ask the operator for a number in a given range.
+     * The operator is prompted until valid input is entered;
+     * if the operator cancels, the application exits.
+     *
+     * @param prompt    the prompt to display
+     * @param min       the least valid number
+     * @param max       the greatest valid number
+     *
+     * @return the number entered
+     */
+    private static long getNumber( String prompt, long min, long max )
+    {
+        String          input   = null;
+        long            number  = 0;
+        boolean         done    = false;
+        while ( !done )
+        {
+            input = JOptionPane.showInputDialog( prompt );
+            if ( input == null )
+                System.exit( 0 );
+            try
+            {
+                number = Long.parseLong( input.trim() );
+                done = number >= min && number <= max;
+            }
+            catch ( NumberFormatException exc )
+            {
+                done = false;
+            }
+            if ( !done )
+            {
+                String  msg = "\"" + input + "\" "
+                    + "is not valid input.";
+                JOptionPane.showMessageDialog( null, msg );
+            }
+        }
+
+        return number;
+    }
 }
@@ -0,0 +1,436 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+
+/**
+ * Spacetime diagram of a one-dimensional automaton,
+ * stored one bit-packed row per generation.
+ * Each row covers a fixed window of columns,
+ * beginning at the minimum column given to the constructor,
+ * and occupies a whole number of longs.
+ * <p>
+ * Rows are appended to a tail buffer on the heap.
+ * When the tail holds a full <em>segment</em> of rows
+ * it is written to a memory-mapped region of a backing file,
+ * and the tail starts over;
+ * the heap therefore holds at most one segment,
+ * and the length of a history is limited
+ * by the space available for the file.
+ * Segments are read back through a small set of mapped regions,
+ * the least recently used of which is released
+ * when another segment is needed,
+ * so that scrolling through a history
+ * pages its rows back in on demand.
+ * <p>
+ * A history must be closed when no longer needed;
+ * closing a history deletes its backing file.
+ *
+ * @author Jack Straub
+ *
+ * @see Wolfram1DAutomaton
+ */
+public class SpacetimeHistory implements AutoCloseable
+{
+    /** Default size of a segment, in bytes. */
+    public static final int     DEF_SEGMENT_BYTES   = 16 << 20;
+    /** The greatest number of segments mapped at one time. */
+    private static final int    MAX_MAPPED          = 4;
+
+    /** The first column of the window recorded in each row. */
+    private final int           minCol;
+    /** The number of longs in each row. */
+    private final int           words;
+    /** The number of rows in each segment. */
+    private final int           segmentRows;
+    /** The number of bytes in each segment. */
+    private final long          segmentBytes;
+    /** The backing file. */
+    private final Path          path;
+    /** Channel to the backing file. */
+    private final FileChannel   channel;
+    /** Rows not yet written to the backing file. */
+    private final long[]        tail;
+    /**
+     * Mapped segments, by segment number,
+     * in order of most recent access.
+     */
+    private final Map<Long, LongBuffer> mapped  =
+        new LinkedHashMap<Long, LongBuffer>( 16, .75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean
+            removeEldestEntry( Map.Entry<Long, LongBuffer> eldest )
+            {
+                return size() > MAX_MAPPED;
+            }
+        };
+
+    /** Scratch row. */
+    private final long[]    row;
+    /** The number of rows in the tail buffer. */
+    private int             tailRows    = 0;
+    /** The number of segments written to the backing file. */
+    private long            segments    = 0;
+
+    /**
+     * Constructor.
+     * The history is backed by a temporary file,
+     * and uses segments of the default size.
+     *
+     * @param minCol    the first column of the window
+     *                  recorded in each row
+     * @param width     the minimum width of the window;
+     *                  rounded up to a multiple of 64
+     *
+     * @throws IllegalArgumentException if width is less than 1
+     * @throws UncheckedIOException
+     *         if the backing file cannot be created
+     */
+    public SpacetimeHistory( int minCol, int width )
+    {
+        this( minCol, width, createTempFile(), 0 );
+    }
+
+    /**
+     * Constructor.
+     * The contents of the backing file, if it exists,
+     * are discarded.
+     *
+     * @param minCol        the first column of the window
+     *                      recorded in each row
+     * @param width         the minimum width of the window;
+     *                      rounded up to a multiple of 64
+     * @param path          the path to the backing file
+     * @param segmentRows   the number of rows in each segment;
+     *                      if 0, a segment of approximately
+     *                      {@link #DEF_SEGMENT_BYTES} is used
+     *
+     * @throws IllegalArgumentException
+     *         if width is less than 1, or segmentRows is negative
+     * @throws UncheckedIOException
+     *         if the backing file cannot be opened
+     */
+    public SpacetimeHistory( int minCol, int width, Path path, int segmentRows )
+    {
+        if ( width < 1 )
+            throw new IllegalArgumentException( "invalid width: " + width );
+        if ( segmentRows < 0 )
+        {
+            String  msg = "invalid segment size: " + segmentRows;
+            throw new IllegalArgumentException( msg );
+        }
+
+        this.minCol = minCol;
+        this.path = path;
+        words = (width + 63) / 64;
+        this.segmentRows = segmentRows > 0
+            ? segmentRows : Math.max( 1, DEF_SEGMENT_BYTES / (8 * words) );
+        segmentBytes = 8L * words * this.segmentRows;
+        tail = new long[words * this.segmentRows];
+        row = new long[words];
+        try
+        {
+            channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            );
+        }
+        catch ( IOException exc )
+        {
+            throw new UncheckedIOException( exc );
+        }
+    }
+
+    /**
+     * Returns the first column of the window recorded in each row.
+     *
+     * @return  the first column of the window
+     */
+    public int getMinCol()
+    {
+        return minCol;
+    }
+
+    /**
+     * Returns the number of columns recorded in each row.
+     *
+     * @return  the number of columns recorded in each row
+     */
+    public int getWidth()
+    {
+        return 64 * words;
+    }
+
+    /**
+     * Returns the number of rows in this history.
+     *
+     * @return  the number of rows in this history
+     */
+    public long size()
+    {
+        long    size    = segments * segmentRows + tailRows;
+        return size;
+    }
+
+    /**
+     * Appends the window of the current row of a given kernel
+     * to this history.
+     *
+     * @param kernel    the given kernel
+     *
+     * @throws UncheckedIOException
+     *         if a segment cannot be written to the backing file
+     */
+    public void append( Wolfram1DKernel kernel )
+    {
+        kernel.getWindow( minCol, row, words );
+        System.arraycopy( row, 0, tail, tailRows * words, words );
+        if ( ++tailRows == segmentRows )
+            spill();
+    }
+
+    /**
+     * Returns the state of the cell in a given row and column.
+     * Cells outside the recorded window are dead.
+     *
+     * @param rowNum    the given row
+     * @param col       the given column
+     *
+     * @return  true if the cell is alive
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the row is not in this history
+     */
+    public boolean get( long rowNum, int col )
+    {
+        long    bit     = (long)col - minCol;
+        boolean alive   = false;
+        if ( bit >= 0 && bit < 64 * words )
+        {
+            getRow( rowNum, row );
+            alive = (row[(int)bit >> 6] & (1L << bit)) != 0;
+        }
+        return alive;
+    }
+
+    /**
+     * Copies a given row of this history to a given array.
+     * Bit n of word n / 64 of the array receives
+     * the state of the cell in column minCol + n.
+     *
+     * @param rowNum    the given row
+     * @param dest      the given array
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the row is not in this history
+     */
+    public void getRow( long rowNum, long[] dest )
+    {
+        if ( rowNum < 0 || rowNum >= size() )
+            throw new IndexOutOfBoundsException( "row " + rowNum );
+
+        long    segment = rowNum / segmentRows;
+        int     base    = (int)(rowNum % segmentRows) * words;
+        if ( segment == segments )
+            System.arraycopy( tail, base, dest, 0, words );
+        else
+        {
+            LongBuffer  buffer  = getSegment( segment );
+            for ( int inx = 0 ; inx < words ; ++inx )
+                dest[inx] = buffer.get( base + inx );
+        }
+    }
+
+    /**
+     * Writes the live cells in a range of rows of this history
+     * to a given GridMap.
+     * Row n of the history is written to row n of the GridMap;
+     * rows in the range that are not in this history are ignored.
+     *
+     * @param gridMap   the given GridMap
+     * @param first     the first row in the range
+     * @param count     the number of rows in the range
+     */
+    public void copyTo( GridMap gridMap, long first, int count )
+    {
+        putRows( gridMap, first, count, true );
+    }
+
+    /**
+     * Removes the live cells in a range of rows of this history
+     * from a given GridMap;
+     * this reverses {@link #copyTo(GridMap, long, int)}
+     * without visiting the rest of the GridMap.
+     * Rows in the range that are not in this history are ignored.
+     *
+     * @param gridMap   the given GridMap
+     * @param first     the first row in the range
+     * @param count     the number of rows in the range
+     */
+    public void removeFrom( GridMap gridMap, long first, int count )
+    {
+        putRows( gridMap, first, count, false );
+    }
+
+    /**
+     * Sets the state of the cells in a given GridMap
+     * that are live in a range of rows of this history.
+     * Row n of the history corresponds to row n of the GridMap;
+     * rows in the range that are not in this history are ignored.
+     *
+     * @param gridMap   the given GridMap
+     * @param first     the first row in the range
+     * @param count     the number of rows in the range
+     * @param state     the state to give the cells
+     */
+    private void putRows( GridMap gridMap, long first, int count, boolean state )
+    {
+        long    start   = Math.max( 0, first );
+        long    end     = Math.min( size(), first + count );
+        for ( long rowNum = start ; rowNum < end ; ++rowNum )
+        {
+            getRow( rowNum, row );
+            for ( int inx = 0 ; inx < words ; ++inx )
+            {
+                long    word    = row[inx];
+                while ( word != 0 )
+                {
+                    int col = minCol + 64 * inx
+                        + Long.numberOfTrailingZeros( word );
+                    gridMap.put( col, (int)rowNum, state );
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the mapped segments of this history,
+     * closes the backing file and deletes it.
+     *
+     * @throws UncheckedIOException
+     *         if the backing file cannot be closed or deleted
+     */
+    @Override
+    public void close()
+    {
+        mapped.clear();
+        try
+        {
+            channel.close();
+            Files.deleteIfExists( path );
+        }
+        catch ( IOException exc )
+        {
+            throw new UncheckedIOException( exc );
+        }
+    }
+
+    /**
+     * Writes the tail buffer to a new segment of the backing file.
+     * The new segment is retained as the most recently used.
+     *
+     * @throws UncheckedIOException
+     *         if the segment cannot be written
+     */
+    private void spill()
+    {
+        LongBuffer  buffer  = map( segments );
+        buffer.put( tail, 0, tail.length );
+        mapped.put( segments, buffer );
+        ++segments;
+        tailRows = 0;
+    }
+
+    /**
+     * Returns a given segment of the backing file,
+     * mapping it if necessary.
+     *
+     * @param segment   the given segment
+     *
+     * @return  the given segment
+     *
+     * @throws UncheckedIOException
+     *         if the segment cannot be mapped
+     */
+    private LongBuffer getSegment( long segment )
+    {
+        LongBuffer  buffer  = mapped.get( segment );
+        if ( buffer == null )
+        {
+            buffer = map( segment );
+            mapped.put( segment, buffer );
+        }
+        return buffer;
+    }
+
+    /**
+     * Maps a given segment of the backing file,
+     * extending the file if necessary.
+     *
+     * @param segment   the given segment
+     *
+     * @return  the mapped segment, as a LongBuffer
+     *
+     * @throws UncheckedIOException
+     *         if the segment cannot be mapped
+     */
+    private LongBuffer map( long segment )
+    {
+        try
+        {
+            MappedByteBuffer    bytes   = channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                segment * segmentBytes,
+                segmentBytes
+            );
+            LongBuffer          buffer  =
+                bytes.order( ByteOrder.nativeOrder() ).asLongBuffer();
+            return buffer;
+        }
+        catch ( IOException exc )
+        {
+            throw new UncheckedIOException( exc );
+        }
+    }
+
+    /**
+     * Creates a temporary backing file,
+     * to be deleted when the JVM exits
+     * if the history is not closed.
+     *
+     * @return  the path to the temporary file
+     *
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    private static Path createTempFile()
+    {
+        try
+        {
+            Path    path    = Files.createTempFile( "spacetime", ".bin" );
+            path.toFile().deleteOnExit();
+            return path;
+        }
+        catch ( IOException exc )
+        {
+            throw new UncheckedIOException( exc );
+        }
+    }
+}
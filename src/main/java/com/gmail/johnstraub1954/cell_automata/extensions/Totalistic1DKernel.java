@@ -0,0 +1,419 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+
+/**
+ * Implementation of a k-color, one-dimensional totalistic automaton,
+ * in which the next state of a cell depends only on the sum
+ * of its own state and the states of its left and right neighbors.
+ * A rule is identified by its Wolfram code number:
+ * digit n of the code, in base k,
+ * is the next state of a cell whose neighborhood sums to n.
+ * For example, the 3-color code 777 is 1001210 in base 3,
+ * so that a neighborhood summing to 0 produces state 0,
+ * one summing to 1 produces state 1,
+ * one summing to 2 produces state 2, and so on.
+ * <p>
+ * Rows are held in byte arrays,
+ * padded at each end with cells
+ * that supply the neighbors of the end cells,
+ * so that the next row can be calculated without bounds tests:
+ * the sum of each neighborhood is maintained in a sliding window,
+ * and is used as an index into the table of digits of the code.
+ * Rows wider than {@link #PARALLEL_THRESHOLD} cells
+ * are divided into blocks which are calculated in parallel.
+ * <p>
+ * As in {@link Wolfram1DKernel}, two modes are supported:
+ * <em>light cone</em> ({@link #ofLightCone(int, long)}),
+ * in which the row is infinite,
+ * every cell outside the stored row has the same background state,
+ * and the row grows by one cell at each end every generation;
+ * and <em>wraparound</em> ({@link #ofWraparound(int, long, int)}),
+ * in which the row has a fixed width
+ * and the leftmost and rightmost cells are neighbors.
+ *
+ * @author Jack Straub
+ *
+ * @see Simple1DTotalisticAutomaton
+ * @see <a href="https://mathworld.wolfram.com/TotalisticCellularAutomaton.html">
+ *          Wolfram MathWorld: Totalistic Cellular Automaton
+ *      </a>
+ */
+public class Totalistic1DKernel
+{
+    /** The least number of colors supported. */
+    public static final int     MIN_COLORS          = 2;
+    /**
+     * The greatest number of colors supported;
+     * the greatest number for which every code fits in a long.
+     */
+    public static final int     MAX_COLORS          = 7;
+    /** The length of a row above which it is calculated in parallel. */
+    public static final int     PARALLEL_THRESHOLD  = 1 << 16;
+    /** The number of cells in a block calculated by a single task. */
+    private static final int    BLOCK_SIZE          = 1 << 14;
+    /** The number of padding cells at each end of a row. */
+    private static final int    PAD                 = 2;
+
+    /** True if this kernel operates in wraparound mode. */
+    private final boolean   wrap;
+    /** The number of colors. */
+    private final int       colors;
+    /** The code number. */
+    private final long      code;
+    /** The next state of a cell, indexed by the sum of its neighborhood. */
+    private final byte[]    table;
+
+    /**
+     * The current row; cell n is at index PAD + n.
+     * The padding cells hold the background state in light-cone mode,
+     * and copies of the opposite end cells in wraparound mode.
+     */
+    private byte[]  cells;
+    /** Scratch row, in which the next generation is built. */
+    private byte[]  next;
+    /** The number of cells in the current row. */
+    private int     length;
+    /** The column of cell 0 of the current row. */
+    private int     leftColumn;
+    /** The state of every cell outside the row; light cone only. */
+    private byte    background  = 0;
+    /** The number of generations calculated. */
+    private long    generation  = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param colors    the number of colors
+     * @param code      the code number
+     * @param wrap      true for wraparound mode
+     * @param length    the initial length of the row
+     *
+     * @throws IllegalArgumentException
+     *         if the number of colors is not supported,
+     *         the code is not valid for the number of colors,
+     *         or the length is less than 1
+     */
+    private Totalistic1DKernel( int colors, long code, boolean wrap, int length )
+    {
+        if ( colors < MIN_COLORS || colors > MAX_COLORS )
+        {
+            String  msg = "unsupported number of colors: " + colors;
+            throw new IllegalArgumentException( msg );
+        }
+        if ( code < 0 || code >= getCodeLimit( colors ) )
+        {
+            String  msg = "invalid " + colors + "-color code: " + code;
+            throw new IllegalArgumentException( msg );
+        }
+        if ( length < 1 )
+            throw new IllegalArgumentException( "invalid width: " + length );
+
+        this.colors = colors;
+        this.code = code;
+        this.wrap = wrap;
+        this.length = length;
+        table = new byte[3 * (colors - 1) + 1];
+        long    digits  = code;
+        for ( int inx = 0 ; inx < table.length ; ++inx )
+        {
+            table[inx] = (byte)(digits % colors);
+            digits /= colors;
+        }
+        cells = new byte[length + 2 * PAD];
+        next = new byte[cells.length];
+    }
+
+    /**
+     * Creates a kernel in light-cone mode,
+     * whose initial row contains a single cell, in column 0,
+     * in state 1.
+     *
+     * @param colors    the number of colors
+     * @param code      the code number
+     *
+     * @return  the new kernel
+     *
+     * @throws IllegalArgumentException
+     *         if the number of colors is not supported,
+     *         or the code is not valid for the number of colors
+     */
+    public static Totalistic1DKernel ofLightCone( int colors, long code )
+    {
+        Totalistic1DKernel  kernel  =
+            new Totalistic1DKernel( colors, code, false, 1 );
+        kernel.cells[PAD] = 1;
+        return kernel;
+    }
+
+    /**
+     * Creates a kernel in wraparound mode,
+     * whose initial row contains a single cell,
+     * in column width / 2, in state 1.
+     *
+     * @param colors    the number of colors
+     * @param code      the code number
+     * @param width     the width of the row
+     *
+     * @return  the new kernel
+     *
+     * @throws IllegalArgumentException
+     *         if the number of colors is not supported,
+     *         the code is not valid for the number of colors,
+     *         or the width is less than 1
+     */
+    public static Totalistic1DKernel
+    ofWraparound( int colors, long code, int width )
+    {
+        Totalistic1DKernel  kernel  =
+            new Totalistic1DKernel( colors, code, true, width );
+        kernel.cells[PAD + width / 2] = 1;
+        return kernel;
+    }
+
+    /**
+     * Returns the number of distinct codes
+     * for a given number of colors;
+     * valid codes range from 0 to one less than this number.
+     *
+     * @param colors    the given number of colors
+     *
+     * @return  the number of distinct codes
+     *
+     * @throws IllegalArgumentException
+     *         if the number of colors is not supported
+     */
+    public static long getCodeLimit( int colors )
+    {
+        if ( colors < MIN_COLORS || colors > MAX_COLORS )
+        {
+            String  msg = "unsupported number of colors: " + colors;
+            throw new IllegalArgumentException( msg );
+        }
+        long    limit   = 1;
+        for ( int inx = 3 * (colors - 1) + 1 ; inx > 0 ; --inx )
+            limit *= colors;
+        return limit;
+    }
+
+    /**
+     * Returns the number of colors.
+     *
+     * @return  the number of colors
+     */
+    public int getColors()
+    {
+        return colors;
+    }
+
+    /**
+     * Returns the code number.
+     *
+     * @return  the code number
+     */
+    public long getCode()
+    {
+        return code;
+    }
+
+    /**
+     * Indicates whether this kernel operates in wraparound mode.
+     *
+     * @return  true if this kernel operates in wraparound mode
+     */
+    public boolean isWraparound()
+    {
+        return wrap;
+    }
+
+    /**
+     * Returns the number of generations calculated.
+     *
+     * @return  the number of generations calculated
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Returns the column of the leftmost cell of the current row.
+     *
+     * @return  the column of the leftmost cell of the current row
+     */
+    public int getLeftColumn()
+    {
+        return leftColumn;
+    }
+
+    /**
+     * Returns the number of cells in the current row.
+     *
+     * @return  the number of cells in the current row
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Returns the state of the cell in a given column
+     * of the current row.
+     * In light-cone mode, cells outside the stored row
+     * have the background state;
+     * in wraparound mode, the column is taken modulo the width.
+     *
+     * @param col   the given column
+     *
+     * @return  the state of the cell
+     */
+    public int get( int col )
+    {
+        int     inx     = col - leftColumn;
+        if ( wrap )
+            inx = Math.floorMod( inx, length );
+        int     state   = inx < 0 || inx >= length
+            ? background
+            : cells[PAD + inx];
+        return state;
+    }
+
+    /**
+     * Sets the state of the cell in a given column
+     * of the current row.
+     * In light-cone mode the column must lie within
+     * the stored row;
+     * in wraparound mode it is taken modulo the width.
+     *
+     * @param col   the given column
+     * @param state the state of the cell
+     *
+     * @throws IllegalArgumentException
+     *         if the state is not less than the number of colors,
+     *         or, in light-cone mode, the column lies
+     *         outside the stored row
+     */
+    public void set( int col, int state )
+    {
+        if ( state < 0 || state >= colors )
+            throw new IllegalArgumentException( "invalid state: " + state );
+        int     inx     = col - leftColumn;
+        if ( wrap )
+            inx = Math.floorMod( inx, length );
+        else if ( inx < 0 || inx >= length )
+            throw new IllegalArgumentException( "column out of range: " + col );
+        cells[PAD + inx] = (byte)state;
+    }
+
+    /**
+     * Calculates the next generation.
+     */
+    public void nextGeneration()
+    {
+        if ( wrap )
+        {
+            cells[PAD - 1] = cells[PAD + length - 1];
+            cells[PAD + length] = cells[PAD];
+            calculate( PAD - 1, length );
+        }
+        else
+        {
+            int     newLength   = length + 2;
+            if ( next.length < newLength + 2 * PAD )
+            {
+                int capacity    = Math.max( 2 * next.length, newLength + 2 * PAD );
+                next = new byte[capacity];
+            }
+            // cell n of the new row is centered on cell n - 1
+            // of the current row; the padding cells supply
+            // the neighbors of new cells 0 and newLength - 1
+            calculate( 0, newLength );
+            background = table[3 * background];
+            Arrays.fill( next, 0, PAD, background );
+            Arrays.fill( next, PAD + newLength, PAD + newLength + PAD, background );
+            length = newLength;
+            --leftColumn;
+            if ( cells.length < next.length )
+                cells = new byte[next.length];
+        }
+
+        byte[]  temp    = cells;
+        cells = next;
+        next = temp;
+        ++generation;
+    }
+
+    /**
+     * Writes the cells in a given range of columns of the current row
+     * to a given row of a given GridMap.
+     * Only cells in states other than 0 are written.
+     *
+     * @param gridMap   the given GridMap
+     * @param row       the given row
+     * @param minCol    the first column of the range
+     * @param maxCol    the last column of the range
+     */
+    public void copyTo( GridMap gridMap, int row, int minCol, int maxCol )
+    {
+        for ( int col = minCol ; col <= maxCol ; ++col )
+        {
+            int state   = get( col );
+            if ( state != 0 )
+                gridMap.putState( col, row, state );
+        }
+    }
+
+    /**
+     * Calculates the cells of the next row,
+     * beginning at index PAD of the scratch row.
+     * Next cell n is the outcome of the neighborhood
+     * consisting of current cells first + n through first + n + 2,
+     * by array index.
+     * Long rows are divided into blocks calculated in parallel.
+     *
+     * @param first the array index of the left neighbor
+     *              of the first cell to calculate
+     * @param count the number of cells to calculate
+     */
+    private void calculate( int first, int count )
+    {
+        if ( count <= PARALLEL_THRESHOLD )
+            calculate( first, 0, count );
+        else
+        {
+            int blocks  = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            IntStream.range( 0, blocks ).parallel().forEach( block -> {
+                int start   = block * BLOCK_SIZE;
+                int end     = Math.min( count, start + BLOCK_SIZE );
+                calculate( first, start, end );
+            });
+        }
+    }
+
+    /**
+     * Calculates a range of cells of the next row,
+     * maintaining the sum of each neighborhood
+     * in a sliding window.
+     *
+     * @param first the array index of the left neighbor
+     *              of next cell 0
+     * @param start the first cell of the range
+     * @param end   the cell following the last cell of the range
+     */
+    private void calculate( int first, int start, int end )
+    {
+        byte[]  src     = cells;
+        byte[]  dst     = next;
+        int     left    = first + start;
+        int     sum     = src[left] + src[left + 1] + src[left + 2];
+        for ( int inx = start ; inx < end - 1 ; ++inx, ++left )
+        {
+            dst[PAD + inx] = table[sum];
+            sum += src[left + 3] - src[left];
+        }
+        dst[PAD + end - 1] = table[sum];
+    }
+}
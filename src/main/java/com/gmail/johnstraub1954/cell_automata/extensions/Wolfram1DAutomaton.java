@@ -1,5 +1,9 @@
 package com.gmail.johnstraub1954.cell_automata.extensions;
 
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_SCROLLED_PN;
+
+import java.awt.Point;
+
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
@@ -9,6 +13,24 @@ import com.gmail.johnstraub1954.cell_automata.main.Parameters;
 
 /**
  * Breeds new generations of 1-D automata based on the Wolfram algorithm.
+ * Every generation is recorded in a {@link SpacetimeHistory};
+ * the grid map holds only the rows visible in the grid,
+ * which follow the latest generation
+ * until the operator scrolls the grid to an earlier row
+ * (see {@link Parameters#scrollGrid(Point)}),
+ * at which point the rows at the new origin are paged in
+ * from the history.
+ * While the grid is scrolled back it is not kept centered;
+ * scrolling down to the latest generation
+ * resumes following, and centering.
+ * <p>
+ * The history records a fixed window of columns,
+ * centered on column 0, which is at least 1024 columns wide,
+ * and at least 2 columns wider than the grid
+ * at the time the automaton is created.
+ * If the grid is later widened past the window,
+ * the columns outside the window are shown as dead,
+ * even after the pattern has grown into them.
  * 
  * @author Jack Straub
  *          
@@ -19,6 +41,9 @@ import com.gmail.johnstraub1954.cell_automata.main.Parameters;
  */
 public class Wolfram1DAutomaton
 {
+    /** Minimum number of columns recorded in each generation. */
+    private static final int        MIN_WIDTH       = 1024;
+    
     /** Workspace parameters */
     private static final Parameters params          = Parameters.INSTANCE;
     
@@ -28,11 +53,26 @@ public class Wolfram1DAutomaton
     /** Rule to generate successive generations. */
     private int                     rule;
     
-    /** Determines how triplets map to live/dead cells */
-    private boolean[]               ruleMap;
+    /** Calculates successive generations. */
+    private final Wolfram1DKernel   kernel;
+    
+    /** Every generation calculated so far. */
+    private final SpacetimeHistory  history;
+    
+    /** 
+     * True if the grid map shows the latest generations;
+     * false if the grid has been scrolled to earlier generations.
+     */
+    private boolean                 following       = true;
+    
+    /** 
+     * The number of rows last written to the grid map;
+     * 0 if the grid map does not show rows from the history.
+     */
+    private int                     shownRows       = 0;
     
-    /** Row containing the last generation */
-    private int                     lastRow         = 0;
+    /** The modification count of the grid map when rows were last shown. */
+    private int                     shownModCount   = 0;
     
     /**
      * Entry point.
@@ -47,9 +87,23 @@ public class Wolfram1DAutomaton
     
     /**
      * Constructor. 
-     * Initializes the grid with a single live cell.
+     * Asks the operator for the generation rule,
+     * and initializes the grid with a single live cell.
      */
     public Wolfram1DAutomaton()
+    {
+        this( getRule(), createHistory() );
+    }
+    
+    /**
+     * Constructor. 
+     * Initializes the grid with a single live cell.
+     * 
+     * @param rule      the generation rule
+     * @param history   the history in which to record generations;
+     *                  closed when the JVM exits
+     */
+    Wolfram1DAutomaton( int rule, SpacetimeHistory history )
     {
         // Initialize map; center grid with the occupied cell
         // at the top of the grid.
@@ -60,22 +114,33 @@ public class Wolfram1DAutomaton
         // register the propagation proc
         params.setPropagateProc( o -> generateNext( o ) );
         
-        // Get the base rule
-        rule = getRule();
+        this.rule = rule;
+        kernel = Wolfram1DKernel.ofLightCone( rule );
         
-        // Create the rule map
-        ruleMap = new boolean[8];
-        for ( int inx = 0 ; inx < 8 ; ++inx )
-        {
-            int bit = 1 << inx;
-            ruleMap[inx] = (bit & rule) != 0;
-        }
+        this.history = history;
+        history.append( kernel );
+        Runtime.getRuntime().addShutdownHook( 
+            new Thread( () -> history.close() )
+        );
+        params.addNotificationListener( 
+            GRID_SCROLLED_PN, 
+            e -> scrollTo( (Point)e.getSource() ) 
+        );
         
         params.reset();
     }
     
     /**
      * Calculate the next generation.
+     * Each generation occupies the row beneath its parent.
+     * Generations are recorded in the history;
+     * while the grid follows the latest generation,
+     * the new generation is added to the grid map,
+     * and the row that no longer fits in the grid is removed.
+     * If the height of the grid has changed,
+     * or the grid map has been modified by some other party,
+     * the grid map is instead reloaded with the rows
+     * that fit in the grid, ending with the new generation.
      * 
      * <pre>
      *            -cols       +cols
@@ -88,40 +153,107 @@ public class Wolfram1DAutomaton
      * row 5    x x x x x x x x x x x</pre>
      * 
      * @param   obj control object (not used)
+     * 
+     * @see Wolfram1DKernel
      */
-    private void generateNext( Object obj )
+    private synchronized void generateNext( Object obj )
     {
-        // first cell of first triplet of row 0 is -2...
-        // first cell of first triplet of row 1 is -3...
-        // etc.
-        int         firstTrip   = -lastRow - 2;
-        
-        // first cell of last triplet of row 0 is 0...
-        // first cell of last triplet of row 1 is 1...
-        // etc.
-        int         lastTrip    = lastRow;
-        
-        for ( int xco = firstTrip ; xco <= lastTrip ; ++xco )
-            calculateChild( xco, lastRow );
-        ++lastRow;
+        kernel.nextGeneration();
+        history.append( kernel );
+        if ( following )
+        {
+            long    last    = history.size() - 1;
+            int     rows    = getVisibleRows();
+            if ( rows == shownRows 
+                && gridMap.getModificationCount() == shownModCount )
+            {
+                history.removeFrom( gridMap, last - rows, 1 );
+                history.copyTo( gridMap, last, 1 );
+                shownModCount = gridMap.getModificationCount();
+            }
+            else
+                showRows( last + 1 - rows );
+        }
         
         params.reset();
     }
     
-    private void calculateChild( int xco, int yco )
+    /**
+     * Moves the rows held in the grid map
+     * to those visible from a given grid origin.
+     * If the latest generation is visible from the given origin
+     * the grid resumes following the latest generation,
+     * and centering is turned back on.
+     * If another pattern has replaced this automaton's grid map
+     * nothing is done.
+     * 
+     * @param origin    the given grid origin
+     */
+    private synchronized void scrollTo( Point origin )
     {
-        int triplet = 0;
-        if ( gridMap.get( xco, yco ).isAlive() )
-            triplet = 4; // 1 << 2
-        if ( gridMap.get( xco + 1, yco ).isAlive() )
-            triplet += 2; // 1 << 1
-        if ( gridMap.get( xco + 2, yco ).isAlive() )
-            triplet += 1; // 1 << 0
+        if ( params.getGridMap() != gridMap )
+            return;
         
-        boolean alive   = ruleMap[triplet];
-        // set the center cell of the triplet
-        // on the row beneath "row"
-        gridMap.put( xco + 1, yco + 1, alive );
+        int     rows    = getVisibleRows();
+        following = origin.y + rows >= history.size();
+        showRows( following ? history.size() - rows : origin.y );
+        params.setGridKeepCentered( following );
+        params.reset();
+    }
+    
+    /**
+     * Indicates whether the grid map shows the latest generations.
+     * 
+     * @return  true if the grid map shows the latest generations,
+     *          false if the grid has been scrolled to earlier generations
+     */
+    synchronized boolean isFollowing()
+    {
+        return following;
+    }
+    
+    /**
+     * Replaces the contents of the grid map 
+     * with the rows of the history visible in the grid,
+     * beginning with a given row.
+     * 
+     * @param first the given row
+     */
+    private void showRows( long first )
+    {
+        shownRows = getVisibleRows();
+        gridMap.clear();
+        history.copyTo( gridMap, first, shownRows );
+        shownModCount = gridMap.getModificationCount();
+    }
+    
+    /**
+     * Creates a history to record generations in,
+     * whose window is wider than the grid,
+     * so that the grid can be enlarged somewhat;
+     * see the class documentation.
+     * 
+     * @return  the created history
+     */
+    private static SpacetimeHistory createHistory()
+    {
+        int                 width   = 
+            Math.max( params.getGridWidth() + 2, MIN_WIDTH );
+        SpacetimeHistory    history = 
+            new SpacetimeHistory( -width / 2, width );
+        return history;
+    }
+    
+    /**
+     * Returns the number of rows visible in the grid,
+     * including a partially visible last row.
+     * 
+     * @return  the number of rows visible in the grid
+     */
+    private static int getVisibleRows()
+    {
+        int     rows    = params.getGridHeight() + 1;
+        return rows;
     }
     
     /**
@@ -142,10 +274,14 @@ public class Wolfram1DAutomaton
                 System.exit( 0 );
             try
             {
-                rule = Byte.parseByte( input );
-                done = true;
+                rule = Integer.parseInt( input.trim() );
+                done = rule >= 0 && rule <= 255;
             }
             catch ( NumberFormatException exc )
+            {
+                done = false;
+            }
+            if ( !done )
             {
                 String  msg = "\"" + input + "\" "
                     + "is not valid input.";
@@ -0,0 +1,501 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+
+/**
+ * Bit-parallel implementation of an elementary (Wolfram)
+ * one-dimensional automaton.
+ * The current row is held as a bitset in an array of longs,
+ * and the next row is calculated 64 cells at a time:
+ * for each word, the words of left neighbors,
+ * centers and right neighbors are formed by shifting
+ * the current word and borrowing bits from its neighbors,
+ * and the bits of the rule are applied
+ * with bitwise logical operations.
+ * <p>
+ * Two modes are supported:
+ * <ul>
+ * <li>
+ *      <em>Light cone</em> ({@link #ofLightCone(int)}):
+ *      the row is infinite.
+ *      Every cell outside the stored window has
+ *      the same, <em>background</em> state,
+ *      and the window grows by one cell at each end
+ *      every generation,
+ *      so that it always contains every cell
+ *      that can differ from the background.
+ *      The background starts dead, but alternates under rules
+ *      in which three dead cells produce a live one.
+ * </li>
+ * <li>
+ *      <em>Wraparound</em> ({@link #ofWraparound(int, int)}):
+ *      the row has a fixed width,
+ *      and the leftmost and rightmost cells are neighbors.
+ * </li>
+ * </ul>
+ * The kernel does not write to a GridMap while calculating;
+ * a window of the current row can be written to a GridMap
+ * for display with {@link #copyTo(GridMap, int, int, int)}.
+ *
+ * @author Jack Straub
+ *
+ * @see Wolfram1DAutomaton
+ */
+public class Wolfram1DKernel
+{
+    /** True if this kernel operates in wraparound mode. */
+    private final boolean   wrap;
+    /** The rule, 0 through 255. */
+    private final int       rule;
+    /**
+     * For each neighborhood, in which the left, center and right
+     * cells are bits 2, 1 and 0, respectively,
+     * all ones if the rule maps the neighborhood to a live cell,
+     * 0 otherwise.
+     */
+    private final long[]    outcomes    = new long[8];
+
+    /** The current row; bit n of word n / 64 is cell n. */
+    private long[]  cells;
+    /** Scratch row, in which the next generation is built. */
+    private long[]  next;
+    /** The number of cells in the current row. */
+    private int     length;
+    /** The column of cell 0 of the current row. */
+    private int     leftColumn;
+    /** The state of every cell outside the row; light cone only. */
+    private boolean background  = false;
+    /** The number of generations calculated. */
+    private long    generation  = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param rule      the rule, 0 through 255
+     * @param wrap      true for wraparound mode
+     * @param length    the initial length of the row
+     *
+     * @throws IllegalArgumentException
+     *         if the rule is not in the range 0 through 255,
+     *         or the length is less than 1
+     */
+    private Wolfram1DKernel( int rule, boolean wrap, int length )
+    {
+        if ( rule < 0 || rule > 255 )
+            throw new IllegalArgumentException( "Invalid rule: " + rule );
+        if ( length < 1 )
+            throw new IllegalArgumentException( "Invalid width: " + length );
+        this.rule = rule;
+        this.wrap = wrap;
+        this.length = length;
+        for ( int hood = 0 ; hood < 8 ; ++hood )
+            outcomes[hood] = ((rule >> hood) & 1) == 0 ? 0 : -1L;
+        cells = new long[words( length )];
+        next = new long[cells.length];
+    }
+
+    /**
+     * Creates a kernel in light-cone mode
+     * whose row consists of a single live cell
+     * in column 0.
+     *
+     * @param rule  the rule, 0 through 255
+     *
+     * @return  the new kernel
+     *
+     * @throws IllegalArgumentException
+     *         if the rule is not in the range 0 through 255
+     */
+    public static Wolfram1DKernel ofLightCone( int rule )
+    {
+        Wolfram1DKernel kernel  = new Wolfram1DKernel( rule, false, 1 );
+        kernel.leftColumn = 0;
+        kernel.cells[0] = 1;
+        return kernel;
+    }
+
+    /**
+     * Creates a kernel in wraparound mode
+     * whose row consists of a given number of cells,
+     * in columns 0 through width - 1,
+     * all of which are dead except the one in column width / 2.
+     *
+     * @param rule  the rule, 0 through 255
+     * @param width the given number of cells
+     *
+     * @return  the new kernel
+     *
+     * @throws IllegalArgumentException
+     *         if the rule is not in the range 0 through 255,
+     *         or the width is less than 1
+     */
+    public static Wolfram1DKernel ofWraparound( int rule, int width )
+    {
+        Wolfram1DKernel kernel  = new Wolfram1DKernel( rule, true, width );
+        kernel.leftColumn = 0;
+        kernel.set( width / 2, true );
+        return kernel;
+    }
+
+    /**
+     * Gets the rule.
+     *
+     * @return  the rule
+     */
+    public int getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Indicates whether this kernel operates in wraparound mode.
+     *
+     * @return  true if this kernel operates in wraparound mode
+     */
+    public boolean isWraparound()
+    {
+        return wrap;
+    }
+
+    /**
+     * Gets the number of generations calculated.
+     *
+     * @return  the number of generations calculated
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Gets the column of the leftmost cell in the stored row.
+     *
+     * @return  the column of the leftmost cell in the stored row
+     */
+    public int getLeftColumn()
+    {
+        return leftColumn;
+    }
+
+    /**
+     * Gets the number of cells in the stored row.
+     *
+     * @return  the number of cells in the stored row
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Gets the state of the cell in a given column
+     * of the current row.
+     * In light-cone mode, cells outside the stored row
+     * have the background state;
+     * in wraparound mode the column is taken modulo the width.
+     *
+     * @param col   the given column
+     *
+     * @return  true if the cell in the given column is alive
+     */
+    public boolean get( int col )
+    {
+        int     inx     = col - leftColumn;
+        if ( wrap )
+            inx = Math.floorMod( inx, length );
+        boolean alive   = inx < 0 || inx >= length
+            ? background
+            : (cells[inx >> 6] & (1L << inx)) != 0;
+        return alive;
+    }
+
+    /**
+     * Sets the state of the cell in a given column
+     * of the current row.
+     * In light-cone mode the column must lie within
+     * the stored row;
+     * in wraparound mode it is taken modulo the width.
+     *
+     * @param col   the given column
+     * @param alive true to make the cell alive
+     *
+     * @throws IllegalArgumentException
+     *         if, in light-cone mode, the column lies
+     *         outside the stored row
+     */
+    public void set( int col, boolean alive )
+    {
+        int     inx     = col - leftColumn;
+        if ( wrap )
+            inx = Math.floorMod( inx, length );
+        if ( inx < 0 || inx >= length )
+            throw new IllegalArgumentException( "Column out of range: " + col );
+        if ( alive )
+            cells[inx >> 6] |= 1L << inx;
+        else
+            cells[inx >> 6] &= ~(1L << inx);
+    }
+
+    /**
+     * Copies the words of the current row to a given array.
+     * Bit n of word n / 64 is the cell in column
+     * {@link #getLeftColumn()} + n.
+     * The array must hold at least (length + 63) / 64 words.
+     *
+     * @param dest  the given array
+     */
+    public void getRow( long[] dest )
+    {
+        System.arraycopy( cells, 0, dest, 0, words( length ) );
+    }
+
+    /**
+     * Replaces the current row with the words of a given array.
+     * Bit n of word n / 64 is the cell in column
+     * {@link #getLeftColumn()} + n;
+     * bits beyond the length of the row are ignored.
+     * The array must hold at least (length + 63) / 64 words.
+     *
+     * @param src   the given array
+     */
+    public void setRow( long[] src )
+    {
+        int words   = words( length );
+        System.arraycopy( src, 0, cells, 0, words );
+        clearTail( cells, length, words, background );
+    }
+
+    /**
+     * Copies a window of the current row,
+     * beginning at a given column, to a given array.
+     * Bit n of word n / 64 of the array receives
+     * the state of the cell in column minCol + n;
+     * cells outside the stored row are read
+     * as described in {@link #get(int)}.
+     *
+     * @param minCol    the given column
+     * @param dest      the given array
+     * @param words     the number of words to copy
+     */
+    public void getWindow( int minCol, long[] dest, int words )
+    {
+        int     start   = minCol - leftColumn;
+        if ( wrap || start + 64L * words > Integer.MAX_VALUE )
+        {
+            for ( int inx = 0 ; inx < words ; ++inx )
+            {
+                long    word    = 0;
+                for ( int bit = 0 ; bit < 64 ; ++bit )
+                    if ( get( minCol + inx * 64 + bit ) )
+                        word |= 1L << bit;
+                dest[inx] = word;
+            }
+        }
+        else
+        {
+            long    fill    = background ? -1L : 0;
+            int     quot    = Math.floorDiv( start, 64 );
+            int     rem     = Math.floorMod( start, 64 );
+            for ( int inx = 0 ; inx < words ; ++inx )
+            {
+                long    low     = getWord( quot + inx, fill ) >>> rem;
+                long    high    = rem == 0 
+                    ? 0 : getWord( quot + inx + 1, fill ) << (64 - rem);
+                dest[inx] = low | high;
+            }
+        }
+    }
+
+    /**
+     * Calculates the next generation.
+     */
+    public void nextGeneration()
+    {
+        if ( wrap )
+            nextWraparound();
+        else
+            nextLightCone();
+        ++generation;
+    }
+
+    /**
+     * Writes the live cells of a window of the current row
+     * to a given row of a GridMap.
+     * Dead cells are not written,
+     * so the GridMap row is expected to be empty.
+     *
+     * @param gridMap   the given GridMap
+     * @param row       the given row
+     * @param minCol    the leftmost column of the window
+     * @param maxCol    the rightmost column of the window
+     */
+    public void copyTo( GridMap gridMap, int row, int minCol, int maxCol )
+    {
+        for ( int col = minCol ; col <= maxCol ; ++col )
+            if ( get( col ) )
+                gridMap.putState( col, row, 1 );
+    }
+
+    /**
+     * Calculates the next generation in light-cone mode.
+     * Cell n of the next row is centered on cell n - 1
+     * of the current row, so that the next row begins
+     * one column to the left of the current row.
+     */
+    private void nextLightCone()
+    {
+        int     newLength   = length + 2;
+        int     newWords    = words( newLength );
+        if ( next.length < newWords )
+            next = new long[Math.max( newWords, 2 * next.length )];
+        long    fill        = background ? -1L : 0;
+        for ( int inx = 0 ; inx < newWords ; ++inx )
+        {
+            long    word    = getWord( inx, fill );
+            long    prev    = getWord( inx - 1, fill );
+            long    left    = (word << 2) | (prev >>> 62);
+            long    center  = (word << 1) | (prev >>> 63);
+            next[inx] = apply( left, center, word );
+        }
+
+        background = outcomes[background ? 7 : 0] != 0;
+        clearTail( next, newLength, newWords, background );
+        long[]  temp    = cells;
+        cells = next;
+        next = temp;
+        length = newLength;
+        --leftColumn;
+    }
+
+    /**
+     * Calculates the next generation in wraparound mode.
+     */
+    private void nextWraparound()
+    {
+        int     words   = words( length );
+        boolean first   = nextCell( get( leftColumn + length - 1 ), 0 );
+        boolean last    = nextCell( get( leftColumn + length - 2 ), length - 1 );
+        for ( int inx = 0 ; inx < words ; ++inx )
+        {
+            long    word    = cells[inx];
+            long    prev    = inx == 0 ? 0 : cells[inx - 1];
+            long    post    = inx == words - 1 ? 0 : cells[inx + 1];
+            long    left    = (word << 1) | (prev >>> 63);
+            long    right   = (word >>> 1) | (post << 63);
+            next[inx] = apply( left, word, right );
+        }
+        clearTail( next, length, words, false );
+
+        long[]  temp    = cells;
+        cells = next;
+        next = temp;
+        set( leftColumn, first );
+        set( leftColumn + length - 1, last );
+    }
+
+    /**
+     * Calculates the next state of the cell at a given index
+     * of the current row, given the state of its left neighbor;
+     * the state of its right neighbor is obtained
+     * with wraparound.
+     * Used for the end cells in wraparound mode.
+     *
+     * @param leftAlive the state of the left neighbor
+     * @param inx       the given index
+     *
+     * @return  the next state of the cell
+     */
+    private boolean nextCell( boolean leftAlive, int inx )
+    {
+        int     hood    =
+            (leftAlive ? 4 : 0)
+            + (get( leftColumn + inx ) ? 2 : 0)
+            + (get( leftColumn + inx + 1 ) ? 1 : 0);
+        boolean alive   = outcomes[hood] != 0;
+        return alive;
+    }
+
+    /**
+     * Applies the rule to 64 cells in parallel.
+     *
+     * @param left      the left neighbors of the cells
+     * @param center    the cells
+     * @param right     the right neighbors of the cells
+     *
+     * @return  the next states of the cells
+     */
+    private long apply( long left, long center, long right )
+    {
+        long    nLeft   = ~left;
+        long    nCenter = ~center;
+        long    nRight  = ~right;
+        long    result  =
+            (outcomes[0] & nLeft & nCenter & nRight)
+            | (outcomes[1] & nLeft & nCenter & right)
+            | (outcomes[2] & nLeft & center & nRight)
+            | (outcomes[3] & nLeft & center & right)
+            | (outcomes[4] & left & nCenter & nRight)
+            | (outcomes[5] & left & nCenter & right)
+            | (outcomes[6] & left & center & nRight)
+            | (outcomes[7] & left & center & right);
+        return result;
+    }
+
+    /**
+     * Returns a word of the current row;
+     * words outside the row are filled with a given value.
+     *
+     * @param inx   the index of the word
+     * @param fill  the given value
+     *
+     * @return  the word of the current row
+     */
+    private long getWord( int inx, long fill )
+    {
+        long    word    = inx < 0 || inx >= cells.length ? fill : cells[inx];
+        return word;
+    }
+
+    /**
+     * Sets the bits of a row beyond its length,
+     * and the words beyond its last word, to a given state,
+     * so that cells outside a row can be read
+     * as ordinary bits.
+     *
+     * @param row       the row
+     * @param length    the number of cells in the row
+     * @param words     the number of words in the row
+     * @param state     the given state
+     */
+    private static void clearTail(
+        long[] row,
+        int length,
+        int words,
+        boolean state
+    )
+    {
+        long    fill    = state ? -1L : 0;
+        int     used    = length & 63;
+        if ( used != 0 )
+        {
+            long    mask    = (1L << used) - 1;
+            row[words - 1] = (row[words - 1] & mask) | (fill & ~mask);
+        }
+        for ( int inx = words ; inx < row.length ; ++inx )
+            row[inx] = fill;
+    }
+
+    /**
+     * Returns the number of words needed to hold a given number
+     * of cells.
+     *
+     * @param length    the given number of cells
+     *
+     * @return  the number of words needed
+     */
+    private static int words( int length )
+    {
+        int words   = (length + 63) >> 6;
+        return words;
+    }
+}
@@ -0,0 +1,634 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+/**
+ * Headless batch classification of elementary (Wolfram) rules.
+ * Each selected rule is run from each of a set of seed rows
+ * for a given number of generations,
+ * using a {@link Wolfram1DKernel} in wraparound mode,
+ * and the following statistics are collected for each rule:
+ * <ul>
+ * <li>
+ *      <em>density:</em> the mean fraction of live cells
+ *      over all generations after the seed;
+ * </li>
+ * <li>
+ *      <em>cycles:</em> the number of runs in which
+ *      a row repeated an earlier row,
+ *      and, for those runs, the mean and maximum <em>period</em>
+ *      (generations between repetitions)
+ *      and the mean <em>transient</em>
+ *      (generations before the first repeated row); and
+ * </li>
+ * <li>
+ *      <em>compression:</em> the mean ratio of the compressed
+ *      to the uncompressed size of the spacetime diagram,
+ *      a rough proxy for the complexity of the rule;
+ *      simple rules compress well (small ratios),
+ *      chaotic rules poorly.
+ * </li>
+ * </ul>
+ * Runs are distributed among the threads of a ForkJoinPool.
+ * Each task processes a range of seeds for one rule,
+ * reusing its kernel, row history and compressor
+ * from run to run;
+ * repeated rows are detected with an open-addressing
+ * hash table of the row history.
+ * <p>
+ * Usage:
+ * <pre>
+ * Wolfram1DSurvey [-rules list] [-seeds n] [-random seed]
+ *                 [-width n] [-gens n] [-threads n] [-single]
+ * </pre>
+ * where <em>list</em> is a comma-separated list of rules
+ * and ranges of rules, such as 30,90,100-110
+ * (default 0-255);
+ * <em>-seeds</em> gives the number of random seed rows (default 1000);
+ * <em>-random</em> seeds the generator of the seed rows (default 1);
+ * <em>-width</em> gives the width of a row (default 64);
+ * <em>-gens</em> gives the number of generations per run
+ * (default 128);
+ * <em>-threads</em> gives the number of threads
+ * (default: the number of available processors); and
+ * <em>-single</em> adds a seed row with a single live cell.
+ *
+ * @author Jack Straub
+ *
+ * @see Wolfram1DAutomaton
+ */
+public class Wolfram1DSurvey
+{
+    /** The target number of runs per task. */
+    private static final int    RUNS_PER_TASK   = 256;
+
+    /** The width of a row. */
+    private final int   width;
+    /** The number of generations per run. */
+    private final int   generations;
+    /** The number of threads. */
+    private final int   threads;
+
+    /**
+     * Constructor.
+     *
+     * @param width         the width of a row
+     * @param generations   the number of generations per run
+     * @param threads       the number of threads
+     *
+     * @throws IllegalArgumentException
+     *         if any argument is less than 1
+     */
+    public Wolfram1DSurvey( int width, int generations, int threads )
+    {
+        if ( width < 1 || generations < 1 || threads < 1 )
+        {
+            String  msg =
+                "Invalid survey parameters: width=" + width
+                + ", generations=" + generations
+                + ", threads=" + threads;
+            throw new IllegalArgumentException( msg );
+        }
+        this.width = width;
+        this.generations = generations;
+        this.threads = threads;
+    }
+
+    /**
+     * Entry point.
+     *
+     * @param args  command line arguments; see class documentation
+     */
+    public static void main( String[] args )
+    {
+        int[]   rules       = parseRules( "0-255" );
+        int     seedCount   = 1000;
+        long    random      = 1;
+        int     width       = 64;
+        int     gens        = 128;
+        int     threads     = Runtime.getRuntime().availableProcessors();
+        boolean single      = false;
+        for ( int inx = 0 ; inx < args.length ; ++inx )
+        {
+            String  arg     = args[inx];
+            if ( arg.equals( "-single" ) )
+                single = true;
+            else if ( inx + 1 == args.length )
+                usage( arg );
+            else
+            {
+                String  value   = args[++inx];
+                switch ( arg )
+                {
+                case "-rules":
+                    rules = parseRules( value );
+                    break;
+                case "-seeds":
+                    seedCount = Integer.parseInt( value );
+                    break;
+                case "-random":
+                    random = Long.parseLong( value );
+                    break;
+                case "-width":
+                    width = Integer.parseInt( value );
+                    break;
+                case "-gens":
+                    gens = Integer.parseInt( value );
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt( value );
+                    break;
+                default:
+                    usage( arg );
+                    break;
+                }
+            }
+        }
+
+        List<long[]>    seeds   = randomSeeds( random, seedCount, width );
+        if ( single )
+        {
+            long[]  seed    = new long[(width + 63) / 64];
+            seed[width / 2 / 64] = 1L << (width / 2 % 64);
+            seeds.add( 0, seed );
+        }
+
+        Wolfram1DSurvey         survey  =
+            new Wolfram1DSurvey( width, gens, threads );
+        long                    start   = System.currentTimeMillis();
+        List<RuleStatistics>    stats   = survey.survey( rules, seeds );
+        long                    elapsed = System.currentTimeMillis() - start;
+
+        System.out.println( RuleStatistics.HEADER );
+        stats.forEach( System.out::println );
+        System.out.printf(
+            "%d rules x %d seeds x %d generations, width %d: %d ms%n",
+            rules.length, seeds.size(), gens, width, elapsed
+        );
+    }
+
+    /**
+     * Runs each of the given rules from each of the given seed rows,
+     * and returns the statistics for each rule.
+     * Bit n of word n / 64 of a seed row is the cell in column n.
+     *
+     * @param rules the given rules
+     * @param seeds the given seed rows
+     *
+     * @return  the statistics for each rule, in the order given
+     */
+    public List<RuleStatistics> survey( int[] rules, List<long[]> seeds )
+    {
+        for ( int rule : rules )
+            if ( rule < 0 || rule > 255 )
+                throw new IllegalArgumentException( "Invalid rule: " + rule );
+
+        int                     chunks  =
+            Math.max( 1, (seeds.size() + RUNS_PER_TASK - 1) / RUNS_PER_TASK );
+        List<SurveyTask>        tasks   = new ArrayList<>();
+        for ( int rule : rules )
+            for ( int chunk = 0 ; chunk < chunks ; ++chunk )
+            {
+                int first   = (int)((long)seeds.size() * chunk / chunks);
+                int last    = (int)((long)seeds.size() * (chunk + 1) / chunks);
+                tasks.add( new SurveyTask( rule, seeds.subList( first, last ) ) );
+            }
+
+        ForkJoinPool            pool    = new ForkJoinPool( threads );
+        List<RuleStatistics>    result  = new ArrayList<>();
+        try
+        {
+            List<Future<RuleStatistics>>    futures = pool.invokeAll( tasks );
+            RuleStatistics                  stats   = null;
+            for ( Future<RuleStatistics> future : futures )
+            {
+                RuleStatistics  partial = future.get();
+                if ( stats != null && stats.rule == partial.rule )
+                    stats.merge( partial );
+                else
+                {
+                    stats = partial;
+                    result.add( stats );
+                }
+            }
+        }
+        catch ( Exception exc )
+        {
+            throw new IllegalStateException( "Survey failed", exc );
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Generates a given number of random seed rows.
+     *
+     * @param random    seed for the random number generator
+     * @param count     the given number of rows
+     * @param width     the width of a row
+     *
+     * @return  the random seed rows
+     */
+    public static List<long[]> randomSeeds( long random, int count, int width )
+    {
+        SplittableRandom    randy   = new SplittableRandom( random );
+        List<long[]>        seeds   = new ArrayList<>( count + 1 );
+        int                 words   = (width + 63) / 64;
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            long[]  seed    = new long[words];
+            for ( int word = 0 ; word < words ; ++word )
+                seed[word] = randy.nextLong();
+            seeds.add( seed );
+        }
+        return seeds;
+    }
+
+    /**
+     * Parses a comma-separated list of rules and ranges of rules,
+     * such as 30,90,100-110.
+     *
+     * @param list  the list to parse
+     *
+     * @return  the rules in the list
+     *
+     * @throws NumberFormatException if the list is invalid
+     */
+    public static int[] parseRules( String list )
+    {
+        List<Integer>   rules   = new ArrayList<>();
+        for ( String item : list.split( "," ) )
+        {
+            String[]    bounds  = item.trim().split( "-" );
+            int         first   = Integer.parseInt( bounds[0].trim() );
+            int         last    =
+                bounds.length > 1 ? Integer.parseInt( bounds[1].trim() ) : first;
+            for ( int rule = first ; rule <= last ; ++rule )
+                rules.add( rule );
+        }
+        int[]   result  = rules.stream().mapToInt( i -> i ).toArray();
+        return result;
+    }
+
+    /**
+     * Prints a usage message, and exits.
+     *
+     * @param arg   the invalid argument
+     */
+    private static void usage( String arg )
+    {
+        System.err.println( "Invalid argument: " + arg );
+        System.err.println(
+            "usage: Wolfram1DSurvey [-rules list] [-seeds n] [-random seed]"
+            + " [-width n] [-gens n] [-threads n] [-single]"
+        );
+        System.exit( 1 );
+    }
+
+    /**
+     * Statistics for one rule, accumulated over some number of runs.
+     */
+    public static class RuleStatistics
+    {
+        /** Column headings for {@link #toString()}. */
+        public static final String  HEADER  =
+            "rule  runs  density  cycles  period  maxPeriod  transient  compression";
+
+        /** The rule. */
+        private final int   rule;
+        /** The number of runs. */
+        private int         runs            = 0;
+        /** The sum of the mean density of each run. */
+        private double      densitySum      = 0;
+        /** The number of runs in which a cycle was detected. */
+        private int         cycles          = 0;
+        /** The sum of the periods of the detected cycles. */
+        private long        periodSum       = 0;
+        /** The longest detected period. */
+        private int         maxPeriod       = 0;
+        /** The sum of the transients of the detected cycles. */
+        private long        transientSum    = 0;
+        /** The sum of the compression ratio of each run. */
+        private double      compressionSum  = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param rule  the rule
+         */
+        private RuleStatistics( int rule )
+        {
+            this.rule = rule;
+        }
+
+        /**
+         * Adds the statistics of another accumulation
+         * for the same rule to this one.
+         *
+         * @param that  the other accumulation
+         */
+        private void merge( RuleStatistics that )
+        {
+            runs += that.runs;
+            densitySum += that.densitySum;
+            cycles += that.cycles;
+            periodSum += that.periodSum;
+            maxPeriod = Math.max( maxPeriod, that.maxPeriod );
+            transientSum += that.transientSum;
+            compressionSum += that.compressionSum;
+        }
+
+        /**
+         * Gets the rule.
+         *
+         * @return  the rule
+         */
+        public int getRule()
+        {
+            return rule;
+        }
+
+        /**
+         * Gets the number of runs.
+         *
+         * @return  the number of runs
+         */
+        public int getRuns()
+        {
+            return runs;
+        }
+
+        /**
+         * Gets the mean fraction of live cells,
+         * over all runs and all generations after the seed.
+         *
+         * @return  the mean fraction of live cells
+         */
+        public double getDensity()
+        {
+            double  density = runs == 0 ? 0 : densitySum / runs;
+            return density;
+        }
+
+        /**
+         * Gets the number of runs in which a cycle was detected.
+         *
+         * @return  the number of runs in which a cycle was detected
+         */
+        public int getCycles()
+        {
+            return cycles;
+        }
+
+        /**
+         * Gets the mean period of the detected cycles.
+         *
+         * @return  the mean period of the detected cycles,
+         *          or 0 if none
+         */
+        public double getMeanPeriod()
+        {
+            double  period  = cycles == 0 ? 0 : (double)periodSum / cycles;
+            return period;
+        }
+
+        /**
+         * Gets the longest period of the detected cycles.
+         *
+         * @return  the longest period of the detected cycles,
+         *          or 0 if none
+         */
+        public int getMaxPeriod()
+        {
+            return maxPeriod;
+        }
+
+        /**
+         * Gets the mean number of generations before the first
+         * repeated row, in runs in which a cycle was detected.
+         *
+         * @return  the mean transient of the detected cycles,
+         *          or 0 if none
+         */
+        public double getMeanTransient()
+        {
+            double  trans   = cycles == 0 ? 0 : (double)transientSum / cycles;
+            return trans;
+        }
+
+        /**
+         * Gets the mean ratio of the compressed to the uncompressed
+         * size of the spacetime diagram.
+         *
+         * @return  the mean compression ratio
+         */
+        public double getCompression()
+        {
+            double  ratio   = runs == 0 ? 0 : compressionSum / runs;
+            return ratio;
+        }
+
+        @Override
+        public String toString()
+        {
+            String  str = String.format(
+                "%4d  %4d  %7.4f  %6d  %6.1f  %9d  %9.1f  %11.4f",
+                rule, runs, getDensity(), cycles, getMeanPeriod(),
+                maxPeriod, getMeanTransient(), getCompression()
+            );
+            return str;
+        }
+    }
+
+    /**
+     * Runs one rule from each of a range of seed rows.
+     */
+    private class SurveyTask implements Callable<RuleStatistics>
+    {
+        /** The rule. */
+        private final int           rule;
+        /** The seed rows. */
+        private final List<long[]>  seeds;
+        /** The number of words in a row. */
+        private final int           words;
+        /** The number of bytes in a row of the spacetime diagram. */
+        private final int           rowBytes;
+        /** The rows of the current run; history[gen * words + word]. */
+        private final long[]        history;
+        /**
+         * Hash table of the rows of the current run;
+         * each entry is a generation + 1, or 0 if empty.
+         */
+        private final int[]         table;
+        /** The spacetime diagram of the current run, as bytes. */
+        private final byte[]        diagram;
+        /** Output buffer for the compressor. */
+        private final byte[]        compressed;
+
+        /**
+         * Constructor.
+         *
+         * @param rule  the rule
+         * @param seeds the seed rows
+         */
+        public SurveyTask( int rule, List<long[]> seeds )
+        {
+            this.rule = rule;
+            this.seeds = seeds;
+            words = (width + 63) / 64;
+            rowBytes = (width + 7) / 8;
+            history = new long[(generations + 1) * words];
+            table = new int[Integer.highestOneBit( 2 * generations + 1 ) * 2];
+            diagram = new byte[(generations + 1) * rowBytes];
+            compressed = new byte[diagram.length + diagram.length / 2 + 64];
+        }
+
+        @Override
+        public RuleStatistics call()
+        {
+            RuleStatistics  stats       = new RuleStatistics( rule );
+            Wolfram1DKernel kernel      =
+                Wolfram1DKernel.ofWraparound( rule, width );
+            long[]          row         = new long[words];
+            Deflater        deflater    = new Deflater( Deflater.BEST_SPEED );
+            try
+            {
+                for ( long[] seed : seeds )
+                    run( kernel, seed, row, deflater, stats );
+            }
+            finally
+            {
+                deflater.end();
+            }
+            return stats;
+        }
+
+        /**
+         * Runs the rule from a given seed row,
+         * and adds the results to given statistics.
+         *
+         * @param kernel    the kernel to use
+         * @param seed      the given seed row
+         * @param row       scratch row
+         * @param deflater  the compressor to use
+         * @param stats     the given statistics
+         */
+        private void run(
+            Wolfram1DKernel kernel,
+            long[] seed,
+            long[] row,
+            Deflater deflater,
+            RuleStatistics stats
+        )
+        {
+            Arrays.fill( table, 0 );
+            kernel.setRow( seed );
+            kernel.getRow( row );
+            record( row, 0 );
+            int     repeat  = insert( 0 );
+            long    live    = 0;
+            for ( int gen = 1 ; gen <= generations ; ++gen )
+            {
+                kernel.nextGeneration();
+                kernel.getRow( row );
+                record( row, gen );
+                for ( long word : row )
+                    live += Long.bitCount( word );
+                if ( repeat < 0 )
+                {
+                    int first   = insert( gen );
+                    if ( first >= 0 )
+                    {
+                        repeat = gen;
+                        ++stats.cycles;
+                        stats.periodSum += gen - first;
+                        stats.maxPeriod = Math.max( stats.maxPeriod, gen - first );
+                        stats.transientSum += first;
+                    }
+                }
+            }
+
+            ++stats.runs;
+            stats.densitySum += (double)live / ((long)generations * width);
+            deflater.reset();
+            deflater.setInput( diagram );
+            deflater.finish();
+            int     size    = 0;
+            while ( !deflater.finished() )
+                size += deflater.deflate( compressed );
+            stats.compressionSum += (double)size / diagram.length;
+        }
+
+        /**
+         * Records a row in the history and the spacetime diagram.
+         *
+         * @param row   the row
+         * @param gen   the generation of the row
+         */
+        private void record( long[] row, int gen )
+        {
+            System.arraycopy( row, 0, history, gen * words, words );
+            int base    = gen * rowBytes;
+            for ( int inx = 0 ; inx < rowBytes ; ++inx )
+                diagram[base + inx] = (byte)(row[inx >> 3] >>> ((inx & 7) * 8));
+        }
+
+        /**
+         * Adds the row of a given generation to the hash table,
+         * unless an identical row is already present.
+         *
+         * @param gen   the given generation
+         *
+         * @return  the generation of the identical row, if any;
+         *          otherwise -1
+         */
+        private int insert( int gen )
+        {
+            long    hash    = 0;
+            int     base    = gen * words;
+            for ( int inx = 0 ; inx < words ; ++inx )
+                hash = (hash + history[base + inx]) * 0x9E3779B97F4A7C15L;
+            int     mask    = table.length - 1;
+            int     slot    = (int)(hash >>> 40) & mask;
+            int     result  = -1;
+            while ( result < 0 && table[slot] != 0 )
+            {
+                int     other   = table[slot] - 1;
+                if ( sameRow( other, gen ) )
+                    result = other;
+                slot = (slot + 1) & mask;
+            }
+            if ( result < 0 )
+                table[slot] = gen + 1;
+            return result;
+        }
+
+        /**
+         * Indicates whether the rows of two generations are identical.
+         *
+         * @param gen1  the first generation
+         * @param gen2  the second generation
+         *
+         * @return  true if the rows are identical
+         */
+        private boolean sameRow( int gen1, int gen2 )
+        {
+            boolean same    = true;
+            int     base1   = gen1 * words;
+            int     base2   = gen2 * words;
+            for ( int inx = 0 ; same && inx < words ; ++inx )
+                same = history[base1 + inx] == history[base2 + inx];
+            return same;
+        }
+    }
+}
@@ -5,13 +5,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import com.gmail.johnstraub1954.cell_automata.main.CAException;
+
 /**
  * Calculate the neighborhood for a given offset position.
- * Currently only simple neighborhoods, 
- * including the tiles six closest neighbors,
- * are supported.
- * In the future we should consider 
- * including so-called "extended" neighborhoods.
+ * By default the neighborhood consists of the tile's
+ * six closest neighbors.
+ * So-called "extended" neighborhoods,
+ * of radius 2 (18 neighbors) or 3 (36 neighbors),
+ * are also supported;
+ * they are obtained from a {@link HexRingTable}
+ * without calculating axial coordinates.
  * See 
  * <a href="https://conwaylife.com/wiki/Hexagonal_neighbourhood">
  *      LifeWiki/Hexagonal Neighbourhood."
@@ -26,7 +30,7 @@ public class HexNeighborhood implements Neighborhood, Serializable
     /**
      * Vectors to nearest neighbors in axial coordinates.
      */
-    private static final Hex[]  vectors =
+    static final Hex[]  vectors =
     {
         new Hex( 1, 0 ),
         new Hex( 1, -1 ),
@@ -39,6 +43,8 @@ public class HexNeighborhood implements Neighborhood, Serializable
     private final Offset    	self;
     /** The hex layout to use for calculating offsets. */
     private final HexLayout     layout;
+    /** The radius of this neighborhood. */
+    private final int           radius;
     /** List of neighbors in offset coordinates. */
     private final List<Offset>	neighbors   = new ArrayList<>();
     
@@ -57,6 +63,7 @@ public class HexNeighborhood implements Neighborhood, Serializable
     {
         this.self = self;
         this.layout = layout;
+        this.radius = 1;
         Hex	hexSelf	= layout.toHex( self );
         for ( Hex vector : vectors )
         {
@@ -65,6 +72,43 @@ public class HexNeighborhood implements Neighborhood, Serializable
         }
     }
     
+    /**
+     * Constructor. 
+     * Create a neighborhood object of a given radius
+     * using a given base cell,
+     * and the format to use to convert between axial and offset
+     * coordinates.
+     * The neighbors are listed ring by ring,
+     * as described in {@link HexRingTable}.
+     * 
+     * @param self      the base cell, about which
+     *                  the neighborhood is to be constructed
+     * @param layout    the format to use to convert between 
+     *                  axial and offset coordinates
+     * @param radius    the given radius
+     * 
+     * @throws CAException
+     *         if the radius is less than 1
+     *         or greater than {@link HexRingTable#MAX_RADIUS}
+     */
+    public HexNeighborhood( Offset self, HexLayout layout, int radius )
+    {
+        HexRingTable.validateRadius( radius );
+        this.self = self;
+        this.layout = layout;
+        this.radius = radius;
+        HexRingTable    table       = HexRingTable.of( layout );
+        int[]           deltaCols   = table.getDeltaCols( self.col, self.row );
+        int[]           deltaRows   = table.getDeltaRows( self.col, self.row );
+        int             size        = HexRingTable.size( radius );
+        for ( int inx = 0 ; inx < size ; ++inx )
+        {
+            int col = self.col + deltaCols[inx];
+            int row = self.row + deltaRows[inx];
+            neighbors.add( new Offset( col, row ) );
+        }
+    }
+    
     /**
      * Gets the source cell for calculating the neighborhood.
      * 
@@ -85,6 +129,34 @@ public class HexNeighborhood implements Neighborhood, Serializable
         return layout;
     }
     
+    /**
+     * Gets the radius of this neighborhood.
+     * 
+     * @return  the radius of this neighborhood
+     */
+    public int getRadius()
+    {
+        return radius;
+    }
+    
+    /**
+     * Gets the ring to which the neighbor
+     * at a given position in the list of neighbors belongs;
+     * that is, its distance from the source cell.
+     * Useful for weighting the neighbors of
+     * an extended neighborhood by ring.
+     * 
+     * @param inx   the given position
+     * 
+     * @return  the ring to which the neighbor
+     *          at the given position belongs
+     */
+    public int getRing( int inx )
+    {
+        int ring    = HexRingTable.of( layout ).getRing( inx );
+        return ring;
+    }
+    
     /**
      * Gets the list of neighbors of the source cell.
      */
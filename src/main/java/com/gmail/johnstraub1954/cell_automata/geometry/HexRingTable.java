@@ -0,0 +1,225 @@
+package com.gmail.johnstraub1954.cell_automata.geometry;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.gmail.johnstraub1954.cell_automata.main.CAException;
+
+/**
+ * Precomputed displacements, in offset coordinates,
+ * from a hexagon to every hexagon within a given
+ * distance of it, for a single {@link HexLayout}.
+ * <p>
+ * The hexagons at distance <em>k</em> from a given hexagon
+ * form <em>ring k</em>, which contains 6k hexagons;
+ * the extended neighborhood of radius <em>r</em>
+ * consists of rings 1 through <em>r</em>,
+ * and contains 3r(r + 1) hexagons
+ * (6, 18 and 36 for radii 1, 2 and 3).
+ * In offset coordinates the displacement to a neighbor
+ * depends on the parity of the base hexagon's column and row,
+ * so a table is kept for each combination of parities.
+ * The tables for every layout are calculated once,
+ * using axial coordinates, when this class is initialized;
+ * thereafter lookups allocate nothing.
+ * <p>
+ * In each table the neighbors are listed ring by ring,
+ * so that the first {@link #size(int) size(r)} entries
+ * comprise the neighborhood of radius <em>r</em>.
+ * See
+ * <a href="https://www.redblobgames.com/grids/hexagons/#rings">
+ *      Hexagonal Grids: Rings.
+ * </a>
+ *
+ * @author Jack Straub
+ *
+ * @see HexTile#getNeighborhood(Offset, int)
+ */
+public final class HexRingTable
+{
+    /** The largest supported neighborhood radius. */
+    public static final int     MAX_RADIUS  = 3;
+
+    /** The instance for each layout. */
+    private static final Map<HexLayout,HexRingTable>    tables  =
+        new EnumMap<>( HexLayout.class );
+    static
+    {
+        for ( HexLayout layout : HexLayout.values() )
+            tables.put( layout, new HexRingTable( layout ) );
+    }
+
+    /** The layout described by this table. */
+    private final HexLayout layout;
+    /**
+     * Column displacements to the neighbors of a hexagon,
+     * indexed by parity (see {@link #parity(int, int)})
+     * and neighbor.
+     */
+    private final int[][]   deltaCols   = new int[4][size( MAX_RADIUS )];
+    /**
+     * Row displacements to the neighbors of a hexagon,
+     * indexed by parity (see {@link #parity(int, int)})
+     * and neighbor.
+     */
+    private final int[][]   deltaRows   = new int[4][size( MAX_RADIUS )];
+    /** The ring to which each neighbor belongs, indexed by neighbor. */
+    private final int[]     rings       = new int[size( MAX_RADIUS )];
+
+    /**
+     * Constructor.
+     *
+     * @param layout    the layout described by this table
+     */
+    private HexRingTable( HexLayout layout )
+    {
+        this.layout = layout;
+        for ( int row = 0 ; row < 2 ; ++row )
+            for ( int col = 0 ; col < 2 ; ++col )
+            {
+                Hex     self    = layout.toHex( new Offset( col, row ) );
+                int     par     = parity( col, row );
+                int     inx     = 0;
+                for ( int ring = 1 ; ring <= MAX_RADIUS ; ++ring )
+                {
+                    // start ring steps in direction 4 from self,
+                    // then walk ring steps in each of the six directions
+                    Hex     hex     = self;
+                    for ( int step = 0 ; step < ring ; ++step )
+                        hex = hex.add( HexNeighborhood.vectors[4] );
+                    for ( Hex vector : HexNeighborhood.vectors )
+                        for ( int step = 0 ; step < ring ; ++step )
+                        {
+                            hex = hex.add( vector );
+                            Offset  offset  = layout.toOffset( hex );
+                            deltaCols[par][inx] = offset.col - col;
+                            deltaRows[par][inx] = offset.row - row;
+                            rings[inx] = ring;
+                            ++inx;
+                        }
+                }
+            }
+    }
+
+    /**
+     * Returns the table for a given layout.
+     *
+     * @param layout    the given layout
+     *
+     * @return  the table for the given layout
+     */
+    public static HexRingTable of( HexLayout layout )
+    {
+        HexRingTable    table   = tables.get( layout );
+        return table;
+    }
+
+    /**
+     * Returns the number of hexagons in the neighborhood
+     * of a given radius, excluding the base hexagon.
+     *
+     * @param radius    the given radius
+     *
+     * @return  the number of hexagons in the neighborhood
+     *          of the given radius
+     */
+    public static int size( int radius )
+    {
+        int size    = 3 * radius * (radius + 1);
+        return size;
+    }
+
+    /**
+     * Gets the layout described by this table.
+     *
+     * @return  the layout described by this table
+     */
+    public HexLayout getLayout()
+    {
+        return layout;
+    }
+
+    /**
+     * Returns the column displacements to the neighbors
+     * of the hexagon at a given offset.
+     * The array is shared, and must not be modified.
+     *
+     * @param col   the column of the given offset
+     * @param row   the row of the given offset
+     *
+     * @return  the column displacements to the neighbors
+     *          of the hexagon at the given offset
+     */
+    public int[] getDeltaCols( int col, int row )
+    {
+        int[]   deltas  = deltaCols[parity( col, row )];
+        return deltas;
+    }
+
+    /**
+     * Returns the row displacements to the neighbors
+     * of the hexagon at a given offset.
+     * The array is shared, and must not be modified.
+     *
+     * @param col   the column of the given offset
+     * @param row   the row of the given offset
+     *
+     * @return  the row displacements to the neighbors
+     *          of the hexagon at the given offset
+     */
+    public int[] getDeltaRows( int col, int row )
+    {
+        int[]   deltas  = deltaRows[parity( col, row )];
+        return deltas;
+    }
+
+    /**
+     * Returns the ring to which the neighbor with
+     * a given index belongs.
+     *
+     * @param inx   the given index
+     *
+     * @return  the ring to which the neighbor with
+     *          the given index belongs
+     */
+    public int getRing( int inx )
+    {
+        int ring    = rings[inx];
+        return ring;
+    }
+
+    /**
+     * Verifies that a given neighborhood radius is supported.
+     *
+     * @param radius    the given radius
+     *
+     * @throws CAException
+     *         if the radius is less than 1
+     *         or greater than {@link #MAX_RADIUS}
+     */
+    public static void validateRadius( int radius )
+    {
+        if ( radius < 1 || radius > MAX_RADIUS )
+        {
+            String  msg =
+                "Invalid hex neighborhood radius: " + radius
+                + "; must be between 1 and " + MAX_RADIUS;
+            throw new CAException( msg );
+        }
+    }
+
+    /**
+     * Returns the index of the displacement tables
+     * for a hexagon at a given offset.
+     *
+     * @param col   the column of the given offset
+     * @param row   the row of the given offset
+     *
+     * @return  the index of the displacement tables
+     */
+    private static int parity( int col, int row )
+    {
+        int par = ((row & 1) << 1) | (col & 1);
+        return par;
+    }
+}
@@ -446,6 +446,31 @@ public class HexTile implements GridTile
 		return neighborhood;
 	}
 	
+	/**
+	 * Gets an extended Neighborhood object of a given radius.
+	 * A radius of 1 yields the same neighbors as
+	 * {@link #getNeighborhood(Offset)};
+	 * radii 2 and 3 yield 18 and 36 neighbors, respectively.
+	 * The neighbors are obtained from tables
+	 * precomputed for this tile's layout.
+     * 
+     * @param self	offset to the grid location
+     *              about which to form a neighborhood
+     * @param radius    the given radius
+     *              
+     * @return	the neighborhood of the given radius
+     * 
+     * @throws CAException
+     *         if the radius is less than 1
+     *         or greater than {@link HexRingTable#MAX_RADIUS}
+	 */
+	public HexNeighborhood getNeighborhood( Offset self, int radius )
+	{
+		HexNeighborhood   neighborhood	= 
+		    new HexNeighborhood( self, layout, radius );
+		return neighborhood;
+	}
+	
 	/**
      * Given an array of arguments passed to ofValues,
      * validate the number of arguments passed.
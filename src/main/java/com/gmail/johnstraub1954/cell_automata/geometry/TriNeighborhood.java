@@ -0,0 +1,293 @@
+package com.gmail.johnstraub1954.cell_automata.geometry;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.gmail.johnstraub1954.cell_automata.main.CAException;
+
+/**
+ * Calculate the neighborhood for a given position
+ * in a grid of triangles.
+ * The triangle at column <em>c</em>, row <em>r</em>
+ * points up if <em>c + r</em> is even,
+ * and down if it is odd
+ * (compare the even and odd orientations of
+ * {@link com.gmail.johnstraub1954.cell_automata.main.TriTile});
+ * the up- and down-pointing triangles thus form two
+ * interleaved lattices, each with its own neighborhood shape.
+ * Three neighborhoods are supported:
+ * <ul>
+ * <li>
+ *      {@link #EDGE}: the 3 triangles that share an edge
+ *      with the base triangle;
+ * </li>
+ * <li>
+ *      {@link #INNER}: the 9 triangles within two edge-steps
+ *      of the base triangle;
+ *      that is, the vertex neighborhood
+ *      without the three triangles
+ *      that touch only the tips of the base triangle; and
+ * </li>
+ * <li>
+ *      {@link #VERTEX}: the 12 triangles that share
+ *      an edge or a vertex with the base triangle.
+ * </li>
+ * </ul>
+ * The displacements to the neighbors of each type of triangle
+ * are precomputed, and available to generation engines
+ * via {@link #getDeltaCols(boolean)} and
+ * {@link #getDeltaRows(boolean)}.
+ * Each neighborhood lists the neighbors of the next smaller
+ * neighborhood first.
+ * See
+ * <a href="https://conwaylife.com/wiki/Triangular_neighbourhood">
+ *      LifeWiki/Triangular neighbourhood."
+ * </a>
+ *
+ * @author Jack Straub
+ */
+public class TriNeighborhood implements Neighborhood, Serializable
+{
+    /** Generated serial version UID */
+    private static final long serialVersionUID = 6571386440918052139L;
+
+    /** The number of neighbors in the edge neighborhood. */
+    public static final int EDGE    = 3;
+    /** The number of neighbors in the inner neighborhood. */
+    public static final int INNER   = 9;
+    /** The number of neighbors in the vertex neighborhood. */
+    public static final int VERTEX  = 12;
+
+    /**
+     * Column displacements to the neighbors
+     * of an up-pointing triangle.
+     * The displacements for a down-pointing triangle
+     * are the same.
+     */
+    private static final int[]  deltaCols   =
+    {
+        // edge neighbors
+        -1, 1, 0,
+        // inner neighbors
+        -2, 2, -1, 1, -1, 1,
+        // vertex neighbors
+        0, -2, 2,
+    };
+    /**
+     * Row displacements to the neighbors
+     * of an up-pointing triangle.
+     * The displacements for a down-pointing triangle
+     * are the negation of these.
+     */
+    private static final int[]  upDeltaRows =
+    {
+        // edge neighbors
+        0, 0, 1,
+        // inner neighbors
+        0, 0, -1, -1, 1, 1,
+        // vertex neighbors
+        -1, 1, 1,
+    };
+    /**
+     * Row displacements to the neighbors
+     * of a down-pointing triangle.
+     */
+    private static final int[]  downDeltaRows   = new int[VERTEX];
+    static
+    {
+        for ( int inx = 0 ; inx < VERTEX ; ++inx )
+            downDeltaRows[inx] = -upDeltaRows[inx];
+    }
+
+    /** The source cell for calculating the neighborhood. */
+    private final Offset        self;
+    /** List of neighbors in offset coordinates. */
+    private final List<Offset>  neighbors   = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * Create a vertex neighborhood object using a given base cell.
+     *
+     * @param self      the base cell, about which
+     *                  the neighborhood is to be constructed
+     */
+    public TriNeighborhood( Offset self )
+    {
+        this( self, VERTEX );
+    }
+
+    /**
+     * Constructor.
+     * Create a neighborhood object of a given size
+     * using a given base cell.
+     *
+     * @param self      the base cell, about which
+     *                  the neighborhood is to be constructed
+     * @param size      the given size;
+     *                  one of {@link #EDGE}, {@link #INNER}
+     *                  or {@link #VERTEX}
+     *
+     * @throws CAException if size is not a supported size
+     */
+    public TriNeighborhood( Offset self, int size )
+    {
+        validateSize( size );
+        this.self = self;
+        boolean up      = isUp( self.col, self.row );
+        int[]   cols    = getDeltaCols( up );
+        int[]   rows    = getDeltaRows( up );
+        for ( int inx = 0 ; inx < size ; ++inx )
+        {
+            int col = self.col + cols[inx];
+            int row = self.row + rows[inx];
+            neighbors.add( new Offset( col, row ) );
+        }
+    }
+
+    /**
+     * Indicates whether the triangle at a given position
+     * points up.
+     *
+     * @param col   the column of the given position
+     * @param row   the row of the given position
+     *
+     * @return  true if the triangle at the given position points up
+     */
+    public static boolean isUp( int col, int row )
+    {
+        boolean up  = ((col + row) & 1) == 0;
+        return up;
+    }
+
+    /**
+     * Returns the column displacements to the neighbors
+     * of an up- or down-pointing triangle.
+     * The first <em>n</em> entries
+     * belong to the neighborhood of size <em>n</em>.
+     * The array is shared, and must not be modified.
+     *
+     * @param up    true for an up-pointing triangle
+     *
+     * @return  the column displacements to the neighbors
+     *          of an up- or down-pointing triangle
+     */
+    public static int[] getDeltaCols( boolean up )
+    {
+        return deltaCols;
+    }
+
+    /**
+     * Returns the row displacements to the neighbors
+     * of an up- or down-pointing triangle.
+     * The first <em>n</em> entries
+     * belong to the neighborhood of size <em>n</em>.
+     * The array is shared, and must not be modified.
+     *
+     * @param up    true for an up-pointing triangle
+     *
+     * @return  the row displacements to the neighbors
+     *          of an up- or down-pointing triangle
+     */
+    public static int[] getDeltaRows( boolean up )
+    {
+        int[]   deltas  = up ? upDeltaRows : downDeltaRows;
+        return deltas;
+    }
+
+    /**
+     * Verifies that a given neighborhood size is supported.
+     *
+     * @param size  the given size
+     *
+     * @throws CAException
+     *         if size is not one of {@link #EDGE}, {@link #INNER}
+     *         or {@link #VERTEX}
+     */
+    public static void validateSize( int size )
+    {
+        if ( size != EDGE && size != INNER && size != VERTEX )
+        {
+            String  msg =
+                "Invalid triangular neighborhood size: " + size
+                + "; must be " + EDGE + ", " + INNER + " or " + VERTEX;
+            throw new CAException( msg );
+        }
+    }
+
+    /**
+     * Gets the source cell for calculating the neighborhood.
+     *
+     * @return the source cell for calculating the neighborhood
+     */
+    public Offset getSelf()
+    {
+        return self;
+    }
+
+    /**
+     * Gets the list of neighbors of the source cell.
+     */
+    public List<Offset> getNeighbors()
+    {
+        return neighbors;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder   bldr    = new StringBuilder();
+        bldr.append( self ).append( ("->{") );
+        neighbors.forEach( n -> bldr.append( n ).append( "," ) );
+        bldr.deleteCharAt( bldr.length() - 1 );
+        bldr.append( "}" );
+        return bldr.toString();
+    }
+
+    /**
+     * Tests this object for equality with a given object.
+     * The two object are equal
+     * if the given object is non-null;
+     * and if the given object is a TriNeighborhood;
+     * and if the given object's list of neighbors
+     * is equivalent to this object's list of neighbors
+     * without regard to order.
+     *
+     * @return true if this object is equal to the given object
+     */
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean rcode   = false;
+        if ( obj == null )
+            rcode = false;
+        else if ( obj == this )
+            rcode = true;
+        else if ( !(obj instanceof TriNeighborhood ) )
+            rcode = false;
+        else
+        {
+            TriNeighborhood that    = (TriNeighborhood)obj;
+            rcode =
+                this.self.equals( that.self )
+                && this.neighbors.size() == that.neighbors.size()
+                && this.neighbors.containsAll( that.neighbors )
+                && that.neighbors.containsAll( this.neighbors );
+        }
+        return rcode;
+    }
+
+    /**
+     * Returns a hash code for this object.
+     * Required because equals is overridden.
+     *
+     * @return a hash code for this object
+     */
+    @Override
+    public int hashCode()
+    {
+        int hashCode    = Objects.hash( self, neighbors );
+        return hashCode;
+    }
+}
@@ -0,0 +1,152 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two-state generation engine that evaluates only
+ * the cells that might change.
+ * A cell can change state in generation <em>n</em>
+ * only if it, or one of its Moore neighbors,
+ * changed state in generation <em>n - 1</em>.
+ * This engine therefore records the cells that changed
+ * in each generation, and in the following generation
+ * evaluates only those cells and their neighbors.
+ * The cost of a generation is proportional to the activity
+ * of the pattern, not to its extent:
+ * a glider gun and the gliders it has emitted
+ * cost the same regardless of how far the gliders have traveled.
+ * <p>
+ * On the first generation, after the GridMap is replaced or
+ * modified by another party, or after the rule changes,
+ * there is no reliable record of the previous generation's changes;
+ * in these cases every live cell and its neighbors are evaluated.
+ * <p>
+ * Each cell is evaluated by looking up its neighborhood
+ * in a {@link RuleTable}, so any two-state rule,
+ * including an isotropic non-totalistic rule,
+ * is evaluated at the same speed.
+ *
+ * @author Jack Straub
+ */
+public class ActiveSetEngine implements RuleTableEngine
+{
+    /** Cells to evaluate in the current generation; values are unused. */
+    private final CellTable candidates      = new CellTable();
+    /** Packed coordinates of the cells that changed in the last generation. */
+    private long[]          changedKeys     = new long[64];
+    /** Number of cells that changed in the last generation. */
+    private int             changedCount    = 0;
+    /** Packed coordinates of the cells that change in this generation. */
+    private long[]          nextKeys        = new long[64];
+    /** Number of cells that change in this generation. */
+    private int             nextCount       = 0;
+
+    /** The GridMap that this engine last synchronized with. */
+    private final SourceTracker source  = new SourceTracker();
+    /** Birth rule last given as a list of states. */
+    private int             birthMask       = -1;
+    /** Survival rule last given as a list of states. */
+    private int             survivalMask    = -1;
+    /** The rule given by birthMask and survivalMask. */
+    private RuleTable       listRule        = null;
+    /** Rule used in the last generation. */
+    private RuleTable       rule            = null;
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        int     newBirth    = GenerationEngine.toMask( birthStates );
+        int     newSurvival = GenerationEngine.toMask( survivalStates );
+        if ( newBirth != birthMask || newSurvival != survivalMask )
+        {
+            birthMask = newBirth;
+            survivalMask = newSurvival;
+            listRule = new RuleTable( survivalStates, birthStates );
+        }
+        nextGeneration( gridMap, listRule );
+    }
+
+    @Override
+    public void nextGeneration( GridMap gridMap, RuleTable rule )
+    {
+        boolean rescan      =
+            source.isStale( gridMap )
+            || (rule != this.rule && !rule.equals( this.rule ));
+        this.rule = rule;
+
+        // every scanned cell contributes at most nine candidates
+        candidates.clear( 9 * (rescan ? gridMap.size() : changedCount) );
+
+        if ( rescan )
+            gridMap.forEachLive( (xco, yco, state) -> addCandidates( xco, yco ) );
+        else
+            for ( int inx = 0 ; inx < changedCount ; ++inx )
+            {
+                long    key = changedKeys[inx];
+                addCandidates( CellTable.xco( key ), CellTable.yco( key ) );
+            }
+
+        nextCount = 0;
+        int     cap     = candidates.capacity();
+        for ( int slot = 0 ; slot < cap ; ++slot )
+        {
+            if ( candidates.stateAt( slot ) == 0 )
+                continue;
+            long    key     = candidates.keyAt( slot );
+            int     xco     = CellTable.xco( key );
+            int     yco     = CellTable.yco( key );
+            int     hood    = RuleTable.getNeighborhood( gridMap, xco, yco );
+            boolean alive   = (hood & RuleTable.SELF_BIT) != 0;
+            boolean next    = rule.isAliveNext( hood );
+            if ( next != alive )
+                addChange( key );
+        }
+
+        for ( int inx = 0 ; inx < nextCount ; ++inx )
+        {
+            long    key     = nextKeys[inx];
+            int     xco     = CellTable.xco( key );
+            int     yco     = CellTable.yco( key );
+            int     state   = gridMap.getState( xco, yco ) == 0 ? 1 : 0;
+            gridMap.putState( xco, yco, state );
+        }
+
+        long[]  temp    = changedKeys;
+        changedKeys = nextKeys;
+        changedCount = nextCount;
+        nextKeys = temp;
+
+        source.update( gridMap );
+    }
+
+    /**
+     * Adds a given cell and its Moore neighbors
+     * to the set of cells to evaluate.
+     *
+     * @param xco   the x-coordinate of the given cell
+     * @param yco   the y-coordinate of the given cell
+     */
+    private void addCandidates( int xco, int yco )
+    {
+        for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+            for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+                candidates.put( CellTable.key( col, row ), 1 );
+    }
+
+    /**
+     * Records a cell that changes in this generation.
+     *
+     * @param key   the packed coordinates of the cell
+     */
+    private void addChange( long key )
+    {
+        if ( nextCount == nextKeys.length )
+            nextKeys = Arrays.copyOf( nextKeys, nextCount * 2 );
+        nextKeys[nextCount++] = key;
+    }
+}
@@ -0,0 +1,386 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two-state generation engine for a bounded grid
+ * of a fixed width and height,
+ * whose upper-left corner is (0,0).
+ * The grid is either a torus,
+ * in which the cells beyond each edge are those
+ * at the opposite edge,
+ * or a finite plane surrounded by cells that are always dead;
+ * see {@link CAConstants#GRID_TOPOLOGY_PN}.
+ * <p>
+ * The grid is held as a dense bit array,
+ * one bit per cell and 64 cells per long,
+ * and the neighbor counts of 64 cells at a time
+ * are calculated by bit-sliced addition,
+ * as in {@link ScalarTileKernel}.
+ * Every row is bordered by a halo:
+ * a column of cells to the left and right of the grid,
+ * and a row of cells above and below it.
+ * Before each generation the halo is filled
+ * with copies of the cells at the opposite edges
+ * (for a torus) or with dead cells (for a finite plane),
+ * so that the calculation itself never tests
+ * whether a cell lies on an edge.
+ * The cost of a generation is proportional to the area of the grid,
+ * and independent of its population;
+ * for dense patterns it is much cheaper than
+ * counting the neighbors of every live cell in a hash table.
+ * <p>
+ * The GridMap remains the model of the pattern:
+ * the engine writes each cell that changes to the GridMap,
+ * and reloads the bit array whenever the GridMap
+ * is replaced or modified by another party.
+ * When the bit array is loaded,
+ * live cells that lie outside the grid
+ * are removed from the GridMap;
+ * on a torus they are first moved to the corresponding cell
+ * inside the grid.
+ * <p>
+ * Because the grid is finite,
+ * rules that include birth on 0 neighbors are supported.
+ *
+ * @author Jack Straub
+ */
+public class BoundedGridEngine implements GenerationEngine
+{
+    /** The number of cells in each row of the grid. */
+    private int         width;
+    /** The number of rows in the grid. */
+    private int         height;
+    /** True if the grid is a torus, false if it is a finite plane. */
+    private boolean     torus;
+
+    /**
+     * The number of longs in each row of the bit arrays.
+     * The last long of every row is always 0,
+     * so that the calculation may read one long past the halo.
+     */
+    private int         stride;
+    /**
+     * The current state of the grid and its halo.
+     * Cell (x,y) is bit x + 1 of row y + 1.
+     */
+    private long[]      cells;
+    /** The next state of the grid. */
+    private long[]      next;
+    /** For each long in a row, the bits that lie inside the grid. */
+    private long[]      valid;
+
+    /** The GridMap that the bit array was last synchronized with. */
+    private final SourceTracker source  = new SourceTracker();
+    /** Number of cells that changed in the most recent generation. */
+    private int         changedCount    = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param width     the number of cells in each row of the grid
+     * @param height    the number of rows in the grid
+     * @param torus     true if the grid is a torus,
+     *                  false if it is a finite plane
+     *
+     * @throws IllegalArgumentException
+     *         if the width or height is less than 1
+     */
+    public BoundedGridEngine( int width, int height, boolean torus )
+    {
+        this.torus = torus;
+        setSize( width, height );
+    }
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        int     birthMask       = GenerationEngine.toMask( birthStates );
+        int     survivalMask    = GenerationEngine.toMask( survivalStates );
+
+        // For each count in the rule: the count's bits,
+        // as all-0 or all-1 longs, and whether live and dead cells
+        // with the count are alive in the next generation.
+        long[]  terms           = new long[9 * 6];
+        int     termLen         = 0;
+        for ( int count = 0 ; count <= 8 ; ++count )
+        {
+            long    lives   = -((survivalMask >> count) & 1L);
+            long    born    = -((birthMask >> count) & 1L);
+            if ( (lives | born) != 0 )
+            {
+                for ( int bit = 0 ; bit < 4 ; ++bit )
+                    terms[termLen++] = -((count >> bit) & 1L);
+                terms[termLen++] = lives;
+                terms[termLen++] = born;
+            }
+        }
+
+        synchronize( gridMap );
+        fillHalo();
+
+        changedCount = 0;
+        for ( int yco = 1 ; yco <= height ; ++yco )
+        {
+            int     north       = (yco - 1) * stride;
+            int     mid         = yco * stride;
+            int     south       = (yco + 1) * stride;
+            long    northPrev   = 0;
+            long    midPrev     = 0;
+            long    southPrev   = 0;
+            long    northCurr   = cells[north];
+            long    midCurr     = cells[mid];
+            long    southCurr   = cells[south];
+            for ( int inx = 0 ; inx < stride - 1 ; ++inx )
+            {
+                long    northNext   = cells[north + inx + 1];
+                long    midNext     = cells[mid + inx + 1];
+                long    southNext   = cells[south + inx + 1];
+
+                long    nw      = (northCurr << 1) | (northPrev >>> 63);
+                long    ne      = (northCurr >>> 1) | (northNext << 63);
+                long    west    = (midCurr << 1) | (midPrev >>> 63);
+                long    east    = (midCurr >>> 1) | (midNext << 63);
+                long    sw      = (southCurr << 1) | (southPrev >>> 63);
+                long    se      = (southCurr >>> 1) | (southNext << 63);
+
+                // Three full adders reduce eight inputs to three sums
+                // of weight 1 and three carries of weight 2.
+                long    sum1    = nw ^ northCurr ^ ne;
+                long    carry1  = (nw & northCurr) | (ne & (nw ^ northCurr));
+                long    sum2    = west ^ east ^ sw;
+                long    carry2  = (west & east) | (sw & (west ^ east));
+                long    sum3    = southCurr ^ se;
+                long    carry3  = southCurr & se;
+
+                // Bit 0 of the count, with a fourth carry of weight 2
+                long    bit0    = sum1 ^ sum2 ^ sum3;
+                long    carry4  = (sum1 & sum2) | (sum3 & (sum1 ^ sum2));
+
+                // Sum the four carries of weight 2
+                long    sum5    = carry1 ^ carry2 ^ carry3;
+                long    carry5  =
+                    (carry1 & carry2) | (carry3 & (carry1 ^ carry2));
+                long    bit1    = sum5 ^ carry4;
+                long    carry6  = sum5 & carry4;
+                long    bit2    = carry5 ^ carry6;
+                long    bit3    = carry5 & carry6;
+
+                long    self    = midCurr;
+                long    result  = 0;
+                for ( int term = 0 ; term < termLen ; term += 6 )
+                {
+                    long    match   = ~((bit0 ^ terms[term])
+                        | (bit1 ^ terms[term + 1])
+                        | (bit2 ^ terms[term + 2])
+                        | (bit3 ^ terms[term + 3]));
+                    long    select  =
+                        (self & terms[term + 4]) | (~self & terms[term + 5]);
+                    result |= match & select;
+                }
+                result &= valid[inx];
+                next[mid + inx] = result;
+
+                long    diff    = (result ^ self) & valid[inx];
+                while ( diff != 0 )
+                {
+                    int     bit     = Long.numberOfTrailingZeros( diff );
+                    int     xco     = (inx << 6) + bit - 1;
+                    int     state   = (int)(result >>> bit) & 1;
+                    gridMap.putState( xco, yco - 1, state );
+                    ++changedCount;
+                    diff &= diff - 1;
+                }
+
+                northPrev = northCurr;
+                midPrev = midCurr;
+                southPrev = southCurr;
+                northCurr = northNext;
+                midCurr = midNext;
+                southCurr = southNext;
+            }
+        }
+
+        long[]  temp    = cells;
+        cells = next;
+        next = temp;
+        source.update( gridMap );
+    }
+
+    /**
+     * Returns the number of cells in each row of the grid.
+     *
+     * @return  the number of cells in each row of the grid
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows in the grid.
+     *
+     * @return  the number of rows in the grid
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Changes the size of the grid.
+     * The pattern is reloaded from the GridMap
+     * before the next generation is calculated.
+     *
+     * @param width     the number of cells in each row of the grid
+     * @param height    the number of rows in the grid
+     *
+     * @throws IllegalArgumentException
+     *         if the width or height is less than 1
+     */
+    public void setSize( int width, int height )
+    {
+        if ( width < 1 || height < 1 )
+        {
+            String  msg =
+                "Invalid grid size: " + width + "x" + height;
+            throw new IllegalArgumentException( msg );
+        }
+        this.width = width;
+        this.height = height;
+        stride = ((width + 2 + 63) >>> 6) + 1;
+        cells = new long[(height + 2) * stride];
+        next = new long[cells.length];
+        valid = new long[stride];
+        for ( int bit = 1 ; bit <= width ; ++bit )
+            valid[bit >>> 6] |= 1L << bit;
+        source.reset();
+    }
+
+    /**
+     * Indicates whether the grid is a torus or a finite plane.
+     *
+     * @return  true if the grid is a torus, false if it is a finite plane
+     */
+    public boolean isTorus()
+    {
+        return torus;
+    }
+
+    /**
+     * Specifies whether the grid is a torus or a finite plane.
+     * The pattern is reloaded from the GridMap
+     * before the next generation is calculated.
+     *
+     * @param torus true if the grid is a torus,
+     *              false if it is a finite plane
+     */
+    public void setTorus( boolean torus )
+    {
+        this.torus = torus;
+        source.reset();
+    }
+
+    /**
+     * Returns the number of cells that changed
+     * in the most recent generation.
+     *
+     * @return  the number of cells that changed
+     *          in the most recent generation
+     */
+    public int getChangedCount()
+    {
+        return changedCount;
+    }
+
+    /**
+     * Reloads the bit array from a given GridMap
+     * if the map has been replaced or modified
+     * since the last generation,
+     * or if the grid has been reconfigured.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void synchronize( GridMap gridMap )
+    {
+        if ( source.isStale( gridMap ) )
+        {
+            Arrays.fill( cells, 0 );
+            List<Cell>  outside = new ArrayList<>();
+            gridMap.forEachLive( (xco, yco, state) -> {
+                if ( xco >= 0 && xco < width && yco >= 0 && yco < height )
+                    setCell( xco, yco );
+                else
+                    outside.add( new Cell( xco, yco ) );
+            });
+            for ( Cell cell : outside )
+            {
+                int xco = cell.getXco();
+                int yco = cell.getYco();
+                gridMap.putState( xco, yco, 0 );
+                if ( torus )
+                {
+                    xco = Math.floorMod( xco, width );
+                    yco = Math.floorMod( yco, height );
+                    if ( gridMap.getState( xco, yco ) == 0 )
+                        gridMap.putState( xco, yco, 1 );
+                    setCell( xco, yco );
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the cell at a given coordinate pair of the grid alive
+     * in the bit array.
+     *
+     * @param xco   the x-coordinate of the cell
+     * @param yco   the y-coordinate of the cell
+     */
+    private void setCell( int xco, int yco )
+    {
+        int bit = xco + 1;
+        cells[(yco + 1) * stride + (bit >>> 6)] |= 1L << bit;
+    }
+
+    /**
+     * Fills the halo of the bit array:
+     * with copies of the cells at the opposite edges of the grid
+     * if the grid is a torus,
+     * otherwise with dead cells.
+     */
+    private void fillHalo()
+    {
+        long    wrap        = torus ? -1L : 0;
+        int     lastWord    = width >>> 6;
+        int     lastBit     = width & 63;
+        int     haloWord    = (width + 1) >>> 6;
+        int     haloBit     = (width + 1) & 63;
+        for ( int yco = 1 ; yco <= height ; ++yco )
+        {
+            int     row     = yco * stride;
+            long    first   = (cells[row] >>> 1) & 1;
+            long    last    = (cells[row + lastWord] >>> lastBit) & 1;
+            cells[row] = (cells[row] & ~1L) | (last & wrap);
+            cells[row + haloWord] =
+                (cells[row + haloWord] & ~(1L << haloBit))
+                | ((first & wrap) << haloBit);
+        }
+
+        // The rows are copied after the columns,
+        // so that the corners are copied from the opposite corners.
+        int     top         = 0;
+        int     bottom      = (height + 1) * stride;
+        for ( int inx = 0 ; inx < stride ; ++inx )
+        {
+            cells[top + inx] = cells[height * stride + inx] & wrap;
+            cells[bottom + inx] = cells[stride + inx] & wrap;
+        }
+    }
+}
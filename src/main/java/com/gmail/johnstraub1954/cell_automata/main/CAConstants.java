@@ -89,6 +89,35 @@ public class CAConstants
     public static final String  GRID_HEIGHT_PN      = "gridHeight";
     /** Grid width default value. */
     public static final String  GRID_HEIGHT_DV      = "100";
+    
+    /** 
+     * Grid topology property name. 
+     * One of {@link #GRID_TOPOLOGY_PLANE},
+     * {@link #GRID_TOPOLOGY_TORUS} or {@link #GRID_TOPOLOGY_FINITE}.
+     * The bounded topologies confine the pattern
+     * to the rectangle of {@link #GRID_WIDTH_PN} 
+     * by {@link #GRID_HEIGHT_PN} cells 
+     * whose upper-left corner is (0,0);
+     * they apply to two-state totalistic rules,
+     * other rules are calculated on the infinite plane.
+     * 
+     * @see BoundedGridEngine
+     */
+    public static final String  GRID_TOPOLOGY_PN    = "gridTopology";
+    /** Grid topology: the infinite plane. */
+    public static final String  GRID_TOPOLOGY_PLANE = "plane";
+    /** 
+     * Grid topology: a bounded grid whose opposite edges are joined,
+     * so that a pattern leaving one edge reappears at the other.
+     */
+    public static final String  GRID_TOPOLOGY_TORUS = "torus";
+    /** 
+     * Grid topology: a bounded grid 
+     * surrounded by cells that are always dead.
+     */
+    public static final String  GRID_TOPOLOGY_FINITE    = "finite";
+    /** Grid topology default value. */
+    public static final String  GRID_TOPOLOGY_DV    = GRID_TOPOLOGY_PLANE;
 
     /** 
      * Show-grid-line property name. 
@@ -161,6 +190,14 @@ public class CAConstants
      * on the grid. This property does not have a default value.
      */
     public static final String  GRID_CELL_CLICKED_PN    = "gridCellClicked";
+    /** 
+     * The cell that appears in the upper-left corner of the grid
+     * after the operator has scrolled the grid (with the mouse wheel).
+     * This property does not have a default value.
+     * 
+     * @see #GRID_CELL_ORIGIN_PN
+     */
+    public static final String  GRID_SCROLLED_PN        = "gridScrolled";
     /** 
      * A value indicating whether the application should attempt to keep 
      * the grid centered with each new generation.
@@ -174,6 +211,26 @@ public class CAConstants
      * or from the command line.
      */
     public static final String  GRID_MAP_PN          = "gridMap";
+    /** 
+     * The VoxelGridMap of a three-dimensional automaton,
+     * or null if the automaton is two-dimensional.
+     * While it is not null the grid displays the slice
+     * of the map given by {@link #GRID_VOXEL_SLICE_PN}.
+     * It has no default value,
+     * and cannot be configured in a Properties file 
+     * or from the command line.
+     * 
+     * @see VoxelEngine
+     */
+    public static final String  VOXEL_MAP_PN         = "voxelMap";
+    /** 
+     * Voxel slice property name. 
+     * The z-coordinate of the plane of voxels
+     * displayed by the grid; see {@link #VOXEL_MAP_PN}.
+     */
+    public static final String  GRID_VOXEL_SLICE_PN  = "gridVoxelSlice";
+    /** Voxel slice default value. */
+    public static final String  GRID_VOXEL_SLICE_DV  = "0";
     /**
      * The GridTile that controls things like the shape of a cell, length of 
      * side of cell, and pixel-to-cell mappings. E.g., QuadTile, HexTile.
@@ -256,6 +313,132 @@ public class CAConstants
     public static final String  PROP_PROC_PN        = "spawn";
     /** Propagation procedure default value (none). */
     public static final String  PROP_PROC_DV        = "";
+    /** 
+     * Propagation procedure: original algorithm.
+     * @see Utils#conwayPropagate(Object)
+     */
+    public static final String  PROP_PROC_CONWAY    = "conway";
+    /**
+     * Propagation procedure: bit-packed 64x64 tiles.
+     * @see TileEngine
+     */
+    public static final String  PROP_PROC_TILE      = "tile";
+    /**
+     * Propagation procedure: HashLife.
+     * @see HashLifeEngine
+     */
+    public static final String  PROP_PROC_HASHLIFE  = "hashLife";
+    /**
+     * Propagation procedure: evaluate only cells near
+     * the previous generation's changes.
+     * @see ActiveSetEngine
+     */
+    public static final String  PROP_PROC_ACTIVE_SET    = "activeSet";
+    /**
+     * Propagation procedure: scatter neighbor counts
+     * from live cells only.
+     * @see ScatterCountEngine
+     */
+    public static final String  PROP_PROC_SCATTER   = "scatter";
+    /**
+     * Propagation procedure: bit-packed 64x64 tiles,
+     * calculated on multiple threads.
+     * @see ParallelTileEngine
+     */
+    public static final String  PROP_PROC_PARALLEL  = "parallelTile";
+    /**
+     * Propagation procedure: sorted array of Morton keys,
+     * for very sparse patterns.
+     * @see MortonEngine
+     */
+    public static final String  PROP_PROC_MORTON    = "morton";
+    /**
+     * Propagation procedure: neighbor counts maintained
+     * incrementally by the GridMap.
+     * @see CountingEngine
+     */
+    public static final String  PROP_PROC_COUNTING  = "counting";
+    /**
+     * Propagation procedure: dense bit array
+     * of the bounded grid.
+     * This procedure is always used for two-state totalistic rules
+     * if the grid topology is not the infinite plane.
+     * @see BoundedGridEngine
+     * @see #GRID_TOPOLOGY_PN
+     */
+    public static final String  PROP_PROC_BOUNDED   = "boundedGrid";
+    /**
+     * Propagation procedure: multi-state Generations rules.
+     * This procedure is always used if the number of
+     * cell states is greater than 2.
+     * @see GenerationsEngine
+     * @see #CTRL_GAME_STATES_PN
+     */
+    public static final String  PROP_PROC_GENERATIONS   = "generations";
+    /**
+     * Propagation procedure: Larger than Life rules.
+     * This procedure is always used if a Larger than Life
+     * rule has been specified.
+     * @see LargerThanLifeEngine
+     * @see #CTRL_LTL_RULE_PN
+     */
+    public static final String  PROP_PROC_LARGER_THAN_LIFE  = "largerThanLife";
+    /** 
+     * HashLife memory budget property name.
+     * Specified as the maximum number of quadtree nodes
+     * in the engine's node table.
+     */
+    public static final String  PROP_HASHLIFE_MAX_NODES_PN  = 
+        "hashLifeMaxNodes";
+    /** HashLife memory budget default value. */
+    public static final String  PROP_HASHLIFE_MAX_NODES_DV  = "4000000";
+    /** 
+     * Parallel propagation thread count property name.
+     * A value of 0 selects one thread per available processor.
+     */
+    public static final String  PROP_PARALLEL_THREADS_PN    = 
+        "parallelThreads";
+    /** Parallel propagation thread count default value. */
+    public static final String  PROP_PARALLEL_THREADS_DV    = "0";
+    /** 
+     * Parallel propagation minimum population property name.
+     * Patterns with a smaller population are propagated
+     * on the calling thread.
+     */
+    public static final String  PROP_PARALLEL_MIN_POP_PN    = 
+        "parallelMinPopulation";
+    /** Parallel propagation minimum population default value. */
+    public static final String  PROP_PARALLEL_MIN_POP_DV    = "20000";
+    /** 
+     * Vector tile kernel property name.
+     * If true, the tile engines calculate tiles
+     * with the Vector API where the runtime supports it.
+     */
+    public static final String  PROP_VECTOR_KERNEL_PN       = 
+        "vectorKernel";
+    /** Vector tile kernel default value. */
+    public static final String  PROP_VECTOR_KERNEL_DV       = "false";
+    /** 
+     * Tile memo capacity property name.
+     * The maximum number of tile transitions
+     * cached by the tile engines; 0 disables the cache.
+     * 
+     * @see TileMemo
+     */
+    public static final String  PROP_TILE_MEMO_CAPACITY_PN  = 
+        "tileMemoCapacity";
+    /** Tile memo capacity default value. */
+    public static final String  PROP_TILE_MEMO_CAPACITY_DV  = "0";
+    /** 
+     * Tile freeze generations property name.
+     * The number of generations for which a tile
+     * must repeat with period 1 or 2 before the tile engines
+     * stop calculating it; 0 disables freezing.
+     */
+    public static final String  PROP_TILE_FREEZE_GENS_PN    = 
+        "tileFreezeGenerations";
+    /** Tile freeze generations default value. */
+    public static final String  PROP_TILE_FREEZE_GENS_DV    = "0";
     
     ////////////////////////////////////////
     //
@@ -310,6 +493,40 @@ public class CAConstants
     public static final String  CTRL_BIRTH_STATES_PN    = "birthStates";
     /** Survival states, default value */
     public static final String  CTRL_BIRTH_STATES_DV    = "3";
+    /**  
+     * Number of cell states. A value greater than 2 denotes
+     * a <em>Generations</em> rule, in which a live cell that
+     * does not survive passes through states 2, 3, ... 
+     * before dying.
+     * 
+     * @see GenerationsEngine
+     */
+    public static final String  CTRL_GAME_STATES_PN     = "gameStates";
+    /** Number of cell states, default value */
+    public static final String  CTRL_GAME_STATES_DV     = "2";
+    /**  
+     * Isotropic non-totalistic rule in Hensel notation,
+     * for example "B2-a/S12".
+     * If not empty, this rule takes the place of the
+     * survival and birth states; the survival and birth states
+     * should list the neighbor counts that appear in the rule.
+     * 
+     * @see RuleTable#parse(String)
+     */
+    public static final String  CTRL_ISOTROPIC_RULE_PN  = "isotropicRule";
+    /** Isotropic non-totalistic rule, default value (none) */
+    public static final String  CTRL_ISOTROPIC_RULE_DV  = "";
+    /**  
+     * Larger than Life rule, for example
+     * "R5,C0,M1,S34..58,B34..45,NM".
+     * If not empty, this rule takes the place of the
+     * survival and birth states and the number of cell states.
+     * 
+     * @see LargerThanLifeRule
+     */
+    public static final String  CTRL_LTL_RULE_PN        = "largerThanLifeRule";
+    /** Larger than Life rule, default value (none) */
+    public static final String  CTRL_LTL_RULE_DV        = "";
     /** Center rectangle containing live cells default value. */
     public static final String  CTRL_CENTER_DV          = "false";
     /** URL of file/web link to read and display */
@@ -553,6 +770,12 @@ public class CAConstants
     /** The name of the "animate" control */
     public static final String  GEN_ANIMATE_TOGGLE_CN   =
         MAIN_FRAME_CN + ".genPerSecComponent";
+    /** The name of the "jump" exponent spinner */
+    public static final String  GEN_JUMP_SPINNER_CN     =
+        MAIN_FRAME_CN + ".jumpSpinner";
+    /** The name of the "jump" button */
+    public static final String  GEN_JUMP_BUTTON_CN      =
+        MAIN_FRAME_CN + ".jumpButton";
 
     ////////////////////////////////
     // controls panel
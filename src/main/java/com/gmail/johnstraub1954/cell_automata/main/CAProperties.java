@@ -10,6 +10,12 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.AUTO_REGEN
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.AUTO_REGEN_PACE_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_BIRTH_STATES_DV;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_BIRTH_STATES_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GAME_STATES_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GAME_STATES_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_ISOTROPIC_RULE_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_ISOTROPIC_RULE_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_LTL_RULE_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_LTL_RULE_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GRID_LATEST_DV;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GRID_LATEST_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GRID_URL_DV;
@@ -44,6 +50,10 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MARGI
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MARGIN_TOP_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_WIDTH_DV;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_WIDTH_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_TOPOLOGY_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_TOPOLOGY_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_VOXEL_SLICE_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_VOXEL_SLICE_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_AUTHOR_EMAIL_DV;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_AUTHOR_EMAIL_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_AUTHOR_NAME_DV;
@@ -54,6 +64,20 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_PATTE
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_PATTERN_FILE_NAME_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_PATTERN_NAME_DV;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_PATTERN_NAME_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_HASHLIFE_MAX_NODES_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_HASHLIFE_MAX_NODES_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PARALLEL_MIN_POP_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PARALLEL_MIN_POP_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PARALLEL_THREADS_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PARALLEL_THREADS_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_TILE_FREEZE_GENS_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_TILE_FREEZE_GENS_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_TILE_MEMO_CAPACITY_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_TILE_MEMO_CAPACITY_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_VECTOR_KERNEL_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_VECTOR_KERNEL_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PROC_DV;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PROC_PN;
 
 import java.awt.Color;
 import java.awt.Point;
@@ -195,6 +219,32 @@ public class CAProperties extends Properties
         return size;
     }
     
+    /**
+     * Obtains the value of the GRID TOPOLOGY property.
+     * 
+     * @return the value of the GRID TOPOLOGY property
+     * 
+     * @see CAConstants#GRID_TOPOLOGY_PN
+     */
+    public String getGridTopology()
+    {
+        String  topology    = getString( GRID_TOPOLOGY_PN, GRID_TOPOLOGY_DV );
+        return topology;
+    }
+    
+    /**
+     * Obtains the value of the GRID VOXEL SLICE property.
+     * 
+     * @return the value of the GRID VOXEL SLICE property
+     * 
+     * @see CAConstants#GRID_VOXEL_SLICE_PN
+     */
+    public int getGridVoxelSlice()
+    {
+        int slice   = getInt( GRID_VOXEL_SLICE_PN, GRID_VOXEL_SLICE_DV );
+        return slice;
+    }
+    
     /**
      * Obtains the value of the GRID-LINE-SHOW property.
      * 
@@ -370,12 +420,85 @@ public class CAProperties extends Properties
     
     /**
      * Get the default propagation procedure.
+     * The procedure is selected by name
+     * (see {@link Utils#getEngine(String)});
+     * if no name is configured, or the name is not recognized,
+     * {@link Utils#conwayPropagate(Object)} is used.
      * 
      * @return  the default propagation procedure
      */
     public Consumer<Object> getPropagateProc()
     {
-        return o -> Utils.INSTANCE.conwayPropagate( o );
+        String  name    = getString( PROP_PROC_PN, PROP_PROC_DV );
+        return o -> Utils.INSTANCE.propagate( name, o );
+    }
+    
+    /**
+     * Obtains the value of the HASHLIFE MAX NODES property.
+     * 
+     * @return the value of the HASHLIFE MAX NODES property
+     */
+    public int getHashLifeMaxNodes()
+    {
+        int max = getInt( PROP_HASHLIFE_MAX_NODES_PN, PROP_HASHLIFE_MAX_NODES_DV );
+        return max;
+    }
+    
+    /**
+     * Obtains the value of the PARALLEL THREADS property.
+     * 
+     * @return the value of the PARALLEL THREADS property
+     */
+    public int getParallelThreads()
+    {
+        int threads = getInt( PROP_PARALLEL_THREADS_PN, PROP_PARALLEL_THREADS_DV );
+        return threads;
+    }
+    
+    /**
+     * Obtains the value of the PARALLEL MIN POPULATION property.
+     * 
+     * @return the value of the PARALLEL MIN POPULATION property
+     */
+    public int getParallelMinPopulation()
+    {
+        int min = getInt( PROP_PARALLEL_MIN_POP_PN, PROP_PARALLEL_MIN_POP_DV );
+        return min;
+    }
+    
+    /**
+     * Obtains the value of the VECTOR KERNEL property.
+     * 
+     * @return the value of the VECTOR KERNEL property
+     */
+    public boolean getVectorKernel()
+    {
+        boolean vector  = getBoolean( PROP_VECTOR_KERNEL_PN, PROP_VECTOR_KERNEL_DV );
+        return vector;
+    }
+    
+    /**
+     * Obtains the value of the TILE MEMO CAPACITY property.
+     * 
+     * @return the value of the TILE MEMO CAPACITY property
+     */
+    public int getTileMemoCapacity()
+    {
+        int capacity    = 
+            getInt( PROP_TILE_MEMO_CAPACITY_PN, PROP_TILE_MEMO_CAPACITY_DV );
+        return capacity;
+    }
+    
+    /**
+     * Obtains the value of the TILE FREEZE GENERATIONS property.
+     * 
+     * @return the value of the TILE FREEZE GENERATIONS property
+     */
+    public int getTileFreezeGenerations()
+    {
+        int gens    = 
+            getInt( PROP_TILE_FREEZE_GENS_PN, PROP_TILE_FREEZE_GENS_DV );
+        return gens;
     }
     
     /**
@@ -406,6 +529,41 @@ public class CAProperties extends Properties
         return list;
     }
     
+    /**
+     * Gets the number of cell states.
+     * 
+     * @return  the number of cell states
+     */
+    public int getGameStates()
+    {
+        int states  = getInt( CTRL_GAME_STATES_PN, CTRL_GAME_STATES_DV );
+        return states;
+    }
+    
+    /**
+     * Gets the isotropic non-totalistic rule.
+     * 
+     * @return  the isotropic non-totalistic rule, 
+     *          or an empty string if none
+     */
+    public String getIsotropicRule()
+    {
+        String  rule    = 
+            getString( CTRL_ISOTROPIC_RULE_PN, CTRL_ISOTROPIC_RULE_DV );
+        return rule;
+    }
+    
+    /**
+     * Gets the Larger than Life rule.
+     * 
+     * @return  the Larger than Life rule, or an empty string if none
+     */
+    public String getLargerThanLifeRule()
+    {
+        String  rule    = getString( CTRL_LTL_RULE_PN, CTRL_LTL_RULE_DV );
+        return rule;
+    }
+    
     /**
      * Gets the URL of the data to display in the grid.
      * 
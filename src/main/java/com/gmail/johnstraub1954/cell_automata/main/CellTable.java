@@ -0,0 +1,476 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+
+/**
+ * Primitive, open-addressing hash table that maps
+ * cell coordinates to integer states.
+ * An (x,y) coordinate pair is packed into a single long
+ * (see {@link #key(int, int)}),
+ * so neither the key nor the state is ever boxed,
+ * and no Point object is allocated for a lookup.
+ * <p>
+ * Only non-0 values are physically stored in the table;
+ * storing a 0 value removes the entry,
+ * and looking up an absent key returns 0.
+ * This is consistent with the way GridMap treats
+ * dead cells, and also makes the table suitable for
+ * use as a sparse counter (see {@link #add(long, int)}).
+ * <p>
+ * Collisions are resolved by linear probing,
+ * and removal uses backward-shift deletion,
+ * so the table never accumulates tombstones.
+ * The table grows when it becomes half full,
+ * and compacts itself when its population
+ * falls below one-eighth of its capacity,
+ * so the cost of traversing the table
+ * tracks the current population
+ * rather than the historical peak.
+ * <p>
+ * Traversal is performed by slot:
+ * <pre>
+ *     for ( int slot = 0 ; slot &lt; table.capacity() ; ++slot )
+ *         if ( table.stateAt( slot ) != 0 )
+ *             process( table.keyAt( slot ), table.stateAt( slot ) );</pre>
+ * The table must not be modified during such a traversal.
+ *
+ * @author Jack Straub
+ */
+public class CellTable
+{
+    /** Smallest capacity of a table; must be a power of 2. */
+    private static final int    MIN_CAPACITY    = 16;
+    /** Multiplier used to scramble keys; see Knuth, "Fibonacci hashing". */
+    private static final long   HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** Keys; meaningful only where the corresponding state is non-0. */
+    private long[]  keys;
+    /** States; a 0 value indicates an empty slot. */
+    private int[]   states;
+    /** Number of occupied slots. */
+    private int     size;
+    /** Capacity - 1; used to wrap probe sequences. */
+    private int     mask;
+    /** 64 - log2(capacity); used to reduce a scrambled key to a slot. */
+    private int     shift;
+
+    /**
+     * Default constructor.
+     */
+    public CellTable()
+    {
+        allocate( MIN_CAPACITY );
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param copyFrom  the table to copy
+     */
+    public CellTable( CellTable copyFrom )
+    {
+        keys = copyFrom.keys.clone();
+        states = copyFrom.states.clone();
+        size = copyFrom.size;
+        mask = copyFrom.mask;
+        shift = copyFrom.shift;
+    }
+
+    /**
+     * Packs a given coordinate pair into a single long.
+     * The x-coordinate occupies the high-order 32 bits,
+     * and the y-coordinate occupies the low-order 32 bits.
+     *
+     * @param xco   the given x-coordinate
+     * @param yco   the given y-coordinate
+     *
+     * @return  the packed coordinate pair
+     */
+    public static long key( int xco, int yco )
+    {
+        long    key = ((long)xco << 32) | (yco & 0xFFFFFFFFL);
+        return key;
+    }
+
+    /**
+     * Extracts the x-coordinate from a packed coordinate pair.
+     *
+     * @param key   the packed coordinate pair
+     *
+     * @return  the x-coordinate of the packed coordinate pair
+     *
+     * @see #key(int, int)
+     */
+    public static int xco( long key )
+    {
+        return (int)(key >> 32);
+    }
+
+    /**
+     * Extracts the y-coordinate from a packed coordinate pair.
+     *
+     * @param key   the packed coordinate pair
+     *
+     * @return  the y-coordinate of the packed coordinate pair
+     *
+     * @see #key(int, int)
+     */
+    public static int yco( long key )
+    {
+        return (int)key;
+    }
+
+    /**
+     * Returns the value associated with a given key,
+     * or 0 if the key is not present.
+     *
+     * @param key   the given key
+     *
+     * @return  the value associated with the given key
+     */
+    public int get( long key )
+    {
+        int slot    = home( key );
+        int state;
+        while ( (state = states[slot]) != 0 )
+        {
+            if ( keys[slot] == key )
+                return state;
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Associates a given value with a given key.
+     * A value of 0 removes the key from the table.
+     * The previous value associated with the key is returned
+     * (0 if the key was not present).
+     *
+     * @param key   the given key
+     * @param state the given value
+     *
+     * @return  the previous value associated with the given key
+     */
+    public int put( long key, int state )
+    {
+        int slot    = home( key );
+        int prev;
+        while ( (prev = states[slot]) != 0 )
+        {
+            if ( keys[slot] == key )
+            {
+                if ( state == 0 )
+                    remove( slot );
+                else
+                    states[slot] = state;
+                return prev;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if ( state != 0 )
+        {
+            keys[slot] = key;
+            states[slot] = state;
+            if ( ++size > (mask + 1) >> 1 )
+                rehash( (mask + 1) << 1 );
+        }
+        return 0;
+    }
+
+    /**
+     * Adds a given amount to the value associated with a given key,
+     * treating an absent key as having a value of 0.
+     * If the result is 0 the key is removed from the table.
+     *
+     * @param key   the given key
+     * @param delta the given amount
+     *
+     * @return  the new value associated with the given key
+     */
+    public int add( long key, int delta )
+    {
+        int slot    = home( key );
+        int prev;
+        while ( (prev = states[slot]) != 0 )
+        {
+            if ( keys[slot] == key )
+            {
+                int next    = prev + delta;
+                if ( next == 0 )
+                    remove( slot );
+                else
+                    states[slot] = next;
+                return next;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if ( delta != 0 )
+        {
+            keys[slot] = key;
+            states[slot] = delta;
+            if ( ++size > (mask + 1) >> 1 )
+                rehash( (mask + 1) << 1 );
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the number of entries in this table.
+     *
+     * @return  the number of entries in this table
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns true if this table has no entries.
+     *
+     * @return  true if this table has no entries
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of slots in this table.
+     * This is the upper bound of a traversal by slot.
+     *
+     * @return  the number of slots in this table
+     */
+    public int capacity()
+    {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the key stored in a given slot.
+     * The result is meaningful only if
+     * {@link #stateAt(int)} returns a non-0 value
+     * for the same slot.
+     *
+     * @param slot  the given slot
+     *
+     * @return  the key stored in the given slot
+     */
+    public long keyAt( int slot )
+    {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the value stored in a given slot;
+     * 0 indicates that the slot is empty.
+     *
+     * @param slot  the given slot
+     *
+     * @return  the value stored in the given slot
+     */
+    public int stateAt( int slot )
+    {
+        return states[slot];
+    }
+
+    /**
+     * Removes all entries from this table.
+     * The capacity of the table is retained,
+     * so that a table that is cleared and repopulated
+     * on every generation does not repeatedly reallocate.
+     *
+     * @see #compact()
+     */
+    public void clear()
+    {
+        Arrays.fill( states, 0 );
+        size = 0;
+    }
+
+    /**
+     * Removes all entries from this table,
+     * in anticipation of refilling it
+     * with about a given number of entries.
+     * The capacity of the table is retained
+     * unless it is far larger than the given number requires,
+     * in which case the table is compacted;
+     * this keeps the cost of clearing and scanning a table
+     * that is refilled on every generation
+     * proportional to the current generation,
+     * rather than to the largest generation it has held.
+     *
+     * @param expected  the number of entries expected
+     *                  when the table is refilled
+     *
+     * @see #clear()
+     * @see #compact()
+     */
+    public void clear( int expected )
+    {
+        clear();
+        if ( mask + 1 > 16L * expected + MIN_CAPACITY )
+            compact();
+    }
+
+    /**
+     * Shrinks this table to the smallest capacity
+     * that comfortably holds its current entries.
+     * Compaction occurs automatically when entries are removed;
+     * this method is useful after {@link #clear()}
+     * or after a table has been repopulated
+     * with far fewer entries than it once held.
+     */
+    public void compact()
+    {
+        int capacity    = MIN_CAPACITY;
+        while ( capacity < size << 2 )
+            capacity <<= 1;
+        if ( capacity < mask + 1 )
+            rehash( capacity );
+    }
+
+    /**
+     * Computes a hash code for this table.
+     * The result is independent of the physical layout of the table,
+     * so equal tables produce equal hash codes
+     * regardless of their capacities.
+     *
+     * @return  a hash code for this table
+     */
+    @Override
+    public int hashCode()
+    {
+        int hash    = 0;
+        for ( int slot = 0 ; slot <= mask ; ++slot )
+        {
+            int state   = states[slot];
+            if ( state != 0 )
+                hash += Long.hashCode( keys[slot] ) ^ state;
+        }
+        return hash;
+    }
+
+    /**
+     * Determines whether this table is equal to a given object.
+     * The result is true if the given object is a CellTable
+     * containing exactly the same key/value pairs as this table.
+     *
+     * @param obj   the given object
+     *
+     * @return  true if this table is equal to the given object
+     */
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean result  = false;
+        if ( obj == this )
+            result = true;
+        else if ( obj instanceof CellTable )
+        {
+            CellTable   that    = (CellTable)obj;
+            result = this.size == that.size;
+            for ( int slot = 0 ; result && slot <= mask ; ++slot )
+            {
+                int state   = states[slot];
+                if ( state != 0 )
+                    result = that.get( keys[slot] ) == state;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the preferred slot for a given key.
+     *
+     * @param key   the given key
+     *
+     * @return  the preferred slot for the given key
+     */
+    private int home( long key )
+    {
+        int slot    = (int)((key * HASH_MULTIPLIER) >>> shift);
+        return slot;
+    }
+
+    /**
+     * Empties a given slot,
+     * shifting subsequent members of the probe sequence backward
+     * so that every remaining entry is still reachable
+     * from its preferred slot.
+     * If the table is now sparsely populated it is compacted.
+     *
+     * @param slot  the slot to empty
+     */
+    private void remove( int slot )
+    {
+        int gap     = slot;
+        int next    = slot;
+        while ( true )
+        {
+            next = (next + 1) & mask;
+            if ( states[next] == 0 )
+                break;
+
+            // The entry at next may move into the gap
+            // unless its preferred slot lies cyclically
+            // in the range (gap, next].
+            int pref    = home( keys[next] );
+            boolean stays   = gap <= next
+                ? gap < pref && pref <= next
+                : gap < pref || pref <= next;
+            if ( !stays )
+            {
+                keys[gap] = keys[next];
+                states[gap] = states[next];
+                gap = next;
+            }
+        }
+        states[gap] = 0;
+
+        if ( --size < (mask + 1) >> 3 && mask + 1 > MIN_CAPACITY )
+            compact();
+    }
+
+    /**
+     * Moves every entry of this table into a new set of arrays
+     * with a given capacity.
+     *
+     * @param capacity  the given capacity; must be a power of 2
+     */
+    private void rehash( int capacity )
+    {
+        long[]  oldKeys     = keys;
+        int[]   oldStates   = states;
+        allocate( capacity );
+        for ( int inx = 0 ; inx < oldStates.length ; ++inx )
+        {
+            int state   = oldStates[inx];
+            if ( state != 0 )
+            {
+                long    key     = oldKeys[inx];
+                int     slot    = home( key );
+                while ( states[slot] != 0 )
+                    slot = (slot + 1) & mask;
+                keys[slot] = key;
+                states[slot] = state;
+            }
+        }
+    }
+
+    /**
+     * Allocates a new, empty set of arrays with a given capacity.
+     * The current size of the table is not changed.
+     *
+     * @param capacity  the given capacity; must be a power of 2
+     */
+    private void allocate( int capacity )
+    {
+        keys = new long[capacity];
+        states = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros( capacity );
+    }
+}
@@ -0,0 +1,152 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two-state generation engine that relies on the neighbor counts
+ * maintained by a {@link CountingGridMap}.
+ * Nothing is recounted:
+ * each generation applies the birth and survival rules
+ * only to the map's dirty cells,
+ * those whose liveness or neighbor count changed
+ * in the previous generation or through an edit since.
+ * Writing the resulting changes to the map
+ * updates the counts of the changed cells' neighbors,
+ * and marks them dirty for the next generation.
+ * The cost of a generation is therefore proportional
+ * to the activity of the pattern rather than to its population;
+ * still lifes cost nothing at all.
+ * When the rule changes every live cell and its neighbors
+ * are marked dirty,
+ * since the cells that were not dirty were settled
+ * under the previous rule.
+ * <p>
+ * If the GridMap passed to {@link #nextGeneration(GridMap, List, List)}
+ * is a CountingGridMap it is used directly,
+ * and edits made to it between generations are incorporated
+ * incrementally.
+ * Otherwise the engine maintains a private CountingGridMap
+ * that mirrors the given map,
+ * and rebuilds it whenever the given map is replaced
+ * or modified by another party.
+ * {@link Utils#propagate(String, Object)} converts
+ * the current GridMap to a CountingGridMap
+ * when this engine is selected,
+ * so that patterns loaded from RLE files
+ * are counted once.
+ * The engine is selected by setting the
+ * {@link CAConstants#PROP_PROC_PN} property to
+ * {@link CAConstants#PROP_PROC_COUNTING}.
+ *
+ * @author Jack Straub
+ */
+public class CountingEngine implements GenerationEngine
+{
+    /** Mirror of a GridMap that does not maintain counts. */
+    private CountingGridMap     mirror          = null;
+    /** The GridMap that the mirror was last synchronized with. */
+    private final SourceTracker source          = new SourceTracker();
+
+    /** Packed coordinates of the cells that change in this generation. */
+    private long[]              changedKeys     = new long[64];
+    /** Number of cells that change in this generation. */
+    private int                 changedCount    = 0;
+    /** Birth rule used in the last generation. */
+    private int                 birthMask       = -1;
+    /** Survival rule used in the last generation. */
+    private int                 survivalMask    = -1;
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        int             newBirth        = GenerationEngine.toMask( birthStates );
+        int             newSurvival     = GenerationEngine.toMask( survivalStates );
+        CountingGridMap countingMap     = getCountingMap( gridMap );
+        if ( newBirth != birthMask || newSurvival != survivalMask )
+        {
+            birthMask = newBirth;
+            survivalMask = newSurvival;
+            countingMap.markAllDirty();
+        }
+
+        changedCount = 0;
+        countingMap.forEachDirty( (xco, yco, state) -> {
+            boolean alive   = state != 0;
+            int     count   = countingMap.getNeighborCount( xco, yco );
+            int     mask    = alive ? survivalMask : birthMask;
+            boolean next    = ((mask >> count) & 1) != 0;
+            if ( next != alive )
+                addChange( CellTable.key( xco, yco ) );
+        });
+        countingMap.clearDirty();
+
+        for ( int inx = 0 ; inx < changedCount ; ++inx )
+        {
+            long    key     = changedKeys[inx];
+            int     xco     = CellTable.xco( key );
+            int     yco     = CellTable.yco( key );
+            int     state   = countingMap.getState( xco, yco ) == 0 ? 1 : 0;
+            countingMap.putState( xco, yco, state );
+            if ( countingMap != gridMap )
+                gridMap.putState( xco, yco, state );
+        }
+        source.update( gridMap );
+    }
+
+    /**
+     * Returns the number of cells that changed
+     * in the most recent generation.
+     *
+     * @return  the number of cells that changed
+     *          in the most recent generation
+     */
+    public int getChangedCount()
+    {
+        return changedCount;
+    }
+
+    /**
+     * Returns the CountingGridMap to calculate:
+     * the given map, if it is a CountingGridMap,
+     * otherwise the mirror of the given map,
+     * which is rebuilt if the given map has been replaced or modified.
+     *
+     * @param gridMap   the given map
+     *
+     * @return  the CountingGridMap to calculate
+     */
+    private CountingGridMap getCountingMap( GridMap gridMap )
+    {
+        CountingGridMap countingMap = null;
+        if ( gridMap instanceof CountingGridMap )
+        {
+            countingMap = (CountingGridMap)gridMap;
+            mirror = null;
+            source.reset();
+        }
+        else
+        {
+            if ( source.isStale( gridMap ) )
+                mirror = new CountingGridMap( gridMap );
+            countingMap = mirror;
+        }
+        return countingMap;
+    }
+
+    /**
+     * Records a cell that changes in this generation.
+     *
+     * @param key   the packed coordinates of the cell
+     */
+    private void addChange( long key )
+    {
+        if ( changedCount == changedKeys.length )
+            changedKeys = Arrays.copyOf( changedKeys, changedCount * 2 );
+        changedKeys[changedCount++] = key;
+    }
+}
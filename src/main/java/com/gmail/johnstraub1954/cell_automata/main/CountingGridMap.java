@@ -0,0 +1,186 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+/**
+ * GridMap that maintains the number of live Moore neighbors
+ * of every cell as cells are made alive or dead.
+ * Every modification of a GridMap passes through
+ * {@link #putState(int, int, int)} or {@link #clear()},
+ * so the counts remain consistent no matter how the map is edited:
+ * by a generation engine,
+ * by the user (see {@link Parameters#selectGridCell(Cell)}),
+ * or by decoding a pattern into the map.
+ * A map that has been populated by other means,
+ * such as a plain GridMap decoded from an RLE file,
+ * may be converted with {@link #CountingGridMap(GridMap)}.
+ * <p>
+ * The map also records the <em>dirty</em> cells:
+ * those whose liveness or neighbor count has changed
+ * since the dirty set was last cleared.
+ * The next state of a cell depends only on its liveness
+ * and its neighbor count,
+ * so a cell that is not dirty cannot change
+ * unless it could have changed the last time it was examined;
+ * see {@link CountingEngine}.
+ * <p>
+ * Changing the state of a live cell to another non-0 state
+ * affects neither the counts nor the dirty set.
+ *
+ * @author Jack Straub
+ */
+public class CountingGridMap extends GridMap
+{
+    /** Neighbor count of every cell with a live neighbor. */
+    private final CellTable counts  = new CellTable();
+    /** Cells whose liveness or neighbor count has changed; all 1. */
+    private final CellTable dirty   = new CellTable();
+
+    /**
+     * Default constructor.
+     */
+    public CountingGridMap()
+    {
+        super();
+    }
+
+    /**
+     * Copy constructor.
+     * The neighbor counts are calculated from scratch,
+     * and every live cell and every neighbor of a live cell is dirty.
+     *
+     * @param copyFrom  the GridMap to copy
+     */
+    public CountingGridMap( GridMap copyFrom )
+    {
+        super( copyFrom );
+        forEachLive( (xco, yco, state) -> adjust( xco, yco, 1 ) );
+    }
+
+    /**
+     * Specifies the state of the cell at a given coordinate pair,
+     * updating the neighbor counts if the cell
+     * changes from dead to alive or alive to dead.
+     *
+     * @param xco       the x-coordinate of the given location
+     * @param yco       the y-coordinate of the given location
+     * @param state     the state of the cell
+     *
+     * @return  the previous state of the cell
+     */
+    @Override
+    public int putState( int xco, int yco, int state )
+    {
+        int prev    = super.putState( xco, yco, state );
+        if ( (prev == 0) != (state == 0) )
+            adjust( xco, yco, state == 0 ? -1 : 1 );
+        return prev;
+    }
+
+    /**
+     * Removes all live cells from this map,
+     * along with all neighbor counts and dirty cells.
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        counts.clear();
+        counts.compact();
+        dirty.clear();
+        dirty.compact();
+    }
+
+    /**
+     * Returns the number of live Moore neighbors
+     * of the cell at a given coordinate pair.
+     *
+     * @param xco   the x-coordinate of the cell
+     * @param yco   the y-coordinate of the cell
+     *
+     * @return  the number of live neighbors of the cell
+     */
+    public int getNeighborCount( int xco, int yco )
+    {
+        int count   = counts.get( CellTable.key( xco, yco ) );
+        return count;
+    }
+
+    /**
+     * Returns the number of dirty cells.
+     *
+     * @return  the number of dirty cells
+     */
+    public int getDirtyCount()
+    {
+        int count   = dirty.size();
+        return count;
+    }
+
+    /**
+     * Passes every dirty cell to a given visitor,
+     * along with its current state.
+     * Cells are not visited in any particular order.
+     * The visitor must not modify this map.
+     *
+     * @param visitor   the given visitor
+     */
+    public void forEachDirty( CellVisitor visitor )
+    {
+        int cap = dirty.capacity();
+        for ( int slot = 0 ; slot < cap ; ++slot )
+        {
+            if ( dirty.stateAt( slot ) != 0 )
+            {
+                long    key     = dirty.keyAt( slot );
+                int     xco     = CellTable.xco( key );
+                int     yco     = CellTable.yco( key );
+                visitor.visit( xco, yco, getState( xco, yco ) );
+            }
+        }
+    }
+
+    /**
+     * Marks every live cell and every neighbor of a live cell dirty,
+     * so that every cell that might change is examined.
+     * This is required when the rule changes,
+     * because the fate of a cell that is not dirty
+     * was decided under the previous rule.
+     */
+    public void markAllDirty()
+    {
+        forEachLive( (xco, yco, state) -> {
+            for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+                for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+                    dirty.put( CellTable.key( col, row ), 1 );
+        });
+    }
+
+    /**
+     * Empties the set of dirty cells.
+     */
+    public void clearDirty()
+    {
+        // the set is likely to be refilled to its current size
+        dirty.clear( dirty.size() );
+    }
+
+    /**
+     * Adds a given amount to the neighbor count
+     * of each neighbor of a given cell,
+     * and marks the cell and its neighbors dirty.
+     *
+     * @param xco   the x-coordinate of the given cell
+     * @param yco   the y-coordinate of the given cell
+     * @param delta 1 if the cell was born, -1 if it died
+     */
+    private void adjust( int xco, int yco, int delta )
+    {
+        for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+            for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+            {
+                long    key     = CellTable.key( col, row );
+                if ( row != yco || col != xco )
+                    counts.add( key, delta );
+                dirty.put( key, 1 );
+            }
+    }
+}
@@ -0,0 +1,66 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.List;
+
+/**
+ * Computes successive generations of a two-dimensional automaton.
+ * An engine is free to maintain its own representation
+ * of the grid between generations,
+ * but after every invocation of
+ * {@link #nextGeneration(GridMap, List, List)}
+ * the given GridMap must reflect the new generation.
+ * An engine that caches state must detect
+ * modifications made to the GridMap by other parties
+ * (see {@link GridMap#getModificationCount()}),
+ * and must not assume that it will always be given
+ * the same GridMap;
+ * the engines in this package record the GridMap they last
+ * synchronized with in a SourceTracker.
+ * <p>
+ * Unless an engine documents otherwise,
+ * it treats any non-0 state as <em>alive</em>,
+ * as does {@link Utils#conwayPropagate(Object)},
+ * writes a state of 1 for every birth,
+ * and does not support rules that include birth on 0 neighbors,
+ * whose births would fill the infinite plane;
+ * see {@link Utils#propagate(String, Object)}.
+ *
+ * @author Jack Straub
+ *
+ * @see Utils#propagate(String, Object)
+ */
+public interface GenerationEngine
+{
+    /**
+     * Replaces the contents of a given GridMap
+     * with the next generation of its pattern.
+     *
+     * @param gridMap           the given GridMap
+     * @param survivalStates    neighbor counts for which a live cell
+     *                          survives into the next generation
+     * @param birthStates       neighbor counts for which a dead cell
+     *                          comes alive in the next generation
+     */
+    void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    );
+    
+    /**
+     * Converts a list of neighbor counts,
+     * such as a list of birth or survival states,
+     * to a bit mask.
+     *
+     * @param states    the list of neighbor counts
+     *
+     * @return  a mask in which bit n is set if n is in the list
+     */
+    static int toMask( List<Integer> states )
+    {
+        int mask    = 0;
+        for ( int state : states )
+            mask |= 1 << state;
+        return mask;
+    }
+}
@@ -0,0 +1,415 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * Generation engine for multi-state <em>Generations</em> rules,
+ * such as Brian's Brain (B2/S/3).
+ * In a Generations rule with <em>n</em> states:
+ * <ul>
+ * <li>
+ *     state 0 is dead;
+ *     a dead cell becomes alive (state 1) if its number
+ *     of live neighbors is one of the birth states;
+ * </li>
+ * <li>
+ *     state 1 is alive;
+ *     a live cell remains alive if its number of live neighbors
+ *     is one of the survival states,
+ *     otherwise it begins to decay by advancing to state 2;
+ * </li>
+ * <li>
+ *     states 2 through <em>n</em> - 1 are decaying;
+ *     a decaying cell unconditionally advances to the next state,
+ *     and state <em>n</em> - 1 advances to state 0.
+ * </li>
+ * </ul>
+ * Only cells in state 1 are counted as live neighbors.
+ * With 2 states, a Generations rule is an ordinary
+ * two-state birth/survival rule.
+ * <p>
+ * The engine keeps the pattern in a dense array of bytes
+ * covering the pattern's bounding rectangle plus a margin,
+ * and retains it between generations.
+ * A generation is computed in a single pass over the rows
+ * of the occupied region, using a sliding window of
+ * column sums to count live neighbors,
+ * and a lookup table indexed by state and neighbor count
+ * to determine each cell's next state.
+ * Only the cells that change are written back to the GridMap.
+ * If the pattern approaches the edge of the array,
+ * the array is reallocated around the pattern's
+ * new bounding rectangle.
+ * Because the storage is dense,
+ * memory use is proportional to the area of the bounding rectangle,
+ * not to the population.
+ * <p>
+ * Rules that include birth on 0 neighbors are evaluated
+ * only within the margin surrounding the pattern.
+ *
+ * @author Jack Straub
+ */
+public class GenerationsEngine implements GenerationEngine
+{
+    /** Largest number of states that can be stored in a byte. */
+    public static final int     MAX_STATES      = 256;
+    /** Smallest margin around the pattern when the array is allocated. */
+    private static final int    MIN_MARGIN      = 16;
+    /**
+     * Number of bits used to hold the neighbor count
+     * in an index into the transition table.
+     */
+    private static final int    COUNT_BITS      = 4;
+
+    /** Number of states in the current rule. */
+    private int             states;
+    /** Birth rule used in the last generation. */
+    private int             birthMask       = -1;
+    /** Survival rule used in the last generation. */
+    private int             survivalMask    = -1;
+    /**
+     * Next state of a cell, indexed by
+     * (state &lt;&lt; COUNT_BITS) | live neighbor count.
+     */
+    private final byte[]    transitions     =
+        new byte[MAX_STATES << COUNT_BITS];
+
+    /** Cell states in the current generation; row-major. */
+    private byte[]          curr            = new byte[0];
+    /** Cell states in the next generation; row-major. */
+    private byte[]          next            = new byte[0];
+    /** Width of the arrays, in cells. */
+    private int             width           = 0;
+    /** Height of the arrays, in cells. */
+    private int             height          = 0;
+    /** Grid x-coordinate of column 0 of the arrays. */
+    private int             originX         = 0;
+    /** Grid y-coordinate of row 0 of the arrays. */
+    private int             originY         = 0;
+
+    /** Occupied region of <em>curr</em>, in array coordinates. */
+    private final Rectangle currBounds      = new Rectangle();
+    /** Occupied region of <em>next</em>, in array coordinates. */
+    private final Rectangle nextBounds      = new Rectangle();
+
+    /** The GridMap that this engine last synchronized with. */
+    private final SourceTracker source  = new SourceTracker();
+
+    /**
+     * Constructor.
+     *
+     * @param states    the number of states in the rule;
+     *                  2 through {@link #MAX_STATES}
+     *
+     * @throws IllegalArgumentException if states is out of range
+     */
+    public GenerationsEngine( int states )
+    {
+        setStates( states );
+    }
+
+    /**
+     * Sets the number of states in the rule.
+     * If the number changes, the pattern will be reloaded
+     * from the GridMap in the next generation.
+     *
+     * @param states    the number of states in the rule;
+     *                  2 through {@link #MAX_STATES}
+     *
+     * @throws IllegalArgumentException if states is out of range
+     */
+    public void setStates( int states )
+    {
+        if ( states < 2 || states > MAX_STATES )
+        {
+            String  message = "Invalid number of states: " + states;
+            throw new IllegalArgumentException( message );
+        }
+        if ( states != this.states )
+        {
+            this.states = states;
+            birthMask = -1;
+            source.reset();
+        }
+    }
+
+    /**
+     * Returns the number of states in the rule.
+     *
+     * @return  the number of states in the rule
+     */
+    public int getStates()
+    {
+        return states;
+    }
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        setRule( survivalStates, birthStates );
+        if ( source.isStale( gridMap ) )
+            load( gridMap );
+
+        step( gridMap );
+
+        byte[]  temp    = curr;
+        curr = next;
+        next = temp;
+        Rectangle   bounds  = new Rectangle( currBounds );
+        currBounds.setBounds( nextBounds );
+        nextBounds.setBounds( bounds );
+        if ( !fits( currBounds ) )
+            reallocate();
+
+        source.update( gridMap );
+    }
+
+    /**
+     * Builds the transition table for a given rule,
+     * if it differs from the rule used in the last generation.
+     *
+     * @param survivalStates    the survival states of the rule
+     * @param birthStates       the birth states of the rule
+     */
+    private void setRule( List<Integer> survivalStates, List<Integer> birthStates )
+    {
+        int newBirth    = GenerationEngine.toMask( birthStates );
+        int newSurvival = GenerationEngine.toMask( survivalStates );
+        if ( newBirth == birthMask && newSurvival == survivalMask )
+            return;
+
+        birthMask = newBirth;
+        survivalMask = newSurvival;
+        int decay   = states > 2 ? 2 : 0;
+        for ( int count = 0 ; count <= 8 ; ++count )
+        {
+            boolean birth   = ((birthMask >> count) & 1) != 0;
+            boolean survive = ((survivalMask >> count) & 1) != 0;
+            transitions[count] = (byte)(birth ? 1 : 0);
+            transitions[(1 << COUNT_BITS) | count] =
+                (byte)(survive ? 1 : decay);
+            for ( int state = 2 ; state < states ; ++state )
+            {
+                int nextState   = state + 1 == states ? 0 : state + 1;
+                transitions[(state << COUNT_BITS) | count] = (byte)nextState;
+            }
+        }
+    }
+
+    /**
+     * Discards the current pattern,
+     * and reloads it from a given GridMap.
+     * Any non-0 state that is not valid in the current rule
+     * is treated as the last decaying state.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void load( GridMap gridMap )
+    {
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        int         margin  = getMargin( rect );
+        allocate(
+            rect.x - margin,
+            rect.y - margin,
+            rect.width + 2 * margin,
+            rect.height + 2 * margin
+        );
+        currBounds.setBounds( rect.x - originX, rect.y - originY, 0, 0 );
+        gridMap.forEachLive( (xco, yco, state) -> {
+            int     col     = xco - originX;
+            int     row     = yco - originY;
+            curr[row * width + col] = (byte)Math.min( state, states - 1 );
+        });
+        if ( gridMap.size() > 0 )
+            currBounds.setSize( rect.width, rect.height );
+        nextBounds.setBounds( currBounds );
+    }
+
+    /**
+     * Calculates the next generation into <em>next</em>,
+     * and writes every cell that changed to a given GridMap.
+     * The calculated region includes every cell that might
+     * be non-0 in the next generation,
+     * and every cell that was non-0 the last time
+     * <em>next</em> was used,
+     * so that <em>next</em> need not be cleared.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void step( GridMap gridMap )
+    {
+        Rectangle   region  = new Rectangle( currBounds );
+        region.grow( 1, 1 );
+        region.add( nextBounds );
+
+        int     minCol  = region.x;
+        int     maxCol  = region.x + region.width - 1;
+        int     minRow  = region.y;
+        int     maxRow  = region.y + region.height - 1;
+        int     boundsMinCol    = Integer.MAX_VALUE;
+        int     boundsMaxCol    = Integer.MIN_VALUE;
+        int     boundsMinRow    = Integer.MAX_VALUE;
+        int     boundsMaxRow    = Integer.MIN_VALUE;
+
+        byte[]  cells   = curr;
+        byte[]  result  = next;
+        byte[]  table   = transitions;
+        for ( int row = minRow ; row <= maxRow ; ++row )
+        {
+            int     mid     = row * width;
+            int     north   = mid - width;
+            int     south   = mid + width;
+            int     west    =
+                isAlive( cells[north + minCol - 1] )
+                + isAlive( cells[mid + minCol - 1] )
+                + isAlive( cells[south + minCol - 1] );
+            int     center  =
+                isAlive( cells[north + minCol] )
+                + isAlive( cells[mid + minCol] )
+                + isAlive( cells[south + minCol] );
+            boolean rowLive = false;
+            for ( int col = minCol ; col <= maxCol ; ++col )
+            {
+                int     east    =
+                    isAlive( cells[north + col + 1] )
+                    + isAlive( cells[mid + col + 1] )
+                    + isAlive( cells[south + col + 1] );
+                int     self    = cells[mid + col] & 0xFF;
+                int     count   = west + center + east - isAlive( self );
+                byte    state   = table[(self << COUNT_BITS) | count];
+                result[mid + col] = state;
+                if ( state != 0 )
+                {
+                    rowLive = true;
+                    if ( col < boundsMinCol )
+                        boundsMinCol = col;
+                    if ( col > boundsMaxCol )
+                        boundsMaxCol = col;
+                }
+                if ( state != (byte)self )
+                    gridMap.putState( originX + col, originY + row, state & 0xFF );
+                west = center;
+                center = east;
+            }
+            if ( rowLive )
+            {
+                if ( row < boundsMinRow )
+                    boundsMinRow = row;
+                boundsMaxRow = row;
+            }
+        }
+
+        if ( boundsMinRow == Integer.MAX_VALUE )
+            nextBounds.setBounds( currBounds.x, currBounds.y, 0, 0 );
+        else
+            nextBounds.setBounds(
+                boundsMinCol,
+                boundsMinRow,
+                boundsMaxCol - boundsMinCol + 1,
+                boundsMaxRow - boundsMinRow + 1
+            );
+    }
+
+    /**
+     * Returns 1 if a given state is alive, 0 otherwise;
+     * dying states are not alive.
+     *
+     * @param state the given state
+     *
+     * @return  1 if the given state is alive, 0 otherwise
+     */
+    private static int isAlive( int state )
+    {
+        int result  = state == 1 ? 1 : 0;
+        return result;
+    }
+
+    /**
+     * Determines whether a given occupied region is far enough
+     * from the edges of the arrays that the next generation,
+     * and the generation after that, can be calculated.
+     *
+     * @param bounds    the given occupied region
+     *
+     * @return  true if the occupied region fits in the arrays
+     */
+    private boolean fits( Rectangle bounds )
+    {
+        boolean result  =
+            bounds.isEmpty()
+            || (bounds.x >= 3
+                && bounds.y >= 3
+                && bounds.x + bounds.width <= width - 3
+                && bounds.y + bounds.height <= height - 3);
+        return result;
+    }
+
+    /**
+     * Moves the current generation into new arrays
+     * sized to the current occupied region.
+     */
+    private void reallocate()
+    {
+        byte[]      oldCells    = curr;
+        int         oldWidth    = width;
+        int         oldOriginX  = originX;
+        int         oldOriginY  = originY;
+        Rectangle   rect        = new Rectangle( currBounds );
+        int         margin      = getMargin( rect );
+        allocate(
+            oldOriginX + rect.x - margin,
+            oldOriginY + rect.y - margin,
+            rect.width + 2 * margin,
+            rect.height + 2 * margin
+        );
+        for ( int row = 0 ; row < rect.height ; ++row )
+            System.arraycopy(
+                oldCells,
+                (rect.y + row) * oldWidth + rect.x,
+                curr,
+                (margin + row) * width + margin,
+                rect.width
+            );
+        currBounds.setBounds( margin, margin, rect.width, rect.height );
+        nextBounds.setBounds( currBounds );
+    }
+
+    /**
+     * Allocates new, empty arrays.
+     *
+     * @param xco       grid x-coordinate of column 0 of the arrays
+     * @param yco       grid y-coordinate of row 0 of the arrays
+     * @param width     the width of the arrays
+     * @param height    the height of the arrays
+     */
+    private void allocate( int xco, int yco, int width, int height )
+    {
+        this.originX = xco;
+        this.originY = yco;
+        this.width = width;
+        this.height = height;
+        curr = new byte[width * height];
+        next = new byte[width * height];
+    }
+
+    /**
+     * Determines the margin to allocate around a given region.
+     * Larger patterns get larger margins, so that
+     * a growing pattern need not be reallocated often.
+     *
+     * @param rect  the given region
+     *
+     * @return  the margin to allocate around the given region
+     */
+    private static int getMargin( Rectangle rect )
+    {
+        int margin  =
+            Math.max( MIN_MARGIN, Math.max( rect.width, rect.height ) / 4 );
+        return margin;
+    }
+}
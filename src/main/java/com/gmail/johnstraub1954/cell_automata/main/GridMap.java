@@ -2,12 +2,8 @@ package com.gmail.johnstraub1954.cell_automata.main;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Objects;
-import java.util.Set;
 
 import com.gmail.johnstraub1954.cell_automata.geometry.Offset;
 
@@ -42,6 +38,13 @@ import com.gmail.johnstraub1954.cell_automata.geometry.Offset;
  * is in-bounds, (10,4)) is not
  * </blockquote>
  * 
+ * Internally, cells are stored in a {@link CellTable},
+ * which keys each cell by its packed (x,y) coordinates.
+ * Callers that are sensitive to allocation overhead,
+ * such as generation engines,
+ * should prefer the primitive accessors
+ * {@link #getState(int, int)} and {@link #putState(int, int, int)}
+ * to the Cell/Point-based accessors.
  * 
  * @author Jack Straub
  *
@@ -55,14 +58,24 @@ public class GridMap implements Iterable<Cell>
      * (cells with non-0 states) are physically
      * stored in the map. 
      */
-    private final Map<Point,Integer>    grid;
+    private final CellTable grid;
+    
+    /**
+     * Incremented every time the state of a cell is changed.
+     * Clients that maintain a private copy of the grid,
+     * such as generation engines,
+     * can use this to detect modifications made by other parties.
+     * 
+     * @see #getModificationCount()
+     */
+    private int             modCount    = 0;
     
     /**
      * Default constructor.
      */
     public GridMap()
     {
-        grid = new HashMap<>();
+        grid = new CellTable();
     }
     
     /**
@@ -72,8 +85,104 @@ public class GridMap implements Iterable<Cell>
      */
     public GridMap( GridMap copyFrom )
     {
-        grid = new HashMap<>();
-        grid.putAll( copyFrom.grid );
+        grid = new CellTable( copyFrom.grid );
+    }
+    
+    /**
+     * Returns the state of the cell at a given coordinate pair.
+     * Unlike {@link #get(int, int)}, this method
+     * does not allocate any objects.
+     * 
+     * @param   xco     the x-coordinate of the target cell
+     * @param   yco     the y-coordinate of the target cell
+     * 
+     * @return the state of the cell at the given coordinates
+     */
+    public int getState( int xco, int yco )
+    {
+        int state   = grid.get( CellTable.key( xco, yco ) );
+        return state;
+    }
+    
+    /**
+     * Specifies the state of the cell at a given coordinate pair.
+     * The previous state of the cell is returned.
+     * Unlike {@link #put(int, int, int)}, this method
+     * does not allocate any objects.
+     * <p>
+     * Every other <em>put</em> method is implemented
+     * in terms of this method.
+     * 
+     * @param xco       the x-coordinate of the given location
+     * @param yco       the y-coordinate of the given location
+     * @param state     the state of the cell
+     * 
+     * @return  the previous state of the cell
+     */
+    public int putState( int xco, int yco, int state )
+    {
+        int prev    = grid.put( CellTable.key( xco, yco ), state );
+        if ( prev != state )
+            ++modCount;
+        return prev;
+    }
+    
+    /**
+     * Returns a count of the modifications made to this map.
+     * The count is incremented every time the state of a cell changes;
+     * two equal counts, obtained at different times,
+     * indicate that the map did not change in the interval.
+     * 
+     * @return  a count of the modifications made to this map
+     */
+    public int getModificationCount()
+    {
+        return modCount;
+    }
+    
+    /**
+     * Passes every live cell in this map to a given visitor.
+     * Cells are not visited in any particular order.
+     * The visitor must not modify this map.
+     * 
+     * @param visitor   the given visitor
+     */
+    public void forEachLive( CellVisitor visitor )
+    {
+        int cap = grid.capacity();
+        for ( int slot = 0 ; slot < cap ; ++slot )
+        {
+            int state   = grid.stateAt( slot );
+            if ( state != 0 )
+            {
+                long    key = grid.keyAt( slot );
+                visitor.visit( CellTable.xco( key ), CellTable.yco( key ), state );
+            }
+        }
+    }
+    
+    /**
+     * Removes all live cells from this map.
+     */
+    public void clear()
+    {
+        if ( !grid.isEmpty() )
+        {
+            grid.clear();
+            grid.compact();
+            ++modCount;
+        }
+    }
+    
+    /**
+     * Returns the number of live cells in this map.
+     * 
+     * @return  the number of live cells in this map
+     */
+    public int size()
+    {
+        int size    = grid.size();
+        return size;
     }
     
     /**
@@ -86,8 +195,7 @@ public class GridMap implements Iterable<Cell>
      */
     public Cell get( int xco, int yco )
     {
-        Point   point   = new Point( xco, yco );
-        Cell    cell    = get( point );
+        Cell    cell    = new Cell( xco, yco, getState( xco, yco ) );
         return cell;
     }
     
@@ -100,9 +208,7 @@ public class GridMap implements Iterable<Cell>
      */
     public Cell get( Point point )
     {
-        Integer state   = grid.get( point );
-        if ( state == null )
-            state = 0;
+        int     state   = getState( point.x, point.y );
         Cell    cell    = new Cell( point, state );
         return cell;
     }
@@ -116,11 +222,7 @@ public class GridMap implements Iterable<Cell>
      */
     public Cell get( Offset offset )
     {
-        Point   point   = offset.getPoint();
-        Integer state   = grid.get( point );
-        if ( state == null )
-            state = 0;
-        Cell    cell    = new Cell( point, state );
+        Cell    cell    = get( offset.col, offset.row );
         return cell;
     }
     
@@ -146,7 +248,7 @@ public class GridMap implements Iterable<Cell>
     public Cell put( int xco, int yco, boolean state )
     {
         int     intState    = state ? 1 : 0;
-        Cell    cell        = put( new Point( xco, yco ), intState );
+        Cell    cell        = put( xco, yco, intState );
         return cell;
     }
     
@@ -162,7 +264,8 @@ public class GridMap implements Iterable<Cell>
      */
     public Cell put( int xco, int yco, int state )
     {
-        Cell    cell    = put( new Point( xco, yco ), state );
+        int     prev    = putState( xco, yco, state );
+        Cell    cell    = new Cell( xco, yco, prev );
         return cell;
     }
     
@@ -216,11 +319,8 @@ public class GridMap implements Iterable<Cell>
      */
     public Cell put( Point point, int state )
     {
-        Cell    cell    = get( point );
-        if ( state == 0 )
-            grid.remove( point );
-        else
-            grid.put( point, state );
+        int     prev    = putState( point.x, point.y, state );
+        Cell    cell    = new Cell( point, prev );
         return cell;
     }
     
@@ -231,10 +331,9 @@ public class GridMap implements Iterable<Cell>
      */
     public Rectangle getLiveRectangle()
     {
-        Set<Point>  keySet  = grid.keySet();
         Rectangle   rect    = null;
         
-        if ( keySet.isEmpty() )
+        if ( grid.isEmpty() )
             rect = new Rectangle( 0, 0, 0, 0 );
         else
         {
@@ -242,15 +341,20 @@ public class GridMap implements Iterable<Cell>
             int         maxX    = Integer.MIN_VALUE;
             int         minY    = Integer.MAX_VALUE;
             int         maxY    = Integer.MIN_VALUE;
-            for ( Point point : keySet )
+            int         cap     = grid.capacity();
+            for ( int slot = 0 ; slot < cap ; ++slot )
             {
-                int xco = point.x;
+                if ( grid.stateAt( slot ) == 0 )
+                    continue;
+                
+                long    key = grid.keyAt( slot );
+                int     xco = CellTable.xco( key );
                 if ( xco < minX )
                     minX = xco;
                 if ( xco > maxX )
                     maxX = xco;
     
-                int yco = point.y;
+                int     yco = CellTable.yco( key );
                 if ( yco < minY )
                     minY = yco;
                 if ( yco > maxY )
@@ -322,7 +426,7 @@ public class GridMap implements Iterable<Cell>
     @Override
     public int hashCode()
     {
-        int hash    = Objects.hash( grid );
+        int hash    = grid.hashCode();
         return hash;
     }
     
@@ -356,6 +460,27 @@ public class GridMap implements Iterable<Cell>
         return result;
     }
 
+    /**
+     * Receives the coordinates and state of a cell
+     * without the overhead of a Cell object.
+     * 
+     * @author Jack Straub
+     * 
+     * @see GridMap#forEachLive(CellVisitor)
+     */
+    @FunctionalInterface
+    public interface CellVisitor
+    {
+        /**
+         * Processes the cell at a given location.
+         * 
+         * @param xco   the x-coordinate of the given location
+         * @param yco   the y-coordinate of the given location
+         * @param state the state of the cell at the given location
+         */
+        void visit( int xco, int yco, int state );
+    }
+
     /**
      * This class is used to iterate over every live cell
      * in some rectangle.
@@ -368,11 +493,11 @@ public class GridMap implements Iterable<Cell>
         private final Rectangle rect;
         
         /** 
-         * Iterator over all keys in the map.
-         * Note that only live cells are stored in the map,
-         * so every key maps to a live cell.
+         * Next slot of the underlying table to examine.
+         * Note that only live cells are stored in the table,
+         * so every occupied slot holds a live cell.
          */
-        private Iterator<Point> pointIter;
+        private int             slot;
         
         /** Next cell to return; null if none. */
         private Cell            next;
@@ -380,8 +505,7 @@ public class GridMap implements Iterable<Cell>
         public CellIterator( Rectangle rect )
         {
             this.rect = rect;
-            Set<Point>   keys    = grid.keySet();
-            pointIter = keys.iterator();
+            slot = 0;
             next = nextCell();
         }
         
@@ -430,12 +554,19 @@ public class GridMap implements Iterable<Cell>
         private Cell nextCell()
         {
             Cell    nextCell = null;
-            while ( nextCell == null && pointIter.hasNext() )
+            int     cap      = grid.capacity();
+            while ( nextCell == null && slot < cap )
             {
-                Point   point   = pointIter.next();
+                int     state   = grid.stateAt( slot );
+                long    key     = grid.keyAt( slot );
+                ++slot;
                 
-                if ( rect.contains( point) )
-                    nextCell = new Cell( point, true );
+                if ( state == 0 )
+                    continue;
+                int     xco     = CellTable.xco( key );
+                int     yco     = CellTable.yco( key );
+                if ( rect.contains( xco, yco ) )
+                    nextCell = new Cell( xco, yco, state );
             }
             return nextCell;
         }
@@ -478,7 +609,7 @@ public class GridMap implements Iterable<Cell>
                 throw new NoSuchElementException( message );
             }
             
-            Cell    nextCell    = get( nextLoc );
+            Cell    nextCell    = get( nextLoc.x, nextLoc.y );
             if ( ++nextLoc.x >= lastCol )
             {
                 nextLoc.x = firstCol;
@@ -0,0 +1,896 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two-state generation engine based on Gosper's HashLife algorithm.
+ * The plane is represented as a quadtree
+ * whose nodes are <em>canonical</em>:
+ * there is exactly one node for any given configuration of cells,
+ * so identical regions of the plane,
+ * in space or in time, share storage.
+ * Each node memoizes its <em>result</em>:
+ * the center of the node, advanced some number of generations.
+ * A node at level <em>k</em> (2<sup>k</sup> cells on a side)
+ * can be advanced up to 2<sup>k-2</sup> generations in a single step,
+ * so this engine can advance a regular pattern by
+ * millions of generations at a time
+ * (see {@link #advance(GridMap, RuleTable, long)}).
+ * Because the base case is evaluated with the block table
+ * of a {@link RuleTable}, any two-state rule,
+ * including an isotropic non-totalistic rule,
+ * is evaluated at the same speed.
+ * <p>
+ * Canonical nodes are stored in a private hash table
+ * whose size is governed by a memory budget,
+ * expressed as a number of nodes
+ * (see {@link CAConstants#PROP_HASHLIFE_MAX_NODES_PN}).
+ * The budget is enforced while a step is being computed.
+ * When it is exceeded the step is abandoned,
+ * the table is rebuilt, retaining only the nodes that make up
+ * the current pattern (memoized results that refer to
+ * discarded nodes are forgotten),
+ * and the step is retried as two steps of half the size.
+ * If even a single generation cannot be computed
+ * within the budget, the advance fails with a CAException.
+ *
+ * @author Jack Straub
+ */
+public class HashLifeEngine implements RuleTableEngine
+{
+    /** Initial number of buckets in the node table. */
+    private static final int    INIT_TABLE_SIZE = 1 << 16;
+    /** Smallest level of the root node. */
+    private static final int    MIN_ROOT_LEVEL  = 3;
+
+    /** Maximum number of nodes in the node table. */
+    private int     maxNodes;
+    /** Number of times the node table has been collected. */
+    private int     collectCount    = 0;
+
+    /** Buckets of the node table. */
+    private Node[]  table;
+    /** Number of nodes in the node table. */
+    private int     nodeCount;
+    /** Identifier to assign to the next node created. */
+    private int     nextId;
+    /** Used to identify reachable nodes during collection. */
+    private int     epoch           = 0;
+
+    /** Canonical dead cell. */
+    private final Node          dead    = new Node( 0, 0 );
+    /** Canonical live cell. */
+    private final Node          alive   = new Node( 1, 1 );
+    /** Canonical empty node for each level. */
+    private final List<Node>    empties = new ArrayList<>();
+    /** Results of the base case, indexed by 4x4 bit pattern. */
+    private final Node[]        baseResults = new Node[RuleTable.BLOCK_SIZE];
+
+    /** Birth rule; bit n is set if birth occurs on n neighbors. */
+    private int     birthMask       = -1;
+    /** Survival rule; bit n is set if survival occurs on n neighbors. */
+    private int     survivalMask    = -1;
+    /** The rule given by birthMask and survivalMask. */
+    private RuleTable   listRule    = null;
+    /** The current rule, compiled into lookup tables. */
+    private RuleTable   rule        = null;
+
+    /** The current pattern. */
+    private Node    root;
+    /** x-coordinate of the upper-left cell of the root. */
+    private long    originX;
+    /** y-coordinate of the upper-left cell of the root. */
+    private long    originY;
+
+    /** The GridMap that the root was last synchronized with. */
+    private final SourceTracker source  = new SourceTracker();
+
+    /**
+     * Constructor.
+     *
+     * @param maxNodes  the maximum number of nodes in the node table
+     */
+    public HashLifeEngine( int maxNodes )
+    {
+        setMaxNodes( maxNodes );
+        clearNodes();
+    }
+
+    /**
+     * Gets the maximum number of nodes in the node table.
+     *
+     * @return  the maximum number of nodes in the node table
+     */
+    public int getMaxNodes()
+    {
+        return maxNodes;
+    }
+
+    /**
+     * Sets the maximum number of nodes in the node table.
+     *
+     * @param maxNodes  the maximum number of nodes in the node table
+     */
+    public void setMaxNodes( int maxNodes )
+    {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Returns the number of nodes currently in the node table.
+     *
+     * @return  the number of nodes currently in the node table
+     */
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of times the node table has been
+     * collected because the memory budget was exceeded.
+     *
+     * @return  the number of times the node table has been collected
+     */
+    public int getCollectCount()
+    {
+        return collectCount;
+    }
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        advance( gridMap, survivalStates, birthStates, 1 );
+    }
+
+    @Override
+    public void nextGeneration( GridMap gridMap, RuleTable rule )
+    {
+        advance( gridMap, rule, 1 );
+    }
+
+    /**
+     * Advances the pattern in a given GridMap
+     * by a given number of generations.
+     * The number of generations is decomposed into powers of 2,
+     * each of which is computed in a single step.
+     *
+     * @param gridMap           the given GridMap
+     * @param survivalStates    neighbor counts for which a live cell
+     *                          survives into the next generation
+     * @param birthStates       neighbor counts for which a dead cell
+     *                          comes alive in the next generation
+     * @param generations       the given number of generations;
+     *                          may not be negative
+     *
+     * @throws IllegalArgumentException if <em>generations</em>
+     *         is negative
+     * @throws CAException if a single generation of the pattern
+     *         cannot be computed within the memory budget
+     */
+    public void advance(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates,
+        long generations
+    )
+    {
+        int     newBirth    = GenerationEngine.toMask( birthStates );
+        int     newSurvival = GenerationEngine.toMask( survivalStates );
+        if ( newBirth != birthMask || newSurvival != survivalMask )
+        {
+            birthMask = newBirth;
+            survivalMask = newSurvival;
+            listRule = new RuleTable( survivalStates, birthStates );
+        }
+        advance( gridMap, listRule, generations );
+    }
+
+    /**
+     * Advances the pattern in a given GridMap
+     * by a given number of generations under a given rule.
+     * The number of generations is decomposed into powers of 2,
+     * each of which is computed in a single step.
+     *
+     * @param gridMap       the given GridMap
+     * @param rule          the given rule
+     * @param generations   the given number of generations;
+     *                      may not be negative
+     *
+     * @throws IllegalArgumentException if <em>generations</em>
+     *         is negative
+     * @throws CAException if a single generation of the pattern
+     *         cannot be computed within the memory budget;
+     *         the GridMap is not changed
+     */
+    public void advance( GridMap gridMap, RuleTable rule, long generations )
+    {
+        if ( generations < 0 )
+        {
+            String  message = "Generations may not be negative";
+            throw new IllegalArgumentException( message );
+        }
+
+        if ( rule != this.rule && !rule.equals( this.rule ) )
+        {
+            // memoized results are only valid for one rule
+            this.rule = rule;
+            clearNodes();
+            source.reset();
+        }
+        if ( source.isStale( gridMap ) )
+            load( gridMap );
+
+        try
+        {
+            for ( int bit = 0 ; (generations >>> bit) != 0 ; ++bit )
+                if ( ((generations >>> bit) & 1) != 0 )
+                    budgetedStep( bit );
+        }
+        catch ( CAException exc )
+        {
+            // the root no longer matches the GridMap
+            source.reset();
+            throw exc;
+        }
+        crop();
+        store( gridMap );
+    }
+
+    /**
+     * Advances the root node by 2<sup>j</sup> generations
+     * within the memory budget.
+     * If the budget is exceeded the node table is collected,
+     * and the step is retried as two steps of
+     * 2<sup>j-1</sup> generations.
+     *
+     * @param j log2 of the number of generations to advance
+     *
+     * @throws CAException if a single generation
+     *         cannot be computed within the budget
+     */
+    private void budgetedStep( int j )
+    {
+        if ( nodeCount > maxNodes )
+            collect();
+        try
+        {
+            step( j );
+        }
+        catch ( BudgetExceededException exc )
+        {
+            // step leaves the root unchanged, or expanded by
+            // an empty border, so the pattern is intact
+            collect();
+            if ( j == 0 )
+            {
+                String  message =
+                    "HashLife memory budget of " + maxNodes
+                    + " nodes is too small for this pattern";
+                throw new CAException( message );
+            }
+            budgetedStep( j - 1 );
+            budgetedStep( j - 1 );
+        }
+    }
+
+    /**
+     * Advances the root node by 2<sup>j</sup> generations.
+     *
+     * @param j log2 of the number of generations to advance
+     *
+     * @throws BudgetExceededException
+     *         if the memory budget is exceeded
+     */
+    private void step( int j )
+    {
+        // The pattern may grow by as much as 2^j cells in
+        // every direction; make sure there is room for it
+        // in the result.
+        while ( root.level < j + 2 || !isPadded( root ) )
+            expandRoot();
+        expandRoot();
+
+        root = successor( root, j );
+        long    offset  = 1L << (root.level - 1);
+        originX += offset;
+        originY += offset;
+    }
+
+    /**
+     * Returns the center of a given node,
+     * advanced 2<sup>j</sup> generations,
+     * or 2<sup>level-2</sup> generations
+     * if that is smaller.
+     *
+     * @param node  the given node; must be at least level 2
+     * @param j     log2 of the number of generations to advance
+     *
+     * @return  the center of the given node, advanced
+     *
+     * @throws BudgetExceededException
+     *         if the memory budget is exceeded
+     */
+    private Node successor( Node node, int j )
+    {
+        int     level   = node.level;
+        if ( node.population == 0 )
+            return empty( level - 1 );
+
+        int     step    = Math.min( j, level - 2 );
+        if ( node.result != null && node.resultStep == step )
+            return node.result;
+        if ( nodeCount > maxNodes )
+            throw BudgetExceededException.INSTANCE;
+
+        Node    result;
+        if ( level == 2 )
+            result = baseCase( node );
+        else
+        {
+            Node    nw  = node.nw;
+            Node    ne  = node.ne;
+            Node    sw  = node.sw;
+            Node    se  = node.se;
+            Node    c1  = successor( nw, step );
+            Node    c2  = successor( join( nw.ne, ne.nw, nw.se, ne.sw ), step );
+            Node    c3  = successor( ne, step );
+            Node    c4  = successor( join( nw.sw, nw.se, sw.nw, sw.ne ), step );
+            Node    c5  = successor( join( nw.se, ne.sw, sw.ne, se.nw ), step );
+            Node    c6  = successor( join( ne.sw, ne.se, se.nw, se.ne ), step );
+            Node    c7  = successor( sw, step );
+            Node    c8  = successor( join( sw.ne, se.nw, sw.se, se.sw ), step );
+            Node    c9  = successor( se, step );
+            if ( step < level - 2 )
+            {
+                // The children have already advanced the full step;
+                // assemble the center of the result without
+                // advancing further.
+                result = join(
+                    join( c1.se, c2.sw, c4.ne, c5.nw ),
+                    join( c2.se, c3.sw, c5.ne, c6.nw ),
+                    join( c4.se, c5.sw, c7.ne, c8.nw ),
+                    join( c5.se, c6.sw, c8.ne, c9.nw )
+                );
+            }
+            else
+            {
+                result = join(
+                    successor( join( c1, c2, c4, c5 ), step ),
+                    successor( join( c2, c3, c5, c6 ), step ),
+                    successor( join( c4, c5, c7, c8 ), step ),
+                    successor( join( c5, c6, c8, c9 ), step )
+                );
+            }
+        }
+        node.result = result;
+        node.resultStep = step;
+        return result;
+    }
+
+    /**
+     * Advances the center 2x2 cells of a level-2 (4x4) node
+     * by one generation.
+     *
+     * @param node  the given node
+     *
+     * @return  the level-1 node at the center of the given node,
+     *          advanced one generation
+     */
+    private Node baseCase( Node node )
+    {
+        int     bits    =
+            quadBits( node.nw )
+            | (quadBits( node.ne ) << 2)
+            | (quadBits( node.sw ) << 8)
+            | (quadBits( node.se ) << 10);
+        Node    result  = baseResults[bits];
+        if ( result == null )
+        {
+            int next    = rule.nextBlock( bits );
+            result = join(
+                (next & 1) != 0 ? alive : dead,
+                (next & 2) != 0 ? alive : dead,
+                (next & 4) != 0 ? alive : dead,
+                (next & 8) != 0 ? alive : dead
+            );
+            baseResults[bits] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the cells of a level-1 node in bits 0, 1, 4 and 5
+     * of an integer, consistent with the layout used by
+     * {@link #baseCase(Node)}.
+     *
+     * @param node  the given level-1 node
+     *
+     * @return  the encoded cells
+     */
+    private static int quadBits( Node node )
+    {
+        int bits    =
+            (int)node.nw.population
+            | ((int)node.ne.population << 1)
+            | ((int)node.sw.population << 4)
+            | ((int)node.se.population << 5);
+        return bits;
+    }
+
+    /**
+     * Returns the canonical node with the given children.
+     *
+     * @param nw    the northwest child
+     * @param ne    the northeast child
+     * @param sw    the southwest child
+     * @param se    the southeast child
+     *
+     * @return  the canonical node with the given children
+     */
+    private Node join( Node nw, Node ne, Node sw, Node se )
+    {
+        int     hash    = hash( nw, ne, sw, se );
+        int     slot    = hash & (table.length - 1);
+        for ( Node node = table[slot] ; node != null ; node = node.next )
+            if ( node.nw == nw && node.ne == ne && node.sw == sw && node.se == se )
+                return node;
+
+        Node    node    = new Node( nextId++, nw, ne, sw, se );
+        node.hash = hash;
+        node.next = table[slot];
+        table[slot] = node;
+        if ( ++nodeCount > table.length )
+            resize( table.length * 2 );
+        return node;
+    }
+
+    /**
+     * Computes a hash code for a node with the given children.
+     *
+     * @param nw    the northwest child
+     * @param ne    the northeast child
+     * @param sw    the southwest child
+     * @param se    the southeast child
+     *
+     * @return  a hash code for a node with the given children
+     */
+    private static int hash( Node nw, Node ne, Node sw, Node se )
+    {
+        int hash    = nw.id;
+        hash = hash * 0x9E3779B1 + ne.id;
+        hash = hash * 0x9E3779B1 + sw.id;
+        hash = hash * 0x9E3779B1 + se.id;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Returns the canonical empty node for a given level.
+     *
+     * @param level the given level
+     *
+     * @return  the canonical empty node for the given level
+     */
+    private Node empty( int level )
+    {
+        while ( empties.size() <= level )
+        {
+            Node    prev    = empties.get( empties.size() - 1 );
+            empties.add( join( prev, prev, prev, prev ) );
+        }
+        return empties.get( level );
+    }
+
+    /**
+     * Returns the center of a given node;
+     * the result is one level lower than the given node.
+     *
+     * @param node  the given node; must be at least level 2
+     *
+     * @return  the center of the given node
+     */
+    private Node center( Node node )
+    {
+        Node    result  =
+            join( node.nw.se, node.ne.sw, node.sw.ne, node.se.nw );
+        return result;
+    }
+
+    /**
+     * Determines whether all live cells in a given node
+     * lie within its center.
+     *
+     * @param node  the given node
+     *
+     * @return  true if all live cells in the given node
+     *          lie within its center
+     */
+    private boolean isPadded( Node node )
+    {
+        boolean result  =
+            node.level >= 2 && center( node ).population == node.population;
+        return result;
+    }
+
+    /**
+     * Surrounds the root with a border of empty cells,
+     * increasing its level by one.
+     */
+    private void expandRoot()
+    {
+        int     level   = root.level;
+        Node    border  = empty( level - 1 );
+        root = join(
+            join( border, border, border, root.nw ),
+            join( border, border, root.ne, border ),
+            join( border, root.sw, border, border ),
+            join( root.se, border, border, border )
+        );
+        long    offset  = 1L << (level - 1);
+        originX -= offset;
+        originY -= offset;
+    }
+
+    /**
+     * Removes empty borders from the root.
+     */
+    private void crop()
+    {
+        while ( root.level > MIN_ROOT_LEVEL && isPadded( root ) )
+        {
+            long    offset  = 1L << (root.level - 2);
+            root = center( root );
+            originX += offset;
+            originY += offset;
+        }
+    }
+
+    /**
+     * Discards all nodes.
+     */
+    private void clearNodes()
+    {
+        table = new Node[INIT_TABLE_SIZE];
+        nodeCount = 0;
+        nextId = 2;
+        empties.clear();
+        empties.add( dead );
+        Arrays.fill( baseResults, null );
+        root = empty( MIN_ROOT_LEVEL );
+        originX = 0;
+        originY = 0;
+    }
+
+    /**
+     * Rebuilds the node table,
+     * retaining only nodes that are reachable from the root.
+     */
+    private void collect()
+    {
+        ++epoch;
+        ++collectCount;
+        mark( root );
+        for ( Node node : empties )
+            mark( node );
+
+        Node[]  oldTable    = table;
+        table = new Node[INIT_TABLE_SIZE];
+        while ( table.length < maxNodes )
+            table = new Node[table.length * 2];
+        nodeCount = 0;
+        for ( Node head : oldTable )
+        {
+            Node    next;
+            for ( Node node = head ; node != null ; node = next )
+            {
+                next = node.next;
+                if ( node.mark == epoch )
+                {
+                    if ( node.result != null && node.result.mark != epoch )
+                        node.result = null;
+                    int slot    = node.hash & (table.length - 1);
+                    node.next = table[slot];
+                    table[slot] = node;
+                    ++nodeCount;
+                }
+            }
+        }
+        Arrays.fill( baseResults, null );
+    }
+
+    /**
+     * Marks a given node and all of its descendants
+     * as reachable.
+     *
+     * @param node  the given node
+     */
+    private void mark( Node node )
+    {
+        if ( node.level > 0 && node.mark != epoch )
+        {
+            node.mark = epoch;
+            mark( node.nw );
+            mark( node.ne );
+            mark( node.sw );
+            mark( node.se );
+        }
+    }
+
+    /**
+     * Changes the number of buckets in the node table.
+     *
+     * @param size  the new number of buckets; must be a power of 2
+     */
+    private void resize( int size )
+    {
+        Node[]  oldTable    = table;
+        table = new Node[size];
+        for ( Node head : oldTable )
+        {
+            Node    next;
+            for ( Node node = head ; node != null ; node = next )
+            {
+                next = node.next;
+                int slot    = node.hash & (size - 1);
+                node.next = table[slot];
+                table[slot] = node;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the root from the contents of a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void load( GridMap gridMap )
+    {
+        int     size    = gridMap.size();
+        int[]   xcos    = new int[size];
+        int[]   ycos    = new int[size];
+        int[]   count   = { 0 };
+        gridMap.forEachLive( (xco, yco, state) -> {
+            xcos[count[0]] = xco;
+            ycos[count[0]] = yco;
+            ++count[0];
+        });
+
+        if ( size == 0 )
+        {
+            root = empty( MIN_ROOT_LEVEL );
+            originX = 0;
+            originY = 0;
+        }
+        else
+        {
+            int minX    = Integer.MAX_VALUE;
+            int minY    = Integer.MAX_VALUE;
+            int maxX    = Integer.MIN_VALUE;
+            int maxY    = Integer.MIN_VALUE;
+            for ( int inx = 0 ; inx < size ; ++inx )
+            {
+                minX = Math.min( minX, xcos[inx] );
+                maxX = Math.max( maxX, xcos[inx] );
+                minY = Math.min( minY, ycos[inx] );
+                maxY = Math.max( maxY, ycos[inx] );
+            }
+            long    extent  = Math.max( (long)maxX - minX, (long)maxY - minY ) + 1;
+            int     level   = MIN_ROOT_LEVEL;
+            while ( (1L << level) < extent )
+                ++level;
+            originX = minX;
+            originY = minY;
+            root = build( xcos, ycos, 0, size, originX, originY, level );
+        }
+    }
+
+    /**
+     * Builds the node containing the given cells.
+     * The cells are reordered in the process.
+     *
+     * @param xcos  x-coordinates of the given cells
+     * @param ycos  y-coordinates of the given cells
+     * @param from  index of the first cell to include
+     * @param to    index of the last cell to include, exclusive
+     * @param xco   x-coordinate of the upper-left corner of the node
+     * @param yco   y-coordinate of the upper-left corner of the node
+     * @param level level of the node
+     *
+     * @return  the node containing the given cells
+     */
+    private Node build(
+        int[] xcos, int[] ycos, int from, int to, long xco, long yco, int level
+    )
+    {
+        if ( from == to )
+            return empty( level );
+        if ( level == 0 )
+            return alive;
+
+        long    half    = 1L << (level - 1);
+        int     midY    = partition( ycos, xcos, from, to, yco + half );
+        int     midNorth    = partition( xcos, ycos, from, midY, xco + half );
+        int     midSouth    = partition( xcos, ycos, midY, to, xco + half );
+        Node    node    = join(
+            build( xcos, ycos, from, midNorth, xco, yco, level - 1 ),
+            build( xcos, ycos, midNorth, midY, xco + half, yco, level - 1 ),
+            build( xcos, ycos, midY, midSouth, xco, yco + half, level - 1 ),
+            build( xcos, ycos, midSouth, to, xco + half, yco + half, level - 1 )
+        );
+        return node;
+    }
+
+    /**
+     * Reorders a range of cells so that cells whose keys
+     * are less than a given pivot come first.
+     *
+     * @param keys      the coordinates to compare to the pivot
+     * @param others    the other coordinates of the cells
+     * @param from      the first index of the range
+     * @param to        the last index of the range, exclusive
+     * @param pivot     the given pivot
+     *
+     * @return  the index of the first cell whose key is not
+     *          less than the pivot
+     */
+    private static int partition(
+        int[] keys, int[] others, int from, int to, long pivot
+    )
+    {
+        int     next    = from;
+        for ( int inx = from ; inx < to ; ++inx )
+        {
+            if ( keys[inx] < pivot )
+            {
+                int temp    = keys[inx];
+                keys[inx] = keys[next];
+                keys[next] = temp;
+                temp = others[inx];
+                others[inx] = others[next];
+                others[next] = temp;
+                ++next;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Replaces the contents of a given GridMap
+     * with the live cells of the root.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void store( GridMap gridMap )
+    {
+        gridMap.clear();
+        store( gridMap, root, originX, originY );
+        source.update( gridMap );
+    }
+
+    /**
+     * Writes the live cells of a given node to a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     * @param node      the given node
+     * @param xco       x-coordinate of the upper-left corner of the node
+     * @param yco       y-coordinate of the upper-left corner of the node
+     */
+    private void store( GridMap gridMap, Node node, long xco, long yco )
+    {
+        if ( node.population == 0 )
+            return;
+        if ( node.level == 0 )
+            gridMap.putState( (int)xco, (int)yco, 1 );
+        else
+        {
+            long    half    = 1L << (node.level - 1);
+            store( gridMap, node.nw, xco, yco );
+            store( gridMap, node.ne, xco + half, yco );
+            store( gridMap, node.sw, xco, yco + half );
+            store( gridMap, node.se, xco + half, yco + half );
+        }
+    }
+
+    /**
+     * Thrown from within a step when the node table
+     * exceeds the memory budget.
+     * A single instance, without a stack trace, is reused.
+     *
+     * @author Jack Straub
+     */
+    private static class BudgetExceededException extends RuntimeException
+    {
+        /** Generated serial version ID. */
+        private static final long serialVersionUID = -2306414761830591627L;
+
+        /** The single instance of this exception. */
+        static final BudgetExceededException    INSTANCE    =
+            new BudgetExceededException();
+
+        /**
+         * Constructor.
+         */
+        private BudgetExceededException()
+        {
+            super( "Node budget exceeded", null, false, false );
+        }
+    }
+
+    /**
+     * A node of the quadtree.
+     * A node at level 0 is a single cell;
+     * a node at level <em>k</em> has four children at level <em>k - 1</em>.
+     *
+     * @author Jack Straub
+     */
+    private static class Node
+    {
+        /** Unique identifier; used for hashing. */
+        final int   id;
+        /** Level of this node; it is 2^level cells on a side. */
+        final int   level;
+        /** Number of live cells in this node. */
+        final long  population;
+        /** Northwest child. */
+        final Node  nw;
+        /** Northeast child. */
+        final Node  ne;
+        /** Southwest child. */
+        final Node  sw;
+        /** Southeast child. */
+        final Node  se;
+
+        /** Hash code of this node's children. */
+        int     hash;
+        /** Next node in the same hash table bucket. */
+        Node    next;
+        /** Memoized center of this node, advanced 2^resultStep generations. */
+        Node    result;
+        /** log2 of the number of generations that result is advanced. */
+        int     resultStep;
+        /** Epoch in which this node was last found to be reachable. */
+        int     mark;
+
+        /**
+         * Constructor for a leaf node.
+         *
+         * @param id        unique identifier
+         * @param state     1 for a live cell, 0 for a dead cell
+         */
+        Node( int id, int state )
+        {
+            this.id = id;
+            this.level = 0;
+            this.population = state;
+            nw = ne = sw = se = null;
+        }
+
+        /**
+         * Constructor for an interior node.
+         *
+         * @param id    unique identifier
+         * @param nw    northwest child
+         * @param ne    northeast child
+         * @param sw    southwest child
+         * @param se    southeast child
+         */
+        Node( int id, Node nw, Node ne, Node sw, Node se )
+        {
+            this.id = id;
+            this.level = nw.level + 1;
+            this.population =
+                nw.population + ne.population + sw.population + se.population;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.gmail.johnstraub1954.cell_automata.geometry.HexLayout;
+import com.gmail.johnstraub1954.cell_automata.geometry.HexNeighborhood;
+import com.gmail.johnstraub1954.cell_automata.geometry.HexRingTable;
+
+/**
+ * Generation engine for two-state automata on a hexagonal grid,
+ * such as the hexagonal rule B2/S34H.
+ * The cells of the GridMap are interpreted as the offset coordinates
+ * (column, row) of hexagons in a given {@link HexLayout};
+ * by default each cell has the six neighbors
+ * given by {@link HexNeighborhood}.
+ * Extended neighborhoods of radius 2 or 3
+ * are selected by giving a weight for each ring of neighbors
+ * (see {@link HexRingTable});
+ * the neighbor count of a cell is then the sum
+ * of the weights of its live neighbors.
+ * For example, weights { 1, 1 } select the 18-cell neighborhood
+ * of radius 2 in which every neighbor counts equally,
+ * and weights { 2, 1 } count the six nearest neighbors twice.
+ * <p>
+ * In offset coordinates the displacement to each neighbor
+ * depends only on the parity of the cell's row
+ * (for the <em>r</em> layouts)
+ * or column (for the <em>q</em> layouts).
+ * The displacements for each combination of
+ * column and row parity are obtained from
+ * the layout's HexRingTable,
+ * so no axial coordinates are calculated.
+ * <p>
+ * Each generation, the pattern is copied into a dense array
+ * covering its bounding rectangle plus a margin,
+ * the displacements are converted to array index offsets,
+ * and the neighbors of each cell are counted
+ * by array reads.
+ * Apart from growing the array when the pattern grows,
+ * and rebuilding the rule tables when the rule changes,
+ * a generation allocates no memory.
+ * Only the cells that change are written back to the GridMap.
+ * The engine retains no pattern between generations,
+ * so changes to the GridMap made between generations
+ * are always honored.
+ * Rules that include birth on 0 neighbors are evaluated
+ * only within the neighborhood of the pattern.
+ *
+ * @author Jack Straub
+ */
+public class HexLifeEngine implements GenerationEngine
+{
+    /** The layout that maps offset coordinates to hexagons. */
+    private final HexLayout     layout;
+    /** The table of displacements for the layout. */
+    private final HexRingTable  table;
+    /** The weight of each ring of neighbors; ring 1 first. */
+    private final int[]         ringWeights;
+    /** The number of neighbors of each cell. */
+    private final int           size;
+    /** The weight of each neighbor, in table order. */
+    private final int[]         weights;
+    /**
+     * The greatest distance, in columns or rows,
+     * between a cell and any of its neighbors.
+     */
+    private final int           reach;
+    /** The greatest possible neighbor count. */
+    private final int           maxCount;
+    /**
+     * Index offsets, within the cell array, to the neighbors of a cell,
+     * indexed by parity (see {@link #parity(int, int)})
+     * and neighbor; valid for the current array width.
+     */
+    private final int[][]       deltas;
+
+    /** Survival states for which the rule tables were built. */
+    private List<Integer>   survivalStates  = null;
+    /** Birth states for which the rule tables were built. */
+    private List<Integer>   birthStates     = null;
+    /** Survival table; entry n is 1 if a live cell survives count n. */
+    private byte[]          survival        = null;
+    /** Birth table; entry n is 1 if a dead cell is born with count n. */
+    private byte[]          birth           = null;
+
+    /** Cell states in the current generation; row-major. */
+    private byte[]  cells   = new byte[0];
+    /** Width of the current array, in cells. */
+    private int     width   = 0;
+    /** Height of the current array, in cells. */
+    private int     height  = 0;
+    /** Grid x-coordinate of column 0 of the array. */
+    private int     originX = 0;
+    /** Grid y-coordinate of row 0 of the array. */
+    private int     originY = 0;
+
+    /**
+     * Constructor.
+     * Each cell has the six neighbors given by HexNeighborhood.
+     *
+     * @param layout    the layout that maps offset coordinates
+     *                  to hexagons
+     */
+    public HexLifeEngine( HexLayout layout )
+    {
+        this( layout, 1 );
+    }
+
+    /**
+     * Constructor.
+     * Each cell's neighborhood consists of one ring
+     * for each given weight.
+     *
+     * @param layout        the layout that maps offset coordinates
+     *                      to hexagons
+     * @param ringWeights   the weight of each ring of neighbors,
+     *                      ring 1 first
+     *
+     * @throws IllegalArgumentException
+     *         if no weights, or more than
+     *         {@link HexRingTable#MAX_RADIUS} weights, are given,
+     *         or if any weight is less than 1
+     */
+    public HexLifeEngine( HexLayout layout, int... ringWeights )
+    {
+        int radius  = ringWeights.length;
+        if ( radius < 1 || radius > HexRingTable.MAX_RADIUS )
+            throw new IllegalArgumentException(
+                "Invalid number of ring weights: " + radius
+            );
+        for ( int weight : ringWeights )
+            if ( weight < 1 )
+                throw new IllegalArgumentException(
+                    "Invalid ring weight: " + weight
+                );
+
+        this.layout = layout;
+        this.ringWeights = ringWeights.clone();
+        table = HexRingTable.of( layout );
+        size = HexRingTable.size( radius );
+        weights = new int[size];
+        deltas = new int[4][size];
+
+        int count   = 0;
+        int maxDist = 0;
+        for ( int inx = 0 ; inx < size ; ++inx )
+        {
+            weights[inx] = ringWeights[table.getRing( inx ) - 1];
+            count += weights[inx];
+            for ( int par = 0 ; par < 4 ; ++par )
+            {
+                int col = table.getDeltaCols( par & 1, par >> 1 )[inx];
+                int row = table.getDeltaRows( par & 1, par >> 1 )[inx];
+                maxDist = Math.max( maxDist, Math.abs( col ) );
+                maxDist = Math.max( maxDist, Math.abs( row ) );
+            }
+        }
+        maxCount = count;
+        reach = maxDist;
+    }
+
+    /**
+     * Returns the layout that maps offset coordinates to hexagons.
+     *
+     * @return  the layout that maps offset coordinates to hexagons
+     */
+    public HexLayout getLayout()
+    {
+        return layout;
+    }
+
+    /**
+     * Returns the weight of each ring of neighbors, ring 1 first.
+     * The number of weights is the radius of the neighborhood.
+     *
+     * @return  the weight of each ring of neighbors
+     */
+    public int[] getRingWeights()
+    {
+        int[]   result  = ringWeights.clone();
+        return result;
+    }
+
+    /**
+     * Returns the greatest possible neighbor count.
+     *
+     * @return  the greatest possible neighbor count
+     */
+    public int getMaxCount()
+    {
+        return maxCount;
+    }
+
+    /**
+     * Calculates the next generation of a given GridMap
+     * on a hexagonal grid.
+     * Counts greater than {@link #getMaxCount()} are ignored.
+     *
+     * @param gridMap           the given GridMap
+     * @param survivalStates    neighbor counts for which a live cell
+     *                          survives into the next generation
+     * @param birthStates       neighbor counts for which a dead cell
+     *                          comes alive in the next generation
+     */
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        if ( gridMap.size() == 0 )
+            return;
+
+        if ( !survivalStates.equals( this.survivalStates )
+            || !birthStates.equals( this.birthStates ) )
+        {
+            this.survivalStates = new ArrayList<>( survivalStates );
+            this.birthStates = new ArrayList<>( birthStates );
+            survival = toTable( survivalStates );
+            birth = toTable( birthStates );
+        }
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        load( gridMap, rect );
+        step( gridMap );
+    }
+
+    /**
+     * Copies the pattern in a given GridMap into the cell array,
+     * and calculates the index offsets to the neighbors of a cell
+     * for the width of the array.
+     * The array covers the pattern's bounding rectangle
+     * plus a margin wide enough that every neighbor
+     * of every cell within reach of the pattern
+     * lies within the array.
+     *
+     * @param gridMap   the given GridMap
+     * @param rect      the bounding rectangle of the pattern
+     */
+    private void load( GridMap gridMap, Rectangle rect )
+    {
+        int margin  = 2 * reach;
+        originX = rect.x - margin;
+        originY = rect.y - margin;
+        width = rect.width + 2 * margin;
+        height = rect.height + 2 * margin;
+
+        int area    = width * height;
+        if ( cells.length < area )
+            cells = new byte[area];
+        else
+            Arrays.fill( cells, 0, area, (byte)0 );
+
+        gridMap.forEachLive( (xco, yco, state) ->
+            cells[(yco - originY) * width + xco - originX] = 1
+        );
+
+        for ( int par = 0 ; par < 4 ; ++par )
+        {
+            int[]   cols    = table.getDeltaCols( par & 1, par >> 1 );
+            int[]   rows    = table.getDeltaRows( par & 1, par >> 1 );
+            for ( int inx = 0 ; inx < size ; ++inx )
+                deltas[par][inx] = rows[inx] * width + cols[inx];
+        }
+    }
+
+    /**
+     * Calculates the next generation for every cell
+     * within reach of the pattern,
+     * and writes every cell that changed to a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void step( GridMap gridMap )
+    {
+        for ( int row = reach ; row < height - reach ; ++row )
+        {
+            int yco     = originY + row;
+            for ( int col = reach ; col < width - reach ; ++col )
+            {
+                int     xco     = originX + col;
+                int     inx     = row * width + col;
+                int[]   delta   = deltas[parity( xco, yco )];
+                int     count   = 0;
+                for ( int nbr = 0 ; nbr < size ; ++nbr )
+                    count += cells[inx + delta[nbr]] * weights[nbr];
+                int     self    = cells[inx];
+                int     next    = self == 0 ? birth[count] : survival[count];
+                if ( next != self )
+                    gridMap.putState( xco, yco, next );
+            }
+        }
+    }
+
+    /**
+     * Converts a list of neighbor counts to a table
+     * in which entry n is 1 if n is in the list, 0 otherwise.
+     * Counts greater than the greatest possible count are ignored.
+     *
+     * @param states    the list of neighbor counts
+     *
+     * @return  the table
+     */
+    private byte[] toTable( List<Integer> states )
+    {
+        byte[]  result  = new byte[maxCount + 1];
+        for ( int state : states )
+            if ( state >= 0 && state <= maxCount )
+                result[state] = 1;
+        return result;
+    }
+
+    /**
+     * Returns the index of the displacement tables
+     * for a cell with given grid coordinates.
+     *
+     * @param xco   the column of the cell
+     * @param yco   the row of the cell
+     *
+     * @return  the index of the displacement tables for the cell
+     */
+    private static int parity( int xco, int yco )
+    {
+        int par = ((yco & 1) << 1) | (xco & 1);
+        return par;
+    }
+}
@@ -0,0 +1,382 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generation engine for <em>Larger than Life</em> rules,
+ * in which neighbors are counted over a range-R Moore (square)
+ * or von Neumann (diamond) neighborhood.
+ * See {@link LargerThanLifeRule} for a description of the rules.
+ * <p>
+ * Each generation, the pattern is copied into a dense array
+ * covering its bounding rectangle plus a margin,
+ * and the live cells are summed into prefix-sum tables
+ * from which the count for any neighborhood can be obtained
+ * with a fixed number of operations,
+ * so the cost per cell does not grow with the range:
+ * <ul>
+ * <li>
+ *     For the Moore neighborhood a <em>summed-area table</em>
+ *     is used; the count for a square is obtained from
+ *     the table entries at its four corners.
+ * </li>
+ * <li>
+ *     For the von Neumann neighborhood two tables of
+ *     <em>diagonal</em> prefix sums are used.
+ *     The count for the first diamond in a row is 0
+ *     (the diamond lies entirely outside the pattern);
+ *     moving the diamond one cell east adds the cells on
+ *     its new eastern edge, and removes the cells on its old
+ *     western edge.
+ *     Each edge consists of two diagonal segments,
+ *     each of which is summed from two entries of
+ *     a diagonal prefix-sum table.
+ * </li>
+ * </ul>
+ * Only the cells that change are written back to the GridMap.
+ * The engine retains no pattern between generations,
+ * so changes to the GridMap made between generations
+ * are always honored.
+ * <p>
+ * The rule is a property of the engine;
+ * the survival and birth states passed to
+ * {@link #nextGeneration(GridMap, List, List)} are ignored.
+ * Rules that include birth on 0 neighbors are evaluated
+ * only within range of the pattern.
+ *
+ * @author Jack Straub
+ *
+ * @see CAConstants#CTRL_LTL_RULE_PN
+ */
+public class LargerThanLifeEngine implements GenerationEngine
+{
+    /** The current rule. */
+    private LargerThanLifeRule  rule;
+
+    /** Cell states in the current generation; row-major. */
+    private byte[]  cells   = new byte[0];
+    /**
+     * For the Moore neighborhood, the summed-area table;
+     * entry (row + 1) * (width + 1) + col + 1 is the number
+     * of live cells in rows 0 through row,
+     * columns 0 through col.
+     * For the von Neumann neighborhood,
+     * the sums along southeast diagonals;
+     * entry row * width + col is the number of live cells
+     * at (col - n, row - n) for n &gt;= 0.
+     */
+    private int[]   sums1   = new int[0];
+    /**
+     * For the von Neumann neighborhood,
+     * the sums along northeast diagonals;
+     * entry row * width + col is the number of live cells
+     * at (col - n, row + n) for n &gt;= 0.
+     */
+    private int[]   sums2   = new int[0];
+    /** Width of the current arrays, in cells. */
+    private int     width   = 0;
+    /** Height of the current arrays, in cells. */
+    private int     height  = 0;
+    /** Grid x-coordinate of column 0 of the arrays. */
+    private int     originX = 0;
+    /** Grid y-coordinate of row 0 of the arrays. */
+    private int     originY = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param rule  the initial rule
+     */
+    public LargerThanLifeEngine( LargerThanLifeRule rule )
+    {
+        setRule( rule );
+    }
+
+    /**
+     * Sets the rule to use in subsequent generations.
+     *
+     * @param rule  the rule to use in subsequent generations
+     */
+    public void setRule( LargerThanLifeRule rule )
+    {
+        this.rule = rule;
+    }
+
+    /**
+     * Returns the rule used by this engine.
+     *
+     * @return  the rule used by this engine
+     */
+    public LargerThanLifeRule getRule()
+    {
+        return rule;
+    }
+
+    /**
+     * Calculates the next generation of a given GridMap
+     * under the current rule.
+     * The given survival and birth states are ignored.
+     *
+     * @param gridMap           the given GridMap
+     * @param survivalStates    ignored
+     * @param birthStates       ignored
+     */
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        nextGeneration( gridMap );
+    }
+
+    /**
+     * Calculates the next generation of a given GridMap
+     * under the current rule.
+     *
+     * @param gridMap   the given GridMap
+     */
+    public void nextGeneration( GridMap gridMap )
+    {
+        if ( gridMap.size() == 0 )
+            return;
+
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        load( gridMap, rect );
+        if ( rule.isVonNeumann() )
+            sumDiagonals();
+        else
+            sumAreas();
+        step( gridMap, rect );
+    }
+
+    /**
+     * Copies the pattern in a given GridMap
+     * into the cell array.
+     * The array covers the pattern's bounding rectangle
+     * plus a margin wide enough that every table entry
+     * needed to count the neighbors of any cell within range
+     * of the pattern lies within the array.
+     *
+     * @param gridMap   the given GridMap
+     * @param rect      the bounding rectangle of the pattern
+     */
+    private void load( GridMap gridMap, Rectangle rect )
+    {
+        int margin  = 2 * rule.getRange() + 2;
+        originX = rect.x - margin;
+        originY = rect.y - margin;
+        width = rect.width + 2 * margin;
+        height = rect.height + 2 * margin;
+
+        int area    = width * height;
+        if ( cells.length < area )
+            cells = new byte[area];
+        else
+            Arrays.fill( cells, 0, area, (byte)0 );
+
+        int maxState    = rule.getStates() - 1;
+        gridMap.forEachLive( (xco, yco, state) -> {
+            int     inx     = (yco - originY) * width + xco - originX;
+            cells[inx] = (byte)Math.min( state, maxState );
+        });
+    }
+
+    /**
+     * Builds the summed-area table for the current pattern.
+     */
+    private void sumAreas()
+    {
+        int stride  = width + 1;
+        int area    = stride * (height + 1);
+        if ( sums1.length < area )
+            sums1 = new int[area];
+        Arrays.fill( sums1, 0, stride, 0 );
+
+        for ( int row = 0 ; row < height ; ++row )
+        {
+            int     prev    = row * stride;
+            int     curr    = prev + stride;
+            int     rowSum  = 0;
+            sums1[curr] = 0;
+            for ( int col = 0 ; col < width ; ++col )
+            {
+                rowSum += isAlive( cells[row * width + col] );
+                sums1[curr + col + 1] = sums1[prev + col + 1] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * Builds the diagonal prefix-sum tables for the current pattern.
+     */
+    private void sumDiagonals()
+    {
+        int area    = width * height;
+        if ( sums1.length < area )
+            sums1 = new int[area];
+        if ( sums2.length < area )
+            sums2 = new int[area];
+
+        // southeast diagonals accumulate from the northwest
+        for ( int row = 0 ; row < height ; ++row )
+        {
+            int     base    = row * width;
+            sums1[base] = isAlive( cells[base] );
+            for ( int col = 1 ; col < width ; ++col )
+            {
+                int     alive   = isAlive( cells[base + col] );
+                sums1[base + col] =
+                    row == 0 ? alive : alive + sums1[base - width + col - 1];
+            }
+        }
+
+        // northeast diagonals accumulate from the southwest
+        for ( int row = height - 1 ; row >= 0 ; --row )
+        {
+            int     base    = row * width;
+            sums2[base] = isAlive( cells[base] );
+            for ( int col = 1 ; col < width ; ++col )
+            {
+                int     alive   = isAlive( cells[base + col] );
+                sums2[base + col] = row == height - 1
+                    ? alive : alive + sums2[base + width + col - 1];
+            }
+        }
+    }
+
+    /**
+     * Calculates the next generation
+     * for every cell within range of the pattern,
+     * and writes every cell that changed to a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     * @param rect      the bounding rectangle of the pattern
+     */
+    private void step( GridMap gridMap, Rectangle rect )
+    {
+        int     range   = rule.getRange();
+        int     minCol  = rect.x - originX - range;
+        int     maxCol  = rect.x + rect.width - 1 - originX + range;
+        int     minRow  = rect.y - originY - range;
+        int     maxRow  = rect.y + rect.height - 1 - originY + range;
+        boolean vonNeumann  = rule.isVonNeumann();
+        int     center  = rule.isIncludeCenter() ? 0 : 1;
+        int     stride  = width + 1;
+
+        for ( int row = minRow ; row <= maxRow ; ++row )
+        {
+            // The diamond centered west of minCol lies entirely
+            // west of the pattern, so its count is 0.
+            int     diamond = 0;
+            int     north   = (row - range) * stride;
+            int     south   = (row + range + 1) * stride;
+            for ( int col = minCol ; col <= maxCol ; ++col )
+            {
+                int     inx     = row * width + col;
+                int     count;
+                if ( vonNeumann )
+                {
+                    diamond += eastEdge( col, row ) - westEdge( col - 1, row );
+                    count = diamond;
+                }
+                else
+                {
+                    int     west    = col - range;
+                    int     east    = col + range + 1;
+                    count =
+                        sums1[south + east] - sums1[south + west]
+                        - sums1[north + east] + sums1[north + west];
+                }
+                int     self    = cells[inx] & 0xFF;
+                count -= center * isAlive( self );
+
+                int     state   = nextState( self, count );
+                if ( state != self )
+                    gridMap.putState( originX + col, originY + row, state );
+            }
+        }
+    }
+
+    /**
+     * Returns the number of live cells on the eastern edge
+     * of the diamond centered at given array coordinates.
+     *
+     * @param col   the column of the center of the diamond
+     * @param row   the row of the center of the diamond
+     *
+     * @return  the number of live cells on the eastern edge
+     */
+    private int eastEdge( int col, int row )
+    {
+        int range   = rule.getRange();
+        // (col + range - n, row - n) for n = 0 through range
+        int upper   =
+            sums1[row * width + col + range]
+            - sums1[(row - range - 1) * width + col - 1];
+        // (col + range - n, row + n) for n = 1 through range
+        int lower   =
+            sums2[(row + 1) * width + col + range - 1]
+            - sums2[(row + range + 1) * width + col - 1];
+        return upper + lower;
+    }
+
+    /**
+     * Returns the number of live cells on the western edge
+     * of the diamond centered at given array coordinates.
+     *
+     * @param col   the column of the center of the diamond
+     * @param row   the row of the center of the diamond
+     *
+     * @return  the number of live cells on the western edge
+     */
+    private int westEdge( int col, int row )
+    {
+        int range   = rule.getRange();
+        // (col - range + n, row - n) for n = 0 through range
+        int upper   =
+            sums2[(row - range) * width + col]
+            - sums2[(row + 1) * width + col - range - 1];
+        // (col - range + n, row + n) for n = 1 through range
+        int lower   =
+            sums1[(row + range) * width + col]
+            - sums1[row * width + col - range];
+        return upper + lower;
+    }
+
+    /**
+     * Determines the next state of a cell.
+     *
+     * @param state the current state of the cell
+     * @param count the number of live cells in its neighborhood
+     *
+     * @return  the next state of the cell
+     */
+    private int nextState( int state, int count )
+    {
+        int next;
+        if ( state == 0 )
+            next = rule.isBirth( count ) ? 1 : 0;
+        else if ( state == 1 )
+            next = rule.isSurvival( count ) ? 1 : (rule.getStates() > 2 ? 2 : 0);
+        else
+            next = state + 1 == rule.getStates() ? 0 : state + 1;
+        return next;
+    }
+
+    /**
+     * Returns 1 if a given state is alive, 0 otherwise.
+     *
+     * @param state the given state
+     *
+     * @return  1 if the given state is alive, 0 otherwise
+     */
+    private static int isAlive( int state )
+    {
+        int result  = state == 1 ? 1 : 0;
+        return result;
+    }
+}
@@ -0,0 +1,370 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+
+/**
+ * A <em>Larger than Life</em> rule:
+ * a birth/survival rule evaluated over a range-R
+ * Moore or von Neumann neighborhood.
+ * Rules are specified using the notation
+ * <pre>
+ *     Rr,Cc,Mm,Sa..b,c..d,Be..f,Nn</pre>
+ * where:
+ * <ul>
+ * <li><em>r</em> is the range of the neighborhood, 1 through
+ *     {@link #MAX_RANGE};</li>
+ * <li>
+ *     <em>c</em> is the number of states; 0 and 2 both denote
+ *     a two-state rule, larger values denote a rule in which
+ *     cells that fail to survive decay as in a
+ *     Generations rule (see {@link GenerationsEngine});
+ * </li>
+ * <li><em>m</em> is 1 if a cell counts itself as a neighbor,
+ *     0 otherwise;</li>
+ * <li>the S and B fields list the neighbor counts for survival
+ *     and birth, as single counts or ranges of counts
+ *     separated by commas;</li>
+ * <li><em>n</em> is M for a Moore (square) neighborhood
+ *     or N for a von Neumann (diamond) neighborhood.</li>
+ * </ul>
+ * For example, <em>Bosco's Rule</em> is
+ * R5,C0,M1,S34..58,B34..45,NM.
+ * Fields may appear in any order, and the field letters
+ * are not case-sensitive.
+ * The R, S and B fields are required;
+ * by default the rule has two states,
+ * does not count the center cell,
+ * and uses the Moore neighborhood.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Jack Straub
+ */
+public class LargerThanLifeRule
+{
+    /** Largest range supported. */
+    public static final int MAX_RANGE   = 100;
+
+    /** The range of the neighborhood. */
+    private final int       range;
+    /** The number of states; 2 for a two-state rule. */
+    private final int       states;
+    /** True if a cell counts itself as a neighbor. */
+    private final boolean   includeCenter;
+    /** True for the von Neumann neighborhood, false for Moore. */
+    private final boolean   vonNeumann;
+    /** Survival flag for each possible neighbor count. */
+    private final boolean[] survival;
+    /** Birth flag for each possible neighbor count. */
+    private final boolean[] birth;
+
+    /**
+     * Constructor.
+     * Parses a given rule specification.
+     *
+     * @param spec  the given rule specification
+     *
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public LargerThanLifeRule( String spec )
+    {
+        int         tempRange   = -1;
+        int         tempStates  = 2;
+        boolean     tempCenter  = false;
+        boolean     tempVN      = false;
+        int[]       tempSurv    = null;
+        int[]       tempBirth   = null;
+        char        field       = ' ';
+
+        String[]    tokens      = spec.trim().split( "\\s*,\\s*" );
+        try
+        {
+            for ( String token : tokens )
+            {
+                if ( token.isEmpty() )
+                    throw new IllegalArgumentException( "empty field" );
+                char    first   = Character.toUpperCase( token.charAt( 0 ) );
+                String  value   = token;
+                if ( Character.isLetter( first ) )
+                {
+                    field = first;
+                    value = token.substring( 1 );
+                }
+                else if ( field != 'S' && field != 'B' )
+                    throw new IllegalArgumentException( token );
+
+                switch ( field )
+                {
+                case 'R':
+                    tempRange = Integer.parseInt( value );
+                    break;
+                case 'C':
+                    tempStates = Math.max( 2, Integer.parseInt( value ) );
+                    break;
+                case 'M':
+                    tempCenter = Integer.parseInt( value ) != 0;
+                    break;
+                case 'N':
+                    tempVN = parseNeighborhood( value );
+                    break;
+                case 'S':
+                    tempSurv = addCounts( tempSurv, value );
+                    break;
+                case 'B':
+                    tempBirth = addCounts( tempBirth, value );
+                    break;
+                default:
+                    throw new IllegalArgumentException( token );
+                }
+            }
+        }
+        catch ( NumberFormatException exc )
+        {
+            String  message = "Invalid Larger than Life rule: " + spec;
+            throw new IllegalArgumentException( message, exc );
+        }
+        catch ( IllegalArgumentException exc )
+        {
+            String  message =
+                "Invalid Larger than Life rule: " + spec
+                + " (" + exc.getMessage() + ")";
+            throw new IllegalArgumentException( message, exc );
+        }
+
+        if ( tempRange < 1 || tempRange > MAX_RANGE
+            || tempSurv == null || tempBirth == null
+            || tempStates > GenerationsEngine.MAX_STATES )
+        {
+            String  message = "Invalid Larger than Life rule: " + spec;
+            throw new IllegalArgumentException( message );
+        }
+
+        range = tempRange;
+        states = tempStates;
+        includeCenter = tempCenter;
+        vonNeumann = tempVN;
+        survival = toFlags( tempSurv, getMaxCount() );
+        birth = toFlags( tempBirth, getMaxCount() );
+    }
+
+    /**
+     * Returns the range of the neighborhood.
+     *
+     * @return  the range of the neighborhood
+     */
+    public int getRange()
+    {
+        return range;
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return  the number of states; 2 for a two-state rule
+     */
+    public int getStates()
+    {
+        return states;
+    }
+
+    /**
+     * Returns true if a cell counts itself as a neighbor.
+     *
+     * @return  true if a cell counts itself as a neighbor
+     */
+    public boolean isIncludeCenter()
+    {
+        return includeCenter;
+    }
+
+    /**
+     * Returns true if this rule uses the von Neumann neighborhood.
+     *
+     * @return  true for the von Neumann neighborhood,
+     *          false for the Moore neighborhood
+     */
+    public boolean isVonNeumann()
+    {
+        return vonNeumann;
+    }
+
+    /**
+     * Returns the largest possible neighbor count
+     * under this rule, including the center cell
+     * whether or not it is counted.
+     *
+     * @return  the largest possible neighbor count
+     */
+    public int getMaxCount()
+    {
+        int side    = 2 * range + 1;
+        int max     = vonNeumann ? 2 * range * (range + 1) + 1 : side * side;
+        return max;
+    }
+
+    /**
+     * Returns true if a live cell with a given number of
+     * neighbors survives.
+     *
+     * @param count the given number of neighbors
+     *
+     * @return  true if a live cell with the given number
+     *          of neighbors survives
+     */
+    public boolean isSurvival( int count )
+    {
+        return survival[count];
+    }
+
+    /**
+     * Returns true if a dead cell with a given number of
+     * neighbors comes alive.
+     *
+     * @param count the given number of neighbors
+     *
+     * @return  true if a dead cell with the given number
+     *          of neighbors comes alive
+     */
+    public boolean isBirth( int count )
+    {
+        return birth[count];
+    }
+
+    /**
+     * Returns this rule in canonical notation.
+     *
+     * @return  this rule in canonical notation
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder   bldr    = new StringBuilder();
+        bldr.append( "R" ).append( range )
+            .append( ",C" ).append( states == 2 ? 0 : states )
+            .append( ",M" ).append( includeCenter ? 1 : 0 )
+            .append( ",S" );
+        appendCounts( bldr, survival );
+        bldr.append( ",B" );
+        appendCounts( bldr, birth );
+        bldr.append( ",N" ).append( vonNeumann ? 'N' : 'M' );
+        return bldr.toString();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return toString().hashCode();
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean result  =
+            obj instanceof LargerThanLifeRule
+            && toString().equals( obj.toString() );
+        return result;
+    }
+
+    /**
+     * Parses the value of the neighborhood field.
+     *
+     * @param value the value of the neighborhood field
+     *
+     * @return  true for the von Neumann neighborhood,
+     *          false for the Moore neighborhood
+     */
+    private static boolean parseNeighborhood( String value )
+    {
+        boolean result;
+        if ( value.equalsIgnoreCase( "M" ) )
+            result = false;
+        else if ( value.equalsIgnoreCase( "N" ) )
+            result = true;
+        else
+            throw new IllegalArgumentException( "neighborhood " + value );
+        return result;
+    }
+
+    /**
+     * Appends a count, or range of counts, to a list of counts.
+     * Each count is represented as a pair of integers
+     * giving the lower and upper bounds of a range.
+     *
+     * @param counts    the list of counts; may be null
+     * @param value     the count, "n", or range of counts, "m..n",
+     *                  to add; an empty string adds nothing
+     *
+     * @return  the new list of counts
+     */
+    private static int[] addCounts( int[] counts, String value )
+    {
+        int[]   result  = counts == null ? new int[0] : counts;
+        if ( !value.isEmpty() )
+        {
+            int     dots    = value.indexOf( ".." );
+            int     low     = Integer.parseInt(
+                dots < 0 ? value : value.substring( 0, dots )
+            );
+            int     high    = dots < 0
+                ? low : Integer.parseInt( value.substring( dots + 2 ) );
+            if ( low < 0 || high < low )
+                throw new IllegalArgumentException( value );
+            result = Arrays.copyOf( result, result.length + 2 );
+            result[result.length - 2] = low;
+            result[result.length - 1] = high;
+        }
+        return result;
+    }
+
+    /**
+     * Converts a list of ranges of counts to an array of flags.
+     * Counts larger than the given maximum are ignored.
+     *
+     * @param counts    the list of ranges of counts
+     * @param max       the given maximum
+     *
+     * @return  an array in which element n is true if n is in one
+     *          of the given ranges
+     */
+    private static boolean[] toFlags( int[] counts, int max )
+    {
+        boolean[]   flags   = new boolean[max + 1];
+        for ( int inx = 0 ; inx < counts.length ; inx += 2 )
+        {
+            int high    = Math.min( max, counts[inx + 1] );
+            for ( int count = counts[inx] ; count <= high ; ++count )
+                flags[count] = true;
+        }
+        return flags;
+    }
+
+    /**
+     * Appends the counts represented by an array of flags
+     * to a given StringBuilder,
+     * combining consecutive counts into ranges.
+     *
+     * @param bldr  the given StringBuilder
+     * @param flags the array of flags
+     */
+    private static void appendCounts( StringBuilder bldr, boolean[] flags )
+    {
+        String  separator   = "";
+        int     count       = 0;
+        while ( count < flags.length )
+        {
+            if ( !flags[count] )
+            {
+                ++count;
+                continue;
+            }
+            int     low     = count;
+            while ( count < flags.length && flags[count] )
+                ++count;
+            int     high    = count - 1;
+            bldr.append( separator ).append( low );
+            if ( high > low )
+                bldr.append( ".." ).append( high );
+            separator = ",";
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Two-state generation engine for very sparse patterns,
+ * which keeps the live cells as a sorted array
+ * of Z-order (Morton) keys and uses no hash tables.
+ * The key of a cell interleaves the bits of its coordinates,
+ * x in the even bits and y in the odd bits,
+ * so that cells that are close together on the grid
+ * are usually close together in the array.
+ * Each generation is computed in three steps:
+ * <ol>
+ * <li>
+ *     Every live cell emits the keys of its eight Moore neighbors
+ *     into a candidate array;
+ *     the neighbor keys are calculated directly
+ *     by arithmetic on the interleaved coordinates.
+ * </li>
+ * <li>
+ *     The candidates are sorted with an LSD radix sort,
+ *     skipping the passes for bytes that are the same in every key;
+ *     large arrays are sorted in parallel.
+ * </li>
+ * <li>
+ *     The sorted candidates are merged with the live cells:
+ *     the length of each run of equal candidates is the
+ *     neighbor count of that cell,
+ *     and the rule is applied to every cell that is alive
+ *     or has a live neighbor,
+ *     producing the next sorted array of live cells.
+ * </li>
+ * </ol>
+ * Every step reads and writes its arrays sequentially.
+ * <p>
+ * The live cells, and the arrays used to calculate them,
+ * are retained between generations;
+ * only the cells that change are written back to the GridMap.
+ * If the GridMap is replaced or modified by another party
+ * the live cells are reloaded from it.
+ * The engine is selected by setting the
+ * {@link CAConstants#PROP_PROC_PN} property to
+ * {@link CAConstants#PROP_PROC_MORTON}.
+ *
+ * @author Jack Straub
+ */
+public class MortonEngine implements GenerationEngine
+{
+    /** Interleaved bits that hold the x-coordinate. */
+    private static final long   X_MASK              = 0x5555555555555555L;
+    /** Interleaved bits that hold the y-coordinate. */
+    private static final long   Y_MASK              = ~X_MASK;
+    /** Number of bits in a radix sort digit. */
+    private static final int    RADIX_BITS          = 8;
+    /** Number of distinct radix sort digits. */
+    private static final int    RADIX               = 1 << RADIX_BITS;
+    /** Number of elements in a block sorted by a single task. */
+    private static final int    BLOCK_SIZE          = 1 << 16;
+    /** The number of candidates above which they are sorted in parallel. */
+    public static final int     PARALLEL_THRESHOLD  = 4 * BLOCK_SIZE;
+
+    /** Keys of the live cells, in ascending unsigned order. */
+    private long[]  live        = new long[64];
+    /** The number of live cells. */
+    private int     liveCount   = 0;
+    /** Keys of the live cells of the next generation. */
+    private long[]  nextLive    = new long[64];
+    /** Neighbor keys emitted by the live cells. */
+    private long[]  candidates  = new long[64];
+    /** Work area for the radix sort. */
+    private long[]  buffer      = new long[64];
+
+    /** The GridMap that this engine last synchronized with. */
+    private final SourceTracker source  = new SourceTracker();
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        if ( source.isStale( gridMap ) )
+            load( gridMap );
+
+        int     count   = emit();
+        long[]  sorted  = sort( candidates, buffer, count );
+        reduce(
+            gridMap,
+            sorted,
+            count,
+            GenerationEngine.toMask( survivalStates ),
+            GenerationEngine.toMask( birthStates )
+        );
+
+        source.update( gridMap );
+    }
+
+    /**
+     * Returns the number of live cells.
+     *
+     * @return  the number of live cells
+     */
+    public int getLiveCount()
+    {
+        return liveCount;
+    }
+
+    /**
+     * Returns the Morton key of the cell at given coordinates.
+     * The coordinates are offset by 2<sup>31</sup>,
+     * so that the unsigned order of keys
+     * follows the order of the coordinates.
+     *
+     * @param xco   the x-coordinate of the cell
+     * @param yco   the y-coordinate of the cell
+     *
+     * @return  the Morton key of the cell
+     */
+    public static long key( int xco, int yco )
+    {
+        long    key     = spread( xco ^ Integer.MIN_VALUE )
+            | (spread( yco ^ Integer.MIN_VALUE ) << 1);
+        return key;
+    }
+
+    /**
+     * Returns the x-coordinate of the cell with a given Morton key.
+     *
+     * @param key   the given key
+     *
+     * @return  the x-coordinate of the cell
+     */
+    public static int xco( long key )
+    {
+        int     xco     = compact( key ) ^ Integer.MIN_VALUE;
+        return xco;
+    }
+
+    /**
+     * Returns the y-coordinate of the cell with a given Morton key.
+     *
+     * @param key   the given key
+     *
+     * @return  the y-coordinate of the cell
+     */
+    public static int yco( long key )
+    {
+        int     yco     = compact( key >>> 1 ) ^ Integer.MIN_VALUE;
+        return yco;
+    }
+
+    /**
+     * Replaces the live cells with those of a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void load( GridMap gridMap )
+    {
+        int     size    = gridMap.size();
+        live = ensureCapacity( live, size );
+        liveCount = 0;
+        gridMap.forEachLive( (xco, yco, state) ->
+            live[liveCount++] = key( xco, yco )
+        );
+        buffer = ensureCapacity( buffer, liveCount );
+        long[]  sorted  = sort( live, buffer, liveCount );
+        if ( sorted != live )
+        {
+            buffer = live;
+            live = sorted;
+        }
+    }
+
+    /**
+     * Fills the candidate array with the keys
+     * of the eight neighbors of every live cell.
+     *
+     * @return  the number of candidates
+     */
+    private int emit()
+    {
+        int     count   = 8 * liveCount;
+        candidates = ensureCapacity( candidates, count );
+        buffer = ensureCapacity( buffer, count );
+        if ( count > PARALLEL_THRESHOLD )
+        {
+            int blocks  = (liveCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            IntStream.range( 0, blocks ).parallel().forEach( block ->
+                emit(
+                    block * BLOCK_SIZE,
+                    Math.min( liveCount, (block + 1) * BLOCK_SIZE )
+                )
+            );
+        }
+        else
+            emit( 0, liveCount );
+        return count;
+    }
+
+    /**
+     * Writes the keys of the eight neighbors of a range of live cells
+     * to the candidate array.
+     * The neighbors of live cell <em>n</em> occupy
+     * elements 8n through 8n + 7.
+     *
+     * @param from  the first live cell in the range
+     * @param to    the last live cell in the range, plus 1
+     */
+    private void emit( int from, int to )
+    {
+        long[]  cands   = candidates;
+        for ( int inx = from ; inx < to ; ++inx )
+        {
+            long    key     = live[inx];
+            long    xMid    = key & X_MASK;
+            long    yMid    = key & Y_MASK;
+            // add or subtract 1 within the interleaved bits,
+            // carrying or borrowing across the bits in between
+            long    xLeft   = (xMid - 1) & X_MASK;
+            long    xRight  = ((xMid | Y_MASK) + 1) & X_MASK;
+            long    yUp     = (yMid - 2) & Y_MASK;
+            long    yDown   = ((yMid | X_MASK) + 2) & Y_MASK;
+            int     base    = 8 * inx;
+            cands[base]     = xLeft | yUp;
+            cands[base + 1] = xMid | yUp;
+            cands[base + 2] = xRight | yUp;
+            cands[base + 3] = xLeft | yMid;
+            cands[base + 4] = xRight | yMid;
+            cands[base + 5] = xLeft | yDown;
+            cands[base + 6] = xMid | yDown;
+            cands[base + 7] = xRight | yDown;
+        }
+    }
+
+    /**
+     * Merges the sorted candidates with the live cells,
+     * applies the rule to every cell that is alive or has a live neighbor,
+     * writes the cells that change to a given GridMap,
+     * and promotes the resulting cells to the live cells.
+     *
+     * @param gridMap   the given GridMap
+     * @param sorted    the sorted candidates
+     * @param count     the number of candidates
+     * @param survival  mask of neighbor counts for which
+     *                  a live cell survives
+     * @param birth     mask of neighbor counts for which
+     *                  a dead cell comes alive
+     */
+    private void reduce(
+        GridMap gridMap,
+        long[] sorted,
+        int count,
+        int survival,
+        int birth
+    )
+    {
+        // The next generation is usually about as large as this one;
+        // nextLive grows on demand if it is larger.
+        nextLive = ensureCapacity( nextLive, liveCount );
+        int     cand    = 0;
+        int     old     = 0;
+        int     out     = 0;
+        while ( cand < count || old < liveCount )
+        {
+            long    key;
+            if ( old == liveCount )
+                key = sorted[cand];
+            else if ( cand == count )
+                key = live[old];
+            else
+                key = Long.compareUnsigned( sorted[cand], live[old] ) < 0
+                    ? sorted[cand] : live[old];
+
+            int     neighbors   = 0;
+            while ( cand < count && sorted[cand] == key )
+            {
+                ++neighbors;
+                ++cand;
+            }
+            boolean alive   = old < liveCount && live[old] == key;
+            if ( alive )
+                ++old;
+
+            int     mask    = alive ? survival : birth;
+            boolean next    = ((mask >> neighbors) & 1) != 0;
+            if ( next )
+            {
+                if ( out == nextLive.length )
+                    nextLive = Arrays.copyOf( nextLive, 2 * out );
+                nextLive[out++] = key;
+            }
+            if ( next != alive )
+                gridMap.putState( xco( key ), yco( key ), next ? 1 : 0 );
+        }
+
+        long[]  temp    = live;
+        live = nextLive;
+        nextLive = temp;
+        liveCount = out;
+    }
+
+    /**
+     * Sorts the first elements of an array into ascending unsigned order,
+     * using a least-significant-digit radix sort.
+     * Passes for digits that are the same in every element
+     * are skipped.
+     * Large arrays are sorted in parallel.
+     *
+     * @param keys      the array to sort
+     * @param work      a work area at least as long as the
+     *                  portion of the array to sort
+     * @param count     the number of elements to sort
+     *
+     * @return  the sorted elements;
+     *          either the given array or the work area
+     */
+    private static long[] sort( long[] keys, long[] work, int count )
+    {
+        int     blocks  = count > PARALLEL_THRESHOLD
+            ? (count + BLOCK_SIZE - 1) / BLOCK_SIZE : 1;
+        int     size    = (count + blocks - 1) / Math.max( 1, blocks );
+        int[][] offsets = new int[blocks][RADIX];
+        long[]  src     = keys;
+        long[]  dst     = work;
+        for ( int shift = 0 ; shift < Long.SIZE ; shift += RADIX_BITS )
+        {
+            int     pass    = shift;
+            long[]  from    = src;
+            long[]  to      = dst;
+            // count the digits of each block
+            IntStream   range   = IntStream.range( 0, blocks );
+            (blocks > 1 ? range.parallel() : range).forEach( block -> {
+                int[]   hist    = offsets[block];
+                Arrays.fill( hist, 0 );
+                int     end     = Math.min( count, (block + 1) * size );
+                for ( int inx = block * size ; inx < end ; ++inx )
+                    ++hist[(int)(from[inx] >>> pass) & (RADIX - 1)];
+            });
+
+            // convert the counts to the starting position
+            // of each digit in each block
+            int     total   = 0;
+            boolean trivial = false;
+            for ( int digit = 0 ; digit < RADIX && !trivial ; ++digit )
+            {
+                int digitCount  = 0;
+                for ( int block = 0 ; block < blocks ; ++block )
+                {
+                    int num = offsets[block][digit];
+                    offsets[block][digit] = total;
+                    total += num;
+                    digitCount += num;
+                }
+                trivial = digitCount == count;
+            }
+            if ( trivial )
+                continue;
+
+            range = IntStream.range( 0, blocks );
+            (blocks > 1 ? range.parallel() : range).forEach( block -> {
+                int[]   next    = offsets[block];
+                int     end     = Math.min( count, (block + 1) * size );
+                for ( int inx = block * size ; inx < end ; ++inx )
+                {
+                    long    key     = from[inx];
+                    to[next[(int)(key >>> pass) & (RADIX - 1)]++] = key;
+                }
+            });
+            src = to;
+            dst = from;
+        }
+        return src;
+    }
+
+    /**
+     * Returns an array of at least a given length,
+     * which is either a given array or a new, longer array.
+     * The contents of a new array are not initialized.
+     *
+     * @param array     the given array
+     * @param length    the given length
+     *
+     * @return  an array of at least the given length
+     */
+    private static long[] ensureCapacity( long[] array, int length )
+    {
+        long[]  result  = array;
+        if ( result.length < length )
+            result = new long[Math.max( length, 2 * array.length )];
+        return result;
+    }
+
+    /**
+     * Spreads the bits of an int into the even bits of a long.
+     *
+     * @param value the int
+     *
+     * @return  the spread bits
+     */
+    private static long spread( int value )
+    {
+        long    bits    = value & 0xFFFFFFFFL;
+        bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+        bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+        bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | (bits << 2)) & 0x3333333333333333L;
+        bits = (bits | (bits << 1)) & X_MASK;
+        return bits;
+    }
+
+    /**
+     * Gathers the even bits of a long into an int;
+     * the inverse of {@link #spread(int)}.
+     *
+     * @param value the long
+     *
+     * @return  the gathered bits
+     */
+    private static int compact( long value )
+    {
+        long    bits    = value & X_MASK;
+        bits = (bits | (bits >>> 1)) & 0x3333333333333333L;
+        bits = (bits | (bits >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | (bits >>> 4)) & 0x00FF00FF00FF00FFL;
+        bits = (bits | (bits >>> 8)) & 0x0000FFFF0000FFFFL;
+        bits = (bits | (bits >>> 16)) & 0x00000000FFFFFFFFL;
+        return (int)bits;
+    }
+}
@@ -0,0 +1,236 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Variation of {@link TileEngine} that calculates
+ * each generation on multiple threads.
+ * The tiles are divided into ranges
+ * which are calculated concurrently by a ForkJoinPool.
+ * While a generation is being calculated
+ * the tiles of the current generation are only read,
+ * and each tile's result is written to storage
+ * that belongs only to that tile,
+ * so no locking is required.
+ * Once every tile has been calculated
+ * the changes are merged into the GridMap on the calling thread,
+ * exactly as in TileEngine;
+ * the results are therefore identical to those of TileEngine.
+ * <p>
+ * Distributing the work has a fixed cost,
+ * so patterns whose population is less than
+ * a configurable minimum are calculated on the calling thread.
+ *
+ * @author Jack Straub
+ *
+ * @see CAConstants#PROP_PARALLEL_THREADS_PN
+ * @see CAConstants#PROP_PARALLEL_MIN_POP_PN
+ */
+public class ParallelTileEngine extends TileEngine
+{
+    /** The fewest tiles that will be calculated by a single task. */
+    private static final int    MIN_TILES_PER_TASK  = 4;
+    /**
+     * The number of tasks to create per thread;
+     * more than 1 so that threads that finish early
+     * can steal work from threads that do not.
+     */
+    private static final int    TASKS_PER_THREAD    = 4;
+
+    /** Work area for each thread that calculates tiles. */
+    private final ThreadLocal<Scratch>  scratch =
+        ThreadLocal.withInitial( Scratch::new );
+
+    /** The configured number of threads; 0 for all processors. */
+    private int             threads;
+    /**
+     * The smallest population for which more than one thread
+     * will be used.
+     */
+    private int             minPopulation;
+    /** The population of the generation under calculation. */
+    private int             population      = 0;
+    /** The pool that calculates tiles; created when first needed. */
+    private ForkJoinPool    pool            = null;
+
+    /**
+     * Constructor.
+     *
+     * @param threads       the number of threads to use,
+     *                      or 0 for one thread per available processor
+     * @param minPopulation the smallest population for which
+     *                      more than one thread will be used
+     *
+     * @throws IllegalArgumentException if threads is negative
+     */
+    public ParallelTileEngine( int threads, int minPopulation )
+    {
+        setThreads( threads );
+        setMinPopulation( minPopulation );
+    }
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        population = gridMap.size();
+        super.nextGeneration( gridMap, survivalStates, birthStates );
+    }
+
+    /**
+     * Sets the number of threads to use.
+     * If the number changes, the existing pool is shut down
+     * and a new pool will be created for the next generation.
+     *
+     * @param threads   the number of threads to use,
+     *                  or 0 for one thread per available processor
+     *
+     * @throws IllegalArgumentException if threads is negative
+     */
+    public synchronized void setThreads( int threads )
+    {
+        if ( threads < 0 )
+        {
+            String  msg = "Invalid thread count: " + threads;
+            throw new IllegalArgumentException( msg );
+        }
+        if ( threads != this.threads && pool != null )
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the configured number of threads.
+     *
+     * @return  the configured number of threads,
+     *          or 0 for one thread per available processor
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Sets the smallest population for which
+     * more than one thread will be used.
+     *
+     * @param minPopulation the smallest population for which
+     *                      more than one thread will be used
+     */
+    public void setMinPopulation( int minPopulation )
+    {
+        this.minPopulation = minPopulation;
+    }
+
+    /**
+     * Returns the smallest population for which
+     * more than one thread will be used.
+     *
+     * @return  the smallest population for which
+     *          more than one thread will be used
+     */
+    public int getMinPopulation()
+    {
+        return minPopulation;
+    }
+
+    /**
+     * Returns the number of threads that will actually be used
+     * to calculate a large pattern.
+     *
+     * @return  the number of threads that will be used
+     */
+    public int getParallelism()
+    {
+        int parallelism =
+            threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return parallelism;
+    }
+
+    @Override
+    protected void calculateTiles()
+    {
+        int tileCount   = getStepCount();
+        int parallelism = getParallelism();
+        if ( parallelism < 2
+            || population < minPopulation
+            || tileCount < 2 * MIN_TILES_PER_TASK )
+            super.calculateTiles();
+        else
+        {
+            int grain   = tileCount / (parallelism * TASKS_PER_THREAD);
+            grain = Math.max( grain, MIN_TILES_PER_TASK );
+            getPool().invoke( new CalculateTask( 0, tileCount, grain ) );
+        }
+    }
+
+    /**
+     * Returns the pool that calculates tiles,
+     * creating it if necessary.
+     *
+     * @return  the pool that calculates tiles
+     */
+    private synchronized ForkJoinPool getPool()
+    {
+        if ( pool == null )
+            pool = new ForkJoinPool( getParallelism() );
+        return pool;
+    }
+
+    /**
+     * Task that calculates a range of tiles,
+     * splitting the range in half until it is no larger
+     * than a given grain size.
+     *
+     * @author Jack Straub
+     */
+    private class CalculateTask extends RecursiveAction
+    {
+        /** Generated serial version UID. */
+        private static final long serialVersionUID = 6328154796022468041L;
+
+        /** The number of the first tile in the range. */
+        private final int   from;
+        /** The number of the last tile in the range, plus 1. */
+        private final int   to;
+        /** The largest range that will not be split. */
+        private final int   grain;
+
+        /**
+         * Constructor.
+         *
+         * @param from  the number of the first tile in the range
+         * @param to    the number of the last tile in the range, plus 1
+         * @param grain the largest range that will not be split
+         */
+        public CalculateTask( int from, int to, int grain )
+        {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( to - from <= grain )
+                calculateTiles( from, to, scratch.get() );
+            else
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                    new CalculateTask( from, mid, grain ),
+                    new CalculateTask( mid, to, grain )
+                );
+            }
+        }
+    }
+}
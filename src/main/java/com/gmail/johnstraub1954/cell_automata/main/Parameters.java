@@ -5,6 +5,9 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.AUTO_REGEN
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.AUTO_REGEN_ON_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.AUTO_REGEN_PACE_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_BIRTH_STATES_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GAME_STATES_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_ISOTROPIC_RULE_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_LTL_RULE_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GRID_LATEST_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_GRID_URL_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.CTRL_SURVIVAL_STATES_PN;
@@ -23,7 +26,11 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MARGI
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MARGIN_LEFT_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MARGIN_RIGHT_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_MARGIN_TOP_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_SCROLLED_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_WIDTH_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_TOPOLOGY_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.GRID_VOXEL_SLICE_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.VOXEL_MAP_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_AUTHOR_EMAIL_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_AUTHOR_NAME_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MISC_AUTHOR_TIME_PN;
@@ -32,10 +39,18 @@ import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MODIFIED_G
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MODIFIED_GUI_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MODIFIED_METADATA_PN;
 import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.MODIFIED_PATTERN_DATA_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_HASHLIFE_MAX_NODES_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PARALLEL_MIN_POP_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_PARALLEL_THREADS_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_TILE_FREEZE_GENS_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_TILE_MEMO_CAPACITY_PN;
+import static com.gmail.johnstraub1954.cell_automata.main.CAConstants.PROP_VECTOR_KERNEL_PN;
 
 import java.awt.Color;
 import java.awt.Point;
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
 import java.beans.PropertyChangeSupport;
 import java.net.URL;
 import java.time.LocalDateTime;
@@ -89,6 +104,10 @@ public enum Parameters
     private int                 gridWidth;
     /** Grid height <em>in cells</em> */
     private int                 gridHeight;
+    /** Grid topology: plane, torus or finite */
+    private String              gridTopology;
+    /** z-coordinate of the voxels displayed in the grid */
+    private int                 gridVoxelSlice;
     
     /** Grid lines on/off */
     private boolean             gridLineShow;
@@ -116,6 +135,8 @@ public enum Parameters
      * Grid map
      */
     private GridMap             gridMap;
+    /** The voxels of a three-dimensional automaton; may be null */
+    private VoxelGridMap        voxelMap;
     /**  Grid tile; controls shape and size of cells in the grid. */
     private GridTile            gridTile;
     
@@ -130,6 +151,18 @@ public enum Parameters
      * Conditions under which a dead cell may come to life.
      */
     private List<Integer>       birthStates;
+    /** 
+     * Number of cell states; greater than 2 for a Generations rule.
+     */
+    private int                 gameStates;
+    /** 
+     * Isotropic non-totalistic rule in Hensel notation; empty if none.
+     */
+    private String              isotropicRule;
+    /** 
+     * Larger than Life rule; empty if none.
+     */
+    private String              largerThanLifeRule;
     /** The latest data used to populate the grid */
     private RLEInput            gridLatestData;
     
@@ -175,6 +208,35 @@ public enum Parameters
      * Procedure to invoke when spawning a new generation.
      */
     private Consumer<Object>    propagateProc;
+    /**
+     * Maximum number of nodes in the HashLife engine's node table.
+     */
+    private int                 hashLifeMaxNodes;
+    /**
+     * Number of threads used by the parallel propagation procedure;
+     * 0 for one thread per available processor.
+     */
+    private int                 parallelThreads;
+    /**
+     * Smallest population for which the parallel
+     * propagation procedure uses more than one thread.
+     */
+    private int                 parallelMinPopulation;
+    /**
+     * True if the tile engines should calculate tiles
+     * with the Vector API where the runtime supports it.
+     */
+    private boolean             vectorKernel;
+    /**
+     * Maximum number of tile transitions cached by the tile engines;
+     * 0 if transitions are not cached.
+     */
+    private int                 tileMemoCapacity;
+    /**
+     * Number of generations for which a tile must repeat
+     * before the tile engines freeze it; 0 if tiles are never frozen.
+     */
+    private int                 tileFreezeGenerations;
     
     /** Support for PropertyChangeListeners */
     private final PropertyChangeSupport propChangeSupport   = 
@@ -208,6 +270,8 @@ public enum Parameters
         gridMarginRight = props.getGridMarginRight();
         gridWidth = props.getGridWidth();
         gridHeight = props.getGridHeight();
+        gridTopology = props.getGridTopology();
+        gridVoxelSlice = props.getGridVoxelSlice();
         gridLineShow = props.getGridLineShow();
         gridLineWidth = props.getGridLineWidth();
         gridLineColor = props.getGridLineColor();
@@ -216,6 +280,12 @@ public enum Parameters
         gridKeepCentered = props.getGridKeepCentered();
         
         propagateProc = props.getPropagateProc();
+        hashLifeMaxNodes = props.getHashLifeMaxNodes();
+        parallelThreads = props.getParallelThreads();
+        parallelMinPopulation = props.getParallelMinPopulation();
+        vectorKernel = props.getVectorKernel();
+        tileMemoCapacity = props.getTileMemoCapacity();
+        tileFreezeGenerations = props.getTileFreezeGenerations();
         
         initPatternParameters();
         addPropertyChangeListener( 
@@ -270,6 +340,9 @@ public enum Parameters
 
         survivalStates = props.getSurvivalStates();
         birthStates = props.getBirthStates();        
+        gameStates = props.getGameStates();
+        isotropicRule = props.getIsotropicRule();
+        largerThanLifeRule = props.getLargerThanLifeRule();
         patternName = props.getPatternName();
         patternFileName = props.getPatternFileName();
         authorName = props.getAuthorName();
@@ -279,6 +352,37 @@ public enum Parameters
         setGridMap( new GridMap() );
     }
     
+    /**
+     * Fires a PropertyChange event
+     * to all listeners for a given property,
+     * without comparing the old and new values.
+     * PropertyChangeSupport suppresses events whose values are equal,
+     * which for a large object can be an expensive comparison,
+     * and is the wrong test for an object
+     * whose listeners hold a reference to it.
+     * The caller is responsible for determining
+     * that the value has changed.
+     * 
+     * @param propName  the name of the given property
+     * @param oldVal    the old value of the property
+     * @param newVal    the new value of the property
+     */
+    private void fireReplacement( String propName, Object oldVal, Object newVal )
+    {
+        PropertyChangeEvent evt = 
+            new PropertyChangeEvent( this, propName, oldVal, newVal );
+        for ( PropertyChangeListener listener : 
+            propChangeSupport.getPropertyChangeListeners() )
+        {
+            // per-property listeners are wrapped in proxies
+            if ( !(listener instanceof PropertyChangeListenerProxy) )
+                listener.propertyChange( evt );
+            else if ( ((PropertyChangeListenerProxy)listener)
+                .getPropertyName().equals( propName ) )
+                listener.propertyChange( evt );
+        }
+    }
+    
     /**
      * Adds a property change listener to this object.
      * 
@@ -650,6 +754,64 @@ public enum Parameters
             firePropertyChange( propName, oldVal, newVal );
     }
 
+    /**
+     * Gets the gridTopology parameter.
+     * 
+     * @return the gridTopology
+     * 
+     * @see CAConstants#GRID_TOPOLOGY_PN
+     */
+    public String getGridTopology()
+    {
+        return gridTopology;
+    }
+
+    /**
+     * Sets the gridTopology parameter.
+     * 
+     * @param gridTopology the gridTopology to set
+     * 
+     * @see CAConstants#GRID_TOPOLOGY_PN
+     */
+    public void setGridTopology( String gridTopology )
+    {
+        String  oldVal      = this.gridTopology;
+        String  newVal      = gridTopology;
+        String  propName    = GRID_TOPOLOGY_PN;
+        this.gridTopology = gridTopology;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
+    /**
+     * Gets the gridVoxelSlice parameter.
+     * 
+     * @return the gridVoxelSlice
+     * 
+     * @see CAConstants#GRID_VOXEL_SLICE_PN
+     */
+    public int getGridVoxelSlice()
+    {
+        return gridVoxelSlice;
+    }
+
+    /**
+     * Sets the gridVoxelSlice parameter.
+     * 
+     * @param gridVoxelSlice the gridVoxelSlice to set
+     * 
+     * @see CAConstants#GRID_VOXEL_SLICE_PN
+     */
+    public void setGridVoxelSlice( int gridVoxelSlice )
+    {
+        int     oldVal      = this.gridVoxelSlice;
+        int     newVal      = gridVoxelSlice;
+        String  propName    = GRID_VOXEL_SLICE_PN;
+        this.gridVoxelSlice = gridVoxelSlice;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
     /**
      * Gets the gridLineShow parameter.
      * 
@@ -791,8 +953,13 @@ public enum Parameters
     
     /**
      * Sets the GridMap managed by this Parameters object.
+     * Listeners hold references to the GridMap,
+     * so the PropertyChange event is fired
+     * whenever a different GridMap object is set,
+     * even one whose contents equal the current map's
+     * (see {@link #fireReplacement(String, Object, Object)}).
      * 
-     * @return the GridMap managed by this Parameters object
+     * @param gridMap   the GridMap to be managed by this Parameters object
      */
     public void setGridMap( GridMap gridMap )
     {
@@ -800,6 +967,38 @@ public enum Parameters
         GridMap newVal      = gridMap;
         String  propName    = GRID_MAP_PN;
         this.gridMap = gridMap;
+        if ( oldVal != newVal )
+            fireReplacement( propName, oldVal, newVal );
+    }
+    
+    /**
+     * Gets the VoxelGridMap managed by this Parameters object.
+     * 
+     * @return  the VoxelGridMap managed by this Parameters object,
+     *          or null if the automaton is two-dimensional
+     * 
+     * @see CAConstants#VOXEL_MAP_PN
+     */
+    public VoxelGridMap getVoxelMap()
+    {
+        return voxelMap;
+    }
+    
+    /**
+     * Sets the VoxelGridMap managed by this Parameters object.
+     * 
+     * @param voxelMap  the VoxelGridMap to be managed 
+     *                  by this Parameters object,
+     *                  or null if the automaton is two-dimensional
+     * 
+     * @see CAConstants#VOXEL_MAP_PN
+     */
+    public void setVoxelMap( VoxelGridMap voxelMap )
+    {
+        VoxelGridMap    oldVal      = this.voxelMap;
+        VoxelGridMap    newVal      = voxelMap;
+        String          propName    = VOXEL_MAP_PN;
+        this.voxelMap = voxelMap;
         propChangeSupport.
             firePropertyChange( propName, oldVal, newVal );
     }
@@ -858,6 +1057,104 @@ public enum Parameters
             firePropertyChange( propName, oldVal, newVal );
     }
     
+    /**
+     * Gets the number of cell states.
+     * 
+     * @return the number of cell states
+     */
+    public int getGameStates()
+    {
+        return gameStates;
+    }
+    
+    /**
+     * Sets the number of cell states.
+     * A value greater than 2 denotes a Generations rule.
+     * 
+     * @param   gameStates  the number of cell states
+     */
+    public void setGameStates( int gameStates )
+    {
+        int     oldVal      = this.gameStates;
+        int     newVal      = gameStates;
+        String  propName    = CTRL_GAME_STATES_PN;
+        this.gameStates = gameStates;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+    
+    /**
+     * Gets the isotropic non-totalistic rule.
+     * 
+     * @return the isotropic non-totalistic rule, 
+     *         or an empty string if none
+     */
+    public String getIsotropicRule()
+    {
+        return isotropicRule;
+    }
+    
+    /**
+     * Sets the isotropic non-totalistic rule,
+     * in Hensel notation, for example "B2-a/S12".
+     * A non-empty rule takes the place of the survival and birth
+     * states, which should list the neighbor counts that appear
+     * in the rule.
+     * 
+     * @param   isotropicRule   the isotropic non-totalistic rule,
+     *                          or an empty string for none
+     * 
+     * @see RuleTable#parse(String)
+     */
+    public void setIsotropicRule( String isotropicRule )
+    {
+        String  oldVal      = this.isotropicRule;
+        String  newVal      = isotropicRule;
+        String  propName    = CTRL_ISOTROPIC_RULE_PN;
+        this.isotropicRule = isotropicRule;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+    
+    /**
+     * Gets the Larger than Life rule.
+     * 
+     * @return the Larger than Life rule, or an empty string if none
+     */
+    public String getLargerThanLifeRule()
+    {
+        return largerThanLifeRule;
+    }
+    
+    /**
+     * Sets the Larger than Life rule.
+     * A non-empty rule takes the place of the survival and birth
+     * states and the number of cell states.
+     * 
+     * @param   largerThanLifeRule  the Larger than Life rule,
+     *                              or an empty string for none
+     * 
+     * @throws  IllegalArgumentException
+     *          if the rule is not empty and is not a valid rule
+     * 
+     * @see LargerThanLifeRule
+     */
+    public void setLargerThanLifeRule( String largerThanLifeRule )
+    {
+        if ( largerThanLifeRule != null 
+            && !largerThanLifeRule.trim().isEmpty() )
+        {
+            // throws IllegalArgumentException if the rule is invalid
+            new LargerThanLifeRule( largerThanLifeRule );
+        }
+        String  oldVal      = this.largerThanLifeRule;
+        String  newVal      = largerThanLifeRule;
+        String  propName    = CTRL_LTL_RULE_PN;
+        this.largerThanLifeRule = largerThanLifeRule;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+    
     public Point getGridCellOrigin()
     {
         return gridCellOrigin;
@@ -886,6 +1183,26 @@ public enum Parameters
         fireNotificationEvent( GRID_CELL_CLICKED_PN, cell );
     }
     
+    /**
+     * Scrolls the grid, on behalf of the operator,
+     * so that a given cell appears in its upper-left corner.
+     * Centering is turned off and the grid cell origin is set,
+     * then a NotificationEvent is fired
+     * for property CAConstants.GRID_SCROLLED_PN,
+     * with the given cell as its source.
+     * 
+     * @param origin    the given cell
+     * 
+     * @see #setGridKeepCentered(boolean)
+     * @see #setGridCellOrigin(Point)
+     */
+    public void scrollGrid( Point origin )
+    {
+        setGridKeepCentered( false );
+        setGridCellOrigin( origin );
+        fireNotificationEvent( GRID_SCROLLED_PN, origin );
+    }
+    
     /**
      * Returns the value of a URL to use to populate a grid.
      * Will return null if there is no such URL.
@@ -1282,6 +1599,156 @@ public enum Parameters
         propagateProc = proc;
     }
 
+    /**
+     * Gets the hashLifeMaxNodes parameter.
+     * 
+     * @return the hashLifeMaxNodes
+     */
+    public int getHashLifeMaxNodes()
+    {
+        return hashLifeMaxNodes;
+    }
+
+    /**
+     * Sets the hashLifeMaxNodes parameter.
+     * 
+     * @param hashLifeMaxNodes the hashLifeMaxNodes to set
+     */
+    public void setHashLifeMaxNodes( int hashLifeMaxNodes )
+    {
+        int     oldVal      = this.hashLifeMaxNodes;
+        int     newVal      = hashLifeMaxNodes;
+        String  propName    = PROP_HASHLIFE_MAX_NODES_PN;
+        this.hashLifeMaxNodes = hashLifeMaxNodes;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
+    /**
+     * Gets the parallelThreads parameter.
+     * 
+     * @return the parallelThreads
+     */
+    public int getParallelThreads()
+    {
+        return parallelThreads;
+    }
+
+    /**
+     * Sets the parallelThreads parameter.
+     * 
+     * @param parallelThreads the parallelThreads to set
+     */
+    public void setParallelThreads( int parallelThreads )
+    {
+        int     oldVal      = this.parallelThreads;
+        int     newVal      = parallelThreads;
+        String  propName    = PROP_PARALLEL_THREADS_PN;
+        this.parallelThreads = parallelThreads;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
+    /**
+     * Gets the parallelMinPopulation parameter.
+     * 
+     * @return the parallelMinPopulation
+     */
+    public int getParallelMinPopulation()
+    {
+        return parallelMinPopulation;
+    }
+
+    /**
+     * Sets the parallelMinPopulation parameter.
+     * 
+     * @param parallelMinPopulation the parallelMinPopulation to set
+     */
+    public void setParallelMinPopulation( int parallelMinPopulation )
+    {
+        int     oldVal      = this.parallelMinPopulation;
+        int     newVal      = parallelMinPopulation;
+        String  propName    = PROP_PARALLEL_MIN_POP_PN;
+        this.parallelMinPopulation = parallelMinPopulation;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
+    /**
+     * Gets the vectorKernel parameter.
+     * 
+     * @return the vectorKernel
+     */
+    public boolean isVectorKernel()
+    {
+        return vectorKernel;
+    }
+
+    /**
+     * Sets the vectorKernel parameter.
+     * 
+     * @param vectorKernel the vectorKernel to set
+     */
+    public void setVectorKernel( boolean vectorKernel )
+    {
+        boolean oldVal      = this.vectorKernel;
+        boolean newVal      = vectorKernel;
+        String  propName    = PROP_VECTOR_KERNEL_PN;
+        this.vectorKernel = vectorKernel;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
+    /**
+     * Gets the tileMemoCapacity parameter.
+     * 
+     * @return the tileMemoCapacity
+     */
+    public int getTileMemoCapacity()
+    {
+        return tileMemoCapacity;
+    }
+
+    /**
+     * Sets the tileMemoCapacity parameter.
+     * 
+     * @param tileMemoCapacity the tileMemoCapacity to set
+     */
+    public void setTileMemoCapacity( int tileMemoCapacity )
+    {
+        int     oldVal      = this.tileMemoCapacity;
+        int     newVal      = tileMemoCapacity;
+        String  propName    = PROP_TILE_MEMO_CAPACITY_PN;
+        this.tileMemoCapacity = tileMemoCapacity;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
+    /**
+     * Gets the tileFreezeGenerations parameter.
+     * 
+     * @return the tileFreezeGenerations
+     */
+    public int getTileFreezeGenerations()
+    {
+        return tileFreezeGenerations;
+    }
+
+    /**
+     * Sets the tileFreezeGenerations parameter.
+     * 
+     * @param tileFreezeGenerations the tileFreezeGenerations to set
+     */
+    public void setTileFreezeGenerations( int tileFreezeGenerations )
+    {
+        int     oldVal      = this.tileFreezeGenerations;
+        int     newVal      = tileFreezeGenerations;
+        String  propName    = PROP_TILE_FREEZE_GENS_PN;
+        this.tileFreezeGenerations = tileFreezeGenerations;
+        propChangeSupport.
+            firePropertyChange( propName, oldVal, newVal );
+    }
+
     /**
      * Fires a NotificationEvent to NotificationListeners.
      * The event's property name will
@@ -57,6 +57,18 @@ public class RLEDescriptor implements Iterable<Character>
     private Point               upperLeftCorner = null;
     /** Grid map for obtaining pattern data */
     private GridMap             gridMap         = null;
+    /** 
+     * Number of cell states; if greater than 2 the header line
+     * includes a third rule field, and the grid is encoded
+     * using multi-state cell codes.
+     */
+    private int                 gameStates      = 2;
+    /** 
+     * Isotropic non-totalistic rule, such as "B2-a/S12";
+     * if not empty, written to the header line in place of
+     * the birth and survival rules.
+     */
+    private String              isotropicRule   = "";
     
     /**
      * Default constructor.
@@ -80,6 +92,8 @@ public class RLEDescriptor implements Iterable<Character>
             name = rleData.getName();
             authorName = rleData.getAuthor();
             upperLeftCorner = rleData.getUpperLeft();
+            gameStates = Math.max( 2, rleData.getGameStates() );
+            isotropicRule = rleData.getIsotropicRule();
         }
     }
     
@@ -98,6 +112,8 @@ public class RLEDescriptor implements Iterable<Character>
         authorEmail = params.getAuthorEmail();
         authorTime = params.getAuthorTime();
         gridMap = params.getGridMap();
+        gameStates = params.getGameStates();
+        isotropicRule = params.getIsotropicRule();
         if ( gridMap != null )
             upperLeftCorner = gridMap.getUpperLeftCorner();
     }
@@ -339,6 +355,51 @@ public class RLEDescriptor implements Iterable<Character>
         comments.remove( comment.trim() );
     }
     
+    /**
+     * Gets the number of cell states.
+     * 
+     * @return the number of cell states
+     */
+    public int getGameStates()
+    {
+        return gameStates;
+    }
+    
+    /**
+     * Sets the number of cell states.
+     * 
+     * @param gameStates the number of cell states
+     */
+    public void setGameStates( int gameStates )
+    {
+        this.gameStates = gameStates;
+    }
+    
+    /**
+     * Gets the isotropic non-totalistic rule.
+     * 
+     * @return the isotropic non-totalistic rule, 
+     *         or an empty string if none
+     */
+    public String getIsotropicRule()
+    {
+        return isotropicRule;
+    }
+    
+    /**
+     * Sets the isotropic non-totalistic rule.
+     * If not empty, the rule is written to the header line
+     * in place of the birth and survival rules.
+     * 
+     * @param isotropicRule the isotropic non-totalistic rule,
+     *                      in Hensel notation, for example "B2-a/S12";
+     *                      null or empty for none
+     */
+    public void setIsotropicRule( String isotropicRule )
+    {
+        this.isotropicRule = isotropicRule == null ? "" : isotropicRule;
+    }
+    
     /**
      * Gets the encapsulated grid map.
      */
@@ -395,6 +456,10 @@ public class RLEDescriptor implements Iterable<Character>
      * Returns the formatted header line of an RLE file, for example:
      * <pre>
      *     x = 25, y = 35, rule = B3/S23</pre>
+     * If the pattern has more than two states
+     * the number of states is appended, for example:
+     * <pre>
+     *     x = 25, y = 35, rule = B2/S/3</pre>
      *     
      * If the upper left corner has not been specified 
      * an attempt will be made to obtain it from the encapsulated gridMap;
@@ -424,9 +489,19 @@ public class RLEDescriptor implements Iterable<Character>
         }
         
         StringBuilder   bBldr   = new StringBuilder( "B" );
-        birthRules.forEach( i -> bBldr.append( i ) );
         StringBuilder   sBldr   = new StringBuilder( "S" );
-        survivalRules.forEach( i -> sBldr.append( i ) );
+        if ( isotropicRule != null && !isotropicRule.isEmpty() )
+        {
+            String[]    fields  = isotropicRule.split( "/" );
+            boolean     bFirst  = fields[0].toUpperCase().startsWith( "B" );
+            bBldr.append( fields[bFirst ? 0 : 1].substring( 1 ) );
+            sBldr.append( fields[bFirst ? 1 : 0].substring( 1 ) );
+        }
+        else
+        {
+            birthRules.forEach( i -> bBldr.append( i ) );
+            survivalRules.forEach( i -> sBldr.append( i ) );
+        }
         String  line    = String.format(
             headerLineFormat,
             upperLeftCorner.x, 
@@ -434,6 +509,8 @@ public class RLEDescriptor implements Iterable<Character>
             bBldr,
             sBldr
         );
+        if ( gameStates > 2 )
+            line += "/" + gameStates;
         
         return line;
     }
@@ -450,7 +527,42 @@ public class RLEDescriptor implements Iterable<Character>
      */
     public Iterator<Character> iterator() throws NullPointerException
     {
-        Iterator<Character> iterator    = new CellIterator( gridMap );
+        CellIterator        cellIter    = new CellIterator( gridMap, false );
+        Iterator<Character> iterator    = new Iterator<Character>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return cellIter.hasNext();
+            }
+            
+            @Override
+            public Character next() throws NoSuchElementException
+            {
+                return cellIter.next().charAt( 0 );
+            }
+        };
+        return iterator;
+    }
+    
+    /**
+     * Returns an iterator to traverse all the cells in the live rectangle
+     * of the encapsulated grid map, returning each cell code as a string.
+     * If the pattern has more than two states, multi-state cell codes
+     * are returned, otherwise the result is equivalent to
+     * {@link #iterator()}. The encapsulated grid map may not be null.
+     * 
+     * @return  an iterator to traverse all the cells in the live rectangle
+     *          of a grid map
+     *          
+     * @throws  NullPointerException if the encapsulated grid map is null
+     * 
+     * @see RLEGridEncoder#toCode(int)
+     */
+    public Iterator<String> codeIterator() throws NullPointerException
+    {
+        Iterator<String>    iterator    = 
+            new CellIterator( gridMap, gameStates > 2 );
         return iterator;
     }
     
@@ -478,17 +590,21 @@ public class RLEDescriptor implements Iterable<Character>
      * Dead cells at the end of a row are ignored.
      * 
      * For each cell, 'o' is returned if the cell is live, 
-     * 'b' is returned if the cell is dead. The next character
+     * 'b' is returned if the cell is dead;
+     * in multi-state mode the multi-state code for the cell's state
+     * is returned instead. The next character
      * returned after a row of the rectangle is exhausted is '$'.
      * The next character returned after processing the
      * last live cell in the last row is '!'.
      * 
      * @author Jack Straub
      */
-    private static class CellIterator implements Iterator<Character>
+    private static class CellIterator implements Iterator<String>
     {
         /** The grid map to traverse */
         private final GridMap   gridMap;
+        /** True to return multi-state cell codes */
+        private final boolean   multiState;
         /** The live rectangle within the grid map to traverse */
         private final Rectangle liveRect;
         /** 
@@ -519,20 +635,22 @@ public class RLEDescriptor implements Iterable<Character>
         private int             lastLiveX;
         /**
          * The last character returned by the next() method.
-         * Its initial value of lastChar should be anything OTHER than:
+         * Its initial value of lastCode should be anything OTHER than:
          * 'o', 'b', '$', '!'
          */
-        private char            lastChar    = ' ';
+        private String          lastCode    = " ";
         
         /**
          * Constructor.
          * 
-         * @param map   the grid map to traverse;
-         *              may not be null
+         * @param map           the grid map to traverse;
+         *                      may not be null
+         * @param multiState    true to return multi-state cell codes
          */
-        public CellIterator( GridMap map )
+        public CellIterator( GridMap map, boolean multiState )
         {
             gridMap = map;
+            this.multiState = multiState;
             liveRect = gridMap.getLiveRectangle();
             firstX = liveRect.x;
             lastX = firstX + liveRect.width;
@@ -555,7 +673,7 @@ public class RLEDescriptor implements Iterable<Character>
         @Override
         public boolean hasNext()
         {
-            boolean result  = lastChar != '!';
+            boolean result  = !lastCode.equals( "!" );
             return result;
         }
         
@@ -567,22 +685,25 @@ public class RLEDescriptor implements Iterable<Character>
          * @throws  NoSuchElementException if the iteration is complete
          */
         @Override
-        public Character next() throws NoSuchElementException
+        public String next() throws NoSuchElementException
         {
-            if ( lastChar == '!' )
+            if ( lastCode.equals( "!" ) )
                 throw new NoSuchElementException( "iterator overflow" );
             if ( nextX <= lastLiveX )
             {
-                Cell    nextCell    = gridMap.get( nextX++, currY );
-                lastChar = nextCell.isAlive() ? 'o' : 'b';
+                int     state   = gridMap.getState( nextX++, currY );
+                if ( multiState )
+                    lastCode = RLEGridEncoder.toCode( state );
+                else
+                    lastCode = state != 0 ? "o" : "b";
             }
             else
             {
                 newRow();
-                lastChar = currY < lastY ? '$' : '!';
+                lastCode = currY < lastY ? "$" : "!";
             }
             
-            return lastChar;
+            return lastCode;
         }
         
         /**
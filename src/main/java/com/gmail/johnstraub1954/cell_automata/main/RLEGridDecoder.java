@@ -13,6 +13,14 @@ import java.util.regex.Pattern;
  * A character not preceded by an explicit count
  * is assumed to have an implicit count of 1.
  * The input sequence may or may not consist of multiple lines.
+ * <p>
+ * Patterns with more than two states use multi-state cell codes:
+ * '.' for state 0, 'A' through 'X' for states 1 through 24,
+ * and a lower-case prefix, 'p' through 'y', followed by
+ * 'A' through 'X' for states 25 through 255;
+ * for example, "pA" for state 25 and "yO" for state 255.
+ * A multi-state cell code is a single element of the input sequence,
+ * and may be preceded by a count, as in 3pA.
  * 
  * Operations/services provided by the class are generally considered
  * integral parts of decoding a full formatted RLE-style description
@@ -39,13 +47,20 @@ public class RLEGridDecoder implements Iterable<Character>
      * <li>5o</li>
      * <li>10b</li>
      * <li>3$</li>
+     * <li>pA</li>
+     * <li>4xC</li>
      * </ul>
      * It contains two groups: one to match a numeric prefix
-     * (if any) and the other to match the input character.
+     * (if any) and the other to match the input character
+     * or multi-state cell code.
      */
-    private static final String     regExp  = "(\\d*?)([$!\\D])";
+    private static final String     regExp  = 
+        "(\\d*?)([p-y][A-X]|[$!\\D])";
     private static final Pattern    pattern = Pattern.compile( regExp );
 
+    /** Number of states encoded by each multi-state prefix letter. */
+    private static final int        PREFIX_STATES   = 24;
+    
     private final StringBuilder codes   = new StringBuilder();
     
     /**
@@ -140,18 +155,76 @@ public class RLEGridDecoder implements Iterable<Character>
     @Override
     public Iterator<Character> iterator()
     {
-        CharIterator    iter    = new CharIterator();
+        CodeIterator        codeIter    = new CodeIterator();
+        Iterator<Character> iter        = new Iterator<Character>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return codeIter.hasNext();
+            }
+            
+            @Override
+            public Character next() throws NoSuchElementException
+            {
+                return codeIter.next().charAt( 0 );
+            }
+        };
+        return iter;
+    }
+    
+    /**
+     * Returns an iterator that sequentially traverses
+     * the input sequence for a grid for a run length encoded
+     * specification, returning each cell code as a string.
+     * This is equivalent to {@link #iterator()},
+     * except that multi-state cell codes,
+     * such as "pA", are returned intact.
+     * 
+     * @return  an iterator that sequentially traverses
+     *          the cell codes of a run length encoded specification
+     *          
+     * @see #toState(String)
+     */
+    public Iterator<String> codeIterator()
+    {
+        CodeIterator    iter    = new CodeIterator();
         return iter;
     }
     
-    private class CharIterator implements Iterator<Character>
+    /**
+     * Translates a cell code into a cell state.
+     * 'b' and '.' are translated to 0 and 'o' to 1;
+     * multi-state codes are translated as described above.
+     * Any other code is translated to 0.
+     * 
+     * @param code  the cell code to translate
+     * 
+     * @return  the state corresponding to the given code
+     */
+    public static int toState( String code )
+    {
+        char    last    = code.charAt( code.length() - 1 );
+        int     state   = 0;
+        if ( code.equals( "o" ) )
+            state = 1;
+        else if ( last >= 'A' && last <= 'X' )
+        {
+            state = last - 'A' + 1;
+            if ( code.length() > 1 )
+                state += (code.charAt( 0 ) - 'p' + 1) * PREFIX_STATES;
+        }
+        return state;
+    }
+    
+    private class CodeIterator implements Iterator<String>
     {
         // The codes string always ends in '!'
         // so codes.get( 0 ) is always in bounds.
         private final String    toParse = codes.toString();
         private final Matcher   matcher;
         private int             charCount;
-        private char            nextChar;
+        private String          nextCode;
         
         /**
          * Constructor.
@@ -162,7 +235,7 @@ public class RLEGridDecoder implements Iterable<Character>
          * Precondition: the last character in the <em>codes</em> 
          *               String '!'
          */
-        public CharIterator()
+        public CodeIterator()
         {
             matcher = pattern.matcher( toParse );
             parseNext();
@@ -181,15 +254,15 @@ public class RLEGridDecoder implements Iterable<Character>
         }
 
         /**
-         * Returns the next character in the input sequence.
+         * Returns the next cell code in the input sequence.
          * 
-         * @return  the next character in the input sequence
+         * @return  the next cell code in the input sequence
          * 
          * @throws  NoSuchElementException
          *          if the input sequence is exhausted
          */
         @Override
-        public Character next() throws NoSuchElementException
+        public String next() throws NoSuchElementException
         {
             if ( charCount == 0 )
             {
@@ -197,7 +270,7 @@ public class RLEGridDecoder implements Iterable<Character>
                 throw new NoSuchElementException( message );
             }
             
-            Character   next    = nextChar;
+            String      next    = nextCode;
             if ( --charCount == 0 )
                 parseNext();
             
@@ -207,7 +280,7 @@ public class RLEGridDecoder implements Iterable<Character>
         /**
          * Returns the next count/character pair 
          * in the input sequence.
-         * Variable nextChar is set to <em>character</em>
+         * Variable nextCode is set to <em>character</em>
          * If the <em>count</em> element is not present
          * charCount is set to 1, otherwise it is 
          * set to <em>count</em>.
@@ -233,9 +306,8 @@ public class RLEGridDecoder implements Iterable<Character>
             if ( !strCount.isEmpty() )
                 charCount = Integer.parseInt( strCount );
             
-            String  strChar     = matcher.group( 2 );
-            nextChar = strChar.charAt( 0 );
-            if ( nextChar == '!' )
+            nextCode = matcher.group( 2 );
+            if ( nextCode.equals( "!" ) )
                 charCount = 0;
         }
     }
@@ -8,6 +8,9 @@ import java.util.List;
  * Translates a grid map into a run-length encoded character stream.
  * The stream consists of one or more lines of character data,
  * each no more than 70 characters in length.
+ * Patterns with more than two states are encoded
+ * using multi-state cell codes;
+ * see {@link RLEGridDecoder}.
  * 
  * @author Jack Straub
  *
@@ -15,16 +18,53 @@ import java.util.List;
 public class RLEGridEncoder
 {
     private static final int    MAX_LINE_LEN   = 70;
+    /** Number of states encoded by each multi-state prefix letter. */
+    private static final int    PREFIX_STATES   = 24;
     
-    private final Iterator<Character>   iter;
+    private final Iterator<String>      iter;
     private final List<String>          lines       = new ArrayList<>();
     private final StringBuilder         currLine    = new StringBuilder();
     private int                         currCount   = 0;
-    private char                        currChar    = ' ';
+    private String                      currCode    = " ";
     
     public RLEGridEncoder( RLEDescriptor descrip )
     {
-        iter  = descrip.iterator();
+        iter  = descrip.codeIterator();
+    }
+    
+    /**
+     * Translates a cell state into a multi-state cell code.
+     * State 0 is translated to '.', states 1 through 24
+     * to 'A' through 'X', and states 25 through 255
+     * to a prefix letter, 'p' through 'y', followed by
+     * 'A' through 'X'.
+     * 
+     * @param state the state to translate; 0 through 255
+     * 
+     * @return  the multi-state cell code for the given state
+     * 
+     * @throws  IllegalArgumentException if the state is out of range
+     */
+    public static String toCode( int state )
+    {
+        if ( state < 0 || state > 255 )
+        {
+            String  message = "Invalid cell state: " + state;
+            throw new IllegalArgumentException( message );
+        }
+        
+        String  code;
+        if ( state == 0 )
+            code = ".";
+        else
+        {
+            int     prefix  = (state - 1) / PREFIX_STATES;
+            char    letter  = (char)('A' + (state - 1) % PREFIX_STATES);
+            code = prefix == 0 
+                ? "" + letter 
+                : "" + (char)('p' + prefix - 1) + letter;
+        }
+        return code;
     }
     
     public void encode() throws IllegalStateException
@@ -37,19 +77,19 @@ public class RLEGridEncoder
                 "Unexpected 0-length iteration";
             throw new IllegalStateException( message );
         }
-        currChar = iter.next();
+        currCode = iter.next();
         currCount = 1;
             
         while ( iter.hasNext() )
         {
-            char    nextChar    = iter.next();
-            if ( nextChar == currChar )
+            String  nextCode    = iter.next();
+            if ( nextCode.equals( currCode ) )
                 ++currCount;
             else if ( currCount > 0 )
             {
                 appendToCurrLine();
                 currCount = 1;
-                currChar = nextChar;
+                currCode = nextCode;
             }
         }
         
@@ -67,15 +107,30 @@ public class RLEGridEncoder
     {
         if ( currCount > 1 )
             currLine.append( currCount );
-        currLine.append( currChar );
+        currLine.append( currCode );
         if ( currLine.length() >= MAX_LINE_LEN )
         {
             int testPos = MAX_LINE_LEN;
-            // Don't break line in middle of count
-            while ( Character.isDigit( currLine.charAt( testPos - 1 ) ) )
+            // Don't break line in middle of count or multi-state code
+            while ( isPrefix( currLine.charAt( testPos - 1 ) ) )
                 --testPos;
             lines.add( currLine.substring( 0, testPos ) );
             currLine.delete( 0, testPos );
         }
     }
+    
+    /**
+     * Returns true if a given character can only be followed
+     * by another character of the same element:
+     * a digit of a count, or the prefix of a multi-state cell code.
+     * 
+     * @param   ch  the given character
+     * 
+     * @return  true if the given character cannot end a line
+     */
+    private static boolean isPrefix( char ch )
+    {
+        boolean result  = Character.isDigit( ch ) || (ch >= 'p' && ch <= 'y');
+        return result;
+    }
 }
@@ -9,6 +9,7 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,6 +27,16 @@ public class RLEInput
      * x = 100 y= 100 rule = 23/3
      * <br>&nbsp;&nbsp;&nbsp;&nbsp;
      * x = 100, y= 100 rule = s23/b3
+     * <br>&nbsp;&nbsp;&nbsp;&nbsp;
+     * x = 100, y= 100 rule = B2/S/3
+     * <p>
+     * Either list of states may be empty,
+     * as in the <em>Seeds</em> rule, B2/S.
+     * A list of states may include Hensel letters,
+     * as in the isotropic non-totalistic rule B2-a/S12.
+     * The optional third field is the number of states
+     * of a <em>Generations</em> rule; it may be prefixed
+     * with 'C' or 'G', as in B2/S/C3.
      * 
      * @see #rulePattern
      * @see #parseHeader(String, BufferedReader)
@@ -34,8 +45,8 @@ public class RLEInput
         "x\\s*=\\s*(\\d+)\\s*,*\\s*"
         + "y\\s*=\\s*(\\d+)\\s*,*"
         + "\\s*rule\\s*=\\s*"
-        + "([sb])?(\\d+)\\s*/\\s*([sb])?(\\d+)"
-        + "\\s*(?:/\\s*(\\d+))?";
+        + "([sb])?([\\dcekainyqjrtwz-]*)\\s*/\\s*([sb])?([\\dcekainyqjrtwz-]*)"
+        + "\\s*(?:/\\s*[cg]?(\\d+))?";
 
     /* ****************************************************
      * Position of capture groups in the rule string
@@ -89,6 +100,8 @@ public class RLEInput
     private final List<String>  comments        = new ArrayList<>();
     private final List<Integer> survivalRules   = new ArrayList<>();
     private final List<Integer> birthRules      = new ArrayList<>();
+    /** Isotropic non-totalistic rule, such as "B2-a/S12"; empty if none */
+    private String              isotropicRule   = "";
     private int                 gameStates      = -1;
     private String              name            = "Unnamed";
     private String              author          = "Unknown";
@@ -208,10 +221,18 @@ public class RLEInput
     }
 
     /**
+     * Returns the grid map encoded in the input.
+     * The grid map is decoded the first time this method is invoked;
+     * subsequent invocations return the same object.
+     * The encoded cells are positioned relative to the
+     * upper-left corner specified in the input header.
+     * 
      * @return the gridMap
      */
     public GridMap getGridMap()
     {
+        if ( gridMap == null )
+            gridMap = decodeGridMap();
         return gridMap;
     }
 
@@ -246,12 +267,59 @@ public class RLEInput
     {
         return birthRules;
     }
+
+    /**
+     * Gets the isotropic non-totalistic rule given in the header,
+     * in Hensel notation, for example "B2-a/S12".
+     * 
+     * @return the isotropic non-totalistic rule,
+     *         or an empty string if the rule is totalistic
+     */
+    public String getIsotropicRule()
+    {
+        return isotropicRule;
+    }
     
     public RLEGridDecoder getGridDecoder()
     {
         return gridDecoder;
     }
     
+    /**
+     * Decodes the grid map encoded in the input.
+     * Both two-state ('b' and 'o')
+     * and multi-state ('.', 'A', 'B', ... 'pA', ...)
+     * cell codes are recognized.
+     * 
+     * @return  the decoded grid map
+     * 
+     * @see RLEGridDecoder#toState(String)
+     */
+    private GridMap decodeGridMap()
+    {
+        Point               origin  = getUpperLeft();
+        Iterator<String>    iter    = gridDecoder.codeIterator();
+        GridMap             map     = new GridMap();
+        int currX   = origin.x;
+        int currY   = origin.y;
+        while ( iter.hasNext() )
+        {
+            String  nextCode    = iter.next();
+            if ( nextCode.equals( "$" ) )
+            {
+                ++currY;
+                currX = origin.x;
+            }
+            else
+            {
+                int     state   = RLEGridDecoder.toState( nextCode );
+                map.putState( currX++, currY, state );
+            }
+        }
+        
+        return map;
+    }
+    
     private void parse( URL url ) throws IOException
     {
         try ( InputStream inStream = url.openStream(); )
@@ -393,8 +461,18 @@ public class RLEInput
      * <li>23/b3 (exactly one tag present)</li>
      * <li>s23/s3 (two 's' tags, no 'b' tag)</li>
      * <li>b23/b3 (two 'b' tags, no 's' tag)</li>
-     * <li>one or both states are missing</li>
+     * <li>both lists of states are missing</li>
+     * <li>
+     *      a list of states contains Hensel letters 
+     *      that are not valid for the preceding neighbor count,
+     *      as in b2x/s23
+     * </li>
      * </ul>
+     * If either list of states contains Hensel letters
+     * (see {@link RuleTable#RuleTable(String, String)})
+     * the rule is recorded as an isotropic non-totalistic rule,
+     * and the survival and birth states are the neighbor counts
+     * that appear in the rule.
      * 
      * @param matcher   matcher that was used to parse the input
      *                  string in parseHeader
@@ -427,7 +505,7 @@ public class RLEInput
                 generateGOL_ParseException( line, matcher, tagBGroupPos );
             throw exc;
         }
-        if ( stateTagA != null && stateTagA.equals( stateTagB ) )
+        if ( stateTagA != null && stateTagA.equalsIgnoreCase( stateTagB ) )
         {
             CAException    exc = 
                 generateGOL_ParseException( line, matcher, tagAGroupPos );
@@ -439,7 +517,7 @@ public class RLEInput
                 generateGOL_ParseException( line, matcher, stateAGroupPos );
             throw exc;
         }
-        if ( stateB == null )
+        if ( stateB == null || (stateA.isEmpty() && stateB.isEmpty()) )
         {
             CAException    exc = 
                 generateGOL_ParseException( line, matcher, stateBGroupPos );
@@ -454,19 +532,29 @@ public class RLEInput
         
         // Assume stateA is survival state;
         // if wrong, swap with stateB
-        if ( stateTagA.equals( "B" ) )
+        if ( stateTagA.equalsIgnoreCase( "B" ) )
         {
             String  temp    = stateA;
             stateA = stateB;
             stateB = temp;
         }
-        int aLen    = stateA.length();
-        for ( int inx = 0 ; inx < aLen ; ++inx )
-            survivalRules.add( Integer.parseInt( "" + stateA.charAt( inx ) ) );
-        
-        int bLen    = stateB.length();
-        for ( int inx = 0 ; inx < bLen ; ++inx )
-            birthRules.add( Integer.parseInt( "" + stateB.charAt( inx ) ) );
+        if ( RuleTable.hasLetters( stateA ) || RuleTable.hasLetters( stateB ) )
+        {
+            try
+            {
+                new RuleTable( stateA, stateB );
+            }
+            catch ( IllegalArgumentException exc )
+            {
+                CAException    golExc = 
+                    generateGOL_ParseException( line, matcher, stateBGroupPos );
+                throw golExc;
+            }
+            isotropicRule = 
+                "B" + stateB.toLowerCase() + "/S" + stateA.toLowerCase();
+        }
+        survivalRules.addAll( RuleTable.getCounts( stateA ) );
+        birthRules.addAll( RuleTable.getCounts( stateB ) );
         
         String  stateC  = matcher.group( stateCGroupPos );
         if ( stateC != null )
@@ -0,0 +1,480 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A two-state birth/survival rule compiled into lookup tables.
+ * <p>
+ * The <em>neighborhood table</em> has one entry
+ * for every possible state of a 3x3 neighborhood.
+ * A neighborhood is encoded in 9 bits;
+ * bit (3 * y + x) is the cell at (x, y),
+ * where (0, 0) is the northwest corner of the neighborhood,
+ * so bit 4 is the cell whose next state is being calculated.
+ * <p>
+ * The <em>block table</em> has one entry
+ * for every possible state of a 4x4 block.
+ * A block is encoded in 16 bits;
+ * bit (4 * y + x) is the cell at (x, y).
+ * An entry contains the next state of the 2x2 cells
+ * at the center of the block,
+ * encoded in 4 bits; bit (2 * (y - 1) + (x - 1))
+ * is the next state of the cell at (x, y).
+ * The block table allows a block of cells to be advanced
+ * with a single lookup.
+ * <p>
+ * Because every rule is reduced to the same tables,
+ * <em>isotropic non-totalistic</em> rules, in which
+ * birth and survival depend on the arrangement
+ * as well as the number of live neighbors,
+ * are evaluated exactly as fast as totalistic rules.
+ * Such rules are written in <em>Hensel notation</em>,
+ * in which a neighbor count may be followed by letters
+ * that select particular arrangements of that many neighbors;
+ * for example, in B2-a/S12 a dead cell comes alive
+ * if it has two live neighbors,
+ * unless they are an edge and an adjacent corner (2a).
+ * See {@link #RuleTable(String, String)}.
+ * <p>
+ * Instances of this class are immutable.
+ *
+ * @author Jack Straub
+ */
+public class RuleTable
+{
+    /** Number of entries in the neighborhood table. */
+    public static final int     NEIGHBORHOOD_SIZE   = 1 << 9;
+    /** Number of entries in the block table. */
+    public static final int     BLOCK_SIZE          = 1 << 16;
+    /** Bit representing the center cell of a neighborhood. */
+    public static final int     SELF_BIT            = 1 << 4;
+    /** Mask of the bits representing the neighbors of the center cell. */
+    private static final int    NEIGHBORS_MASK      =
+        (NEIGHBORHOOD_SIZE - 1) & ~SELF_BIT;
+
+    /** Hensel letters that may follow each neighbor count, 0 through 8. */
+    private static final String[]   HENSEL_LETTERS  =
+    {
+        "", "ce", "ceaikn", "ceaiknjqry", "ceaiknjqrytwz",
+        "ceaiknjqry", "ceaikn", "ce", "",
+    };
+    /**
+     * One representative neighborhood for each Hensel letter
+     * of counts 1 through 4, in the order of HENSEL_LETTERS;
+     * the arrangements for counts 5 through 7 are the complements
+     * of the arrangements for counts 3 through 1.
+     */
+    private static final int[][]    HENSEL_NEIGHBORHOODS    =
+    {
+        {},
+        { 1, 2 },
+        { 5, 10, 3, 40, 33, 68 },
+        { 69, 42, 11, 7, 98, 13, 14, 70, 41, 97 },
+        { 325, 170, 15, 45, 99, 71, 106, 102, 43, 101, 105, 78, 108 },
+    };
+    /**
+     * For each neighborhood, the index of its Hensel letter
+     * in HENSEL_LETTERS; the center cell is ignored.
+     */
+    private static final byte[]     HENSEL_CLASSES  = getHenselClasses();
+
+    /** Next state of the center cell, by neighborhood. */
+    private final boolean[]     neighborhoods   =
+        new boolean[NEIGHBORHOOD_SIZE];
+    /** Next state of the central 2x2 cells, by block. */
+    private final byte[]        blocks          = new byte[BLOCK_SIZE];
+    /** True if the rule depends only on the number of live neighbors. */
+    private final boolean       totalistic;
+
+    /**
+     * Constructor.
+     *
+     * @param survivalStates    neighbor counts for which a live cell
+     *                          survives into the next generation
+     * @param birthStates       neighbor counts for which a dead cell
+     *                          comes alive in the next generation
+     */
+    public RuleTable(
+        Collection<Integer> survivalStates,
+        Collection<Integer> birthStates
+    )
+    {
+        for ( int hood = 0 ; hood < NEIGHBORHOOD_SIZE ; ++hood )
+        {
+            int     count   = Integer.bitCount( hood & ~SELF_BIT );
+            neighborhoods[hood] = (hood & SELF_BIT) != 0
+                ? survivalStates.contains( count )
+                : birthStates.contains( count );
+        }
+        buildBlocks();
+        totalistic = true;
+    }
+
+    /**
+     * Constructor.
+     * Builds the tables for a rule whose conditions are given
+     * in Hensel notation.
+     * Each condition is a neighbor count, 0 through 8,
+     * optionally followed by:
+     * <ul>
+     * <li>
+     *     letters naming the arrangements of that many neighbors
+     *     to which the condition applies, as in 2ae;
+     *     or
+     * </li>
+     * <li>
+     *     a minus sign followed by letters naming the arrangements
+     *     to which the condition does <em>not</em> apply,
+     *     as in 2-a.
+     * </li>
+     * </ul>
+     * A count without letters applies to every arrangement,
+     * so totalistic conditions such as 23 are also accepted.
+     * Letters are not case-sensitive.
+     *
+     * @param survival  the conditions under which a live cell
+     *                  survives into the next generation,
+     *                  for example "12"
+     * @param birth     the conditions under which a dead cell
+     *                  comes alive in the next generation,
+     *                  for example "2-a"
+     *
+     * @throws IllegalArgumentException if the conditions are invalid
+     */
+    public RuleTable( String survival, String birth )
+    {
+        parseConditions( survival, SELF_BIT );
+        parseConditions( birth, 0 );
+        buildBlocks();
+
+        boolean isTotalistic    = true;
+        for ( int hood = 0 ; hood < NEIGHBORHOOD_SIZE && isTotalistic ; ++hood )
+        {
+            // compare with the arrangement in which the neighbors
+            // are packed into the lowest bits
+            int     count   = Integer.bitCount( hood & NEIGHBORS_MASK );
+            int     packed  = (1 << count) - 1;
+            packed = (packed & 0xF) | ((packed & ~0xF) << 1);
+            isTotalistic = 
+                neighborhoods[hood] == neighborhoods[packed | (hood & SELF_BIT)];
+        }
+        totalistic = isTotalistic;
+    }
+
+    /**
+     * Returns a rule given in B/S notation,
+     * such as B3/S23 or S12/B2-a,
+     * compiled into lookup tables.
+     * Both tags are required; either may come first.
+     *
+     * @param rule  the given rule
+     *
+     * @return  the compiled rule
+     *
+     * @throws IllegalArgumentException if the rule is invalid
+     *
+     * @see #RuleTable(String, String)
+     */
+    public static RuleTable parse( String rule )
+    {
+        String[]    fields  = rule.trim().split( "\\s*/\\s*", -1 );
+        String      birth   = null;
+        String      survive = null;
+        for ( String field : fields )
+        {
+            char    tag     = field.isEmpty() ? ' ' : field.charAt( 0 );
+            if ( (tag == 'B' || tag == 'b') && birth == null )
+                birth = field.substring( 1 );
+            else if ( (tag == 'S' || tag == 's') && survive == null )
+                survive = field.substring( 1 );
+            else
+                birth = survive = null;
+        }
+        if ( fields.length != 2 || birth == null || survive == null )
+        {
+            String  message = "Invalid rule: " + rule;
+            throw new IllegalArgumentException( message );
+        }
+
+        RuleTable   table   = new RuleTable( survive, birth );
+        return table;
+    }
+
+    /**
+     * Returns true if this rule depends only on
+     * the number of live neighbors,
+     * and not on their arrangement.
+     *
+     * @return  true if this rule is totalistic
+     */
+    public boolean isTotalistic()
+    {
+        return totalistic;
+    }
+
+    /**
+     * Returns the next state of the center cell
+     * of a given neighborhood.
+     *
+     * @param neighborhood  the given neighborhood, encoded in 9 bits
+     *
+     * @return  true if the center cell will be alive
+     *          in the next generation
+     */
+    public boolean isAliveNext( int neighborhood )
+    {
+        return neighborhoods[neighborhood];
+    }
+
+    /**
+     * Returns the next state of the central 2x2 cells
+     * of a given 4x4 block.
+     *
+     * @param block the given block, encoded in 16 bits
+     *
+     * @return  the next state of the central 2x2 cells,
+     *          encoded in 4 bits
+     */
+    public int nextBlock( int block )
+    {
+        int next    = blocks[block];
+        return next;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash    = Arrays.hashCode( neighborhoods );
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean result  =
+            obj instanceof RuleTable
+            && Arrays.equals( neighborhoods, ((RuleTable)obj).neighborhoods );
+        return result;
+    }
+
+    /**
+     * Returns the neighbor counts that appear in a list of
+     * conditions in Hensel notation.
+     * For a totalistic list of conditions
+     * these are the birth or survival states.
+     *
+     * @param conditions    the list of conditions, for example "2-a3"
+     *
+     * @return  the neighbor counts that appear in the list,
+     *          in order of appearance
+     */
+    public static List<Integer> getCounts( String conditions )
+    {
+        List<Integer>   counts  = new ArrayList<>();
+        for ( char next : conditions.toCharArray() )
+            if ( next >= '0' && next <= '9' )
+                counts.add( next - '0' );
+        return counts;
+    }
+
+    /**
+     * Returns true if a list of conditions in Hensel notation
+     * contains any letters; a list that contains no letters
+     * is a list of birth or survival states.
+     *
+     * @param conditions    the list of conditions
+     *
+     * @return  true if the list of conditions contains letters
+     */
+    public static boolean hasLetters( String conditions )
+    {
+        boolean result  = !conditions.chars().allMatch( Character::isDigit );
+        return result;
+    }
+
+    /**
+     * Encodes the neighborhood of the cell at given coordinates
+     * in a GridMap.
+     * Any non-0 state is treated as <em>alive</em>.
+     *
+     * @param gridMap   the GridMap
+     * @param xco       the x-coordinate of the cell
+     * @param yco       the y-coordinate of the cell
+     *
+     * @return  the encoded neighborhood of the given cell
+     */
+    public static int getNeighborhood( GridMap gridMap, int xco, int yco )
+    {
+        int hood    = 0;
+        int bit     = 1;
+        for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+            for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+            {
+                if ( gridMap.getState( col, row ) != 0 )
+                    hood |= bit;
+                bit <<= 1;
+            }
+        return hood;
+    }
+
+    /**
+     * Extracts the neighborhood of the cell at given coordinates
+     * in a 4x4 block.
+     *
+     * @param block the block, encoded in 16 bits
+     * @param xco   the x-coordinate of the cell; 1 or 2
+     * @param yco   the y-coordinate of the cell; 1 or 2
+     *
+     * @return  the encoded neighborhood of the given cell
+     */
+    private static int getNeighborhood( int block, int xco, int yco )
+    {
+        int shift   = 4 * (yco - 1) + (xco - 1);
+        int hood    =
+            ((block >> shift) & 7)
+            | (((block >> (shift + 4)) & 7) << 3)
+            | (((block >> (shift + 8)) & 7) << 6);
+        return hood;
+    }
+
+    /**
+     * Fills in the block table from the neighborhood table.
+     */
+    private void buildBlocks()
+    {
+        for ( int block = 0 ; block < BLOCK_SIZE ; ++block )
+        {
+            int     next    = 0;
+            for ( int yco = 1 ; yco <= 2 ; ++yco )
+                for ( int xco = 1 ; xco <= 2 ; ++xco )
+                    if ( neighborhoods[getNeighborhood( block, xco, yco )] )
+                        next |= 1 << (2 * (yco - 1) + (xco - 1));
+            blocks[block] = (byte)next;
+        }
+    }
+
+    /**
+     * Parses a list of conditions in Hensel notation,
+     * and sets the corresponding entries of the neighborhood table.
+     *
+     * @param conditions    the list of conditions
+     * @param self          SELF_BIT for survival conditions,
+     *                      0 for birth conditions
+     *
+     * @throws IllegalArgumentException if the conditions are invalid
+     *
+     * @see #RuleTable(String, String)
+     */
+    private void parseConditions( String conditions, int self )
+    {
+        String  lower   = conditions.toLowerCase();
+        int     len     = lower.length();
+        int     inx     = 0;
+        while ( inx < len )
+        {
+            char    digit   = lower.charAt( inx++ );
+            boolean negate  = inx < len && lower.charAt( inx ) == '-';
+            if ( negate )
+                ++inx;
+            int     start   = inx;
+            while ( inx < len && Character.isLetter( lower.charAt( inx ) ) )
+                ++inx;
+            String  letters = lower.substring( start, inx );
+
+            int     count   = digit - '0';
+            if ( count < 0 || count > 8 
+                || (negate && letters.isEmpty())
+                || !letters.chars().allMatch( 
+                    c -> HENSEL_LETTERS[count].indexOf( c ) >= 0 ) )
+            {
+                String  message = "Invalid rule conditions: " + conditions;
+                throw new IllegalArgumentException( message );
+            }
+
+            for ( int hood = 0 ; hood < NEIGHBORHOOD_SIZE ; ++hood )
+            {
+                if ( (hood & SELF_BIT) != 0 || Integer.bitCount( hood ) != count )
+                    continue;
+                boolean listed  = letters.isEmpty()
+                    || letters.indexOf( 
+                        HENSEL_LETTERS[count].charAt( HENSEL_CLASSES[hood] ) 
+                    ) >= 0;
+                if ( letters.isEmpty() || listed != negate )
+                    neighborhoods[hood | self] = true;
+            }
+        }
+    }
+
+    /**
+     * Classifies every neighborhood by its Hensel letter.
+     * Every rotation and reflection of a representative
+     * neighborhood has the same letter as the representative,
+     * and the complement of an arrangement of <em>n</em> neighbors
+     * has the same letter as the arrangement, for n less than 4.
+     *
+     * @return  for each neighborhood, the index of its Hensel letter
+     *          in HENSEL_LETTERS
+     */
+    private static byte[] getHenselClasses()
+    {
+        byte[]  classes = new byte[NEIGHBORHOOD_SIZE];
+        for ( int count = 1 ; count <= 4 ; ++count )
+        {
+            int[]   reps    = HENSEL_NEIGHBORHOODS[count];
+            for ( int letter = 0 ; letter < reps.length ; ++letter )
+            {
+                int     hood    = reps[letter];
+                for ( int sym = 0 ; sym < 8 ; ++sym )
+                {
+                    classes[hood] = (byte)letter;
+                    classes[hood | SELF_BIT] = (byte)letter;
+                    if ( count < 4 )
+                    {
+                        int     complement  = ~hood & NEIGHBORS_MASK;
+                        classes[complement] = (byte)letter;
+                        classes[complement | SELF_BIT] = (byte)letter;
+                    }
+                    hood = sym == 3 ? reflect( hood ) : rotate( hood );
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Rotates a neighborhood a quarter turn clockwise.
+     *
+     * @param hood  the neighborhood to rotate
+     *
+     * @return  the rotated neighborhood
+     */
+    private static int rotate( int hood )
+    {
+        int result  = 0;
+        for ( int yco = 0 ; yco < 3 ; ++yco )
+            for ( int xco = 0 ; xco < 3 ; ++xco )
+                if ( (hood & (1 << (3 * yco + xco))) != 0 )
+                    result |= 1 << (3 * xco + (2 - yco));
+        return result;
+    }
+
+    /**
+     * Reflects a neighborhood about its vertical axis.
+     *
+     * @param hood  the neighborhood to reflect
+     *
+     * @return  the reflected neighborhood
+     */
+    private static int reflect( int hood )
+    {
+        int result  = 0;
+        for ( int yco = 0 ; yco < 3 ; ++yco )
+            for ( int xco = 0 ; xco < 3 ; ++xco )
+                if ( (hood & (1 << (3 * yco + xco))) != 0 )
+                    result |= 1 << (3 * yco + (2 - xco));
+        return result;
+    }
+}
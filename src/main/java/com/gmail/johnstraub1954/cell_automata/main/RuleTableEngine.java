@@ -0,0 +1,25 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+/**
+ * A generation engine that can evaluate any two-state rule
+ * compiled into a {@link RuleTable},
+ * including isotropic non-totalistic rules
+ * that cannot be expressed as lists of
+ * survival and birth states.
+ *
+ * @author Jack Straub
+ *
+ * @see Utils#propagate(String, Object)
+ */
+public interface RuleTableEngine extends GenerationEngine
+{
+    /**
+     * Replaces the contents of a given GridMap
+     * with the next generation of its pattern
+     * under a given rule.
+     *
+     * @param gridMap   the given GridMap
+     * @param rule      the given rule
+     */
+    void nextGeneration( GridMap gridMap, RuleTable rule );
+}
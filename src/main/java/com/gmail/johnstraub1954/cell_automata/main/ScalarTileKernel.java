@@ -0,0 +1,172 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+/**
+ * Scalar calculation of the next generation of a tile,
+ * for any birth/survival rule.
+ * The neighbors of the 64 cells of a row are summed
+ * with a tree of bitwise full adders,
+ * yielding a 4-bit count for every cell in four longs.
+ * The rule is expanded into 18 selectors,
+ * one for each neighbor count from 0 to 8 for live cells
+ * and one for each count for dead cells;
+ * a selector is all 1s if a cell with that count
+ * is alive in the next generation, otherwise all 0s.
+ * The next state of the cells of a row is then chosen
+ * from the selectors by a tree of bitwise multiplexers
+ * driven by the bits of the neighbor counts,
+ * so that the inner loop has no branches
+ * and costs the same for every rule.
+ * The selectors are built from the masks on each call;
+ * the kernel holds no state.
+ *
+ * @author Jack Straub
+ *
+ * @see TileEngine
+ */
+final class ScalarTileKernel implements TileKernel
+{
+    /**
+     * Calculates the next generation of a tile
+     * under the rule given by a pair of masks.
+     * See {@link TileKernel#calculate(long[], long[], long[], long[], int, int)}.
+     */
+    @Override
+    public void calculate(
+        long[] midRows,
+        long[] westRows,
+        long[] eastRows,
+        long[] result,
+        int survival,
+        int birth
+    )
+    {
+        long    live0   = selector( survival, 0 );
+        long    live1   = selector( survival, 1 );
+        long    live2   = selector( survival, 2 );
+        long    live3   = selector( survival, 3 );
+        long    live4   = selector( survival, 4 );
+        long    live5   = selector( survival, 5 );
+        long    live6   = selector( survival, 6 );
+        long    live7   = selector( survival, 7 );
+        long    live8   = selector( survival, 8 );
+        long    born0   = selector( birth, 0 );
+        long    born1   = selector( birth, 1 );
+        long    born2   = selector( birth, 2 );
+        long    born3   = selector( birth, 3 );
+        long    born4   = selector( birth, 4 );
+        long    born5   = selector( birth, 5 );
+        long    born6   = selector( birth, 6 );
+        long    born7   = selector( birth, 7 );
+        long    born8   = selector( birth, 8 );
+
+        long    prevW   = (midRows[0] << 1) | (westRows[0] >>> 63);
+        long    prevE   = (midRows[0] >>> 1) | (eastRows[0] << 63);
+        long    currW   = (midRows[1] << 1) | (westRows[1] >>> 63);
+        long    currE   = (midRows[1] >>> 1) | (eastRows[1] << 63);
+        for ( int row = 1 ; row <= TileEngine.TILE_SIZE ; ++row )
+        {
+            long    nextW   =
+                (midRows[row + 1] << 1) | (westRows[row + 1] >>> 63);
+            long    nextE   =
+                (midRows[row + 1] >>> 1) | (eastRows[row + 1] << 63);
+            long    self    = midRows[row];
+            long    north   = midRows[row - 1];
+            long    south   = midRows[row + 1];
+
+            // Three full adders reduce eight inputs to three sums
+            // of weight 1 and three carries of weight 2.
+            long    sum1    = prevW ^ north ^ prevE;
+            long    carry1  = (prevW & north) | (prevE & (prevW ^ north));
+            long    sum2    = currW ^ currE ^ nextW;
+            long    carry2  = (currW & currE) | (nextW & (currW ^ currE));
+            long    sum3    = south ^ nextE;
+            long    carry3  = south & nextE;
+
+            // Bit 0 of the count, with a fourth carry of weight 2
+            long    bit0    = sum1 ^ sum2 ^ sum3;
+            long    carry4  = (sum1 & sum2) | (sum3 & (sum1 ^ sum2));
+
+            // Sum the four carries of weight 2
+            long    sum5    = carry1 ^ carry2 ^ carry3;
+            long    carry5  = (carry1 & carry2) | (carry3 & (carry1 ^ carry2));
+            long    bit1    = sum5 ^ carry4;
+            long    carry6  = sum5 & carry4;
+            long    bit2    = carry5 ^ carry6;
+            long    bit3    = carry5 & carry6;
+
+            // The next state of each cell for each possible count
+            long    next0   = select( self, live0, born0 );
+            long    next1   = select( self, live1, born1 );
+            long    next2   = select( self, live2, born2 );
+            long    next3   = select( self, live3, born3 );
+            long    next4   = select( self, live4, born4 );
+            long    next5   = select( self, live5, born5 );
+            long    next6   = select( self, live6, born6 );
+            long    next7   = select( self, live7, born7 );
+            long    next8   = select( self, live8, born8 );
+
+            // Choose among them by the bits of the count;
+            // bit 3 is set only for a count of 8.
+            long    next01      = mux( bit0, next0, next1 );
+            long    next23      = mux( bit0, next2, next3 );
+            long    next45      = mux( bit0, next4, next5 );
+            long    next67      = mux( bit0, next6, next7 );
+            long    next03      = mux( bit1, next01, next23 );
+            long    next47      = mux( bit1, next45, next67 );
+            long    next07      = mux( bit2, next03, next47 );
+            result[row - 1] = mux( bit3, next07, next8 );
+
+            prevW = currW;
+            prevE = currE;
+            currW = nextW;
+            currE = nextE;
+        }
+    }
+
+    /**
+     * Returns the selector for a given neighbor count
+     * in a survival or birth mask:
+     * all 1s if the count is in the mask, otherwise all 0s.
+     *
+     * @param mask  the survival or birth mask
+     * @param count the given count
+     *
+     * @return  the selector for the given count
+     */
+    private static long selector( int mask, int count )
+    {
+        long    selector    = -((mask >> count) & 1L);
+        return selector;
+    }
+
+    /**
+     * Returns the next state of each cell of a row
+     * that has a given neighbor count.
+     *
+     * @param self  the current state of each cell
+     * @param live  the selector for the count for live cells
+     * @param born  the selector for the count for dead cells
+     *
+     * @return  the next state of each cell with the given count
+     */
+    private static long select( long self, long live, long born )
+    {
+        long    next    = (self & live) | (~self & born);
+        return next;
+    }
+
+    /**
+     * Chooses, bit by bit, between two longs.
+     *
+     * @param choice    bits that are 1 where <em>ifSet</em> is chosen
+     * @param ifClear   the bits chosen where <em>choice</em> is 0
+     * @param ifSet     the bits chosen where <em>choice</em> is 1
+     *
+     * @return  the chosen bits
+     */
+    private static long mux( long choice, long ifClear, long ifSet )
+    {
+        long    result  = ifClear ^ (choice & (ifClear ^ ifSet));
+        return result;
+    }
+}
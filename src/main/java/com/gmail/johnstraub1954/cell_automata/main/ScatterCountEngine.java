@@ -0,0 +1,118 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two-state generation engine whose cost is proportional
+ * to the population of the grid
+ * rather than to the area of its bounding rectangle.
+ * Each generation is computed in two passes:
+ * <ol>
+ * <li>
+ *     Every live cell <em>scatters</em> a count of 1
+ *     to each of its eight Moore neighbors,
+ *     and marks itself as alive,
+ *     in a table keyed by cell coordinates.
+ * </li>
+ * <li>
+ *     The birth and survival rules are applied to every coordinate
+ *     in the table; coordinates that are not in the table
+ *     have no live neighbors, and are not alive,
+ *     so they cannot change.
+ * </li>
+ * </ol>
+ * The count table and the list of changed cells
+ * are retained between generations, so that a pattern
+ * with a steady population allocates nothing per generation.
+ *
+ * @author Jack Straub
+ */
+public class ScatterCountEngine implements GenerationEngine
+{
+    /**
+     * Value added to a cell's entry in the count table
+     * to indicate that the cell is alive.
+     * Neighbor counts occupy the low four bits of an entry.
+     */
+    private static final int    ALIVE           = 16;
+    /** Mask to extract the neighbor count from a count table entry. */
+    private static final int    COUNT_MASK      = ALIVE - 1;
+
+    /** Neighbor counts and alive markers, keyed by cell coordinates. */
+    private final CellTable     counts          = new CellTable();
+    /** Packed coordinates of the cells that change in this generation. */
+    private long[]              changedKeys     = new long[64];
+    /** Number of cells that change in this generation. */
+    private int                 changedCount    = 0;
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        int     birthMask       = GenerationEngine.toMask( birthStates );
+        int     survivalMask    = GenerationEngine.toMask( survivalStates );
+
+        // every live cell contributes at most nine entries
+        counts.clear( 9 * gridMap.size() );
+
+        gridMap.forEachLive( (xco, yco, state) -> scatter( xco, yco ) );
+
+        changedCount = 0;
+        int     cap     = counts.capacity();
+        for ( int slot = 0 ; slot < cap ; ++slot )
+        {
+            int     value   = counts.stateAt( slot );
+            if ( value == 0 )
+                continue;
+            boolean alive   = value >= ALIVE;
+            int     count   = value & COUNT_MASK;
+            int     mask    = alive ? survivalMask : birthMask;
+            boolean next    = ((mask >> count) & 1) != 0;
+            if ( next != alive )
+                addChange( counts.keyAt( slot ) );
+        }
+
+        for ( int inx = 0 ; inx < changedCount ; ++inx )
+        {
+            long    key     = changedKeys[inx];
+            int     xco     = CellTable.xco( key );
+            int     yco     = CellTable.yco( key );
+            int     state   = gridMap.getState( xco, yco ) == 0 ? 1 : 0;
+            gridMap.putState( xco, yco, state );
+        }
+    }
+
+    /**
+     * Adds a live cell's contribution to the count table:
+     * 1 to the count of each of its neighbors,
+     * and the alive marker to its own entry.
+     *
+     * @param xco   the x-coordinate of the live cell
+     * @param yco   the y-coordinate of the live cell
+     */
+    private void scatter( int xco, int yco )
+    {
+        for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+            for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+            {
+                int delta   = row == yco && col == xco ? ALIVE : 1;
+                counts.add( CellTable.key( col, row ), delta );
+            }
+    }
+
+    /**
+     * Records a cell that changes in this generation.
+     *
+     * @param key   the packed coordinates of the cell
+     */
+    private void addChange( long key )
+    {
+        if ( changedCount == changedKeys.length )
+            changedKeys = Arrays.copyOf( changedKeys, changedCount * 2 );
+        changedKeys[changedCount++] = key;
+    }
+}
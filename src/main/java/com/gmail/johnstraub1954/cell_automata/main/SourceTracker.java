@@ -0,0 +1,65 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+/**
+ * Records the GridMap that an engine last synchronized with,
+ * and the modification count of the GridMap at that time,
+ * so that an engine which keeps its own representation of the grid
+ * can tell when it has been given a different GridMap,
+ * or when its GridMap has been modified by another party;
+ * see {@link GenerationEngine}.
+ * <p>
+ * An engine typically rebuilds its representation
+ * if {@link #isStale(GridMap)} returns true,
+ * calls {@link #update(GridMap)} after writing each generation
+ * to the GridMap,
+ * and calls {@link #reset()} when its representation
+ * becomes invalid for some other reason,
+ * such as a change of rule or grid size.
+ *
+ * @author Jack Straub
+ */
+final class SourceTracker
+{
+    /** The GridMap last synchronized with; null if none. */
+    private GridMap source      = null;
+    /** The modification count of the source when last synchronized. */
+    private int     modCount    = 0;
+
+    /**
+     * Indicates whether a given GridMap
+     * is not the GridMap last synchronized with,
+     * or has been modified since.
+     *
+     * @param gridMap   the given GridMap
+     *
+     * @return  true if the engine must resynchronize
+     *          with the given GridMap
+     */
+    boolean isStale( GridMap gridMap )
+    {
+        boolean stale   =
+            gridMap != source || gridMap.getModificationCount() != modCount;
+        return stale;
+    }
+
+    /**
+     * Records that the engine is synchronized with a given GridMap
+     * in its current state.
+     *
+     * @param gridMap   the given GridMap
+     */
+    void update( GridMap gridMap )
+    {
+        source = gridMap;
+        modCount = gridMap.getModificationCount();
+    }
+
+    /**
+     * Forgets the GridMap last synchronized with,
+     * so that any GridMap is stale.
+     */
+    void reset()
+    {
+        source = null;
+    }
+}
@@ -0,0 +1,878 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two-state generation engine that stores the plane
+ * as a sparse collection of 64x64 tiles.
+ * Each tile is an array of 64 longs, one per row;
+ * bit <em>n</em> of a row represents column <em>n</em> of the tile.
+ * Tiles are indexed by their packed tile coordinates
+ * (see {@link CellTable#key(int, int)}),
+ * where the tile coordinates of cell (x,y) are
+ * (x &gt;&gt; 6, y &gt;&gt; 6).
+ * <p>
+ * A generation is computed a full row (64 cells) at a time.
+ * The eight neighbors of every cell in a row are
+ * obtained by shifting the row and the rows above and below it,
+ * and the neighbors are summed using a tree of
+ * bitwise full adders, yielding a 4-bit count for every cell
+ * in four longs. The count is then matched against the
+ * birth and survival rules, so any totalistic B/S rule
+ * may be used. No Cell or Neighborhood objects are created.
+ * The calculation is performed by a {@link ScalarTileKernel},
+ * which selects the next state of every cell in a row
+ * from selectors built from the rule, without branching.
+ * <p>
+ * Tiles are retained between generations.
+ * After every generation only the cells that changed
+ * are written back to the GridMap;
+ * if the GridMap is replaced or modified by another party
+ * the tiles are rebuilt from scratch.
+ * <p>
+ * Optionally, tiles may be calculated by a {@link TileKernel}
+ * that uses the Vector API to calculate several rows
+ * per instruction; see {@link #setVectorKernel(boolean)}.
+ * The vector kernel is compiled only by JDK 17 and later builds,
+ * and requires the <em>jdk.incubator.vector</em> module at run time;
+ * if either is missing the engine falls back to its scalar calculation,
+ * which produces identical results.
+ * <p>
+ * Optionally, tile transitions may be memoized
+ * in a bounded cache,
+ * so that tiles whose neighborhoods recur
+ * are calculated by lookup; see {@link #setMemoCapacity(int)}.
+ * Only tiles that did not change in the previous generation
+ * are looked up.
+ * <p>
+ * Optionally, tiles that settle into still lifes
+ * or period-2 oscillators may be <em>frozen</em>;
+ * see {@link #setFreezeGenerations(int)}.
+ * The next generation of a tile is determined by the tile
+ * and its halo (the cells that border it in the adjacent tiles).
+ * If every cell of a tile equals the cell two generations before it,
+ * and the halo continues to do the same,
+ * the tile must continue to repeat with period 2,
+ * so the next generation of a frozen tile is
+ * its generation before last, and is not calculated.
+ * When a cell on the border of a tile breaks its own period-2 cycle
+ * the adjacent tiles are woken, and calculated normally;
+ * frozen tiles never break their cycles.
+ * Tiles are numbered so that frozen still lifes follow every other tile,
+ * and the still lifes are not visited at all in a generation
+ * unless a neighbor wakes them;
+ * a frozen oscillator costs only an exchange of its two generations
+ * and the writing of its changes to the GridMap.
+ * A region of settled ash therefore costs little more
+ * than the writing of its oscillators' changes.
+ *
+ * @author Jack Straub
+ */
+public class TileEngine implements GenerationEngine
+{
+    /** log2 of the width and height of a tile. */
+    public static final int TILE_SHIFT  = 6;
+    /** The width and height of a tile. */
+    public static final int TILE_SIZE   = 1 << TILE_SHIFT;
+    /** Mask to extract the position of a cell within a tile. */
+    public static final int TILE_MASK   = TILE_SIZE - 1;
+    /** Freeze state of a tile that is calculated. */
+    private static final byte   ACTIVE          = 0;
+    /** Freeze state of a frozen tile that does not change. */
+    private static final byte   FROZEN_STILL    = 1;
+    /** Freeze state of a frozen tile that alternates between two states. */
+    private static final byte   FROZEN_CYCLE    = 2;
+
+    /** Number of the north direction; see {@link #DIR_X}. */
+    private static final int    NORTH           = 0;
+    /** Number of the south direction. */
+    private static final int    SOUTH           = 1;
+    /** Number of the west direction. */
+    private static final int    WEST            = 2;
+    /** Number of the east direction. */
+    private static final int    EAST            = 3;
+    /** Number of the northwest direction. */
+    private static final int    NORTHWEST       = 4;
+    /** Number of the northeast direction. */
+    private static final int    NORTHEAST       = 5;
+    /** Number of the southwest direction. */
+    private static final int    SOUTHWEST       = 6;
+    /** Number of the southeast direction. */
+    private static final int    SOUTHEAST       = 7;
+    /** Change in tile x-coordinate, by direction number. */
+    private static final int[]  DIR_X           = { 0, 0, -1, 1, -1, 1, -1, 1 };
+    /** Change in tile y-coordinate, by direction number. */
+    private static final int[]  DIR_Y           = { -1, 1, 0, 0, -1, -1, 1, 1 };
+    /** The opposite of each direction, by direction number. */
+    private static final int[]  OPPOSITE        = { 1, 0, 3, 2, 7, 6, 5, 4 };
+    /** Mask of the bits of the border flags that denote directions. */
+    private static final int    DIR_MASK        = 0xFF;
+    /** Border flag indicating that a tile contains a set bit. */
+    private static final int    ANY             = 1 << 8;
+
+    /** Fully-qualified name of the Vector API tile kernel. */
+    static final String     VECTOR_KERNEL_CLASS =
+        "com.gmail.johnstraub1954.cell_automata.main.VectorTileKernel";
+    /** Scalar tile calculation, used unless the vector kernel is in use. */
+    private static final TileKernel SCALAR_KERNEL   = new ScalarTileKernel();
+
+    /** Maps the packed coordinates of a tile to its tile number + 1. */
+    private final CellTable index       = new CellTable();
+    /** Rows of each tile in the current generation, by tile number. */
+    private long[][]        curr        = new long[16][];
+    /** Rows of each tile in the next generation, by tile number. */
+    private long[][]        next        = new long[16][];
+    /** Rows of each tile in the previous generation, by tile number. */
+    private long[][]        past        = new long[16][];
+    /** Packed tile coordinates, by tile number. */
+    private long[]          tileKeys    = new long[16];
+    /**
+     * The borders of each tile that contain live cells,
+     * and whether the tile contains any live cell, by tile number;
+     * see {@link #toFlags(long, long, long)}.
+     */
+    private int[]           borders     = new int[16];
+    /**
+     * The number of consecutive generations in which
+     * each tile has repeated with period 2, by tile number.
+     */
+    private int[]           stableGens  = new int[16];
+    /** The freeze state of each tile, by tile number. */
+    private byte[]          frozen      = new byte[16];
+    /**
+     * Whether each tile changed in the last generation, by tile number;
+     * a tile that is changing is not looked up in the memo.
+     */
+    private boolean[]       lastChanged = new boolean[16];
+    /** The number of tiles in use. */
+    private int             tileCount   = 0;
+    /**
+     * The number of tiles that are stepped each generation,
+     * that is, the tiles that are not frozen still lifes;
+     * these are numbered before the frozen still lifes.
+     */
+    private int             stepCount   = 0;
+
+    /** The GridMap that the tiles were last synchronized with. */
+    private final SourceTracker source  = new SourceTracker();
+
+    /** Mask of neighbor counts for which a live cell survives. */
+    private int             survivalMask    = 0;
+    /** Mask of neighbor counts for which a dead cell comes alive. */
+    private int             birthMask       = 0;
+
+    /** Vector API tile calculation; null to use the scalar calculation. */
+    private volatile TileKernel kernel  = null;
+    /** Cache of tile transitions; null if tiles are not memoized. */
+    private volatile TileMemo   memo    = null;
+    /**
+     * The number of generations for which a tile must repeat
+     * before it is frozen; 0 if tiles are never frozen.
+     */
+    private int             freezeGens      = 0;
+
+    /** Work area for calculating tiles on the calling thread. */
+    private final Scratch   scratch     = new Scratch();
+
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        setRule( survivalStates, birthStates );
+        if ( source.isStale( gridMap ) )
+            load( gridMap );
+
+        expand();
+        calculateTiles();
+        commit( gridMap );
+
+        source.update( gridMap );
+    }
+
+    /**
+     * Returns the number of tiles currently in use.
+     *
+     * @return  the number of tiles currently in use
+     */
+    public int getTileCount()
+    {
+        return tileCount;
+    }
+
+    /**
+     * Returns the number of tiles that are stepped each generation.
+     * These are tiles 0 through the returned value, minus 1;
+     * the remaining tiles are frozen still lifes,
+     * which are neither calculated nor committed.
+     *
+     * @return  the number of tiles that are stepped each generation
+     */
+    int getStepCount()
+    {
+        return stepCount;
+    }
+
+    /**
+     * Enables or disables calculation of tiles with the Vector API.
+     * If the Vector API kernel cannot be loaded
+     * (because it was not compiled,
+     * the <em>jdk.incubator.vector</em> module is not available,
+     * or the platform offers no vector wider than one long)
+     * the scalar calculation is used.
+     *
+     * @param enable    true to use the Vector API kernel if available
+     *
+     * @return  true if the Vector API kernel is now in use
+     *
+     * @see CAConstants#PROP_VECTOR_KERNEL_PN
+     */
+    public boolean setVectorKernel( boolean enable )
+    {
+        kernel = enable ? loadKernel( VECTOR_KERNEL_CLASS ) : null;
+        boolean active  = kernel != null;
+        return active;
+    }
+
+    /**
+     * Indicates whether tiles are calculated with the Vector API kernel.
+     *
+     * @return  true if tiles are calculated with the Vector API kernel
+     */
+    public boolean isVectorKernel()
+    {
+        return kernel != null;
+    }
+
+    /**
+     * Sets the capacity of the cache of tile transitions.
+     * A capacity of 0 disables the cache.
+     * If the capacity changes
+     * the existing cache and its counts are discarded.
+     *
+     * @param capacity  the maximum number of transitions to cache,
+     *                  or 0 to calculate every tile
+     *
+     * @throws IllegalArgumentException if capacity is negative
+     *
+     * @see CAConstants#PROP_TILE_MEMO_CAPACITY_PN
+     */
+    public void setMemoCapacity( int capacity )
+    {
+        if ( capacity < 0 )
+        {
+            String  msg = "invalid memo capacity: " + capacity;
+            throw new IllegalArgumentException( msg );
+        }
+        TileMemo    current = memo;
+        int         currCap = current == null ? 0 : current.getCapacity();
+        if ( capacity != currCap )
+            memo = capacity == 0 ? null : new TileMemo( capacity );
+    }
+
+    /**
+     * Returns the cache of tile transitions,
+     * from which its hit, miss and eviction counts may be obtained.
+     *
+     * @return  the cache of tile transitions,
+     *          or null if tiles are not memoized
+     */
+    public TileMemo getMemo()
+    {
+        return memo;
+    }
+
+    /**
+     * Sets the number of consecutive generations
+     * for which a tile must repeat with period 1 or 2
+     * before it is frozen.
+     * A value of 0 disables freezing.
+     * If the value changes every frozen tile is woken.
+     *
+     * @param generations   the number of generations,
+     *                      or 0 to calculate every tile
+     *
+     * @throws IllegalArgumentException if generations is negative
+     *
+     * @see CAConstants#PROP_TILE_FREEZE_GENS_PN
+     */
+    public void setFreezeGenerations( int generations )
+    {
+        if ( generations < 0 )
+        {
+            String  msg = "invalid freeze generations: " + generations;
+            throw new IllegalArgumentException( msg );
+        }
+        if ( generations != freezeGens )
+        {
+            freezeGens = generations;
+            thaw();
+        }
+    }
+
+    /**
+     * Returns the number of consecutive generations
+     * for which a tile must repeat before it is frozen.
+     *
+     * @return  the number of generations,
+     *          or 0 if tiles are never frozen
+     */
+    public int getFreezeGenerations()
+    {
+        return freezeGens;
+    }
+
+    /**
+     * Returns the number of tiles that are currently frozen.
+     *
+     * @return  the number of tiles that are currently frozen
+     */
+    public int getFrozenCount()
+    {
+        int count   = 0;
+        for ( int tile = 0 ; tile < tileCount ; ++tile )
+            if ( frozen[tile] != ACTIVE )
+                ++count;
+        return count;
+    }
+
+    /**
+     * Calculates the next generation of every tile.
+     * The default implementation calculates the tiles
+     * sequentially on the calling thread;
+     * subclasses may distribute the work
+     * via {@link #calculateTiles(int, int, Scratch)}.
+     */
+    protected void calculateTiles()
+    {
+        calculateTiles( 0, stepCount, scratch );
+    }
+
+    /**
+     * Calculates the next generation of a range of tiles.
+     * During calculation the current generation is read-only
+     * and each tile's result is written to storage
+     * belonging only to that tile,
+     * so disjoint ranges may be calculated concurrently,
+     * provided that each thread has its own work area.
+     *
+     * @param from      the number of the first tile in the range
+     * @param to        the number of the last tile in the range, plus 1
+     * @param scratch   the work area to use
+     */
+    void calculateTiles( int from, int to, Scratch scratch )
+    {
+        for ( int tile = from ; tile < to ; ++tile )
+            calculateTile( tile, scratch );
+    }
+
+    /**
+     * Translates a birth/survival rule into masks,
+     * and wakes every frozen tile if the rule has changed.
+     *
+     * @param survivalStates    the survival states of the rule
+     * @param birthStates       the birth states of the rule
+     */
+    private void setRule( List<Integer> survivalStates, List<Integer> birthStates )
+    {
+        int survival    = GenerationEngine.toMask( survivalStates );
+        int birth       = GenerationEngine.toMask( birthStates );
+        if ( survival != survivalMask || birth != birthMask )
+        {
+            survivalMask = survival;
+            birthMask = birth;
+            thaw();
+        }
+    }
+
+    /**
+     * Wakes every frozen tile,
+     * and restarts the count of generations
+     * for which each tile has repeated.
+     */
+    private void thaw()
+    {
+        Arrays.fill( frozen, 0, tileCount, ACTIVE );
+        Arrays.fill( stableGens, 0, tileCount, 0 );
+        stepCount = tileCount;
+    }
+
+    /**
+     * Discards all tiles,
+     * and rebuilds them from the contents of a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void load( GridMap gridMap )
+    {
+        index.clear();
+        tileCount = 0;
+        stepCount = 0;
+        gridMap.forEachLive( (xco, yco, state) -> {
+            int     tile    = getOrAddTile( xco >> TILE_SHIFT, yco >> TILE_SHIFT );
+            curr[tile][yco & TILE_MASK] |= 1L << (xco & TILE_MASK);
+        });
+        for ( int tile = 0 ; tile < tileCount ; ++tile )
+        {
+            long[]  rows    = curr[tile];
+            long    sides   = 0;
+            for ( long row : rows )
+                sides |= row;
+            borders[tile] = toFlags( rows[0], rows[TILE_MASK], sides );
+        }
+        index.compact();
+    }
+
+    /**
+     * Discards every empty tile that does not adjoin
+     * a live cell in another tile,
+     * then adds an empty tile next to every border of every tile
+     * that has a live cell on that border,
+     * so that births outside the existing tiles
+     * will be calculated.
+     * Frozen tiles are retained even if empty;
+     * they remain frozen only while their neighbors are unchanged.
+     * Frozen still lifes are not visited:
+     * their neighbors were added while they were active,
+     * and are retained because they adjoin the still lifes' borders.
+     */
+    private void expand()
+    {
+        for ( int tile = stepCount - 1 ; tile >= 0 ; --tile )
+            if ( borders[tile] == 0 && frozen[tile] == ACTIVE && !isNeeded( tile ) )
+                removeTile( tile );
+
+        int count   = stepCount;
+        for ( int tile = 0 ; tile < count ; ++tile )
+        {
+            int     flags   = borders[tile] & DIR_MASK;
+            if ( flags == 0 )
+                continue;
+
+            long    key     = tileKeys[tile];
+            int     tileX   = CellTable.xco( key );
+            int     tileY   = CellTable.yco( key );
+            for ( int dir = NORTH ; dir <= SOUTHEAST ; ++dir )
+                if ( (flags & (1 << dir)) != 0 )
+                    getOrAddTile( tileX + DIR_X[dir], tileY + DIR_Y[dir] );
+        }
+    }
+
+    /**
+     * Indicates whether a given tile adjoins
+     * a live cell on the border of an adjacent tile.
+     *
+     * @param tile  the number of the given tile
+     *
+     * @return  true if the given tile adjoins a live cell
+     */
+    private boolean isNeeded( int tile )
+    {
+        long    key     = tileKeys[tile];
+        int     tileX   = CellTable.xco( key );
+        int     tileY   = CellTable.yco( key );
+        boolean needed  = false;
+        for ( int dir = NORTH ; dir <= SOUTHEAST && !needed ; ++dir )
+        {
+            long    nKey    = CellTable.key( tileX + DIR_X[dir], tileY + DIR_Y[dir] );
+            int     nTile   = index.get( nKey ) - 1;
+            needed = nTile >= 0 && (borders[nTile] & (1 << OPPOSITE[dir])) != 0;
+        }
+        return needed;
+    }
+
+    /**
+     * Wakes the tiles adjacent to given borders of a given tile.
+     * A woken still life is renumbered among the stepped tiles,
+     * after the given tile.
+     * A woken oscillator was not calculated in this generation,
+     * so its next generation is copied from its generation before last,
+     * in case it is yet to be committed.
+     *
+     * @param tile      the number of the given tile
+     * @param flags     the given borders; see {@link #toFlags(long, long, long)}
+     */
+    private void wakeNeighbors( int tile, int flags )
+    {
+        long    key     = tileKeys[tile];
+        int     tileX   = CellTable.xco( key );
+        int     tileY   = CellTable.yco( key );
+        for ( int dir = NORTH ; dir <= SOUTHEAST ; ++dir )
+        {
+            if ( (flags & (1 << dir)) == 0 )
+                continue;
+            long    nKey    = CellTable.key( tileX + DIR_X[dir], tileY + DIR_Y[dir] );
+            int     nTile   = index.get( nKey ) - 1;
+            if ( nTile >= 0 )
+            {
+                if ( frozen[nTile] == FROZEN_CYCLE )
+                    System.arraycopy( past[nTile], 0, next[nTile], 0, TILE_SIZE );
+                else if ( frozen[nTile] == FROZEN_STILL )
+                {
+                    swapTiles( nTile, stepCount );
+                    nTile = stepCount++;
+                }
+                // -1: the neighbor's own transition in this generation,
+                // if not yet committed, predates the change
+                frozen[nTile] = ACTIVE;
+                stableGens[nTile] = -1;
+            }
+        }
+    }
+
+    /**
+     * Summarizes the borders of a tile, or of the difference
+     * between two generations of a tile,
+     * as a set of flags.
+     * Bit <em>n</em> of the result is set
+     * if the border in direction <em>n</em> (see {@link #DIR_X})
+     * contains a set bit,
+     * and {@link #ANY} is set if any row contains a set bit.
+     *
+     * @param top       the first row
+     * @param bottom    the last row
+     * @param sides     the inclusive OR of every row
+     *
+     * @return  the summary of the borders
+     */
+    private static int toFlags( long top, long bottom, long sides )
+    {
+        int flags   = 0;
+        if ( sides != 0 )
+            flags |= ANY;
+        if ( top != 0 )
+            flags |= 1 << NORTH;
+        if ( bottom != 0 )
+            flags |= 1 << SOUTH;
+        if ( (sides & 1) != 0 )
+            flags |= 1 << WEST;
+        if ( sides < 0 )
+            flags |= 1 << EAST;
+        if ( (top & 1) != 0 )
+            flags |= 1 << NORTHWEST;
+        if ( top < 0 )
+            flags |= 1 << NORTHEAST;
+        if ( (bottom & 1) != 0 )
+            flags |= 1 << SOUTHWEST;
+        if ( bottom < 0 )
+            flags |= 1 << SOUTHEAST;
+        return flags;
+    }
+
+    /**
+     * Calculates the next generation of a given tile.
+     * The result is stored in <em>next[tile]</em>.
+     * A frozen tile is not calculated;
+     * see {@link #commit(GridMap)}.
+     *
+     * @param tile      the number of the given tile
+     * @param scratch   the work area to use
+     */
+    private void calculateTile( int tile, Scratch scratch )
+    {
+        if ( frozen[tile] != ACTIVE )
+            return;
+
+        long[]  midRows     = scratch.midRows;
+        long[]  westRows    = scratch.westRows;
+        long[]  eastRows    = scratch.eastRows;
+
+        long    key         = tileKeys[tile];
+        int     tileX       = CellTable.xco( key );
+        int     tileY       = CellTable.yco( key );
+
+        fillRows( midRows, curr[tile], tileX, tileY );
+        fillRows( westRows, getTileRows( tileX - 1, tileY ), tileX - 1, tileY );
+        fillRows( eastRows, getTileRows( tileX + 1, tileY ), tileX + 1, tileY );
+
+        long[]      result  = next[tile];
+        TileKernel  vector  = kernel;
+        TileKernel  calc    = vector != null ? vector : SCALAR_KERNEL;
+        TileMemo    cache   = memo;
+        if ( cache != null && !lastChanged[tile] )
+            cache.calculate(
+                calc, scratch.probe,
+                midRows, westRows, eastRows, result, survivalMask, birthMask
+            );
+        else
+            calc.calculate(
+                midRows, westRows, eastRows, result, survivalMask, birthMask
+            );
+    }
+
+    /**
+     * Fills an array with rows -1 through 64 of a given tile;
+     * row -1 is the last row of the tile above,
+     * and row 64 is the first row of the tile below.
+     *
+     * @param dest      the array to fill
+     * @param rows      the rows of the given tile; may be null
+     * @param tileX     the x-coordinate of the given tile
+     * @param tileY     the y-coordinate of the given tile
+     */
+    private void fillRows( long[] dest, long[] rows, int tileX, int tileY )
+    {
+        long[]  above   = getTileRows( tileX, tileY - 1 );
+        long[]  below   = getTileRows( tileX, tileY + 1 );
+        dest[0] = above == null ? 0 : above[TILE_MASK];
+        dest[TILE_SIZE + 1] = below == null ? 0 : below[0];
+        if ( rows == null )
+            Arrays.fill( dest, 1, TILE_SIZE + 1, 0 );
+        else
+            System.arraycopy( rows, 0, dest, 1, TILE_SIZE );
+    }
+
+    /**
+     * Writes every cell that changed in this generation to a given GridMap,
+     * and promotes the next generation to the current generation.
+     * The next generation of a frozen oscillator
+     * is its generation before last,
+     * so the two are exchanged;
+     * frozen still lifes are not visited.
+     * If freezing is enabled,
+     * a tile that has repeated with period 2
+     * for the required number of generations is frozen,
+     * and the neighbors of a tile whose border
+     * did not repeat are woken.
+     * Tiles are visited from last to first,
+     * so that a tile that freezes as a still life
+     * may be exchanged with the last stepped tile,
+     * which has already been visited,
+     * or was woken in this generation and must not be committed.
+     *
+     * @param gridMap   the given GridMap
+     */
+    private void commit( GridMap gridMap )
+    {
+        for ( int tile = stepCount - 1 ; tile >= 0 ; --tile )
+        {
+            boolean cycling = frozen[tile] == FROZEN_CYCLE;
+            long[]  oldRows = curr[tile];
+            long[]  newRows = cycling ? past[tile] : next[tile];
+            long[]  rows2   = past[tile];
+            long    key     = tileKeys[tile];
+            int     originX = CellTable.xco( key ) << TILE_SHIFT;
+            int     originY = CellTable.yco( key ) << TILE_SHIFT;
+            long    live    = 0;
+            long    changed = 0;
+            long    cycle   = 0;
+            for ( int row = 0 ; row < TILE_SIZE ; ++row )
+            {
+                long    newRow  = newRows[row];
+                long    diff    = oldRows[row] ^ newRow;
+                changed |= diff;
+                cycle |= rows2[row] ^ newRow;
+                while ( diff != 0 )
+                {
+                    int col     = Long.numberOfTrailingZeros( diff );
+                    int state   = (int)(newRow >>> col) & 1;
+                    gridMap.putState( originX + col, originY + row, state );
+                    diff &= diff - 1;
+                }
+                live |= newRow;
+            }
+            borders[tile] = toFlags( newRows[0], newRows[TILE_MASK], live );
+            lastChanged[tile] = changed != 0;
+
+            if ( freezeGens > 0 && frozen[tile] == ACTIVE )
+            {
+                int cycleFlags  = toFlags(
+                    rows2[0] ^ newRows[0],
+                    rows2[TILE_MASK] ^ newRows[TILE_MASK],
+                    cycle
+                );
+                if ( cycleFlags != 0 )
+                {
+                    stableGens[tile] = 0;
+                    wakeNeighbors( tile, cycleFlags );
+                }
+                else if ( ++stableGens[tile] >= freezeGens )
+                    frozen[tile] = changed == 0 ? FROZEN_STILL : FROZEN_CYCLE;
+            }
+
+            past[tile] = oldRows;
+            curr[tile] = newRows;
+            if ( !cycling )
+                next[tile] = rows2;
+            if ( frozen[tile] == FROZEN_STILL )
+                swapTiles( tile, --stepCount );
+        }
+    }
+
+    /**
+     * Returns the rows of the tile at given tile coordinates,
+     * or null if there is no such tile.
+     *
+     * @param tileX the x-coordinate of the tile
+     * @param tileY the y-coordinate of the tile
+     *
+     * @return  the rows of the tile at the given coordinates
+     */
+    private long[] getTileRows( int tileX, int tileY )
+    {
+        int     tile    = index.get( CellTable.key( tileX, tileY ) ) - 1;
+        long[]  rows    = tile < 0 ? null : curr[tile];
+        return rows;
+    }
+
+    /**
+     * Returns the number of the tile at given tile coordinates,
+     * adding an empty tile if necessary.
+     *
+     * @param tileX the x-coordinate of the tile
+     * @param tileY the y-coordinate of the tile
+     *
+     * @return  the number of the tile at the given coordinates
+     */
+    private int getOrAddTile( int tileX, int tileY )
+    {
+        long    key     = CellTable.key( tileX, tileY );
+        int     tile    = index.get( key ) - 1;
+        if ( tile < 0 )
+        {
+            if ( tileCount == tileKeys.length )
+            {
+                int newLen  = tileCount * 2;
+                curr = Arrays.copyOf( curr, newLen );
+                next = Arrays.copyOf( next, newLen );
+                past = Arrays.copyOf( past, newLen );
+                tileKeys = Arrays.copyOf( tileKeys, newLen );
+                borders = Arrays.copyOf( borders, newLen );
+                stableGens = Arrays.copyOf( stableGens, newLen );
+                frozen = Arrays.copyOf( frozen, newLen );
+                lastChanged = Arrays.copyOf( lastChanged, newLen );
+            }
+            tile = tileCount++;
+            if ( curr[tile] == null )
+            {
+                curr[tile] = new long[TILE_SIZE];
+                next[tile] = new long[TILE_SIZE];
+                past[tile] = new long[TILE_SIZE];
+            }
+            else
+            {
+                Arrays.fill( curr[tile], 0 );
+                Arrays.fill( past[tile], 0 );
+            }
+            tileKeys[tile] = key;
+            borders[tile] = 0;
+            stableGens[tile] = 0;
+            frozen[tile] = ACTIVE;
+            lastChanged[tile] = false;
+            index.put( key, tile + 1 );
+
+            // a new tile is stepped; it precedes the frozen still lifes
+            swapTiles( tile, stepCount );
+            tile = stepCount++;
+        }
+        return tile;
+    }
+
+    /**
+     * Removes a given stepped tile.
+     * The last stepped tile is moved into the vacated position,
+     * and the last tile into the position of the last stepped tile;
+     * the storage of the removed tile is retained for reuse.
+     *
+     * @param tile  the number of the tile to remove
+     */
+    private void removeTile( int tile )
+    {
+        swapTiles( tile, --stepCount );
+        swapTiles( stepCount, --tileCount );
+        index.put( tileKeys[tileCount], 0 );
+    }
+
+    /**
+     * Exchanges the numbers of two tiles.
+     *
+     * @param tile1 the number of the first tile
+     * @param tile2 the number of the second tile
+     */
+    private void swapTiles( int tile1, int tile2 )
+    {
+        if ( tile1 == tile2 )
+            return;
+
+        long[]  rows    = curr[tile1];
+        curr[tile1] = curr[tile2];
+        curr[tile2] = rows;
+        rows = next[tile1];
+        next[tile1] = next[tile2];
+        next[tile2] = rows;
+        rows = past[tile1];
+        past[tile1] = past[tile2];
+        past[tile2] = rows;
+
+        long    key     = tileKeys[tile1];
+        tileKeys[tile1] = tileKeys[tile2];
+        tileKeys[tile2] = key;
+        int     flags   = borders[tile1];
+        borders[tile1] = borders[tile2];
+        borders[tile2] = flags;
+        int     gens    = stableGens[tile1];
+        stableGens[tile1] = stableGens[tile2];
+        stableGens[tile2] = gens;
+        byte    state   = frozen[tile1];
+        frozen[tile1] = frozen[tile2];
+        frozen[tile2] = state;
+        boolean changed = lastChanged[tile1];
+        lastChanged[tile1] = lastChanged[tile2];
+        lastChanged[tile2] = changed;
+
+        index.put( tileKeys[tile1], tile1 + 1 );
+        index.put( tileKeys[tile2], tile2 + 1 );
+    }
+
+    /**
+     * Instantiates the tile kernel with a given class name.
+     *
+     * @param className the given class name
+     *
+     * @return  the new kernel,
+     *          or null if the kernel cannot be instantiated
+     */
+    private static TileKernel loadKernel( String className )
+    {
+        TileKernel  kernel  = null;
+        try
+        {
+            Class<?>    clazz   = Class.forName( className );
+            kernel = (TileKernel)clazz.getDeclaredConstructor().newInstance();
+        }
+        catch ( ReflectiveOperationException 
+            | LinkageError 
+            | UnsupportedOperationException exc )
+        {
+            // not compiled, module missing, or no useful vector width
+            kernel = null;
+        }
+        return kernel;
+    }
+
+    /**
+     * Work area used while calculating a tile.
+     * Threads that calculate tiles concurrently
+     * must each have their own instance.
+     *
+     * @author Jack Straub
+     */
+    static class Scratch
+    {
+        /**
+         * Rows -1 through 64 of the tile under calculation,
+         * with the last row of the tile above
+         * and first row of the tile below.
+         */
+        private final long[]    midRows     = new long[TILE_SIZE + 2];
+        /** Rows -1 through 64 of the tile to the west. */
+        private final long[]    westRows    = new long[TILE_SIZE + 2];
+        /** Rows -1 through 64 of the tile to the east. */
+        private final long[]    eastRows    = new long[TILE_SIZE + 2];
+        /** Neighborhood of the tile under calculation, for the memo. */
+        private final TileMemo.Key  probe   = new TileMemo.Key();
+    }
+}
@@ -0,0 +1,46 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+/**
+ * Alternative implementation of the calculation
+ * of the next generation of a single tile of a {@link TileEngine}.
+ * A kernel must produce exactly the same result
+ * as the engine's own scalar calculation.
+ * <p>
+ * Kernels that depend on features unavailable in the Java 8 build,
+ * such as the Vector API, are compiled separately
+ * and loaded by name at run time;
+ * see {@link TileEngine#setVectorKernel(boolean)}.
+ * Implementations must be stateless,
+ * so that a single kernel may be used by several threads.
+ *
+ * @author Jack Straub
+ */
+interface TileKernel
+{
+    /**
+     * Calculates the next generation of a tile.
+     * Each row array contains rows -1 through 64
+     * of a column of tiles;
+     * row -1 is the last row of the tile above,
+     * and row 64 is the first row of the tile below.
+     * Bit <em>n</em> of a row represents column <em>n</em> of its tile.
+     *
+     * @param midRows   rows -1 through 64 of the tile
+     * @param westRows  rows -1 through 64 of the tile to the west
+     * @param eastRows  rows -1 through 64 of the tile to the east
+     * @param result    receives rows 0 through 63
+     *                  of the next generation of the tile
+     * @param survival  mask of neighbor counts for which
+     *                  a live cell survives
+     * @param birth     mask of neighbor counts for which
+     *                  a dead cell comes alive
+     */
+    void calculate(
+        long[] midRows,
+        long[] westRows,
+        long[] eastRows,
+        long[] result,
+        int survival,
+        int birth
+    );
+}
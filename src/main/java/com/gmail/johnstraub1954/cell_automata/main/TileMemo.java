@@ -0,0 +1,453 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static com.gmail.johnstraub1954.cell_automata.main.TileEngine.TILE_SIZE;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of tile transitions for a {@link TileEngine}.
+ * The next generation of a tile is determined entirely
+ * by the tile, its halo
+ * (the row above and below it,
+ * and the column to either side of it,
+ * including the corners)
+ * and the rule;
+ * the cache maps these to the 64 rows
+ * of the tile's next generation.
+ * Patterns that contain many identical neighborhoods,
+ * such as fields of still lifes and empty tiles,
+ * may therefore be calculated largely by lookup.
+ * On a miss the tile is calculated by the engine's kernel
+ * and the result is added to the cache;
+ * once the cache is full the least recently used
+ * transition is evicted.
+ * <p>
+ * A whole 64x64 neighborhood rarely recurs
+ * while anything in it is moving,
+ * so the engine consults the cache only for tiles
+ * that did not change in the previous generation;
+ * other tiles are calculated directly,
+ * and are not counted as hits or misses.
+ * <p>
+ * Each entry occupies somewhat over 1 KB,
+ * so a cache of 100,000 transitions needs about 120 MB.
+ * Counts of hits, misses and evictions are maintained
+ * so that the capacity may be sized for a given workload.
+ * A cache may be used by several threads.
+ * It is divided into as many as {@link #MAX_SEGMENTS} segments,
+ * selected by the hash code of the neighborhood,
+ * each with its own lock and an equal share of the capacity;
+ * tiles are calculated outside the locks.
+ *
+ * @author Jack Straub
+ *
+ * @see TileEngine#setMemoCapacity(int)
+ * @see CAConstants#PROP_TILE_MEMO_CAPACITY_PN
+ */
+public final class TileMemo
+{
+    /** The maximum number of segments in a cache. */
+    public static final int     MAX_SEGMENTS    = 16;
+    /** The minimum capacity of a segment, if there is more than one. */
+    private static final int    MIN_SEGMENT     = 64;
+
+    /** The maximum number of transitions in the cache. */
+    private final int           capacity;
+    /** The segments of the cache. */
+    private final Segment[]     segments;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity  the maximum number of transitions to cache
+     *
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public TileMemo( int capacity )
+    {
+        if ( capacity < 1 )
+        {
+            String  msg = "invalid capacity: " + capacity;
+            throw new IllegalArgumentException( msg );
+        }
+        this.capacity = capacity;
+
+        // a power of 2, so that a segment is selected by masking
+        int count   = Integer.highestOneBit(
+            Math.max( 1, Math.min( MAX_SEGMENTS, capacity / MIN_SEGMENT ) )
+        );
+        segments = new Segment[count];
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            int share   = capacity / count + (inx < capacity % count ? 1 : 0);
+            segments[inx] = new Segment( share );
+        }
+    }
+
+    /**
+     * Calculates the next generation of a tile,
+     * either from the cache,
+     * or with a given kernel.
+     * See {@link TileKernel#calculate(long[], long[], long[], long[], int, int)}.
+     *
+     * @param kernel    the kernel to use on a miss
+     * @param probe     work area for the neighborhood of the tile;
+     *                  a copy is made only if the tile is added
+     *                  to the cache
+     * @param midRows   rows -1 through 64 of the tile
+     * @param westRows  rows -1 through 64 of the tile to the west
+     * @param eastRows  rows -1 through 64 of the tile to the east
+     * @param result    receives rows 0 through 63
+     *                  of the next generation of the tile
+     * @param survival  mask of neighbor counts for which
+     *                  a live cell survives
+     * @param birth     mask of neighbor counts for which
+     *                  a dead cell comes alive
+     */
+    void calculate(
+        TileKernel kernel,
+        Key probe,
+        long[] midRows,
+        long[] westRows,
+        long[] eastRows,
+        long[] result,
+        int survival,
+        int birth
+    )
+    {
+        probe.set( midRows, westRows, eastRows, survival, birth );
+        // the low bits of the hash select a bucket within the segment
+        int     inx     = (probe.hash >>> 24) & (segments.length - 1);
+        Segment segment = segments[inx];
+        long[]  rows    = segment.get( probe );
+
+        if ( rows != null )
+            System.arraycopy( rows, 0, result, 0, TILE_SIZE );
+        else
+        {
+            kernel.calculate(
+                midRows, westRows, eastRows, result, survival, birth
+            );
+            rows = Arrays.copyOf( result, TILE_SIZE );
+            segment.put( new Key( probe ), rows );
+        }
+    }
+
+    /**
+     * Returns the maximum number of transitions in the cache.
+     *
+     * @return  the maximum number of transitions in the cache
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of transitions in the cache.
+     *
+     * @return  the number of transitions in the cache
+     */
+    public int getSize()
+    {
+        int size    = 0;
+        for ( Segment segment : segments )
+            size += segment.getSize();
+        return size;
+    }
+
+    /**
+     * Returns the number of tiles found in the cache.
+     *
+     * @return  the number of tiles found in the cache
+     */
+    public long getHits()
+    {
+        long    hits    = 0;
+        for ( Segment segment : segments )
+            hits += segment.getHits();
+        return hits;
+    }
+
+    /**
+     * Returns the number of tiles not found in the cache.
+     *
+     * @return  the number of tiles not found in the cache
+     */
+    public long getMisses()
+    {
+        long    misses  = 0;
+        for ( Segment segment : segments )
+            misses += segment.getMisses();
+        return misses;
+    }
+
+    /**
+     * Returns the number of transitions evicted from the cache.
+     *
+     * @return  the number of transitions evicted from the cache
+     */
+    public long getEvictions()
+    {
+        long    evictions   = 0;
+        for ( Segment segment : segments )
+            evictions += segment.getEvictions();
+        return evictions;
+    }
+
+    /**
+     * Discards every transition in the cache,
+     * and resets the counts of hits, misses and evictions.
+     */
+    public void clear()
+    {
+        for ( Segment segment : segments )
+            segment.clear();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder   bldr    = new StringBuilder( "TileMemo[" )
+            .append( "size=" ).append( getSize() )
+            .append( ",capacity=" ).append( capacity )
+            .append( ",segments=" ).append( segments.length )
+            .append( ",hits=" ).append( getHits() )
+            .append( ",misses=" ).append( getMisses() )
+            .append( ",evictions=" ).append( getEvictions() )
+            .append( "]" );
+        return bldr.toString();
+    }
+
+    /**
+     * One segment of the cache,
+     * holding transitions in access order.
+     *
+     * @author Jack Straub
+     */
+    private static final class Segment
+    {
+        /** The maximum number of transitions in the segment. */
+        private final int   capacity;
+        /** The number of lookups that found a transition. */
+        private long        hits        = 0;
+        /** The number of lookups that did not find a transition. */
+        private long        misses      = 0;
+        /** The number of transitions evicted from the segment. */
+        private long        evictions   = 0;
+
+        /** Next generation of each cached tile, in access order. */
+        private final Map<Key, long[]>  cache   =
+            new LinkedHashMap<Key, long[]>( 16, .75f, true )
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean
+                removeEldestEntry( Map.Entry<Key, long[]> eldest )
+                {
+                    boolean remove  = size() > capacity;
+                    if ( remove )
+                        ++evictions;
+                    return remove;
+                }
+            };
+
+        /**
+         * Constructor.
+         *
+         * @param capacity  the maximum number of transitions
+         *                  in the segment
+         */
+        Segment( int capacity )
+        {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Returns the next generation of the tile
+         * with a given neighborhood,
+         * and counts the lookup as a hit or a miss.
+         *
+         * @param key   the given neighborhood
+         *
+         * @return  the next generation of the tile,
+         *          or null if it is not in the segment
+         */
+        synchronized long[] get( Key key )
+        {
+            long[]  rows    = cache.get( key );
+            if ( rows != null )
+                ++hits;
+            else
+                ++misses;
+            return rows;
+        }
+
+        /**
+         * Adds the next generation of the tile
+         * with a given neighborhood to the segment.
+         *
+         * @param key   the given neighborhood
+         * @param rows  the next generation of the tile
+         */
+        synchronized void put( Key key, long[] rows )
+        {
+            cache.put( key, rows );
+        }
+
+        /**
+         * Returns the number of transitions in the segment.
+         *
+         * @return  the number of transitions in the segment
+         */
+        synchronized int getSize()
+        {
+            int size    = cache.size();
+            return size;
+        }
+
+        /**
+         * Returns the number of tiles found in the segment.
+         *
+         * @return  the number of tiles found in the segment
+         */
+        synchronized long getHits()
+        {
+            return hits;
+        }
+
+        /**
+         * Returns the number of tiles not found in the segment.
+         *
+         * @return  the number of tiles not found in the segment
+         */
+        synchronized long getMisses()
+        {
+            return misses;
+        }
+
+        /**
+         * Returns the number of transitions evicted from the segment.
+         *
+         * @return  the number of transitions evicted from the segment
+         */
+        synchronized long getEvictions()
+        {
+            return evictions;
+        }
+
+        /**
+         * Discards every transition in the segment,
+         * and resets its counts.
+         */
+        synchronized void clear()
+        {
+            cache.clear();
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+        }
+    }
+
+    /**
+     * The input to a tile transition:
+     * rows -1 through 64 of the tile,
+     * the columns adjacent to the tile in the tiles to the west and east,
+     * and the rule.
+     * A key used to probe the cache may be refilled
+     * for each tile;
+     * a key in the cache is never modified.
+     *
+     * @author Jack Straub
+     */
+    static final class Key
+    {
+        /** Index of the first long of the west column. */
+        private static final int    WEST    = TILE_SIZE + 2;
+        /** Index of the first long of the east column. */
+        private static final int    EAST    = WEST + 2;
+        /** Index of the rule. */
+        private static final int    RULE    = EAST + 2;
+
+        /** Packed input to the transition. */
+        private final long[]    bits;
+        /** Hash code of the packed input. */
+        private int             hash    = 0;
+
+        /**
+         * Constructor.
+         * Creates an empty key, to be filled by
+         * {@link #set(long[], long[], long[], int, int)}.
+         */
+        Key()
+        {
+            bits = new long[RULE + 1];
+        }
+
+        /**
+         * Copy constructor.
+         *
+         * @param key   the key to copy
+         */
+        Key( Key key )
+        {
+            bits = key.bits.clone();
+            hash = key.hash;
+        }
+
+        /**
+         * Fills this key with the input to a tile transition.
+         *
+         * @param midRows   rows -1 through 64 of the tile
+         * @param westRows  rows -1 through 64 of the tile to the west
+         * @param eastRows  rows -1 through 64 of the tile to the east
+         * @param survival  the survival mask of the rule
+         * @param birth     the birth mask of the rule
+         */
+        void set(
+            long[] midRows,
+            long[] westRows,
+            long[] eastRows,
+            int survival,
+            int birth
+        )
+        {
+            // only the last column of the west tile
+            // and the first column of the east tile are neighbors
+            System.arraycopy( midRows, 0, bits, 0, TILE_SIZE + 2 );
+            Arrays.fill( bits, WEST, RULE, 0 );
+            for ( int row = 0 ; row < TILE_SIZE + 2 ; ++row )
+            {
+                int     inx     = row >> TileEngine.TILE_SHIFT;
+                int     shift   = row & TileEngine.TILE_MASK;
+                bits[WEST + inx] |= (westRows[row] >>> 63) << shift;
+                bits[EAST + inx] |= (eastRows[row] & 1) << shift;
+            }
+            bits[RULE] = ((long)birth << 32) | survival;
+            hash = Arrays.hashCode( bits );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            boolean result  = false;
+            if ( obj == this )
+                result = true;
+            else if ( obj instanceof Key )
+            {
+                Key that    = (Key)obj;
+                result = hash == that.hash && Arrays.equals( bits, that.bits );
+            }
+            return result;
+        }
+    }
+}
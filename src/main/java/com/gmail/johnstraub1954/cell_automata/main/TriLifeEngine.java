@@ -0,0 +1,229 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+import com.gmail.johnstraub1954.cell_automata.geometry.TriNeighborhood;
+
+/**
+ * Generation engine for two-state automata on a triangular grid.
+ * The cells of the GridMap are interpreted as the
+ * (column, row) coordinates of triangles,
+ * as described in {@link TriNeighborhood};
+ * each cell has the 3, 9 or 12 neighbors
+ * of the TriNeighborhood of the size
+ * given to the constructor.
+ * <p>
+ * The up- and down-pointing triangles form two interleaved lattices,
+ * each with its own neighborhood shape.
+ * Each generation, the pattern is copied into a dense array
+ * covering its bounding rectangle plus a margin,
+ * and the displacements to the neighbors of each type of triangle
+ * are converted to array index offsets.
+ * Each row is then processed in two passes,
+ * one for each lattice,
+ * stepping two cells at a time,
+ * so that every cell in a pass uses the same offsets;
+ * the neighbors of a cell are counted by array reads.
+ * Apart from growing the array when the pattern grows,
+ * a generation allocates no memory.
+ * Only the cells that change are written back to the GridMap.
+ * The engine retains no pattern between generations,
+ * so changes to the GridMap made between generations
+ * are always honored.
+ * Rules that include birth on 0 neighbors are evaluated
+ * only within the neighborhood of the pattern.
+ *
+ * @author Jack Straub
+ */
+public class TriLifeEngine implements GenerationEngine
+{
+    /**
+     * Width of the margin surrounding the pattern in the cell array;
+     * wide enough that every neighbor of every cell
+     * within reach of the pattern lies within the array.
+     */
+    private static final int    MARGIN  = 4;
+    /**
+     * The greatest distance, in columns,
+     * between a cell and any of its neighbors.
+     */
+    private static final int    REACH   = 2;
+
+    /** The number of neighbors of each cell. */
+    private final int       size;
+    /**
+     * Index offsets, within the cell array, to the neighbors
+     * of an up-pointing triangle;
+     * valid for the current array width.
+     */
+    private final int[]     upDeltas;
+    /**
+     * Index offsets, within the cell array, to the neighbors
+     * of a down-pointing triangle;
+     * valid for the current array width.
+     */
+    private final int[]     downDeltas;
+
+    /** Cell states in the current generation; row-major. */
+    private byte[]  cells   = new byte[0];
+    /** Width of the current array, in cells. */
+    private int     width   = 0;
+    /** Height of the current array, in cells. */
+    private int     height  = 0;
+    /** Grid x-coordinate of column 0 of the array. */
+    private int     originX = 0;
+    /** Grid y-coordinate of row 0 of the array. */
+    private int     originY = 0;
+
+    /**
+     * Constructor.
+     * Each cell has the 12 neighbors of the vertex neighborhood.
+     */
+    public TriLifeEngine()
+    {
+        this( TriNeighborhood.VERTEX );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size  the number of neighbors of each cell;
+     *              one of {@link TriNeighborhood#EDGE},
+     *              {@link TriNeighborhood#INNER} or
+     *              {@link TriNeighborhood#VERTEX}
+     *
+     * @throws CAException if size is not a supported size
+     */
+    public TriLifeEngine( int size )
+    {
+        TriNeighborhood.validateSize( size );
+        this.size = size;
+        upDeltas = new int[size];
+        downDeltas = new int[size];
+    }
+
+    /**
+     * Returns the number of neighbors of each cell.
+     *
+     * @return  the number of neighbors of each cell
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Calculates the next generation of a given GridMap
+     * on a triangular grid.
+     *
+     * @param gridMap           the given GridMap
+     * @param survivalStates    neighbor counts for which a live cell
+     *                          survives into the next generation
+     * @param birthStates       neighbor counts for which a dead cell
+     *                          comes alive in the next generation
+     */
+    @Override
+    public void nextGeneration(
+        GridMap gridMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        if ( gridMap.size() == 0 )
+            return;
+
+        int         survival    = GenerationEngine.toMask( survivalStates );
+        int         birth       = GenerationEngine.toMask( birthStates );
+        Rectangle   rect        = gridMap.getLiveRectangle();
+        load( gridMap, rect );
+        for ( int row = MARGIN - 1 ; row < height - MARGIN + 1 ; ++row )
+        {
+            // the first column in each lattice
+            int     first   = MARGIN - REACH;
+            int     second  = first + 1;
+            boolean up      = TriNeighborhood.isUp( originX + first, originY + row );
+            step( gridMap, row, first, up ? upDeltas : downDeltas, survival, birth );
+            step( gridMap, row, second, up ? downDeltas : upDeltas, survival, birth );
+        }
+    }
+
+    /**
+     * Copies the pattern in a given GridMap into the cell array,
+     * and calculates the index offsets to the neighbors of a cell
+     * for the width of the array.
+     *
+     * @param gridMap   the given GridMap
+     * @param rect      the bounding rectangle of the pattern
+     */
+    private void load( GridMap gridMap, Rectangle rect )
+    {
+        originX = rect.x - MARGIN;
+        originY = rect.y - MARGIN;
+        width = rect.width + 2 * MARGIN;
+        height = rect.height + 2 * MARGIN;
+
+        int area    = width * height;
+        if ( cells.length < area )
+            cells = new byte[area];
+        else
+            Arrays.fill( cells, 0, area, (byte)0 );
+
+        gridMap.forEachLive( (xco, yco, state) ->
+            cells[(yco - originY) * width + xco - originX] = 1
+        );
+
+        int[]   cols        = TriNeighborhood.getDeltaCols( true );
+        int[]   upRows      = TriNeighborhood.getDeltaRows( true );
+        int[]   downRows    = TriNeighborhood.getDeltaRows( false );
+        for ( int inx = 0 ; inx < size ; ++inx )
+        {
+            upDeltas[inx] = upRows[inx] * width + cols[inx];
+            downDeltas[inx] = downRows[inx] * width + cols[inx];
+        }
+    }
+
+    /**
+     * Calculates the next generation for the cells of one lattice
+     * in a given row of the cell array,
+     * and writes every cell that changed to a given GridMap.
+     * Cells one row above or below the pattern,
+     * and up to two columns to the left or right,
+     * are evaluated.
+     *
+     * @param gridMap   the given GridMap
+     * @param row       the given row
+     * @param first     the first column to evaluate
+     * @param delta     the index offsets to the neighbors
+     *                  of the cells to evaluate
+     * @param survival  mask of neighbor counts for which
+     *                  a live cell survives
+     * @param birth     mask of neighbor counts for which
+     *                  a dead cell comes alive
+     */
+    private void step(
+        GridMap gridMap,
+        int row,
+        int first,
+        int[] delta,
+        int survival,
+        int birth
+    )
+    {
+        int last    = width - MARGIN + REACH;
+        int base    = row * width;
+        for ( int col = first ; col < last ; col += 2 )
+        {
+            int inx     = base + col;
+            int count   = 0;
+            for ( int nbr = 0 ; nbr < size ; ++nbr )
+                count += cells[inx + delta[nbr]];
+            int self    = cells[inx];
+            int mask    = self == 0 ? birth : survival;
+            int next    = (mask >> count) & 1;
+            if ( next != self )
+                gridMap.putState( originX + col, originY + row, next );
+        }
+    }
+}
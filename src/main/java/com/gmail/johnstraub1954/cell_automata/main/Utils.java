@@ -3,8 +3,10 @@ package com.gmail.johnstraub1954.cell_automata.main;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Miscellaneous utilities to support the Game of Life project.
@@ -22,6 +24,39 @@ public enum Utils implements PropertyChangeListener
         params.getSurvivalStates();
     private static List<Integer>    birthStates     = params.getBirthStates();
     private static GridMap          gridMap         = params.getGridMap();
+    private static int              gameStates      = params.getGameStates();
+    private static String           isotropicRule   = params.getIsotropicRule();
+    private static String           gridTopology    = params.getGridTopology();
+    private static LargerThanLifeRule   ltlRule     =
+        toLargerThanLifeRule( params.getLargerThanLifeRule() );
+    
+    /** 
+     * Generation engines that have been instantiated, by name.
+     * Engines are retained so that they can preserve
+     * their internal state between generations.
+     */
+    private final Map<String,GenerationEngine>  engines = new HashMap<>();
+    
+    /** Names of the engines that are TileEngines. */
+    private static final String[]   TILE_ENGINES    =
+    { CAConstants.PROP_PROC_TILE, CAConstants.PROP_PROC_PARALLEL };
+    
+    /** 
+     * The current birth/survival rule, compiled into lookup tables.
+     * Discarded whenever the rule changes,
+     * and rebuilt when next needed.
+     * 
+     * @see #getRuleTable()
+     */
+    private RuleTable   ruleTable   = null;
+    
+    /** 
+     * Engine for three-dimensional automata; 
+     * instantiated when first needed.
+     * 
+     * @see #voxelPropagate(Object)
+     */
+    private VoxelEngine voxelEngine = null;
     
     /**
      * Default constructor.
@@ -41,16 +76,18 @@ public enum Utils implements PropertyChangeListener
      */
     public void conwayPropagate( Object obj )
     {
+        RuleTable       rule            = getRuleTable();
         List<Cell>      cellsToModify   = new ArrayList<>();
         Iterator<Cell>  cellIterator    = gridMap.iterator();
         while ( cellIterator.hasNext() )
         {
-            Cell                cell    = cellIterator.next();
-            QuadNeighborhood    hood    = new QuadNeighborhood( cell, gridMap );
-            Cell                newCell = 
-                hood.getNextState( survivalStates, birthStates );
-            if ( cell.isAlive() != newCell.isAlive() )
-                cellsToModify.add( newCell );
+            Cell    cell    = cellIterator.next();
+            int     xco     = cell.getXco();
+            int     yco     = cell.getYco();
+            int     hood    = RuleTable.getNeighborhood( gridMap, xco, yco );
+            boolean alive   = rule.isAliveNext( hood );
+            if ( cell.isAlive() != alive )
+                cellsToModify.add( new Cell( xco, yco, alive ) );
         }
         
         for ( Cell modifiedCell : cellsToModify )
@@ -59,6 +96,358 @@ public enum Utils implements PropertyChangeListener
         params.reset();
     }
     
+    /**
+     * Calculate the next generation for this game pattern
+     * using the generation engine with a given name.
+     * If no such engine exists, or the engine is unable
+     * to process the current rule, {@link #conwayPropagate(Object)}
+     * is used.
+     * If a Larger than Life rule has been specified
+     * the {@link LargerThanLifeEngine} is always used;
+     * otherwise, if the current rule has more than two states
+     * the {@link GenerationsEngine} is always used.
+     * If the current rule is non-totalistic
+     * and the given engine is not a {@link RuleTableEngine},
+     * {@link #conwayPropagate(Object)} is used.
+     * If the grid topology is a torus or a finite plane
+     * (see {@link CAConstants#GRID_TOPOLOGY_PN}),
+     * two-state totalistic rules always use 
+     * the {@link BoundedGridEngine}.
+     * If the given engine is a {@link CountingEngine}
+     * and the grid map is not a {@link CountingGridMap},
+     * the grid map is first replaced by a CountingGridMap copy.
+     * The grid map is updated, then Parameters.reset() is invoked.
+     * 
+     * @param   engineName  the name of the given engine
+     * @param   obj         Object controlling propagation; not used
+     * 
+     * @see #getEngine(String)
+     */
+    public void propagate( String engineName, Object obj )
+    {
+        GenerationEngine    engine          = null;
+        boolean             nonTotalistic   = false;
+        if ( ltlRule != null )
+        {
+            LargerThanLifeEngine    ltlEngine   = (LargerThanLifeEngine)
+                getEngine( CAConstants.PROP_PROC_LARGER_THAN_LIFE );
+            ltlEngine.setRule( ltlRule );
+            engine = ltlEngine;
+        }
+        else if ( gameStates > 2 )
+        {
+            GenerationsEngine   genEngine   = (GenerationsEngine)
+                getEngine( CAConstants.PROP_PROC_GENERATIONS );
+            genEngine.setStates( gameStates );
+            engine = genEngine;
+        }
+        else
+        {
+            nonTotalistic = !getRuleTable().isTotalistic();
+            if ( !nonTotalistic && isBoundedGrid() )
+                engine = getEngine( CAConstants.PROP_PROC_BOUNDED );
+            else
+                engine = getEngine( engineName );
+        }
+        
+        // Birth on 0 neighbors would populate the entire
+        // infinite plane; only the original algorithm,
+        // which confines itself to the neighborhood of the
+        // live rectangle, and the bounded grid engine,
+        // can accommodate it.
+        if ( engine == null 
+            || (birthStates.contains( 0 ) && gameStates <= 2 && ltlRule == null
+                && !(engine instanceof BoundedGridEngine))
+            || (nonTotalistic && !(engine instanceof RuleTableEngine)) )
+            conwayPropagate( obj );
+        else if ( nonTotalistic )
+        {
+            ((RuleTableEngine)engine).nextGeneration( gridMap, getRuleTable() );
+            params.reset();
+        }
+        else
+        {
+            // Count the neighbors of the current map once; thereafter
+            // edits keep them up to date. A newly loaded pattern
+            // is converted on its first generation.
+            if ( engine instanceof CountingEngine
+                && !(gridMap instanceof CountingGridMap) )
+                params.setGridMap( new CountingGridMap( gridMap ) );
+            engine.nextGeneration( gridMap, survivalStates, birthStates );
+            params.reset();
+        }
+    }
+    
+    /**
+     * Calculates the next generation of the current
+     * three-dimensional pattern (see {@link Parameters#getVoxelMap()})
+     * using the {@link VoxelEngine},
+     * with neighbor counts of 0 to 26 taken from
+     * the current survival and birth states.
+     * The voxel map is updated, then Parameters.reset() is invoked.
+     * If there is no voxel map, nothing is done.
+     * Three-dimensional automata may install this method
+     * as the propagation procedure
+     * (see {@link Parameters#setPropagateProc(java.util.function.Consumer)}).
+     * 
+     * @param   obj Object controlling propagation; not used
+     */
+    public void voxelPropagate( Object obj )
+    {
+        VoxelGridMap    voxelMap    = params.getVoxelMap();
+        if ( voxelMap != null )
+        {
+            if ( voxelEngine == null )
+                voxelEngine = new VoxelEngine( params.getParallelThreads() );
+            voxelEngine.nextGeneration( voxelMap, survivalStates, birthStates );
+            params.reset();
+        }
+    }
+    
+    /**
+     * Advances the current pattern by a given number of generations
+     * using the HashLife engine.
+     * The grid map is updated, then Parameters.reset() is invoked.
+     * If the current configuration does not support jumps
+     * (see {@link #getJumpRestriction()})
+     * the grid map is not changed, and false is returned.
+     * 
+     * @param   generations the given number of generations
+     * 
+     * @return  true if the pattern was advanced
+     * 
+     * @throws  CAException if the pattern cannot be advanced
+     *          within the HashLife memory budget
+     * 
+     * @see #jump(GridMap, long)
+     */
+    public boolean jump( long generations )
+    {
+        boolean result  = jump( gridMap, generations );
+        if ( result )
+            params.reset();
+        return result;
+    }
+    
+    /**
+     * Advances a given pattern by a given number of generations
+     * using the HashLife engine, under the current rule.
+     * Unlike {@link #jump(long)}, Parameters.reset() is not invoked.
+     * Like every method of this class that consults the current
+     * configuration, this method must be invoked on the event dispatch
+     * thread; to advance a pattern on a worker thread,
+     * obtain the rule from {@link #getRuleTable()} first,
+     * and invoke {@link HashLifeEngine#advance(GridMap, RuleTable, long)}
+     * on an engine that is not shared with this class.
+     * If the current configuration does not support jumps
+     * (see {@link #getJumpRestriction()})
+     * the pattern is not changed, and false is returned.
+     * 
+     * @param   pattern     the given pattern
+     * @param   generations the given number of generations
+     * 
+     * @return  true if the pattern was advanced
+     * 
+     * @throws  CAException if the pattern cannot be advanced
+     *          within the HashLife memory budget
+     * 
+     * @see HashLifeEngine#advance(GridMap, RuleTable, long)
+     */
+    public boolean jump( GridMap pattern, long generations )
+    {
+        boolean result  = getJumpRestriction() == null;
+        if ( result )
+        {
+            HashLifeEngine  engine  = 
+                (HashLifeEngine)getEngine( CAConstants.PROP_PROC_HASHLIFE );
+            engine.advance( pattern, getRuleTable(), generations );
+        }
+        return result;
+    }
+    
+    /**
+     * Determines whether the current configuration
+     * can be advanced by {@link #jump(long)},
+     * and if not, why not.
+     * The HashLife engine calculates two-state rules
+     * on an infinite plane, so jumps are not supported for
+     * Larger than Life rules, rules with more than two states,
+     * rules that include birth on 0 neighbors,
+     * or a bounded grid (see {@link CAConstants#GRID_TOPOLOGY_PN}).
+     * 
+     * @return  a description of the reason that jumps
+     *          are not supported, or null if they are supported
+     */
+    public String getJumpRestriction()
+    {
+        String  reason  = null;
+        if ( ltlRule != null )
+            reason = "Jump is not supported for Larger than Life rules";
+        else if ( gameStates > 2 )
+            reason = "Jump is not supported for rules with more than two states";
+        else if ( birthStates.contains( 0 ) )
+            reason = "Jump is not supported for rules with birth on 0 neighbors";
+        else if ( isBoundedGrid() )
+            reason = "Jump is not supported on a bounded grid";
+        return reason;
+    }
+    
+    /**
+     * Returns the current birth/survival rule
+     * compiled into lookup tables,
+     * compiling it if necessary.
+     * If an isotropic non-totalistic rule has been specified,
+     * it takes the place of the survival and birth states.
+     * 
+     * @return  the current birth/survival rule
+     */
+    public RuleTable getRuleTable()
+    {
+        if ( ruleTable == null )
+        {
+            if ( isotropicRule == null || isotropicRule.isEmpty() )
+                ruleTable = new RuleTable( survivalStates, birthStates );
+            else
+                ruleTable = RuleTable.parse( isotropicRule );
+        }
+        return ruleTable;
+    }
+    
+    /**
+     * Returns the generation engine with the given name,
+     * instantiating it if necessary.
+     * Null is returned if the name is not recognized.
+     * Recognized names are:
+     * <ul>
+     * <li>{@link CAConstants#PROP_PROC_TILE}</li>
+     * <li>{@link CAConstants#PROP_PROC_HASHLIFE}</li>
+     * <li>{@link CAConstants#PROP_PROC_ACTIVE_SET}</li>
+     * <li>{@link CAConstants#PROP_PROC_SCATTER}</li>
+     * <li>{@link CAConstants#PROP_PROC_PARALLEL}</li>
+     * <li>{@link CAConstants#PROP_PROC_MORTON}</li>
+     * <li>{@link CAConstants#PROP_PROC_COUNTING}</li>
+     * <li>{@link CAConstants#PROP_PROC_BOUNDED}</li>
+     * <li>{@link CAConstants#PROP_PROC_GENERATIONS}</li>
+     * <li>{@link CAConstants#PROP_PROC_LARGER_THAN_LIFE}</li>
+     * </ul>
+     * 
+     * @param   engineName  the given name
+     * 
+     * @return  the generation engine with the given name,
+     *          or null if none
+     */
+    public GenerationEngine getEngine( String engineName )
+    {
+        GenerationEngine    engine  = engines.get( engineName );
+        if ( engine == null )
+        {
+            switch ( engineName )
+            {
+            case CAConstants.PROP_PROC_TILE:
+                engine = new TileEngine();
+                break;
+            case CAConstants.PROP_PROC_HASHLIFE:
+                engine = new HashLifeEngine( params.getHashLifeMaxNodes() );
+                break;
+            case CAConstants.PROP_PROC_ACTIVE_SET:
+                engine = new ActiveSetEngine();
+                break;
+            case CAConstants.PROP_PROC_SCATTER:
+                engine = new ScatterCountEngine();
+                break;
+            case CAConstants.PROP_PROC_MORTON:
+                engine = new MortonEngine();
+                break;
+            case CAConstants.PROP_PROC_COUNTING:
+                engine = new CountingEngine();
+                break;
+            case CAConstants.PROP_PROC_BOUNDED:
+                engine = new BoundedGridEngine(
+                    params.getGridWidth(),
+                    params.getGridHeight(),
+                    CAConstants.GRID_TOPOLOGY_TORUS.equals( gridTopology )
+                );
+                break;
+            case CAConstants.PROP_PROC_GENERATIONS:
+                engine = new GenerationsEngine( Math.max( 2, gameStates ) );
+                break;
+            case CAConstants.PROP_PROC_LARGER_THAN_LIFE:
+                if ( ltlRule != null )
+                    engine = new LargerThanLifeEngine( ltlRule );
+                break;
+            case CAConstants.PROP_PROC_PARALLEL:
+                engine = new ParallelTileEngine(
+                    params.getParallelThreads(),
+                    params.getParallelMinPopulation()
+                );
+                break;
+            default:
+                break;
+            }
+            if ( engine instanceof TileEngine )
+            {
+                TileEngine  tileEngine  = (TileEngine)engine;
+                tileEngine.setVectorKernel( params.isVectorKernel() );
+                tileEngine.setMemoCapacity( params.getTileMemoCapacity() );
+                tileEngine.setFreezeGenerations( 
+                    params.getTileFreezeGenerations()
+                );
+            }
+            if ( engine != null )
+                engines.put( engineName, engine );
+        }
+        return engine;
+    }
+    
+    /**
+     * Indicates whether the grid topology is bounded:
+     * a torus or a finite plane.
+     * 
+     * @return  true if the grid topology is bounded
+     * 
+     * @see CAConstants#GRID_TOPOLOGY_PN
+     */
+    private static boolean isBoundedGrid()
+    {
+        boolean bounded = 
+            CAConstants.GRID_TOPOLOGY_TORUS.equals( gridTopology )
+            || CAConstants.GRID_TOPOLOGY_FINITE.equals( gridTopology );
+        return bounded;
+    }
+    
+    /**
+     * Parses a Larger than Life rule specification.
+     * The specification may come from a Properties file,
+     * so it is parsed leniently:
+     * an invalid specification is reported, and otherwise ignored.
+     * Parameters.setLargerThanLifeRule(String) 
+     * rejects invalid specifications.
+     * 
+     * @param   spec    the rule specification; may be null or empty
+     * 
+     * @return  the parsed rule, 
+     *          or null if spec is null, empty or invalid
+     */
+    private static LargerThanLifeRule toLargerThanLifeRule( String spec )
+    {
+        LargerThanLifeRule  rule    = null;
+        if ( spec != null && !spec.trim().isEmpty() )
+        {
+            try
+            {
+                rule = new LargerThanLifeRule( spec );
+            }
+            catch ( IllegalArgumentException exc )
+            {
+                System.err.println( 
+                    "Ignored: " 
+                    + exc.getMessage()
+                );
+            }
+        }
+        return rule;
+    }
+    
     @SuppressWarnings("unchecked")
     public void propertyChange( PropertyChangeEvent evt )
     {
@@ -69,13 +458,85 @@ public enum Utils implements PropertyChangeListener
         {
         case CAConstants.CTRL_SURVIVAL_STATES_PN:
             survivalStates = (List<Integer>)newValue;
+            ruleTable = null;
             break;
         case CAConstants.CTRL_BIRTH_STATES_PN:
             birthStates = (List<Integer>)newValue;
+            ruleTable = null;
             break;
         case CAConstants.GRID_MAP_PN:
             gridMap = (GridMap)newValue;
             break;
+        case CAConstants.CTRL_GAME_STATES_PN:
+            gameStates = (Integer)newValue;
+            break;
+        case CAConstants.CTRL_ISOTROPIC_RULE_PN:
+            isotropicRule = (String)newValue;
+            ruleTable = null;
+            break;
+        case CAConstants.CTRL_LTL_RULE_PN:
+            ltlRule = toLargerThanLifeRule( (String)newValue );
+            break;
+        case CAConstants.PROP_HASHLIFE_MAX_NODES_PN:
+            GenerationEngine    engine  = 
+                engines.get( CAConstants.PROP_PROC_HASHLIFE );
+            if ( engine != null )
+                ((HashLifeEngine)engine).setMaxNodes( (Integer)newValue );
+            break;
+        case CAConstants.PROP_PARALLEL_THREADS_PN:
+            engine = engines.get( CAConstants.PROP_PROC_PARALLEL );
+            if ( engine != null )
+                ((ParallelTileEngine)engine).setThreads( (Integer)newValue );
+            if ( voxelEngine != null )
+                voxelEngine.setThreads( (Integer)newValue );
+            break;
+        case CAConstants.PROP_PARALLEL_MIN_POP_PN:
+            engine = engines.get( CAConstants.PROP_PROC_PARALLEL );
+            if ( engine != null )
+                ((ParallelTileEngine)engine).
+                    setMinPopulation( (Integer)newValue );
+            break;
+        case CAConstants.PROP_VECTOR_KERNEL_PN:
+            for ( String name : TILE_ENGINES )
+            {
+                engine = engines.get( name );
+                if ( engine != null )
+                    ((TileEngine)engine).setVectorKernel( (Boolean)newValue );
+            }
+            break;
+        case CAConstants.PROP_TILE_MEMO_CAPACITY_PN:
+            for ( String name : TILE_ENGINES )
+            {
+                engine = engines.get( name );
+                if ( engine != null )
+                    ((TileEngine)engine).setMemoCapacity( (Integer)newValue );
+            }
+            break;
+        case CAConstants.PROP_TILE_FREEZE_GENS_PN:
+            for ( String name : TILE_ENGINES )
+            {
+                engine = engines.get( name );
+                if ( engine != null )
+                    ((TileEngine)engine).setFreezeGenerations( (Integer)newValue );
+            }
+            break;
+        case CAConstants.GRID_WIDTH_PN:
+        case CAConstants.GRID_HEIGHT_PN:
+            engine = engines.get( CAConstants.PROP_PROC_BOUNDED );
+            if ( engine != null )
+                ((BoundedGridEngine)engine).setSize( 
+                    params.getGridWidth(),
+                    params.getGridHeight()
+                );
+            break;
+        case CAConstants.GRID_TOPOLOGY_PN:
+            gridTopology = (String)newValue;
+            engine = engines.get( CAConstants.PROP_PROC_BOUNDED );
+            if ( engine != null )
+                ((BoundedGridEngine)engine).setTorus( 
+                    CAConstants.GRID_TOPOLOGY_TORUS.equals( gridTopology )
+                );
+            break;
         default:
             break;
         }
@@ -0,0 +1,585 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generation engine for three-dimensional, two-state,
+ * totalistic automata such as 3D Life,
+ * in which the next state of a voxel depends on the number
+ * of its 26 Moore neighbors that are alive.
+ * The birth and survival states may therefore range from 0 to 26.
+ * Rules that include birth on 0 neighbors are not supported.
+ * <p>
+ * Each generation is calculated one {@link VoxelGridMap} chunk at a time.
+ * The active chunks are those of the map,
+ * plus each empty neighbor of a chunk with live voxels
+ * on the faces that it shares with the neighbor.
+ * A chunk is calculated in rows of 16 voxels:
+ * the sum of each row with its left and right neighbors
+ * is found by bit-sliced addition,
+ * then nine of these sums are added to obtain the total of every voxel
+ * and its neighbors, again by bit-sliced addition.
+ * The active chunks are calculated concurrently by a ForkJoinPool;
+ * each chunk reads only the current generation
+ * and writes only its own part of the next,
+ * so no locking is required.
+ * The map is then replaced by the next generation,
+ * less any chunks that have died out,
+ * on the calling thread.
+ *
+ * @author Jack Straub
+ *
+ * @see CAConstants#PROP_PARALLEL_THREADS_PN
+ */
+public class VoxelEngine
+{
+    /** The fewest chunks that will be calculated by a single task. */
+    private static final int    MIN_CHUNKS_PER_TASK = 2;
+    /**
+     * The number of tasks to create per thread;
+     * more than 1 so that threads that finish early
+     * can steal work from threads that do not.
+     */
+    private static final int    TASKS_PER_THREAD    = 4;
+    /** The number of longs in each chunk. */
+    private static final int    CHUNK_LONGS         = VoxelGridMap.CHUNK_LONGS;
+    /** The number of rows, including the halo, along each axis. */
+    private static final int    PADDED              = 18;
+    /** The number of neighbors of a chunk, including itself. */
+    private static final int    NEIGHBORHOOD        = 27;
+    /**
+     * For each bit of a face mask, the bits of every long in a chunk
+     * that lie on the face; faces on the z-axis are detected
+     * by the index of the long rather than by the bit.
+     * The faces are x-low, x-high, y-low, y-high.
+     */
+    private static final long[] FACE_BITS           =
+    {
+        0x0001000100010001L, 0x8000800080008000L,
+        0x000000000000FFFFL, 0xFFFF000000000000L
+    };
+
+    /** Work area for each thread that calculates chunks. */
+    private final ThreadLocal<Scratch>  scratch =
+        ThreadLocal.withInitial( Scratch::new );
+
+    /** The configured number of threads; 0 for all processors. */
+    private int             threads;
+    /** The pool that calculates chunks; created when first needed. */
+    private ForkJoinPool    pool            = null;
+
+    /** Maps the key of each active chunk to its position, plus 1. */
+    private final CellTable activeIndex     = new CellTable();
+    /** The key of each active chunk. */
+    private long[]          activeKeys      = new long[64];
+    /** The number of active chunks. */
+    private int             activeCount     = 0;
+    /**
+     * For each active chunk, the position in the map of each
+     * of its 27 neighbors, or -1 if the neighbor does not exist.
+     */
+    private int[]           neighbors       = new int[64 * NEIGHBORHOOD];
+
+    /** The bits of the current generation; see VoxelGridMap. */
+    private long[]          source          = null;
+    /** The bits of the next generation, by active chunk. */
+    private long[]          target          = null;
+    /**
+     * For each total of a voxel and its neighbors in the rule:
+     * the 5 bits of the total, as all-0 or all-1 longs,
+     * then whether live and dead voxels with the total
+     * are alive in the next generation.
+     */
+    private long[]          terms           = new long[28 * 7];
+    /** The number of entries in terms. */
+    private int             termLen         = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param threads   the number of threads to use,
+     *                  or 0 for one thread per available processor
+     *
+     * @throws IllegalArgumentException if threads is negative
+     */
+    public VoxelEngine( int threads )
+    {
+        setThreads( threads );
+    }
+
+    /**
+     * Calculates the next generation of a given map.
+     *
+     * @param voxelMap          the given map
+     * @param survivalStates    the numbers of live neighbors
+     *                          with which a live voxel survives
+     * @param birthStates       the numbers of live neighbors
+     *                          with which a dead voxel comes alive
+     *
+     * @throws IllegalArgumentException
+     *         if the birth states include 0
+     */
+    public void nextGeneration(
+        VoxelGridMap voxelMap,
+        List<Integer> survivalStates,
+        List<Integer> birthStates
+    )
+    {
+        if ( birthStates.contains( 0 ) )
+        {
+            String  msg = "Birth on 0 neighbors is not supported";
+            throw new IllegalArgumentException( msg );
+        }
+        setRule(
+            GenerationEngine.toMask( survivalStates ),
+            GenerationEngine.toMask( birthStates )
+        );
+        findActive( voxelMap );
+
+        source = voxelMap.getBits();
+        target = new long[activeCount * CHUNK_LONGS];
+        int parallelism = getParallelism();
+        if ( parallelism < 2 || activeCount < 2 * MIN_CHUNKS_PER_TASK )
+            calculateChunks( 0, activeCount, scratch.get() );
+        else
+        {
+            int grain   = activeCount / (parallelism * TASKS_PER_THREAD);
+            grain = Math.max( grain, MIN_CHUNKS_PER_TASK );
+            getPool().invoke( new CalculateTask( 0, activeCount, grain ) );
+        }
+
+        voxelMap.replace(
+            Arrays.copyOf( activeKeys, activeCount ), target, activeCount
+        );
+        source = null;
+        target = null;
+    }
+
+    /**
+     * Sets the number of threads to use.
+     * If the number changes, the existing pool is shut down
+     * and a new pool will be created for the next generation.
+     *
+     * @param threads   the number of threads to use,
+     *                  or 0 for one thread per available processor
+     *
+     * @throws IllegalArgumentException if threads is negative
+     */
+    public synchronized void setThreads( int threads )
+    {
+        if ( threads < 0 )
+        {
+            String  msg = "Invalid thread count: " + threads;
+            throw new IllegalArgumentException( msg );
+        }
+        if ( threads != this.threads && pool != null )
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the configured number of threads.
+     *
+     * @return  the configured number of threads,
+     *          or 0 for one thread per available processor
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Returns the number of threads that will actually be used
+     * to calculate a large pattern.
+     *
+     * @return  the number of threads that will be used
+     */
+    public int getParallelism()
+    {
+        int parallelism =
+            threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return parallelism;
+    }
+
+    /**
+     * Returns the number of chunks calculated
+     * in the most recent generation.
+     *
+     * @return  the number of chunks calculated
+     *          in the most recent generation
+     */
+    public int getActiveCount()
+    {
+        return activeCount;
+    }
+
+    /**
+     * Returns the pool that calculates chunks,
+     * creating it if necessary.
+     *
+     * @return  the pool that calculates chunks
+     */
+    private synchronized ForkJoinPool getPool()
+    {
+        if ( pool == null )
+            pool = new ForkJoinPool( getParallelism() );
+        return pool;
+    }
+
+    /**
+     * Compiles the terms of a given rule.
+     * A live voxel whose total, including itself, is <em>t</em>
+     * has <em>t - 1</em> live neighbors;
+     * a dead voxel has <em>t</em>.
+     *
+     * @param survival  mask of neighbor counts for which
+     *                  a live voxel survives
+     * @param birth     mask of neighbor counts for which
+     *                  a dead voxel comes alive
+     */
+    private void setRule( int survival, int birth )
+    {
+        termLen = 0;
+        for ( int total = 0 ; total <= 27 ; ++total )
+        {
+            long    lives   =
+                total == 0 ? 0 : -((survival >> (total - 1)) & 1L);
+            long    born    = -((birth >> total) & 1L);
+            if ( (lives | born) != 0 )
+            {
+                for ( int bit = 0 ; bit < 5 ; ++bit )
+                    terms[termLen++] = -((total >> bit) & 1L);
+                terms[termLen++] = lives;
+                terms[termLen++] = born;
+            }
+        }
+    }
+
+    /**
+     * Determines the chunks to calculate in the next generation,
+     * and the position in the map of each of their neighbors.
+     *
+     * @param voxelMap  the map to calculate
+     */
+    private void findActive( VoxelGridMap voxelMap )
+    {
+        long[]  bits        = voxelMap.getBits();
+        int     chunkCount  = voxelMap.getChunkCount();
+        activeIndex.clear();
+        activeCount = 0;
+        for ( int chunk = 0 ; chunk < chunkCount ; ++chunk )
+            addActive( voxelMap.getChunkKey( chunk ) );
+
+        for ( int chunk = 0 ; chunk < chunkCount ; ++chunk )
+        {
+            int     faces   = getFaces( bits, chunk * CHUNK_LONGS );
+            long    key     = voxelMap.getChunkKey( chunk );
+            int     chunkX  = VoxelGridMap.chunkX( key );
+            int     chunkY  = VoxelGridMap.chunkY( key );
+            int     chunkZ  = VoxelGridMap.chunkZ( key );
+            for ( int dir = 0 ; dir < NEIGHBORHOOD ; ++dir )
+            {
+                int     dx      = dir % 3 - 1;
+                int     dy      = dir / 3 % 3 - 1;
+                int     dz      = dir / 9 - 1;
+                if ( isOpen( faces, 0, dx ) && isOpen( faces, 2, dy )
+                    && isOpen( faces, 4, dz ) && dir != NEIGHBORHOOD / 2 )
+                    addActive(
+                        VoxelGridMap.chunkKey(
+                            chunkX + dx, chunkY + dy, chunkZ + dz
+                        )
+                    );
+            }
+        }
+        if ( activeIndex.capacity() > 8 * activeCount + 16 )
+            activeIndex.compact();
+
+        if ( neighbors.length < activeCount * NEIGHBORHOOD )
+            neighbors = new int[activeKeys.length * NEIGHBORHOOD];
+        for ( int active = 0 ; active < activeCount ; ++active )
+        {
+            long    key     = activeKeys[active];
+            int     chunkX  = VoxelGridMap.chunkX( key );
+            int     chunkY  = VoxelGridMap.chunkY( key );
+            int     chunkZ  = VoxelGridMap.chunkZ( key );
+            for ( int dir = 0 ; dir < NEIGHBORHOOD ; ++dir )
+            {
+                long    nKey    = VoxelGridMap.chunkKey(
+                    chunkX + dir % 3 - 1,
+                    chunkY + dir / 3 % 3 - 1,
+                    chunkZ + dir / 9 - 1
+                );
+                neighbors[active * NEIGHBORHOOD + dir] =
+                    voxelMap.getChunk( nKey );
+            }
+        }
+    }
+
+    /**
+     * Adds the chunk with a given key to the active chunks,
+     * if it is not already present.
+     *
+     * @param key   the given key
+     */
+    private void addActive( long key )
+    {
+        if ( activeIndex.get( key ) == 0 )
+        {
+            if ( activeCount == activeKeys.length )
+                activeKeys = Arrays.copyOf( activeKeys, activeCount * 2 );
+            activeKeys[activeCount++] = key;
+            activeIndex.put( key, activeCount );
+        }
+    }
+
+    /**
+     * Calculates the faces of a chunk on which there are live voxels.
+     * Bits 0 and 1 of the result are the low and high x faces,
+     * bits 2 and 3 the y faces, and bits 4 and 5 the z faces.
+     *
+     * @param bits  the bits of the map
+     * @param base  the index of the first long of the chunk
+     *
+     * @return  the faces of the chunk on which there are live voxels
+     */
+    private static int getFaces( long[] bits, int base )
+    {
+        long    any     = 0;
+        long    yLow    = 0;
+        long    yHigh   = 0;
+        for ( int inx = 0 ; inx < CHUNK_LONGS ; inx += 4 )
+        {
+            any |= bits[base + inx] | bits[base + inx + 1]
+                | bits[base + inx + 2] | bits[base + inx + 3];
+            yLow |= bits[base + inx];
+            yHigh |= bits[base + inx + 3];
+        }
+        long    zLow    = bits[base] | bits[base + 1]
+            | bits[base + 2] | bits[base + 3];
+        int     last    = base + CHUNK_LONGS - 4;
+        long    zHigh   = bits[last] | bits[last + 1]
+            | bits[last + 2] | bits[last + 3];
+        int     faces   = 0;
+        if ( (any & FACE_BITS[0]) != 0 )
+            faces |= 1;
+        if ( (any & FACE_BITS[1]) != 0 )
+            faces |= 2;
+        if ( (yLow & FACE_BITS[2]) != 0 )
+            faces |= 4;
+        if ( (yHigh & FACE_BITS[3]) != 0 )
+            faces |= 8;
+        if ( zLow != 0 )
+            faces |= 16;
+        if ( zHigh != 0 )
+            faces |= 32;
+        return faces;
+    }
+
+    /**
+     * Indicates whether a chunk may affect its neighbor
+     * in a given direction along one axis.
+     *
+     * @param faces the faces of the chunk on which there are live voxels
+     * @param bit   the bit of the low face of the axis
+     * @param delta the direction along the axis: -1, 0 or 1
+     *
+     * @return  true if the chunk may affect its neighbor
+     */
+    private static boolean isOpen( int faces, int bit, int delta )
+    {
+        boolean open    = delta == 0
+            || (delta < 0 && (faces & (1 << bit)) != 0)
+            || (delta > 0 && (faces & (2 << bit)) != 0);
+        return open;
+    }
+
+    /**
+     * Calculates a range of active chunks.
+     *
+     * @param from  the position of the first chunk in the range
+     * @param to    the position of the last chunk in the range, plus 1
+     * @param work  the work area of the calling thread
+     */
+    private void calculateChunks( int from, int to, Scratch work )
+    {
+        for ( int active = from ; active < to ; ++active )
+            calculateChunk( active, work );
+    }
+
+    /**
+     * Calculates the next generation of an active chunk.
+     *
+     * @param active    the position of the chunk
+     * @param work      the work area of the calling thread
+     */
+    private void calculateChunk( int active, Scratch work )
+    {
+        int[]   sum0    = work.sum0;
+        int[]   sum1    = work.sum1;
+        int     nbrs    = active * NEIGHBORHOOD;
+
+        // Sum each padded row with its left and right neighbors
+        for ( int zRow = 0 ; zRow < PADDED ; ++zRow )
+        {
+            int     zco     = zRow - 1;
+            int     dz      = (zco >> 4) + 1;
+            for ( int yRow = 0 ; yRow < PADDED ; ++yRow )
+            {
+                int     yco     = yRow - 1;
+                int     dir     = nbrs + dz * 9 + ((yco >> 4) + 1) * 3;
+                int     west    = getRow( neighbors[dir], yco, zco );
+                int     mid     = getRow( neighbors[dir + 1], yco, zco );
+                int     east    = getRow( neighbors[dir + 2], yco, zco );
+                int     row     = (west >>> 15) | (mid << 1) | ((east & 1) << 17);
+                int     left    = row;
+                int     self    = row >>> 1;
+                int     right   = row >>> 2;
+                int     inx     = zRow * PADDED + yRow;
+                sum0[inx] = (left ^ self ^ right) & 0xFFFF;
+                sum1[inx] = ((left & self) | (right & (left ^ self))) & 0xFFFF;
+            }
+        }
+
+        int     base    = active * CHUNK_LONGS;
+        for ( int zco = 0 ; zco < 16 ; ++zco )
+        {
+            int     center  = neighbors[nbrs + NEIGHBORHOOD / 2];
+            for ( int yco = 0 ; yco < 16 ; ++yco )
+            {
+                // Add nine 2-bit row sums into a 5-bit total
+                int     tot0    = 0;
+                int     tot1    = 0;
+                int     tot2    = 0;
+                int     tot3    = 0;
+                int     tot4    = 0;
+                for ( int zRow = zco ; zRow < zco + 3 ; ++zRow )
+                    for ( int yRow = yco ; yRow < yco + 3 ; ++yRow )
+                    {
+                        int inx     = zRow * PADDED + yRow;
+                        int add0    = sum0[inx];
+                        int add1    = sum1[inx];
+                        int carry   = tot0 & add0;
+                        tot0 ^= add0;
+                        int next    = carry & (tot1 ^ add1) | (tot1 & add1);
+                        tot1 ^= add1 ^ carry;
+                        carry = next;
+                        next = tot2 & carry;
+                        tot2 ^= carry;
+                        carry = next;
+                        next = tot3 & carry;
+                        tot3 ^= carry;
+                        tot4 ^= next;
+                    }
+
+                long    self    = getRow( center, yco, zco );
+                long    result  = 0;
+                for ( int term = 0 ; term < termLen ; term += 7 )
+                {
+                    long    match   = ~((tot0 ^ terms[term])
+                        | (tot1 ^ terms[term + 1])
+                        | (tot2 ^ terms[term + 2])
+                        | (tot3 ^ terms[term + 3])
+                        | (tot4 ^ terms[term + 4]));
+                    long    select  =
+                        (self & terms[term + 5]) | (~self & terms[term + 6]);
+                    result |= match & select;
+                }
+                result &= 0xFFFF;
+                target[base + (zco << 2) + (yco >>> 2)] |=
+                    result << ((yco & 3) << 4);
+            }
+        }
+    }
+
+    /**
+     * Returns a row of 16 voxels from a chunk of the current generation.
+     * The y- and z-coordinates are taken modulo 16.
+     *
+     * @param chunk the position of the chunk in the map,
+     *              or -1 if the chunk does not exist
+     * @param yco   the y-coordinate of the row
+     * @param zco   the z-coordinate of the row
+     *
+     * @return  the voxels of the row, in bits 0 through 15
+     */
+    private int getRow( int chunk, int yco, int zco )
+    {
+        int row     = 0;
+        if ( chunk >= 0 )
+        {
+            long    word    = source[chunk * CHUNK_LONGS
+                + ((zco & 15) << 2) + ((yco & 15) >>> 2)];
+            row = (int)(word >>> ((yco & 3) << 4)) & 0xFFFF;
+        }
+        return row;
+    }
+
+    /**
+     * Work area for calculating a chunk,
+     * one per thread.
+     *
+     * @author Jack Straub
+     */
+    private static class Scratch
+    {
+        /** Bit 0 of the sum of each padded row with its neighbors. */
+        final int[] sum0    = new int[PADDED * PADDED];
+        /** Bit 1 of the sum of each padded row with its neighbors. */
+        final int[] sum1    = new int[PADDED * PADDED];
+    }
+
+    /**
+     * Task that calculates a range of chunks,
+     * splitting the range in half until it is no larger
+     * than a given grain size.
+     *
+     * @author Jack Straub
+     */
+    private class CalculateTask extends RecursiveAction
+    {
+        /** Generated serial version UID. */
+        private static final long serialVersionUID = -2874101659341275904L;
+
+        /** The position of the first chunk in the range. */
+        private final int   from;
+        /** The position of the last chunk in the range, plus 1. */
+        private final int   to;
+        /** The largest range that will not be split. */
+        private final int   grain;
+
+        /**
+         * Constructor.
+         *
+         * @param from  the position of the first chunk in the range
+         * @param to    the position of the last chunk in the range, plus 1
+         * @param grain the largest range that will not be split
+         */
+        public CalculateTask( int from, int to, int grain )
+        {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( to - from <= grain )
+                calculateChunks( from, to, scratch.get() );
+            else
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                    new CalculateTask( from, mid, grain ),
+                    new CalculateTask( mid, to, grain )
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import java.util.Arrays;
+
+/**
+ * Three-dimensional counterpart of {@link GridMap},
+ * for two-state automata whose cells, or <em>voxels</em>,
+ * have x-, y- and z-coordinates.
+ * <p>
+ * Voxels are stored in chunks of 16x16x16,
+ * each of which is a bit set of 64 longs:
+ * long <em>z * 4 + y / 4</em> of a chunk holds four rows of 16 voxels,
+ * and voxel (x,y,z) of the chunk is bit <em>(y % 4) * 16 + x</em>
+ * of that long.
+ * The chunks are held end to end in a single array,
+ * and located by a {@link CellTable}
+ * that maps the packed coordinates of a chunk
+ * (see {@link #chunkKey(int, int, int)}) to its position.
+ * A chunk is discarded as soon as its last live voxel dies,
+ * so the map never holds more chunks than live voxels,
+ * and a dense pattern needs little more than one bit per voxel.
+ * <p>
+ * Coordinates must lie in the range
+ * [{@link #MIN_COORD}, {@link #MAX_COORD}].
+ *
+ * @author Jack Straub
+ *
+ * @see VoxelEngine
+ */
+public class VoxelGridMap
+{
+    /** The number of voxels along each edge of a chunk. */
+    public static final int     CHUNK_SIZE      = 16;
+    /** The number of longs in each chunk. */
+    public static final int     CHUNK_LONGS     =
+        CHUNK_SIZE * CHUNK_SIZE * CHUNK_SIZE / 64;
+    /** The smallest supported coordinate. */
+    public static final int     MIN_COORD       = -(1 << 24);
+    /** The largest supported coordinate. */
+    public static final int     MAX_COORD       = (1 << 24) - 1;
+
+    /** The number of bits in each packed chunk coordinate. */
+    private static final int    KEY_BITS        = 21;
+    /** Mask for a packed chunk coordinate. */
+    private static final long   KEY_MASK        = (1L << KEY_BITS) - 1;
+
+    /** Maps the key of each chunk to its position, plus 1. */
+    private final CellTable index       = new CellTable();
+    /** The bits of every chunk, end to end. */
+    private long[]          bits        = new long[4 * CHUNK_LONGS];
+    /** The key of every chunk, by position. */
+    private long[]          keys        = new long[4];
+    /** The number of chunks. */
+    private int             chunkCount  = 0;
+    /** The number of live voxels. */
+    private int             size        = 0;
+    /** Incremented whenever a voxel changes state. */
+    private int             modCount    = 0;
+
+    /**
+     * Default constructor.
+     */
+    public VoxelGridMap()
+    {
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param copyFrom  the map to copy
+     */
+    public VoxelGridMap( VoxelGridMap copyFrom )
+    {
+        copyFrom.forEachLive( (xco, yco, zco) -> put( xco, yco, zco, true ) );
+    }
+
+    /**
+     * Indicates whether the voxel at a given coordinate triple
+     * is alive.
+     *
+     * @param xco   the x-coordinate of the voxel
+     * @param yco   the y-coordinate of the voxel
+     * @param zco   the z-coordinate of the voxel
+     *
+     * @return  true if the voxel is alive
+     *
+     * @throws IllegalArgumentException
+     *         if any coordinate is outside the supported range
+     */
+    public boolean get( int xco, int yco, int zco )
+    {
+        validate( xco, yco, zco );
+        long    key     = chunkKey( xco >> 4, yco >> 4, zco >> 4 );
+        int     chunk   = index.get( key ) - 1;
+        boolean alive   = false;
+        if ( chunk >= 0 )
+        {
+            long    word    = bits[chunk * CHUNK_LONGS + wordIndex( yco, zco )];
+            alive = ((word >>> bitIndex( xco, yco )) & 1) != 0;
+        }
+        return alive;
+    }
+
+    /**
+     * Makes the voxel at a given coordinate triple alive or dead.
+     *
+     * @param xco   the x-coordinate of the voxel
+     * @param yco   the y-coordinate of the voxel
+     * @param zco   the z-coordinate of the voxel
+     * @param alive true to make the voxel alive, false to make it dead
+     *
+     * @return  true if the voxel was previously alive
+     *
+     * @throws IllegalArgumentException
+     *         if any coordinate is outside the supported range
+     */
+    public boolean put( int xco, int yco, int zco, boolean alive )
+    {
+        validate( xco, yco, zco );
+        long    key     = chunkKey( xco >> 4, yco >> 4, zco >> 4 );
+        int     chunk   = index.get( key ) - 1;
+        boolean prev    = false;
+        if ( chunk < 0 && alive )
+            chunk = addChunk( key );
+        if ( chunk >= 0 )
+        {
+            int     word    = chunk * CHUNK_LONGS + wordIndex( yco, zco );
+            long    bit     = 1L << bitIndex( xco, yco );
+            prev = (bits[word] & bit) != 0;
+            if ( prev != alive )
+            {
+                bits[word] ^= bit;
+                size += alive ? 1 : -1;
+                ++modCount;
+                if ( !alive && isEmpty( chunk ) )
+                    removeChunk( chunk );
+            }
+        }
+        return prev;
+    }
+
+    /**
+     * Returns the number of live voxels in this map.
+     *
+     * @return  the number of live voxels in this map
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of chunks in this map,
+     * each of which contains at least one live voxel.
+     *
+     * @return  the number of chunks in this map
+     */
+    public int getChunkCount()
+    {
+        return chunkCount;
+    }
+
+    /**
+     * Returns the number of modifications made to this map
+     * since it was constructed.
+     *
+     * @return  the number of modifications made to this map
+     */
+    public int getModificationCount()
+    {
+        return modCount;
+    }
+
+    /**
+     * Removes all live voxels from this map.
+     */
+    public void clear()
+    {
+        index.clear();
+        index.compact();
+        bits = new long[4 * CHUNK_LONGS];
+        keys = new long[4];
+        chunkCount = 0;
+        size = 0;
+        ++modCount;
+    }
+
+    /**
+     * Passes every live voxel to a given visitor.
+     * Voxels are not visited in any particular order.
+     * The visitor must not modify this map.
+     *
+     * @param visitor   the given visitor
+     */
+    public void forEachLive( VoxelVisitor visitor )
+    {
+        for ( int chunk = 0 ; chunk < chunkCount ; ++chunk )
+        {
+            long    key     = keys[chunk];
+            int     baseX   = chunkX( key ) << 4;
+            int     baseY   = chunkY( key ) << 4;
+            int     baseZ   = chunkZ( key ) << 4;
+            int     base    = chunk * CHUNK_LONGS;
+            for ( int inx = 0 ; inx < CHUNK_LONGS ; ++inx )
+            {
+                long    word    = bits[base + inx];
+                while ( word != 0 )
+                {
+                    int bit = Long.numberOfTrailingZeros( word );
+                    visitor.visit(
+                        baseX + (bit & 15),
+                        baseY + ((inx & 3) << 2) + (bit >>> 4),
+                        baseZ + (inx >>> 2)
+                    );
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the live voxels with a given z-coordinate
+     * as a two-dimensional GridMap,
+     * in which every live cell has a state of 1.
+     * Only the chunks that intersect the given plane are decoded.
+     *
+     * @param zco   the given z-coordinate
+     *
+     * @return  the live voxels with the given z-coordinate
+     */
+    public GridMap getSlice( int zco )
+    {
+        GridMap slice   = new GridMap();
+        int     chunkZ  = zco >> 4;
+        int     offset  = (zco & 15) << 2;
+        for ( int chunk = 0 ; chunk < chunkCount ; ++chunk )
+        {
+            long    key     = keys[chunk];
+            if ( chunkZ( key ) == chunkZ )
+            {
+                int     baseX   = chunkX( key ) << 4;
+                int     baseY   = chunkY( key ) << 4;
+                int     base    = chunk * CHUNK_LONGS + offset;
+                for ( int inx = 0 ; inx < 4 ; ++inx )
+                {
+                    long    word    = bits[base + inx];
+                    while ( word != 0 )
+                    {
+                        int bit = Long.numberOfTrailingZeros( word );
+                        slice.putState(
+                            baseX + (bit & 15),
+                            baseY + (inx << 2) + (bit >>> 4),
+                            1
+                        );
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return slice;
+    }
+
+    /**
+     * Returns the approximate number of bytes
+     * occupied by the chunks of this map and their index.
+     *
+     * @return  the approximate number of bytes occupied by this map
+     */
+    public long getMemoryUsage()
+    {
+        long    usage   = 8L * bits.length + 8L * keys.length
+            + 12L * index.capacity();
+        return usage;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash    = size;
+        for ( int chunk = 0 ; chunk < chunkCount ; ++chunk )
+        {
+            int base    = chunk * CHUNK_LONGS;
+            int chunkHash   = Long.hashCode( keys[chunk] );
+            for ( int inx = 0 ; inx < CHUNK_LONGS ; ++inx )
+                chunkHash = 31 * chunkHash + Long.hashCode( bits[base + inx] );
+            // chunks are not in any particular order
+            hash += chunkHash;
+        }
+        return hash;
+    }
+
+    /**
+     * Two VoxelGridMaps are equal
+     * if they contain the same live voxels.
+     *
+     * @param obj   the object to compare to this map
+     *
+     * @return  true if the given object is equal to this map
+     */
+    @Override
+    public boolean equals( Object obj )
+    {
+        boolean result  = false;
+        if ( obj == this )
+            result = true;
+        else if ( obj instanceof VoxelGridMap )
+        {
+            VoxelGridMap    that    = (VoxelGridMap)obj;
+            result = size == that.size && chunkCount == that.chunkCount;
+            for ( int chunk = 0 ; chunk < chunkCount && result ; ++chunk )
+            {
+                int thisBase    = chunk * CHUNK_LONGS;
+                int thatChunk   = that.getChunk( keys[chunk] );
+                int thatBase    = thatChunk * CHUNK_LONGS;
+                result = thatChunk >= 0;
+                for ( int inx = 0 ; inx < CHUNK_LONGS && result ; ++inx )
+                    result = bits[thisBase + inx] == that.bits[thatBase + inx];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Packs the coordinates of a chunk into a single long.
+     * Each coordinate is the corresponding voxel coordinate
+     * divided by 16, rounded down.
+     *
+     * @param chunkX    the x-coordinate of the chunk
+     * @param chunkY    the y-coordinate of the chunk
+     * @param chunkZ    the z-coordinate of the chunk
+     *
+     * @return  the packed coordinates
+     */
+    static long chunkKey( int chunkX, int chunkY, int chunkZ )
+    {
+        long    key     = ((chunkX & KEY_MASK) << (2 * KEY_BITS))
+            | ((chunkY & KEY_MASK) << KEY_BITS)
+            | (chunkZ & KEY_MASK);
+        return key;
+    }
+
+    /**
+     * Extracts the x-coordinate from a packed chunk key.
+     *
+     * @param key   the packed chunk key
+     *
+     * @return  the x-coordinate of the chunk
+     */
+    static int chunkX( long key )
+    {
+        int coord   = (int)((key << 1) >> (64 - KEY_BITS));
+        return coord;
+    }
+
+    /**
+     * Extracts the y-coordinate from a packed chunk key.
+     *
+     * @param key   the packed chunk key
+     *
+     * @return  the y-coordinate of the chunk
+     */
+    static int chunkY( long key )
+    {
+        int coord   = (int)((key << (64 - 2 * KEY_BITS)) >> (64 - KEY_BITS));
+        return coord;
+    }
+
+    /**
+     * Extracts the z-coordinate from a packed chunk key.
+     *
+     * @param key   the packed chunk key
+     *
+     * @return  the z-coordinate of the chunk
+     */
+    static int chunkZ( long key )
+    {
+        int coord   = (int)((key << (64 - KEY_BITS)) >> (64 - KEY_BITS));
+        return coord;
+    }
+
+    /**
+     * Returns the position of the chunk with a given key.
+     *
+     * @param key   the given key
+     *
+     * @return  the position of the chunk, or -1 if there is none
+     */
+    int getChunk( long key )
+    {
+        int chunk   = index.get( key ) - 1;
+        return chunk;
+    }
+
+    /**
+     * Returns the key of the chunk at a given position.
+     *
+     * @param chunk the given position
+     *
+     * @return  the key of the chunk at the given position
+     */
+    long getChunkKey( int chunk )
+    {
+        return keys[chunk];
+    }
+
+    /**
+     * Returns the array that holds the bits of every chunk;
+     * the chunk at position <em>n</em> begins at index
+     * <em>n * CHUNK_LONGS</em>.
+     * The array is replaced when chunks are added,
+     * and must not be modified.
+     *
+     * @return  the array that holds the bits of every chunk
+     */
+    long[] getBits()
+    {
+        return bits;
+    }
+
+    /**
+     * Replaces the entire contents of this map.
+     * Chunks that contain no live voxels are discarded.
+     *
+     * @param newKeys   the key of every new chunk
+     * @param newBits   the bits of every new chunk, end to end
+     * @param count     the number of new chunks
+     */
+    void replace( long[] newKeys, long[] newBits, int count )
+    {
+        index.clear();
+        bits = newBits;
+        keys = newKeys;
+        chunkCount = 0;
+        size = 0;
+        for ( int chunk = 0 ; chunk < count ; ++chunk )
+        {
+            int     from    = chunk * CHUNK_LONGS;
+            int     to      = chunkCount * CHUNK_LONGS;
+            int     live    = 0;
+            for ( int inx = 0 ; inx < CHUNK_LONGS ; ++inx )
+                live += Long.bitCount( newBits[from + inx] );
+            if ( live > 0 )
+            {
+                if ( from != to )
+                    System.arraycopy( newBits, from, bits, to, CHUNK_LONGS );
+                keys[chunkCount] = newKeys[chunk];
+                index.put( newKeys[chunk], ++chunkCount );
+                size += live;
+            }
+        }
+        if ( index.capacity() > 8 * chunkCount + 16 )
+            index.compact();
+        ++modCount;
+    }
+
+    /**
+     * Adds an empty chunk with a given key.
+     *
+     * @param key   the given key
+     *
+     * @return  the position of the new chunk
+     */
+    private int addChunk( long key )
+    {
+        if ( chunkCount == keys.length )
+        {
+            int capacity    = Math.max( 4, chunkCount * 2 );
+            keys = Arrays.copyOf( keys, capacity );
+            bits = Arrays.copyOf( bits, capacity * CHUNK_LONGS );
+        }
+        int chunk   = chunkCount++;
+        keys[chunk] = key;
+        index.put( key, chunk + 1 );
+        return chunk;
+    }
+
+    /**
+     * Removes the chunk at a given position,
+     * moving the last chunk into its place.
+     *
+     * @param chunk the given position
+     */
+    private void removeChunk( int chunk )
+    {
+        int last    = --chunkCount;
+        index.put( keys[chunk], 0 );
+        if ( chunk != last )
+        {
+            System.arraycopy(
+                bits, last * CHUNK_LONGS, bits, chunk * CHUNK_LONGS, CHUNK_LONGS
+            );
+            keys[chunk] = keys[last];
+            index.put( keys[chunk], chunk + 1 );
+        }
+        Arrays.fill( bits, last * CHUNK_LONGS, (last + 1) * CHUNK_LONGS, 0 );
+
+        // release the chunk storage once three quarters is unused
+        if ( keys.length > 4 && chunkCount < keys.length / 4 )
+        {
+            keys = Arrays.copyOf( keys, keys.length / 2 );
+            bits = Arrays.copyOf( bits, keys.length * CHUNK_LONGS );
+        }
+    }
+
+    /**
+     * Indicates whether the chunk at a given position
+     * contains no live voxels.
+     *
+     * @param chunk the given position
+     *
+     * @return  true if the chunk contains no live voxels
+     */
+    private boolean isEmpty( int chunk )
+    {
+        int     base    = chunk * CHUNK_LONGS;
+        long    any     = 0;
+        for ( int inx = 0 ; inx < CHUNK_LONGS ; ++inx )
+            any |= bits[base + inx];
+        return any == 0;
+    }
+
+    /**
+     * Returns the index, within its chunk, of the long
+     * that holds the voxel with given y- and z-coordinates.
+     *
+     * @param yco   the y-coordinate of the voxel
+     * @param zco   the z-coordinate of the voxel
+     *
+     * @return  the index of the long that holds the voxel
+     */
+    private static int wordIndex( int yco, int zco )
+    {
+        int inx = ((zco & 15) << 2) | ((yco & 15) >>> 2);
+        return inx;
+    }
+
+    /**
+     * Returns the bit, within its long, that holds the voxel
+     * with given x- and y-coordinates.
+     *
+     * @param xco   the x-coordinate of the voxel
+     * @param yco   the y-coordinate of the voxel
+     *
+     * @return  the bit that holds the voxel
+     */
+    private static int bitIndex( int xco, int yco )
+    {
+        int bit = ((yco & 3) << 4) | (xco & 15);
+        return bit;
+    }
+
+    /**
+     * Verifies that a given coordinate triple
+     * lies within the supported range.
+     *
+     * @param xco   the x-coordinate
+     * @param yco   the y-coordinate
+     * @param zco   the z-coordinate
+     *
+     * @throws IllegalArgumentException
+     *         if any coordinate is outside the supported range
+     */
+    private static void validate( int xco, int yco, int zco )
+    {
+        if ( xco < MIN_COORD || xco > MAX_COORD
+            || yco < MIN_COORD || yco > MAX_COORD
+            || zco < MIN_COORD || zco > MAX_COORD )
+        {
+            String  msg =
+                "Voxel out of range: (" + xco + "," + yco + "," + zco + ")";
+            throw new IllegalArgumentException( msg );
+        }
+    }
+
+    /**
+     * Functional interface for processing the live voxels of a map.
+     *
+     * @author Jack Straub
+     *
+     * @see VoxelGridMap#forEachLive(VoxelVisitor)
+     */
+    @FunctionalInterface
+    public interface VoxelVisitor
+    {
+        /**
+         * Processes the live voxel at a given location.
+         *
+         * @param xco   the x-coordinate of the given location
+         * @param yco   the y-coordinate of the given location
+         * @param zco   the z-coordinate of the given location
+         */
+        void visit( int xco, int yco, int zco );
+    }
+}
@@ -0,0 +1,143 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static com.gmail.johnstraub1954.cell_automata.main.TileEngine.TILE_SIZE;
+
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Tile kernel that uses the Vector API
+ * to calculate several rows of a tile per instruction.
+ * Each lane of a vector holds one 64-cell row,
+ * so the platform's preferred vector shape
+ * processes 2, 4 or 8 rows at a time.
+ * The neighbors of the rows are summed
+ * with the same tree of bitwise full adders
+ * used by {@link ScalarTileKernel},
+ * applied lanewise,
+ * so the results are identical to those of the scalar calculation.
+ * <p>
+ * This class is compiled only by JDK 17 and later builds,
+ * and is loaded by name by {@link TileEngine};
+ * it requires the <em>jdk.incubator.vector</em> module at run time.
+ *
+ * @author Jack Straub
+ */
+final class VectorTileKernel implements TileKernel
+{
+    /** The vector shape used to calculate rows. */
+    private static final VectorSpecies<Long>    SPECIES =
+        LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Constructor.
+     *
+     * @throws UnsupportedOperationException
+     *         if the platform's preferred vector
+     *         holds only one long,
+     *         or does not evenly divide a tile
+     */
+    VectorTileKernel()
+    {
+        int lanes   = SPECIES.length();
+        if ( lanes < 2 || TILE_SIZE % lanes != 0 )
+        {
+            String  msg = "no useful vector shape: " + SPECIES;
+            throw new UnsupportedOperationException( msg );
+        }
+    }
+
+    @Override
+    public void calculate(
+        long[] midRows,
+        long[] westRows,
+        long[] eastRows,
+        long[] result,
+        int survival,
+        int birth
+    )
+    {
+        // Everything is written in this one method, using only
+        // methods of the Vector API, and the rule loop has no branches:
+        // a vector passed to a helper that the JIT compiler
+        // declines to inline, or merged at a branch or loop
+        // that is not unrolled, must be boxed on the heap,
+        // which costs far more than vectorizing saves.
+        int     lanes   = SPECIES.length();
+        for ( int row = 0 ; row < TILE_SIZE ; row += lanes )
+        {
+            // array index row + 1 holds tile row "row"
+            LongVector  north   = LongVector.fromArray( SPECIES, midRows, row );
+            LongVector  self    = LongVector.fromArray( SPECIES, midRows, row + 1 );
+            LongVector  south   = LongVector.fromArray( SPECIES, midRows, row + 2 );
+            LongVector  nw      = north.lanewise( LSHL, 1 ).or(
+                LongVector.fromArray( SPECIES, westRows, row ).lanewise( LSHR, 63 )
+            );
+            LongVector  west    = self.lanewise( LSHL, 1 ).or(
+                LongVector.fromArray( SPECIES, westRows, row + 1 ).lanewise( LSHR, 63 )
+            );
+            LongVector  sw      = south.lanewise( LSHL, 1 ).or(
+                LongVector.fromArray( SPECIES, westRows, row + 2 ).lanewise( LSHR, 63 )
+            );
+            LongVector  ne      = north.lanewise( LSHR, 1 ).or(
+                LongVector.fromArray( SPECIES, eastRows, row ).lanewise( LSHL, 63 )
+            );
+            LongVector  east    = self.lanewise( LSHR, 1 ).or(
+                LongVector.fromArray( SPECIES, eastRows, row + 1 ).lanewise( LSHL, 63 )
+            );
+            LongVector  se      = south.lanewise( LSHR, 1 ).or(
+                LongVector.fromArray( SPECIES, eastRows, row + 2 ).lanewise( LSHL, 63 )
+            );
+
+            // Three full adders reduce eight inputs to three sums
+            // of weight 1 and three carries of weight 2.
+            LongVector  nwn     = nw.lanewise( XOR, north );
+            LongVector  sum1    = nwn.lanewise( XOR, ne );
+            LongVector  carry1  = nw.and( north ).or( ne.and( nwn ) );
+            LongVector  we      = west.lanewise( XOR, east );
+            LongVector  sum2    = we.lanewise( XOR, sw );
+            LongVector  carry2  = west.and( east ).or( sw.and( we ) );
+            LongVector  sum3    = south.lanewise( XOR, se );
+            LongVector  carry3  = south.and( se );
+
+            // Bit 0 of the count, with a fourth carry of weight 2
+            LongVector  sum12   = sum1.lanewise( XOR, sum2 );
+            LongVector  bit0    = sum12.lanewise( XOR, sum3 );
+            LongVector  carry4  = sum1.and( sum2 ).or( sum3.and( sum12 ) );
+
+            // Sum the four carries of weight 2
+            LongVector  carry12 = carry1.lanewise( XOR, carry2 );
+            LongVector  sum5    = carry12.lanewise( XOR, carry3 );
+            LongVector  carry5  = carry1.and( carry2 ).or( carry3.and( carry12 ) );
+            LongVector  bit1    = sum5.lanewise( XOR, carry4 );
+            LongVector  carry6  = sum5.and( carry4 );
+            LongVector  bit2    = carry5.lanewise( XOR, carry6 );
+            LongVector  bit3    = carry5.and( carry6 );
+
+            // For each possible count, a cell is set
+            // if its count matches (each count bit that should be 0
+            // is inverted before the bits are combined)
+            // and the rule makes it alive for that count
+            // (survival where it is alive, birth where it is dead).
+            LongVector  next    = LongVector.zero( SPECIES );
+            for ( int count = 0 ; count <= 8 ; ++count )
+            {
+                long        born    = ((birth >> count) & 1) != 0 ? -1L : 0;
+                long        lives   = ((survival >> count) & 1) != 0 ? -1L : 0;
+                LongVector  match   =
+                    bit0.lanewise( XOR, (count & 1) != 0 ? 0 : -1L )
+                    .and( bit1.lanewise( XOR, (count & 2) != 0 ? 0 : -1L ) )
+                    .and( bit2.lanewise( XOR, (count & 4) != 0 ? 0 : -1L ) )
+                    .and( bit3.lanewise( XOR, (count & 8) != 0 ? 0 : -1L ) );
+                LongVector  select  = self.and( lives ^ born ).lanewise( XOR, born );
+                next = next.or( match.and( select ) );
+            }
+            next.intoArray( result, row );
+        }
+    }
+
+}
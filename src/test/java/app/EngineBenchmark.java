@@ -0,0 +1,94 @@
+package app;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+import com.gmail.johnstraub1954.cell_automata.main.CAConstants;
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+import com.gmail.johnstraub1954.cell_automata.main.Parameters;
+import com.gmail.johnstraub1954.cell_automata.main.RLEInput;
+import com.gmail.johnstraub1954.cell_automata.main.TileEngine;
+import com.gmail.johnstraub1954.cell_automata.main.Utils;
+
+/**
+ * Ad hoc comparison of generation engines.
+ * Loads an RLE file, then reports the cell updates per second
+ * achieved by each named engine over a fixed number of generations.
+ * <p>
+ * Usage: EngineBenchmark [rle-file [generations [engine ...]]]
+ * <p>
+ * The engine name <em>conway</em> selects Utils.conwayPropagate.
+ * An engine name with the suffix <em>+vector</em>
+ * runs the named engine with the Vector API tile kernel enabled
+ * (see CAConstants.PROP_VECTOR_KERNEL_PN);
+ * the JVM must be started with
+ * <em>--add-modules jdk.incubator.vector</em>,
+ * otherwise the scalar calculation is used.
+ * The suffix <em>+memo</em> enables the tile memo
+ * (see CAConstants.PROP_TILE_MEMO_CAPACITY_PN),
+ * and reports its hit, miss and eviction counts.
+ * Suffixes may be combined, for example <em>tile+vector+memo</em>.
+ *
+ * @author Jack Straub
+ */
+public class EngineBenchmark
+{
+    private static final Parameters params          = Parameters.INSTANCE;
+    private static final String     VECTOR_SUFFIX   = "+vector";
+    private static final String     MEMO_SUFFIX     = "+memo";
+    private static final int        MEMO_CAPACITY   = 1 << 16;
+
+    public static void main( String[] args )
+    {
+        String      path        = args.length > 0 ?
+            args[0] : "src/main/resources/pp8primecalculator.rle";
+        int         generations = args.length > 1 ?
+            Integer.parseInt( args[1] ) : 20;
+        String[]    engines     = args.length > 2 ?
+            Arrays.copyOfRange( args, 2, args.length ) :
+            new String[] {
+                CAConstants.PROP_PROC_CONWAY,
+                CAConstants.PROP_PROC_TILE,
+                CAConstants.PROP_PROC_TILE + VECTOR_SUFFIX,
+                CAConstants.PROP_PROC_TILE + MEMO_SUFFIX
+            };
+
+        RLEInput        input       = new RLEInput( path );
+        List<Integer>   survival    = input.getSurvivalRules();
+        List<Integer>   birth       = input.getBirthRules();
+        params.setSurvivalStates( survival );
+        params.setBirthStates( birth );
+
+        for ( String name : engines )
+        {
+            boolean vector  = name.contains( VECTOR_SUFFIX );
+            boolean memo    = name.contains( MEMO_SUFFIX );
+            String  engine  =
+                name.replace( VECTOR_SUFFIX, "" ).replace( MEMO_SUFFIX, "" );
+            params.setVectorKernel( vector );
+            params.setTileMemoCapacity( memo ? MEMO_CAPACITY : 0 );
+            GridMap gridMap = new GridMap( input.getGridMap() );
+            params.setGridMap( null );
+            params.setGridMap( gridMap );
+
+            long    cells   = 0;
+            long    start   = System.nanoTime();
+            for ( int gen = 0 ; gen < generations ; ++gen )
+            {
+                // cell updates are estimated as the area of
+                // the live rectangle
+                Rectangle   rect    = gridMap.getLiveRectangle();
+                cells += (long)rect.width * rect.height;
+                Utils.INSTANCE.propagate( engine, null );
+            }
+            double  secs    = (System.nanoTime() - start) / 1e9;
+            System.out.printf( "%-12s %8.3f s %14.0f cells/s  population %d%n",
+                name, secs, cells / secs, gridMap.size()
+            );
+            Object  instance    = Utils.INSTANCE.getEngine( engine );
+            if ( memo && instance instanceof TileEngine )
+                System.out.println( "    " + ((TileEngine)instance).getMemo() );
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+
+class SpacetimeHistoryTest
+{
+    /**
+     * Verify that rows read back from a history,
+     * including rows spilled to the backing file
+     * and paged back in after being released,
+     * match the rows produced by the kernel.
+     *
+     * @param dir   temporary directory for the backing file
+     */
+    @Test
+    public void testSpill( @TempDir Path dir )
+    {
+        Path            path    = dir.resolve( "history.bin" );
+        Wolfram1DKernel kernel  = Wolfram1DKernel.ofLightCone( 30 );
+        List<long[]>    expect  = new ArrayList<>();
+        try ( SpacetimeHistory history =
+            new SpacetimeHistory( -100, 150, path, 7 ) )
+        {
+            assertEquals( 192, history.getWidth() );
+            for ( int gen = 0 ; gen < 120 ; ++gen )
+            {
+                if ( gen > 0 )
+                    kernel.nextGeneration();
+                long[]  row     = new long[3];
+                kernel.getWindow( -100, row, 3 );
+                expect.add( row );
+                history.append( kernel );
+            }
+            assertEquals( 120, history.size() );
+
+            // read forward, then backward, so segments are remapped
+            long[]  actual  = new long[3];
+            for ( int inx = 0 ; inx < expect.size() ; ++inx )
+            {
+                history.getRow( inx, actual );
+                assertArrayEquals( expect.get( inx ), actual, "row " + inx );
+            }
+            for ( int inx = expect.size() - 1 ; inx >= 0 ; --inx )
+            {
+                history.getRow( inx, actual );
+                assertArrayEquals( expect.get( inx ), actual, "row " + inx );
+            }
+            assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> history.getRow( 120, actual )
+            );
+        }
+        assertFalse( Files.exists( path ) );
+    }
+
+    /**
+     * Verify that a range of rows copied to a GridMap
+     * matches the kernel, cell for cell,
+     * and that removing a row from the GridMap
+     * leaves the other rows in place.
+     *
+     * @param dir   temporary directory for the backing file
+     */
+    @Test
+    public void testCopyTo( @TempDir Path dir )
+    {
+        Path            path    = dir.resolve( "history.bin" );
+        Wolfram1DKernel kernel  = Wolfram1DKernel.ofLightCone( 90 );
+        List<GridMap>   expect  = new ArrayList<>();
+        try ( SpacetimeHistory history =
+            new SpacetimeHistory( -64, 128, path, 5 ) )
+        {
+            for ( int gen = 0 ; gen < 40 ; ++gen )
+            {
+                if ( gen > 0 )
+                    kernel.nextGeneration();
+                history.append( kernel );
+                GridMap gridMap = new GridMap();
+                kernel.copyTo( gridMap, gen, -64, 63 );
+                expect.add( gridMap );
+            }
+
+            GridMap actual  = new GridMap();
+            history.copyTo( actual, 12, 9 );
+            GridMap merged  = new GridMap();
+            for ( int gen = 12 ; gen < 21 ; ++gen )
+                expect.get( gen ).forEachLive(
+                    (xco, yco, state) -> merged.put( xco, yco, true )
+                );
+            assertEquals( merged, actual );
+            assertEquals( kernel.get( 3 ), history.get( 39, 3 ) );
+            assertFalse( history.get( 39, 64 ) );
+
+            // rows past the end are ignored
+            actual.clear();
+            history.copyTo( actual, 38, 10 );
+            merged.clear();
+            for ( int gen = 38 ; gen < 40 ; ++gen )
+                expect.get( gen ).forEachLive(
+                    (xco, yco, state) -> merged.put( xco, yco, true )
+                );
+            assertEquals( merged, actual );
+
+            // removing a row leaves the others in place
+            history.removeFrom( actual, 38, 1 );
+            assertEquals( expect.get( 39 ), actual );
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+
+class Totalistic1DKernelTest
+{
+    /**
+     * Verify a selection of codes in light-cone mode
+     * against a straightforward implementation,
+     * including codes for which the background changes.
+     */
+    @Test
+    public void testLightCone()
+    {
+        long[][]    rules   =
+        {
+            { 3, 777 }, { 3, 1599 }, { 3, 1635 }, { 3, 2186 }, { 3, 1 },
+            { 2, 10 }, { 4, 1004600 }, { 5, 123456789 },
+            { 7, Totalistic1DKernel.getCodeLimit( 7 ) - 1 },
+        };
+        int         gens    = 60;
+        for ( long[] rule : rules )
+        {
+            int                 colors  = (int)rule[0];
+            long                code    = rule[1];
+            Totalistic1DKernel  kernel  =
+                Totalistic1DKernel.ofLightCone( colors, code );
+            int                 origin  = gens + 2;
+            int[]               expect  = new int[2 * origin + 1];
+            int                 back    = 0;
+            expect[origin] = 1;
+            for ( int gen = 1 ; gen <= gens ; ++gen )
+            {
+                kernel.nextGeneration();
+                int[]   next    = new int[expect.length];
+                back = digit( colors, code, 3 * back );
+                next[0] = back;
+                next[next.length - 1] = back;
+                for ( int inx = 1 ; inx < expect.length - 1 ; ++inx )
+                {
+                    int sum = expect[inx - 1] + expect[inx] + expect[inx + 1];
+                    next[inx] = digit( colors, code, sum );
+                }
+                expect = next;
+                assertEquals( -gen, kernel.getLeftColumn() );
+                assertEquals( 2 * gen + 1, kernel.getLength() );
+                for ( int inx = 0 ; inx < expect.length ; ++inx )
+                    assertEquals(
+                        expect[inx],
+                        kernel.get( inx - origin ),
+                        colors + "/" + code + ", generation " + gen
+                    );
+            }
+        }
+    }
+
+    /**
+     * Verify wraparound mode, starting from random rows,
+     * against a straightforward implementation;
+     * the widest row is calculated in parallel.
+     */
+    @Test
+    public void testWraparound()
+    {
+        int[]   widths  =
+        { 1, 2, 3, 100, Totalistic1DKernel.PARALLEL_THRESHOLD + 12345 };
+        Random  randy   = new Random( 17 );
+        for ( int width : widths )
+        {
+            int                 colors  = 4;
+            long                code    = 1004600;
+            Totalistic1DKernel  kernel  =
+                Totalistic1DKernel.ofWraparound( colors, code, width );
+            int[]               expect  = new int[width];
+            for ( int inx = 0 ; inx < width ; ++inx )
+            {
+                expect[inx] = randy.nextInt( colors );
+                kernel.set( inx, expect[inx] );
+            }
+            for ( int gen = 1 ; gen <= 10 ; ++gen )
+            {
+                kernel.nextGeneration();
+                int[]   next    = new int[width];
+                for ( int inx = 0 ; inx < width ; ++inx )
+                {
+                    int sum = expect[(inx + width - 1) % width]
+                        + expect[inx]
+                        + expect[(inx + 1) % width];
+                    next[inx] = digit( colors, code, sum );
+                }
+                expect = next;
+                for ( int inx = 0 ; inx < width ; ++inx )
+                    assertEquals(
+                        expect[inx],
+                        kernel.get( inx ),
+                        width + ", generation " + gen
+                    );
+                assertEquals( expect[0], kernel.get( width ) );
+            }
+        }
+    }
+
+    /**
+     * Verify that cells are written to a GridMap
+     * with their colors as states,
+     * and that invalid arguments are rejected.
+     */
+    @Test
+    public void testCopyTo()
+    {
+        Totalistic1DKernel  kernel  = Totalistic1DKernel.ofLightCone( 3, 777 );
+        for ( int gen = 0 ; gen < 20 ; ++gen )
+            kernel.nextGeneration();
+        GridMap             gridMap = new GridMap();
+        kernel.copyTo( gridMap, 4, -10, 10 );
+        int                 count   = 0;
+        for ( int col = -10 ; col <= 10 ; ++col )
+        {
+            assertEquals( kernel.get( col ), gridMap.getState( col, 4 ) );
+            if ( kernel.get( col ) != 0 )
+                ++count;
+        }
+        assertEquals( count, gridMap.size() );
+
+        assertEquals( 2187, Totalistic1DKernel.getCodeLimit( 3 ) );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Totalistic1DKernel.ofLightCone( 3, 2187 )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Totalistic1DKernel.ofLightCone( 8, 0 )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> kernel.set( 0, 3 )
+        );
+    }
+
+    /**
+     * Returns a given digit of a code number.
+     *
+     * @param colors    the number of colors, the base of the code
+     * @param code      the code number
+     * @param inx       the index of the given digit
+     *
+     * @return  the given digit
+     */
+    private static int digit( int colors, long code, int inx )
+    {
+        long    digits  = code;
+        for ( int count = 0 ; count < inx ; ++count )
+            digits /= colors;
+        int     digit   = (int)(digits % colors);
+        return digit;
+    }
+}
@@ -0,0 +1,179 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+import com.gmail.johnstraub1954.cell_automata.main.Parameters;
+
+class Wolfram1DAutomatonTest
+{
+    /** The generation rule used by the tests. */
+    private static final int    RULE        = 30;
+    /** The first column of the window recorded in the history. */
+    private static final int    MIN_COL     = -100;
+    /** The height of the grid; one more row is partially visible. */
+    private static final int    GRID_HEIGHT = 10;
+
+    /**
+     * Verify that scrolling the grid back pages earlier rows
+     * into the grid map from the history, including rows
+     * whose segments have been released,
+     * that the grid is not kept centered while scrolled back,
+     * and that scrolling down to the latest generation
+     * resumes following it.
+     * Changes to the grid origin that do not come from scrolling,
+     * such as opening a file, must not disturb the grid map.
+     *
+     * @param dir   temporary directory for the backing file
+     */
+    @Test
+    public void testScrollBack( @TempDir Path dir )
+    {
+        Parameters          params          = Parameters.INSTANCE;
+        GridMap             saveGridMap     = params.getGridMap();
+        Consumer<Object>    saveProc        = params.getPropagateProc();
+        int                 saveHeight      = params.getGridHeight();
+        boolean             saveCentered    = params.isGridKeepCentered();
+        Point               saveOrigin      = params.getGridCellOrigin();
+        int                 rows            = GRID_HEIGHT + 1;
+        params.setGridMap( new GridMap() );
+        params.setGridHeight( GRID_HEIGHT );
+        GridMap             gridMap         = params.getGridMap();
+        Path                path            = dir.resolve( "history.bin" );
+        try ( SpacetimeHistory history =
+            new SpacetimeHistory( MIN_COL, 200, path, 8 ) )
+        {
+            Wolfram1DAutomaton  automaton   =
+                new Wolfram1DAutomaton( RULE, history );
+            Consumer<Object>    proc        = params.getPropagateProc();
+            for ( int gen = 1 ; gen <= 60 ; ++gen )
+                proc.accept( null );
+            assertTrue( automaton.isFollowing() );
+            assertTrue( params.isGridKeepCentered() );
+            assertEquals( getRows( 50, rows ), gridMap );
+
+            // opening a file sets the origin, but is not a scroll
+            params.setGridCellOrigin( new Point( 0, 0 ) );
+            assertEquals( getRows( 50, rows ), gridMap );
+
+            params.scrollGrid( new Point( -5, 3 ) );
+            assertFalse( automaton.isFollowing() );
+            assertFalse( params.isGridKeepCentered() );
+            assertEquals( getRows( 3, rows ), gridMap );
+
+            // new generations don't move a grid that is scrolled back
+            proc.accept( null );
+            assertEquals( getRows( 3, rows ), gridMap );
+
+            params.scrollGrid( new Point( -5, 55 ) );
+            assertTrue( automaton.isFollowing() );
+            assertTrue( params.isGridKeepCentered() );
+            assertEquals( getRows( 51, rows ), gridMap );
+
+            // a replaced grid map is left alone
+            params.setGridMap( new GridMap() );
+            params.scrollGrid( new Point( -5, 0 ) );
+            assertEquals( getRows( 51, rows ), gridMap );
+        }
+        finally
+        {
+            params.setGridMap( saveGridMap );
+            params.setPropagateProc( saveProc );
+            params.setGridHeight( saveHeight );
+            params.setGridKeepCentered( saveCentered );
+            params.setGridCellOrigin( saveOrigin );
+        }
+    }
+
+    /**
+     * Verify that, while the grid follows the latest generation,
+     * the grid map holds exactly the rows visible in the grid
+     * after each generation,
+     * including after the height of the grid changes,
+     * and after the grid map has been edited.
+     *
+     * @param dir   temporary directory for the backing file
+     */
+    @Test
+    public void testFollow( @TempDir Path dir )
+    {
+        Parameters          params          = Parameters.INSTANCE;
+        GridMap             saveGridMap     = params.getGridMap();
+        Consumer<Object>    saveProc        = params.getPropagateProc();
+        int                 saveHeight      = params.getGridHeight();
+        boolean             saveCentered    = params.isGridKeepCentered();
+        Point               saveOrigin      = params.getGridCellOrigin();
+        params.setGridMap( new GridMap() );
+        params.setGridHeight( GRID_HEIGHT );
+        GridMap             gridMap         = params.getGridMap();
+        Path                path            = dir.resolve( "history.bin" );
+        try ( SpacetimeHistory history =
+            new SpacetimeHistory( MIN_COL, 200, path, 8 ) )
+        {
+            new Wolfram1DAutomaton( RULE, history );
+            Consumer<Object>    proc        = params.getPropagateProc();
+            for ( int gen = 1 ; gen <= 30 ; ++gen )
+            {
+                proc.accept( null );
+                int first   = Math.max( 0, gen - GRID_HEIGHT );
+                assertEquals( getRows( first, gen + 1 - first ), gridMap );
+            }
+            
+            params.setGridHeight( GRID_HEIGHT / 2 );
+            proc.accept( null );
+            assertEquals( getRows( 31 - GRID_HEIGHT / 2, 6 ), gridMap );
+            
+            gridMap.put( 0, 0, true );
+            proc.accept( null );
+            assertEquals( getRows( 32 - GRID_HEIGHT / 2, 6 ), gridMap );
+        }
+        finally
+        {
+            params.setGridMap( saveGridMap );
+            params.setPropagateProc( saveProc );
+            params.setGridHeight( saveHeight );
+            params.setGridKeepCentered( saveCentered );
+            params.setGridCellOrigin( saveOrigin );
+        }
+    }
+
+    /**
+     * Calculates a range of generations of the test rule,
+     * starting from a single live cell,
+     * and records them in a GridMap;
+     * generation n is written to row n.
+     *
+     * @param first the first generation in the range
+     * @param count the number of generations in the range
+     *
+     * @return  a GridMap containing the given range of generations
+     */
+    private static GridMap getRows( int first, int count )
+    {
+        Wolfram1DKernel kernel  = Wolfram1DKernel.ofLightCone( RULE );
+        GridMap         gridMap = new GridMap();
+        long[]          row     = new long[4];
+        for ( int gen = 0 ; gen < first + count ; ++gen )
+        {
+            if ( gen > 0 )
+                kernel.nextGeneration();
+            if ( gen >= first )
+            {
+                kernel.getWindow( MIN_COL, row, row.length );
+                for ( int bit = 0 ; bit < 64 * row.length ; ++bit )
+                    if ( (row[bit >> 6] & (1L << bit)) != 0 )
+                        gridMap.put( MIN_COL + bit, gen, true );
+            }
+        }
+        return gridMap;
+    }
+}
@@ -0,0 +1,151 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+
+class Wolfram1DKernelTest
+{
+    /**
+     * Verify every rule in light-cone mode against
+     * a straightforward implementation,
+     * over enough generations that the row spans several words.
+     */
+    @Test
+    public void testLightCone()
+    {
+        int     gens    = 150;
+        for ( int rule = 0 ; rule < 256 ; ++rule )
+        {
+            Wolfram1DKernel kernel  = Wolfram1DKernel.ofLightCone( rule );
+            // expected row covers columns -gens - 1 through gens + 1,
+            // and has a margin of background cells at each end
+            int             origin  = gens + 2;
+            boolean[]       expect  = new boolean[2 * origin + 1];
+            boolean         back    = false;
+            expect[origin] = true;
+            for ( int gen = 1 ; gen <= gens ; ++gen )
+            {
+                kernel.nextGeneration();
+                boolean[]   next    = new boolean[expect.length];
+                boolean     newBack = ((rule >> (back ? 7 : 0)) & 1) != 0;
+                next[0] = newBack;
+                next[next.length - 1] = newBack;
+                for ( int inx = 1 ; inx < expect.length - 1 ; ++inx )
+                    next[inx] = apply( rule, expect[inx - 1], expect[inx], expect[inx + 1] );
+                expect = next;
+                back = newBack;
+                assertEquals( -gen, kernel.getLeftColumn() );
+                for ( int inx = 0 ; inx < expect.length ; ++inx )
+                    assertEquals(
+                        expect[inx],
+                        kernel.get( inx - origin ),
+                        "rule " + rule + ", generation " + gen
+                    );
+            }
+        }
+    }
+
+    /**
+     * Verify a selection of rules in wraparound mode,
+     * starting from random rows of a variety of widths,
+     * against a straightforward implementation.
+     */
+    @Test
+    public void testWraparound()
+    {
+        int[]   rules   = { 30, 90, 110, 184, 255, 1, 73 };
+        int[]   widths  = { 1, 2, 3, 63, 64, 65, 128, 200 };
+        Random  randy   = new Random( 5 );
+        for ( int rule : rules )
+            for ( int width : widths )
+            {
+                Wolfram1DKernel kernel  =
+                    Wolfram1DKernel.ofWraparound( rule, width );
+                boolean[]       expect  = new boolean[width];
+                for ( int inx = 0 ; inx < width ; ++inx )
+                {
+                    expect[inx] = randy.nextBoolean();
+                    kernel.set( inx, expect[inx] );
+                }
+                for ( int gen = 1 ; gen <= 100 ; ++gen )
+                {
+                    kernel.nextGeneration();
+                    boolean[]   next    = new boolean[width];
+                    for ( int inx = 0 ; inx < width ; ++inx )
+                        next[inx] = apply(
+                            rule,
+                            expect[(inx + width - 1) % width],
+                            expect[inx],
+                            expect[(inx + 1) % width]
+                        );
+                    expect = next;
+                    for ( int inx = 0 ; inx < width ; ++inx )
+                        assertEquals(
+                            expect[inx],
+                            kernel.get( inx ),
+                            rule + "/" + width + ", generation " + gen
+                        );
+                    assertEquals( expect[0], kernel.get( width ) );
+                }
+            }
+    }
+
+    /**
+     * Verify that only the live cells within a window
+     * are written to a GridMap.
+     */
+    @Test
+    public void testCopyTo()
+    {
+        Wolfram1DKernel kernel  = Wolfram1DKernel.ofLightCone( 30 );
+        for ( int gen = 0 ; gen < 20 ; ++gen )
+            kernel.nextGeneration();
+        GridMap         gridMap = new GridMap();
+        kernel.copyTo( gridMap, 7, -5, 5 );
+        int             count   = 0;
+        for ( int col = -5 ; col <= 5 ; ++col )
+            if ( kernel.get( col ) )
+            {
+                assertEquals( 1, gridMap.getState( col, 7 ) );
+                ++count;
+            }
+        assertEquals( count, gridMap.size() );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Wolfram1DKernel.ofLightCone( 256 )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Wolfram1DKernel.ofWraparound( 30, 0 )
+        );
+    }
+
+    /**
+     * Applies an elementary rule to a single neighborhood.
+     *
+     * @param rule      the rule
+     * @param left      the left cell of the neighborhood
+     * @param center    the center cell of the neighborhood
+     * @param right     the right cell of the neighborhood
+     *
+     * @return  the next state of the center cell
+     */
+    private static boolean apply(
+        int rule,
+        boolean left,
+        boolean center,
+        boolean right
+    )
+    {
+        int     hood    = (left ? 4 : 0) + (center ? 2 : 0) + (right ? 1 : 0);
+        boolean alive   = ((rule >> hood) & 1) != 0;
+        return alive;
+    }
+}
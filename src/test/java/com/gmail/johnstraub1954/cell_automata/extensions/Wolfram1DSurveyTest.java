@@ -0,0 +1,78 @@
+package com.gmail.johnstraub1954.cell_automata.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.gmail.johnstraub1954.cell_automata.extensions.Wolfram1DSurvey.RuleStatistics;
+
+class Wolfram1DSurveyTest
+{
+    /**
+     * Verify the statistics of rules whose behavior is known:
+     * rule 0 (everything dies), rule 204 (identity),
+     * rule 51 (complement) and rule 170 (shift),
+     * and that rule 30 is less compressible than rule 0.
+     */
+    @Test
+    public void testKnownRules()
+    {
+        int                     width   = 70;
+        List<long[]>            seeds   = 
+            Wolfram1DSurvey.randomSeeds( 3, 600, width );
+        Wolfram1DSurvey         survey  = new Wolfram1DSurvey( width, 150, 3 );
+        int[]                   rules   = { 0, 204, 51, 170, 30 };
+        List<RuleStatistics>    stats   = survey.survey( rules, seeds );
+        assertEquals( rules.length, stats.size() );
+        for ( int inx = 0 ; inx < rules.length ; ++inx )
+        {
+            assertEquals( rules[inx], stats.get( inx ).getRule() );
+            assertEquals( seeds.size(), stats.get( inx ).getRuns() );
+        }
+        
+        RuleStatistics  rule0   = stats.get( 0 );
+        assertEquals( 0, rule0.getDensity() );
+        assertEquals( seeds.size(), rule0.getCycles() );
+        assertEquals( 1, rule0.getMaxPeriod() );
+        assertEquals( 1, rule0.getMeanTransient(), 1e-9 );
+        
+        RuleStatistics  rule204 = stats.get( 1 );
+        assertEquals( 1, rule204.getMaxPeriod() );
+        assertEquals( 0, rule204.getMeanTransient() );
+        assertEquals( 0.5, rule204.getDensity(), 0.01 );
+        
+        RuleStatistics  rule51  = stats.get( 2 );
+        assertEquals( 2, rule51.getMaxPeriod() );
+        assertEquals( 2, rule51.getMeanPeriod() );
+        
+        RuleStatistics  rule170 = stats.get( 3 );
+        assertEquals( seeds.size(), rule170.getCycles() );
+        assertEquals( width, rule170.getMaxPeriod() );
+        
+        RuleStatistics  rule30  = stats.get( 4 );
+        assertTrue( rule30.getCompression() > 5 * rule0.getCompression() );
+    }
+    
+    /**
+     * Verify that the results do not depend on
+     * the number of threads.
+     */
+    @Test
+    public void testThreads()
+    {
+        int             width   = 130;
+        List<long[]>    seeds   = Wolfram1DSurvey.randomSeeds( 4, 700, width );
+        int[]           rules   = Wolfram1DSurvey.parseRules( "22, 54-56,110" );
+        assertArrayEquals( new int[] { 22, 54, 55, 56, 110 }, rules );
+        List<RuleStatistics>    expect  =
+            new Wolfram1DSurvey( width, 100, 1 ).survey( rules, seeds );
+        List<RuleStatistics>    actual  =
+            new Wolfram1DSurvey( width, 100, 4 ).survey( rules, seeds );
+        for ( int inx = 0 ; inx < rules.length ; ++inx )
+            assertEquals( expect.get( inx ).toString(), actual.get( inx ).toString() );
+    }
+}
@@ -0,0 +1,113 @@
+package com.gmail.johnstraub1954.cell_automata.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.gmail.johnstraub1954.cell_automata.main.CAException;
+
+class HexRingTableTest
+{
+    /**
+     * Verify that, in every layout and for every supported radius,
+     * an extended neighborhood consists of exactly the hexagons
+     * within the radius of its source cell,
+     * and that each neighbor is assigned to the correct ring.
+     * Source cells of every parity, and with negative
+     * coordinates, are tested.
+     */
+    @Test
+    void testExtendedNeighborhoods()
+    {
+        for ( HexLayout layout : HexLayout.values() )
+        {
+            HexTile tile    = HexTile.ofSide( 10, layout );
+            for ( int row = -3 ; row <= 3 ; ++row )
+                for ( int col = -3 ; col <= 3 ; ++col )
+                {
+                    Offset  self    = new Offset( col, row );
+                    Hex     hexSelf = layout.toHex( self );
+                    for ( int radius = 1 ; radius <= HexRingTable.MAX_RADIUS ; ++radius )
+                    {
+                        HexNeighborhood hood        =
+                            tile.getNeighborhood( self, radius );
+                        List<Offset>    neighbors   = hood.getNeighbors();
+                        assertEquals( radius, hood.getRadius() );
+                        assertEquals( HexRingTable.size( radius ), neighbors.size() );
+                        assertEquals(
+                            neighbors.size(),
+                            new HashSet<>( neighbors ).size()
+                        );
+                        for ( int inx = 0 ; inx < neighbors.size() ; ++inx )
+                        {
+                            Hex hex     = layout.toHex( neighbors.get( inx ) );
+                            int dist    = distance( hexSelf, hex );
+                            assertEquals( dist, hood.getRing( inx ), self + "" );
+                        }
+                    }
+                }
+        }
+    }
+
+    /**
+     * Verify that the neighborhood of radius 1 has the same neighbors
+     * as the default neighborhood.
+     */
+    @Test
+    void testRadiusOne()
+    {
+        for ( HexLayout layout : HexLayout.values() )
+            for ( int row = -2 ; row <= 2 ; ++row )
+                for ( int col = -2 ; col <= 2 ; ++col )
+                {
+                    Offset          self    = new Offset( col, row );
+                    HexNeighborhood expHood = new HexNeighborhood( self, layout );
+                    HexNeighborhood actHood =
+                        new HexNeighborhood( self, layout, 1 );
+                    assertEquals( expHood, actHood );
+                    assertEquals( 1, expHood.getRadius() );
+                    Set<Offset>     ring1   =
+                        new HashSet<>( new HexNeighborhood( self, layout, 2 )
+                            .getNeighbors().subList( 0, 6 ) );
+                    assertTrue( ring1.containsAll( expHood.getNeighbors() ) );
+                }
+    }
+
+    /**
+     * Verify that unsupported radii are rejected.
+     */
+    @Test
+    void testInvalidRadius()
+    {
+        Offset  self    = new Offset( 0, 0 );
+        int[]   radii   = { 0, -1, HexRingTable.MAX_RADIUS + 1 };
+        for ( int radius : radii )
+            assertThrows(
+                CAException.class,
+                () -> new HexNeighborhood( self, HexLayout.ODD_Q, radius )
+            );
+    }
+
+    /**
+     * Returns the distance between two hexagons,
+     * in steps from a hexagon to one of its neighbors.
+     *
+     * @param hex1  the first hexagon
+     * @param hex2  the second hexagon
+     *
+     * @return  the distance between the two hexagons
+     */
+    private static int distance( Hex hex1, Hex hex2 )
+    {
+        int dq      = hex1.qco - hex2.qco;
+        int dr      = hex1.rco - hex2.rco;
+        int dist    = (Math.abs( dq ) + Math.abs( dr ) + Math.abs( dq + dr )) / 2;
+        return dist;
+    }
+}
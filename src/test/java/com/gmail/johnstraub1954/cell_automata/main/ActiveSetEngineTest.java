@@ -0,0 +1,80 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class ActiveSetEngineTest
+{
+    /**
+     * Verify that the active-set engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new ActiveSetEngine(), 8 );
+    }
+
+    /**
+     * Verify that the active-set engine produces the same results
+     * as Utils.conwayPropagate under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new ActiveSetEngine(), 8 );
+    }
+
+    /**
+     * Verify that the active-set engine produces the same results
+     * as Utils.conwayPropagate under isotropic non-totalistic rules.
+     */
+    @Test
+    public void testIsotropicRules()
+    {
+        EngineTestUtils.compareIsotropicRules( new ActiveSetEngine(), 8 );
+    }
+
+    /**
+     * Verify that the active-set engine detects changes made
+     * to the GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        EngineTestUtils.testExternalModification( new ActiveSetEngine() );
+    }
+
+    /**
+     * Verify that a change of rule between generations
+     * causes cells that were stable under the old rule
+     * to be re-evaluated.
+     */
+    @Test
+    public void testRuleChange()
+    {
+        ActiveSetEngine engine      = new ActiveSetEngine();
+        GridMap         gridMap     = new GridMap();
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+
+        // block; stable under B3/S23
+        gridMap.put( 0, 0, true );
+        gridMap.put( 1, 0, true );
+        gridMap.put( 0, 1, true );
+        gridMap.put( 1, 1, true );
+        engine.nextGeneration( gridMap, survival, birth );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 4, gridMap.size() );
+
+        // block dies under B3/S2
+        engine.nextGeneration( gridMap, Arrays.asList( 2 ), birth );
+        assertEquals( 0, gridMap.size() );
+    }
+}
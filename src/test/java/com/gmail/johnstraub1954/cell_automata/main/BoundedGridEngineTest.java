@@ -0,0 +1,276 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class BoundedGridEngineTest
+{
+    /** Grid sizes that exercise the edges of the longs in each row. */
+    private static final int[][]    SIZES   =
+    {
+        { 70, 37 }, { 64, 20 }, { 63, 5 }, { 126, 3 }, { 1, 1 }, { 2, 9 }
+    };
+
+    /**
+     * Verify that, on both a torus and a finite plane,
+     * the engine matches a cell-by-cell calculation
+     * under a variety of rules, including birth on 0 neighbors,
+     * and through edits made between generations.
+     */
+    @Test
+    public void testReference()
+    {
+        Random  randy   = new Random( 7 );
+        for ( int[] size : SIZES )
+            for ( boolean torus : new boolean[] { true, false } )
+            {
+                for ( Integer[][] rule : EngineTestUtils.RULES )
+                    testReference( size[0], size[1], torus, rule, randy );
+                Integer[][] rule    = { { 1, 2 }, { 0, 3 } };
+                testReference( size[0], size[1], torus, rule, randy );
+            }
+    }
+
+    /**
+     * Verify that a glider leaves one edge of a torus
+     * and reappears at the opposite edge,
+     * returning to its starting position after
+     * four times the width of the grid.
+     */
+    @Test
+    public void testGliderWraps()
+    {
+        List<Integer>       survival    = Arrays.asList( 2, 3 );
+        List<Integer>       birth       = Arrays.asList( 3 );
+        GridMap             gridMap     = new GridMap();
+        BoundedGridEngine   engine      = new BoundedGridEngine( 20, 20, true );
+        gridMap.put( 1, 0, true );
+        gridMap.put( 2, 1, true );
+        gridMap.put( 0, 2, true );
+        gridMap.put( 1, 2, true );
+        gridMap.put( 2, 2, true );
+        GridMap             expMap      = new GridMap( gridMap );
+        for ( int gen = 1 ; gen <= 80 ; ++gen )
+        {
+            engine.nextGeneration( gridMap, survival, birth );
+            assertEquals( 5, gridMap.size() );
+        }
+        assertEquals( expMap, gridMap );
+
+        // On a finite plane the glider becomes a block in the corner
+        engine.setTorus( false );
+        for ( int gen = 1 ; gen <= 80 ; ++gen )
+            engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 4, gridMap.size() );
+        assertEquals( 1, gridMap.getState( 19, 19 ) );
+    }
+
+    /**
+     * Verify that live cells outside the grid are moved into it
+     * on a torus, and removed on a finite plane.
+     */
+    @Test
+    public void testOutsideCells()
+    {
+        List<Integer>       survival    = Arrays.asList( 0, 1, 2, 3, 4, 5, 6, 7, 8 );
+        List<Integer>       birth       = Arrays.asList();
+        GridMap             gridMap     = new GridMap();
+        BoundedGridEngine   engine      = new BoundedGridEngine( 10, 8, true );
+        gridMap.put( -1, 0, true );
+        gridMap.put( 3, 8, true );
+        gridMap.put( 25, -3, true );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 3, gridMap.size() );
+        assertEquals( 1, gridMap.getState( 9, 0 ) );
+        assertEquals( 1, gridMap.getState( 3, 0 ) );
+        assertEquals( 1, gridMap.getState( 5, 5 ) );
+
+        engine.setTorus( false );
+        gridMap.put( 10, 0, true );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 3, gridMap.size() );
+        assertEquals( 0, gridMap.getState( 10, 0 ) );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> engine.setSize( 0, 10 )
+        );
+    }
+
+    /**
+     * Verify that Utils.propagate selects the bounded grid engine
+     * when the grid topology is a torus,
+     * and that the engine follows changes to the grid size.
+     */
+    @Test
+    public void testPropagate()
+    {
+        Parameters      params          = Parameters.INSTANCE;
+        GridMap         saveGridMap     = params.getGridMap();
+        List<Integer>   saveSurvival    = params.getSurvivalStates();
+        List<Integer>   saveBirth       = params.getBirthStates();
+        String          saveTopology    = params.getGridTopology();
+        int             saveWidth       = params.getGridWidth();
+        int             saveHeight      = params.getGridHeight();
+        params.setSurvivalStates( Arrays.asList( 2, 3 ) );
+        params.setBirthStates( Arrays.asList( 3 ) );
+        try
+        {
+            params.setGridWidth( 30 );
+            params.setGridHeight( 20 );
+            params.setGridTopology( CAConstants.GRID_TOPOLOGY_TORUS );
+            GridMap gridMap = new GridMap();
+            gridMap.put( 29, 5, true );
+            gridMap.put( 0, 5, true );
+            gridMap.put( 1, 5, true );
+            params.setGridMap( gridMap );
+            Utils.INSTANCE.propagate( CAConstants.PROP_PROC_TILE, null );
+            assertEquals( 3, gridMap.size() );
+            assertEquals( 1, gridMap.getState( 0, 4 ) );
+            assertEquals( 1, gridMap.getState( 0, 6 ) );
+
+            params.setGridWidth( 10 );
+            params.setGridHeight( 5 );
+            BoundedGridEngine   engine  = (BoundedGridEngine)
+                Utils.INSTANCE.getEngine( CAConstants.PROP_PROC_BOUNDED );
+            assertEquals( 10, engine.getWidth() );
+            assertEquals( 5, engine.getHeight() );
+            params.setGridTopology( CAConstants.GRID_TOPOLOGY_FINITE );
+            assertEquals( false, engine.isTorus() );
+        }
+        finally
+        {
+            params.setGridTopology( saveTopology );
+            params.setGridWidth( saveWidth );
+            params.setGridHeight( saveHeight );
+            params.setGridMap( saveGridMap );
+            params.setSurvivalStates( saveSurvival );
+            params.setBirthStates( saveBirth );
+        }
+    }
+
+    /**
+     * Runs a random soup on a bounded grid for several generations,
+     * comparing the engine against a cell-by-cell calculation.
+     *
+     * @param width     the width of the grid
+     * @param height    the height of the grid
+     * @param torus     true if the grid is a torus
+     * @param rule      the survival and birth states
+     * @param randy     source of random cells
+     */
+    private static void testReference(
+        int width,
+        int height,
+        boolean torus,
+        Integer[][] rule,
+        Random randy
+    )
+    {
+        List<Integer>       survival    = Arrays.asList( rule[0] );
+        List<Integer>       birth       = Arrays.asList( rule[1] );
+        BoundedGridEngine   engine      =
+            new BoundedGridEngine( width, height, torus );
+        GridMap             gridMap     = new GridMap();
+        boolean[][]         grid        = new boolean[height][width];
+        for ( int yco = 0 ; yco < height ; ++yco )
+            for ( int xco = 0 ; xco < width ; ++xco )
+                if ( randy.nextInt( 5 ) < 2 )
+                {
+                    grid[yco][xco] = true;
+                    gridMap.put( xco, yco, true );
+                }
+
+        String  desc    = width + "x" + height + " " + torus + " "
+            + survival + "/" + birth + " gen ";
+        for ( int gen = 1 ; gen <= 12 ; ++gen )
+        {
+            engine.nextGeneration( gridMap, survival, birth );
+            grid = nextGeneration( grid, torus, survival, birth );
+            for ( int yco = 0 ; yco < height ; ++yco )
+                for ( int xco = 0 ; xco < width ; ++xco )
+                    assertEquals(
+                        grid[yco][xco] ? 1 : 0,
+                        gridMap.getState( xco, yco ),
+                        desc + gen + " (" + xco + "," + yco + ")"
+                    );
+            assertEquals( countLive( grid ), gridMap.size(), desc + gen );
+
+            // toggle a cell, as a user would
+            if ( gen % 4 == 0 )
+            {
+                int xco = randy.nextInt( width );
+                int yco = randy.nextInt( height );
+                grid[yco][xco] = !grid[yco][xco];
+                gridMap.put( xco, yco, grid[yco][xco] );
+            }
+        }
+    }
+
+    /**
+     * Calculates the next generation of a bounded grid
+     * one cell at a time.
+     *
+     * @param grid      the bounded grid, indexed by row then column
+     * @param torus     true if the grid is a torus
+     * @param survival  the survival states
+     * @param birth     the birth states
+     *
+     * @return  the next generation of the grid
+     */
+    private static boolean[][] nextGeneration(
+        boolean[][] grid,
+        boolean torus,
+        List<Integer> survival,
+        List<Integer> birth
+    )
+    {
+        int         height  = grid.length;
+        int         width   = grid[0].length;
+        boolean[][] next    = new boolean[height][width];
+        for ( int yco = 0 ; yco < height ; ++yco )
+            for ( int xco = 0 ; xco < width ; ++xco )
+            {
+                int count   = 0;
+                for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+                    for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+                    {
+                        int     wrapRow = Math.floorMod( row, height );
+                        int     wrapCol = Math.floorMod( col, width );
+                        boolean inside  = row == wrapRow && col == wrapCol;
+                        if ( (row != yco || col != xco)
+                            && (torus || inside)
+                            && grid[wrapRow][wrapCol] )
+                            ++count;
+                    }
+                next[yco][xco] = grid[yco][xco] ?
+                    survival.contains( count ) : birth.contains( count );
+            }
+        return next;
+    }
+
+    /**
+     * Counts the live cells of a bounded grid.
+     *
+     * @param grid  the bounded grid
+     *
+     * @return  the number of live cells in the grid
+     */
+    private static int countLive( boolean[][] grid )
+    {
+        int count   = 0;
+        for ( boolean[] row : grid )
+            for ( boolean cell : row )
+                if ( cell )
+                    ++count;
+        return count;
+    }
+}
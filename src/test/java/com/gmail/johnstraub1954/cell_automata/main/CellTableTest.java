@@ -0,0 +1,179 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CellTableTest
+{
+    private CellTable   table;
+
+    @BeforeEach
+    public void beforeEach()
+    {
+        table = new CellTable();
+    }
+
+    /**
+     * Verify that coordinates survive a round trip
+     * through key packing, including negative and extreme values.
+     */
+    @Test
+    public void testKey()
+    {
+        int[]   values  =
+        { 0, 1, -1, 1000, -1000, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        for ( int xco : values )
+            for ( int yco : values )
+            {
+                long    key = CellTable.key( xco, yco );
+                assertEquals( xco, CellTable.xco( key ) );
+                assertEquals( yco, CellTable.yco( key ) );
+            }
+    }
+
+    /**
+     * Subject the table to a long sequence of random
+     * puts and removes, verifying it against a HashMap
+     * after every operation.
+     */
+    @Test
+    public void testPutGetRandom()
+    {
+        Map<Long,Integer>   expMap  = new HashMap<>();
+        Random              randy   = new Random( 5 );
+        for ( int inx = 0 ; inx < 100000 ; ++inx )
+        {
+            int     xco     = randy.nextInt( 100 ) - 50;
+            int     yco     = randy.nextInt( 100 ) - 50;
+            long    key     = CellTable.key( xco, yco );
+            int     state   = randy.nextInt( 3 );
+            Integer expPrev = state == 0 ?
+                expMap.remove( key ) : expMap.put( key, state );
+            int     actPrev = table.put( key, state );
+            assertEquals( expPrev == null ? 0 : expPrev, actPrev );
+            assertEquals( expMap.size(), table.size() );
+        }
+
+        for ( int xco = -50 ; xco < 50 ; ++xco )
+            for ( int yco = -50 ; yco < 50 ; ++yco )
+            {
+                long    key     = CellTable.key( xco, yco );
+                Integer expVal  = expMap.get( key );
+                assertEquals( expVal == null ? 0 : expVal, table.get( key ) );
+            }
+    }
+
+    /**
+     * Verify that the table grows to accommodate a large population,
+     * and shrinks again after the population dies.
+     */
+    @Test
+    public void testCompaction()
+    {
+        int initCap = table.capacity();
+        for ( int inx = 0 ; inx < 10000 ; ++inx )
+            table.put( CellTable.key( inx, -inx ), 1 );
+        assertEquals( 10000, table.size() );
+        assertTrue( table.capacity() >= 20000 );
+
+        for ( int inx = 0 ; inx < 9990 ; ++inx )
+            table.put( CellTable.key( inx, -inx ), 0 );
+        assertEquals( 10, table.size() );
+        assertTrue( table.capacity() <= 4 * initCap );
+        for ( int inx = 9990 ; inx < 10000 ; ++inx )
+            assertEquals( 1, table.get( CellTable.key( inx, -inx ) ) );
+
+        // clear retains capacity; compact releases it
+        for ( int inx = 0 ; inx < 10000 ; ++inx )
+            table.put( CellTable.key( inx, inx ), 1 );
+        int fullCap = table.capacity();
+        table.clear();
+        assertEquals( 0, table.size() );
+        assertEquals( fullCap, table.capacity() );
+        table.compact();
+        assertEquals( initCap, table.capacity() );
+
+        // clearing for a refill retains capacity only if it is needed
+        for ( int inx = 0 ; inx < 10000 ; ++inx )
+            table.put( CellTable.key( inx, inx ), 1 );
+        table.clear( 5000 );
+        assertEquals( fullCap, table.capacity() );
+        for ( int inx = 0 ; inx < 10000 ; ++inx )
+            table.put( CellTable.key( inx, inx ), 1 );
+        table.clear( 10 );
+        assertEquals( 0, table.size() );
+        assertEquals( initCap, table.capacity() );
+    }
+
+    /**
+     * Verify that the table can be used as a sparse counter.
+     */
+    @Test
+    public void testAdd()
+    {
+        long    key     = CellTable.key( 3, 4 );
+        assertEquals( 1, table.add( key, 1 ) );
+        assertEquals( 3, table.add( key, 2 ) );
+        assertEquals( 1, table.size() );
+        assertEquals( 0, table.add( key, -3 ) );
+        assertEquals( 0, table.size() );
+        assertEquals( 0, table.get( key ) );
+    }
+
+    /**
+     * Verify traversal by slot visits every entry exactly once.
+     */
+    @Test
+    public void testTraversal()
+    {
+        Map<Long,Integer>   expMap  = new HashMap<>();
+        for ( int inx = 0 ; inx < 500 ; ++inx )
+        {
+            long    key     = CellTable.key( inx * 7, inx * -3 );
+            table.put( key, inx + 1 );
+            expMap.put( key, inx + 1 );
+        }
+        for ( int slot = 0 ; slot < table.capacity() ; ++slot )
+        {
+            int state   = table.stateAt( slot );
+            if ( state != 0 )
+                assertEquals( expMap.remove( table.keyAt( slot ) ), state );
+        }
+        assertTrue( expMap.isEmpty() );
+    }
+
+    @Test
+    public void testEqualsHash()
+    {
+        CellTable   other   = new CellTable();
+        assertEquals( table, other );
+        assertEquals( table.hashCode(), other.hashCode() );
+
+        // same contents, different insertion order and capacity
+        for ( int inx = 0 ; inx < 1000 ; ++inx )
+            table.put( CellTable.key( inx, inx ), 2 );
+        for ( int inx = 999 ; inx >= 0 ; --inx )
+            other.put( CellTable.key( inx, inx ), 2 );
+        for ( int inx = 0 ; inx < 1000 ; inx += 2 )
+        {
+            table.put( CellTable.key( inx, inx ), 0 );
+            other.put( CellTable.key( inx, inx ), 0 );
+        }
+        assertEquals( table, other );
+        assertEquals( table.hashCode(), other.hashCode() );
+        assertEquals( table, new CellTable( table ) );
+
+        other.put( CellTable.key( 1, 1 ), 3 );
+        assertNotEquals( table, other );
+        assertNotEquals( table, null );
+        assertNotEquals( table, new Object() );
+    }
+}
@@ -0,0 +1,247 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class CountingEngineTest
+{
+    /**
+     * Verify that the counting engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new CountingEngine(), 8 );
+    }
+
+    /**
+     * Verify that the counting engine produces the same results
+     * as Utils.conwayPropagate under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new CountingEngine(), 8 );
+    }
+
+    /**
+     * Verify that the counting engine detects changes made
+     * to a plain GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        EngineTestUtils.testExternalModification( new CountingEngine() );
+    }
+
+    /**
+     * Verify that, when stepping a CountingGridMap directly,
+     * the engine matches the scatter-count engine
+     * under a variety of rules,
+     * and that the counts remain consistent
+     * through edits made between generations.
+     */
+    @Test
+    public void testCountingGridMap()
+    {
+        Random  randy   = new Random( 5 );
+        for ( Integer[][] rule : EngineTestUtils.RULES )
+        {
+            List<Integer>       survival    = Arrays.asList( rule[0] );
+            List<Integer>       birth       = Arrays.asList( rule[1] );
+            CountingGridMap     actMap      = new CountingGridMap();
+            for ( int inx = 0 ; inx < 1000 ; ++inx )
+                actMap.put( randy.nextInt( 60 ) - 30, randy.nextInt( 60 ) - 30, true );
+            GridMap             expMap      = new GridMap( actMap );
+            CountingEngine      engine      = new CountingEngine();
+            ScatterCountEngine  expEngine   = new ScatterCountEngine();
+            for ( int gen = 1 ; gen <= 10 ; ++gen )
+            {
+                engine.nextGeneration( actMap, survival, birth );
+                expEngine.nextGeneration( expMap, survival, birth );
+                assertEquals( expMap, actMap, Arrays.toString( rule[1] ) + gen );
+                verifyCounts( actMap );
+
+                // toggle a few cells, as a user would
+                for ( int inx = 0 ; inx < 5 ; ++inx )
+                {
+                    int xco     = randy.nextInt( 60 ) - 30;
+                    int yco     = randy.nextInt( 60 ) - 30;
+                    int state   = actMap.getState( xco, yco ) == 0 ? 1 : 0;
+                    actMap.putState( xco, yco, state );
+                    expMap.putState( xco, yco, state );
+                }
+            }
+        }
+    }
+
+    /**
+     * Verify that a change of rule partway through a run
+     * is applied to cells that had settled under the previous rule,
+     * both for a CountingGridMap and for a plain GridMap.
+     */
+    @Test
+    public void testRuleChange()
+    {
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        List<Integer>   newSurvival = Arrays.asList( 2 );
+        for ( GridMap gridMap : new GridMap[] { new CountingGridMap(), new GridMap() } )
+        {
+            CountingEngine  engine  = new CountingEngine();
+            // block
+            gridMap.put( 0, 0, true );
+            gridMap.put( 1, 0, true );
+            gridMap.put( 0, 1, true );
+            gridMap.put( 1, 1, true );
+            engine.nextGeneration( gridMap, survival, birth );
+            engine.nextGeneration( gridMap, survival, birth );
+            assertEquals( 4, gridMap.size() );
+            engine.nextGeneration( gridMap, newSurvival, birth );
+            assertEquals( 0, gridMap.size(), gridMap.getClass().getName() );
+        }
+
+        Random  randy   = new Random( 9 );
+        CountingGridMap     actMap      = new CountingGridMap();
+        for ( int inx = 0 ; inx < 1000 ; ++inx )
+            actMap.put( randy.nextInt( 60 ) - 30, randy.nextInt( 60 ) - 30, true );
+        GridMap             expMap      = new GridMap( actMap );
+        CountingEngine      engine      = new CountingEngine();
+        ScatterCountEngine  expEngine   = new ScatterCountEngine();
+        for ( Integer[][] rule : EngineTestUtils.RULES )
+        {
+            List<Integer>   ruleSurvival    = Arrays.asList( rule[0] );
+            List<Integer>   ruleBirth       = Arrays.asList( rule[1] );
+            for ( int gen = 1 ; gen <= 3 ; ++gen )
+            {
+                engine.nextGeneration( actMap, ruleSurvival, ruleBirth );
+                expEngine.nextGeneration( expMap, ruleSurvival, ruleBirth );
+                assertEquals( expMap, actMap, Arrays.toString( rule[1] ) + gen );
+            }
+        }
+    }
+
+    /**
+     * Verify that a still life leaves nothing to examine,
+     * and that an oscillator changes only the cells it changes.
+     */
+    @Test
+    public void testDirtyCells()
+    {
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        CountingGridMap gridMap     = new CountingGridMap();
+        CountingEngine  engine      = new CountingEngine();
+        // block
+        gridMap.put( 0, 0, true );
+        gridMap.put( 1, 0, true );
+        gridMap.put( 0, 1, true );
+        gridMap.put( 1, 1, true );
+        assertEquals( 16, gridMap.getDirtyCount() );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 0, engine.getChangedCount() );
+        assertEquals( 0, gridMap.getDirtyCount() );
+
+        // blinker, away from the block
+        gridMap.put( 10, 11, true );
+        gridMap.put( 11, 11, true );
+        gridMap.put( 12, 11, true );
+        for ( int gen = 0 ; gen < 4 ; ++gen )
+        {
+            engine.nextGeneration( gridMap, survival, birth );
+            assertEquals( 4, engine.getChangedCount() );
+            assertEquals( 7, gridMap.size() );
+        }
+
+        gridMap.clear();
+        assertEquals( 0, gridMap.getDirtyCount() );
+        assertEquals( 0, gridMap.getNeighborCount( 0, 0 ) );
+    }
+
+    /**
+     * Verify that Utils.propagate converts the current GridMap,
+     * such as one loaded from an RLE file,
+     * to a CountingGridMap,
+     * and that edits made to it by the user are incorporated.
+     */
+    @Test
+    public void testPropagate()
+    {
+        Parameters      params          = Parameters.INSTANCE;
+        GridMap         saveGridMap     = params.getGridMap();
+        List<Integer>   saveSurvival    = params.getSurvivalStates();
+        List<Integer>   saveBirth       = params.getBirthStates();
+        List<Integer>   survival        = Arrays.asList( 2, 3 );
+        List<Integer>   birth           = Arrays.asList( 3 );
+        params.setSurvivalStates( survival );
+        params.setBirthStates( birth );
+        try
+        {
+            File[]  files   = EngineTestUtils.getSampleFiles();
+            GridMap loaded  = new RLEInput( files[0] ).getGridMap();
+            GridMap expMap  = new GridMap( loaded );
+            params.setGridMap( loaded );
+            Utils.INSTANCE.propagate( CAConstants.PROP_PROC_COUNTING, null );
+            GridMap actMap  = params.getGridMap();
+            assertTrue( actMap instanceof CountingGridMap );
+
+            ScatterCountEngine  expEngine   = new ScatterCountEngine();
+            expEngine.nextGeneration( expMap, survival, birth );
+            assertEquals( expMap, actMap );
+
+            // a user edit, as made in response to selectGridCell
+            Cell    cell    = actMap.get( 3, 3 );
+            cell.setAlive( !cell.isAlive() );
+            actMap.put( cell );
+            expMap.put( cell );
+            Utils.INSTANCE.propagate( CAConstants.PROP_PROC_COUNTING, null );
+            expEngine.nextGeneration( expMap, survival, birth );
+            assertEquals( expMap, actMap );
+            assertTrue( actMap == params.getGridMap() );
+            verifyCounts( (CountingGridMap)actMap );
+        }
+        finally
+        {
+            params.setGridMap( saveGridMap );
+            params.setSurvivalStates( saveSurvival );
+            params.setBirthStates( saveBirth );
+        }
+    }
+
+    /**
+     * Verifies the neighbor count of every cell
+     * in and around the live rectangle of a given map.
+     *
+     * @param gridMap   the given map
+     */
+    private static void verifyCounts( CountingGridMap gridMap )
+    {
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        for ( int yco = rect.y - 2 ; yco < rect.y + rect.height + 2 ; ++yco )
+            for ( int xco = rect.x - 2 ; xco < rect.x + rect.width + 2 ; ++xco )
+            {
+                int count   = 0;
+                for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+                    for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+                        if ( (row != yco || col != xco)
+                            && gridMap.getState( col, row ) != 0 )
+                            ++count;
+                assertEquals(
+                    count,
+                    gridMap.getNeighborCount( xco, yco ),
+                    "(" + xco + "," + yco + ")"
+                );
+            }
+    }
+}
@@ -0,0 +1,199 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class GenerationsEngineTest
+{
+    /** Brian's Brain survival states. */
+    private static final List<Integer>  BRAIN_SURVIVAL  = Arrays.asList();
+    /** Brian's Brain birth states. */
+    private static final List<Integer>  BRAIN_BIRTH     = Arrays.asList( 2 );
+    
+    /**
+     * Verify that, with two states, the Generations engine
+     * produces the same results as Utils.conwayPropagate
+     * for every sample RLE file.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new GenerationsEngine( 2 ), 8 );
+    }
+
+    /**
+     * Verify that, with two states, the Generations engine
+     * produces the same results as Utils.conwayPropagate
+     * under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new GenerationsEngine( 2 ), 8 );
+    }
+
+    /**
+     * Verify that the Generations engine detects changes made
+     * to the GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        EngineTestUtils.testExternalModification( new GenerationsEngine( 2 ) );
+    }
+    
+    /**
+     * Verify Brian's Brain (B2/S/3) and a rule with more states
+     * against a straightforward implementation,
+     * over enough generations that the pattern
+     * outgrows its initial allocation.
+     */
+    @Test
+    public void testMultiState()
+    {
+        int[][]     rules   = { { 3 }, { 5 } };
+        for ( int[] rule : rules )
+        {
+            int                 states  = rule[0];
+            GenerationsEngine   engine  = new GenerationsEngine( states );
+            GridMap             actMap  = getSoup( 300, 40, states );
+            GridMap             expMap  = new GridMap( actMap );
+            for ( int gen = 1 ; gen <= 60 ; ++gen )
+            {
+                engine.nextGeneration( actMap, BRAIN_SURVIVAL, BRAIN_BIRTH );
+                expMap = nextGeneration( 
+                    expMap, 
+                    BRAIN_SURVIVAL, 
+                    BRAIN_BIRTH, 
+                    states 
+                );
+                assertEquals( expMap, actMap, states + ": generation " + gen );
+            }
+        }
+    }
+    
+    /**
+     * Verify that survival and decay interact correctly
+     * in a rule where live cells can survive.
+     */
+    @Test
+    public void testSurvival()
+    {
+        List<Integer>       survival    = Arrays.asList( 3, 4, 5 );
+        List<Integer>       birth       = Arrays.asList( 2 );
+        GenerationsEngine   engine      = new GenerationsEngine( 4 );
+        GridMap             actMap      = getSoup( 200, 30, 4 );
+        GridMap             expMap      = new GridMap( actMap );
+        for ( int gen = 1 ; gen <= 30 ; ++gen )
+        {
+            engine.nextGeneration( actMap, survival, birth );
+            expMap = nextGeneration( expMap, survival, birth, 4 );
+            assertEquals( expMap, actMap, "generation " + gen );
+        }
+    }
+    
+    /**
+     * Verify that changing the number of states takes effect
+     * in the next generation, and that invalid numbers of states
+     * are rejected.
+     */
+    @Test
+    public void testSetStates()
+    {
+        GenerationsEngine   engine  = new GenerationsEngine( 3 );
+        GridMap             gridMap = new GridMap();
+        gridMap.put( 0, 0, true );
+        engine.nextGeneration( gridMap, BRAIN_SURVIVAL, BRAIN_BIRTH );
+        assertEquals( 2, gridMap.getState( 0, 0 ) );
+        
+        engine.setStates( 4 );
+        engine.nextGeneration( gridMap, BRAIN_SURVIVAL, BRAIN_BIRTH );
+        assertEquals( 3, gridMap.getState( 0, 0 ) );
+        engine.nextGeneration( gridMap, BRAIN_SURVIVAL, BRAIN_BIRTH );
+        assertEquals( 0, gridMap.size() );
+        
+        assertThrows( 
+            IllegalArgumentException.class, 
+            () -> engine.setStates( 1 ) 
+        );
+        assertThrows( 
+            IllegalArgumentException.class, 
+            () -> engine.setStates( GenerationsEngine.MAX_STATES + 1 ) 
+        );
+    }
+    
+    /**
+     * Creates a random soup of cells in every state.
+     * 
+     * @param count     the number of cells to place
+     * @param size      the width and height of the soup
+     * @param states    the number of states
+     * 
+     * @return  the random soup
+     */
+    private static GridMap getSoup( int count, int size, int states )
+    {
+        Random  randy   = new Random( states );
+        GridMap gridMap = new GridMap();
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            int xco     = randy.nextInt( size ) - size / 2;
+            int yco     = randy.nextInt( size ) - size / 2;
+            int state   = randy.nextInt( states - 1 ) + 1;
+            gridMap.putState( xco, yco, state );
+        }
+        return gridMap;
+    }
+    
+    /**
+     * Calculates the next generation of a Generations rule
+     * by evaluating every cell in, and adjacent to,
+     * the live rectangle of a given GridMap.
+     * 
+     * @param gridMap   the given GridMap
+     * @param survival  the survival states
+     * @param birth     the birth states
+     * @param states    the number of states
+     * 
+     * @return  the next generation
+     */
+    private static GridMap nextGeneration(
+        GridMap gridMap,
+        List<Integer> survival,
+        List<Integer> birth,
+        int states
+    )
+    {
+        GridMap     result  = new GridMap();
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        for ( int yco = rect.y - 1 ; yco <= rect.y + rect.height ; ++yco )
+            for ( int xco = rect.x - 1 ; xco <= rect.x + rect.width ; ++xco )
+            {
+                int count   = 0;
+                for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+                    for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+                        if ( (row != yco || col != xco) 
+                            && gridMap.getState( col, row ) == 1 )
+                            ++count;
+                int state   = gridMap.getState( xco, yco );
+                int next;
+                if ( state == 0 )
+                    next = birth.contains( count ) ? 1 : 0;
+                else if ( state == 1 )
+                    next = survival.contains( count ) ? 1 : 2 % states;
+                else
+                    next = (state + 1) % states;
+                result.putState( xco, yco, next );
+            }
+        return result;
+    }
+}
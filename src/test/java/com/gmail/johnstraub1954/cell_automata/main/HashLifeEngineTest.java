@@ -0,0 +1,314 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+/**
+ * Tests for the HashLife engine.
+ * Results are compared to those of the TileEngine,
+ * which is itself verified against Utils.conwayPropagate
+ * (see TileEngineTest).
+ */
+class HashLifeEngineTest
+{
+    /** Directory containing the sample RLE files. */
+    private static final String rleDir      = "src/main/resources";
+    /** Default memory budget, in nodes. */
+    private static final int    maxNodes    = 1000000;
+
+    /**
+     * Verify that single steps produce the same results
+     * as the tile engine for every sample RLE file.
+     */
+    @Test
+    public void testSampleFilesSingleStep()
+    {
+        File[]  files   = new File( rleDir ).listFiles(
+            f -> f.getName().toLowerCase().endsWith( ".rle" )
+        );
+        assertTrue( files.length > 0 );
+        for ( File file : files )
+        {
+            RLEInput        input   = new RLEInput( file );
+            compare(
+                file.getName(),
+                input.getGridMap(),
+                input.getSurvivalRules(),
+                input.getBirthRules(),
+                new long[] { 1, 1, 1, 1, 1 },
+                maxNodes
+            );
+        }
+    }
+
+    /**
+     * Verify that jumps of many generations produce the same results
+     * as single-stepping the tile engine.
+     */
+    @Test
+    public void testJump()
+    {
+        String[]    names   =
+        { "GosperGlider.rle", "HerschelClimber.rle", "rats.rle", "seal.rle" };
+        for ( String name : names )
+        {
+            RLEInput    input   = new RLEInput( new File( rleDir, name ) );
+            compare(
+                name,
+                input.getGridMap(),
+                input.getSurvivalRules(),
+                input.getBirthRules(),
+                new long[] { 1000, 1, 3, 64, 500 },
+                maxNodes
+            );
+        }
+    }
+
+    /**
+     * Verify jumps under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        Integer[][][]   rules   =
+        {
+            { { 2, 3 }, { 3, 6 } },
+            { { 1, 3, 5, 7 }, { 1, 3, 5, 7 } },
+            { {}, { 2 } },
+            { { 1, 2, 3, 4, 5 }, { 3, 4, 5, 6, 7, 8 } },
+        };
+        Random  randy   = new Random( 11 );
+        for ( Integer[][] rule : rules )
+        {
+            GridMap gridMap = new GridMap();
+            for ( int inx = 0 ; inx < 300 ; ++inx )
+                gridMap.put( randy.nextInt( 30 ) - 50, randy.nextInt( 30 ), true );
+            compare(
+                Arrays.toString( rule[0] ) + "/" + Arrays.toString( rule[1] ),
+                gridMap,
+                Arrays.asList( rule[0] ),
+                Arrays.asList( rule[1] ),
+                new long[] { 37, 1, 12 },
+                maxNodes
+            );
+        }
+    }
+
+    /**
+     * Verify that the HashLife engine produces the same results
+     * as Utils.conwayPropagate under isotropic non-totalistic rules.
+     */
+    @Test
+    public void testIsotropicRules()
+    {
+        EngineTestUtils.compareIsotropicRules( new HashLifeEngine( maxNodes ), 8 );
+    }
+
+    /**
+     * Verify that the node table is collected when the memory budget
+     * is exceeded, and that collection does not affect the results.
+     */
+    @Test
+    public void testMemoryBudget()
+    {
+        RLEInput        input   =
+            new RLEInput( new File( rleDir, "GosperGlider.rle" ) );
+        HashLifeEngine  engine  = compare(
+            "budget",
+            input.getGridMap(),
+            input.getSurvivalRules(),
+            input.getBirthRules(),
+            new long[] { 100, 100, 100, 100, 100 },
+            2000
+        );
+        assertTrue( engine.getCollectCount() > 0 );
+    }
+
+    /**
+     * Verify that the memory budget is enforced within a single
+     * large jump, and that a budget too small for even
+     * one generation of the pattern is reported
+     * without changing the GridMap.
+     */
+    @Test
+    public void testMemoryBudgetWithinStep()
+    {
+        RLEInput        input   =
+            new RLEInput( new File( rleDir, "GosperGlider.rle" ) );
+        int             budget  = 3000;
+        HashLifeEngine  engine  = compare(
+            "budget within step",
+            input.getGridMap(),
+            input.getSurvivalRules(),
+            input.getBirthRules(),
+            new long[] { 1 << 12 },
+            budget
+        );
+        assertTrue( engine.getCollectCount() > 0 );
+        // Allow for the nodes created as a step unwinds
+        assertTrue( engine.getNodeCount() < budget + 1000 );
+
+        GridMap         gridMap = input.getGridMap();
+        GridMap         expMap  = new GridMap( gridMap );
+        engine.setMaxNodes( 10 );
+        assertThrows(
+            CAException.class,
+            () -> engine.advance(
+                gridMap, input.getSurvivalRules(), input.getBirthRules(), 64
+            )
+        );
+        assertEquals( expMap, gridMap );
+
+        engine.setMaxNodes( maxNodes );
+        engine.advance(
+            gridMap, input.getSurvivalRules(), input.getBirthRules(), 64
+        );
+        TileEngine      tile    = new TileEngine();
+        for ( int gen = 0 ; gen < 64 ; ++gen )
+            tile.nextGeneration(
+                expMap, input.getSurvivalRules(), input.getBirthRules()
+            );
+        assertEquals( expMap, gridMap );
+    }
+
+    /**
+     * Verify that Utils refuses to jump, and explains why,
+     * for each configuration that the HashLife engine
+     * does not support, and that the pattern is not changed.
+     */
+    @Test
+    public void testJumpRestriction()
+    {
+        Parameters      params          = Parameters.INSTANCE;
+        Utils           utils           = Utils.INSTANCE;
+        List<Integer>   saveBirth       = params.getBirthStates();
+        int             saveStates      = params.getGameStates();
+        String          saveLtlRule     = params.getLargerThanLifeRule();
+        String          saveTopology    = params.getGridTopology();
+        GridMap         gridMap         = new GridMap();
+        gridMap.put( 0, 1, true );
+        gridMap.put( 1, 1, true );
+        gridMap.put( 2, 1, true );
+        GridMap         expMap          = new GridMap( gridMap );
+        try
+        {
+            params.setBirthStates( Arrays.asList( 3 ) );
+            params.setGameStates( 2 );
+            params.setLargerThanLifeRule( "" );
+            params.setGridTopology( CAConstants.GRID_TOPOLOGY_PLANE );
+            assertNull( utils.getJumpRestriction() );
+
+            params.setGridTopology( CAConstants.GRID_TOPOLOGY_TORUS );
+            assertTrue( utils.getJumpRestriction().contains( "bounded" ) );
+            assertFalse( utils.jump( gridMap, 1 ) );
+            assertEquals( expMap, gridMap );
+
+            params.setBirthStates( Arrays.asList( 0, 3 ) );
+            assertTrue( utils.getJumpRestriction().contains( "0 neighbors" ) );
+
+            params.setGameStates( 3 );
+            assertTrue( utils.getJumpRestriction().contains( "two states" ) );
+
+            params.setLargerThanLifeRule( "R2,C0,M1,S2..3,B3..3,NM" );
+            assertTrue( utils.getJumpRestriction().contains( "Larger than Life" ) );
+            assertFalse( utils.jump( gridMap, 1 ) );
+            assertEquals( expMap, gridMap );
+        }
+        finally
+        {
+            params.setBirthStates( saveBirth );
+            params.setGameStates( saveStates );
+            params.setLargerThanLifeRule( saveLtlRule );
+            params.setGridTopology( saveTopology );
+        }
+    }
+
+    /**
+     * Verify that a change to the GridMap made between steps
+     * is reflected in the next step.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        GridMap         gridMap     = new GridMap();
+        HashLifeEngine  engine      = new HashLifeEngine( maxNodes );
+
+        gridMap.put( 0, 1, true );
+        gridMap.put( 1, 1, true );
+        gridMap.put( 2, 1, true );
+        engine.advance( gridMap, survival, birth, 2 );
+        assertEquals( 3, gridMap.size() );
+        assertTrue( gridMap.get( 0, 1 ).isAlive() );
+
+        gridMap.put( 0, 1, false );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 0, gridMap.size() );
+    }
+
+    @Test
+    public void testGoWrong()
+    {
+        HashLifeEngine  engine  = new HashLifeEngine( maxNodes );
+        List<Integer>   states  = Arrays.asList( 3 );
+        Class<IllegalArgumentException> clazz   =
+            IllegalArgumentException.class;
+        assertThrows(
+            clazz,
+            () -> engine.advance( new GridMap(), states, states, -1 )
+        );
+    }
+
+    /**
+     * Advances a given pattern using the HashLife engine
+     * by each of a sequence of jumps, and verifies the result
+     * of each jump against the tile engine.
+     *
+     * @param name      name of the pattern, for diagnostics
+     * @param gridMap   the given pattern
+     * @param survival  the survival states for the pattern
+     * @param birth     the birth states for the pattern
+     * @param jumps     the sequence of jumps
+     * @param budget    the memory budget for the HashLife engine
+     *
+     * @return  the HashLife engine
+     */
+    private HashLifeEngine compare(
+        String name,
+        GridMap gridMap,
+        List<Integer> survival,
+        List<Integer> birth,
+        long[] jumps,
+        int budget
+    )
+    {
+        GridMap         expMap  = new GridMap( gridMap );
+        GridMap         actMap  = new GridMap( gridMap );
+        TileEngine      tile    = new TileEngine();
+        HashLifeEngine  hash    = new HashLifeEngine( budget );
+        long            gen     = 0;
+
+        for ( long jump : jumps )
+        {
+            for ( long inx = 0 ; inx < jump ; ++inx )
+                tile.nextGeneration( expMap, survival, birth );
+            hash.advance( actMap, survival, birth, jump );
+            gen += jump;
+            assertEquals( expMap, actMap, name + ", generation " + gen );
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,201 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gmail.johnstraub1954.cell_automata.geometry.HexLayout;
+import com.gmail.johnstraub1954.cell_automata.geometry.HexNeighborhood;
+import com.gmail.johnstraub1954.cell_automata.geometry.Offset;
+
+class HexLifeEngineTest
+{
+    /** Hexagonal rules to test, as { survival, birth }. */
+    private static final Integer[][][]  RULES   =
+    {
+        { { 3, 4 }, { 2 } },
+        { { 2, 3 }, { 3 } },
+        { { 1, 2, 5 }, { 2, 4, 6 } },
+        { {}, { 1 } },
+    };
+
+    /**
+     * Verify that, in every layout and under a variety of rules,
+     * the hex engine produces the same results
+     * as a straightforward implementation
+     * using HexNeighborhood.
+     */
+    @Test
+    public void testLayouts()
+    {
+        for ( HexLayout layout : HexLayout.values() )
+            for ( Integer[][] rule : RULES )
+            {
+                List<Integer>   survival    = Arrays.asList( rule[0] );
+                List<Integer>   birth       = Arrays.asList( rule[1] );
+                HexLifeEngine   engine      = new HexLifeEngine( layout );
+                GridMap         actMap      = getSoup( 250, 30 );
+                GridMap         expMap      = new GridMap( actMap );
+                String          name        =
+                    layout + " B" + birth + "/S" + survival;
+                for ( int gen = 1 ; gen <= 12 ; ++gen )
+                {
+                    engine.nextGeneration( actMap, survival, birth );
+                    expMap = 
+                        nextGeneration( expMap, survival, birth, layout, 1 );
+                    assertEquals( expMap, actMap, name + ", generation " + gen );
+                }
+            }
+    }
+
+    /**
+     * Verify that, in every layout, the hex engine produces
+     * the same results for extended and weighted neighborhoods
+     * as a straightforward implementation
+     * using HexNeighborhood.
+     */
+    @Test
+    public void testExtendedNeighborhoods()
+    {
+        int[][]         ringWeights =
+        { { 1, 1 }, { 2, 1 }, { 1, 1, 1 }, { 3, 2, 1 } };
+        List<Integer>   survival    = Arrays.asList( 4, 5, 6, 7, 8, 9 );
+        List<Integer>   birth       = Arrays.asList( 5, 6, 7 );
+        for ( HexLayout layout : HexLayout.values() )
+            for ( int[] weights : ringWeights )
+            {
+                HexLifeEngine   engine  = new HexLifeEngine( layout, weights );
+                GridMap         actMap  = getSoup( 250, 30 );
+                GridMap         expMap  = new GridMap( actMap );
+                String          name    =
+                    layout + " " + Arrays.toString( weights );
+                for ( int gen = 1 ; gen <= 8 ; ++gen )
+                {
+                    engine.nextGeneration( actMap, survival, birth );
+                    expMap = nextGeneration( 
+                        expMap, 
+                        survival, 
+                        birth, 
+                        layout, 
+                        weights 
+                    );
+                    assertEquals( expMap, actMap, name + ", generation " + gen );
+                }
+            }
+        
+        HexLifeEngine   engine  = new HexLifeEngine( HexLayout.EVEN_R, 3, 2, 1 );
+        assertEquals( 3 * 6 + 2 * 12 + 18, engine.getMaxCount() );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new HexLifeEngine( HexLayout.EVEN_R, 1, 1, 1, 1 )
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new HexLifeEngine( HexLayout.EVEN_R, 1, 0 )
+        );
+    }
+
+    /**
+     * Verify that the hex engine detects changes made
+     * to the GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        List<Integer>   survival    = Arrays.asList( 3, 4 );
+        List<Integer>   birth       = Arrays.asList( 2 );
+        HexLifeEngine   engine      = new HexLifeEngine( HexLayout.ODD_R );
+        GridMap         gridMap     = new GridMap();
+
+        // a pair of neighbors dies, giving birth to two cells
+        gridMap.put( 0, 0, true );
+        gridMap.put( 1, 0, true );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 2, gridMap.size() );
+        assertEquals( 0, gridMap.getState( 0, 0 ) );
+
+        gridMap.clear();
+        gridMap.put( 5, 5, true );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 0, gridMap.size() );
+    }
+
+    /**
+     * Creates a random soup of live cells
+     * centered on the origin.
+     *
+     * @param count the number of cells to place
+     * @param size  the width and height of the soup
+     *
+     * @return  the random soup
+     */
+    private static GridMap getSoup( int count, int size )
+    {
+        Random  randy   = new Random( count );
+        GridMap gridMap = new GridMap();
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            int xco     = randy.nextInt( size ) - size / 2;
+            int yco     = randy.nextInt( size ) - size / 2;
+            gridMap.put( xco, yco, true );
+        }
+        return gridMap;
+    }
+
+    /**
+     * Calculates the next generation of a hexagonal rule
+     * by evaluating the HexNeighborhood of every cell
+     * within reach of the live rectangle of a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     * @param survival  the survival states
+     * @param birth     the birth states
+     * @param layout    the hex layout
+     * @param weights   the weight of each ring of neighbors
+     *
+     * @return  the next generation
+     */
+    private static GridMap nextGeneration(
+        GridMap gridMap,
+        List<Integer> survival,
+        List<Integer> birth,
+        HexLayout layout,
+        int... weights
+    )
+    {
+        GridMap     result  = new GridMap();
+        if ( gridMap.size() == 0 )
+            return result;
+
+        int         radius  = weights.length;
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        for ( int yco = rect.y - radius ; yco < rect.y + rect.height + radius ; ++yco )
+            for ( int xco = rect.x - radius ; xco < rect.x + rect.width + radius ; ++xco )
+            {
+                Offset          self    = new Offset( xco, yco );
+                HexNeighborhood hood    = radius == 1
+                    ? new HexNeighborhood( self, layout )
+                    : new HexNeighborhood( self, layout, radius );
+                List<Offset>    nbrs    = hood.getNeighbors();
+                int             count   = 0;
+                for ( int inx = 0 ; inx < nbrs.size() ; ++inx )
+                {
+                    Offset  nbr     = nbrs.get( inx );
+                    int     weight  = weights[hood.getRing( inx ) - 1];
+                    count += weight * gridMap.getState( nbr.col, nbr.row );
+                }
+                boolean         alive   = gridMap.getState( xco, yco ) != 0;
+                boolean         next    =
+                    alive ? survival.contains( count ) : birth.contains( count );
+                if ( next )
+                    result.put( xco, yco, true );
+            }
+        return result;
+    }
+}
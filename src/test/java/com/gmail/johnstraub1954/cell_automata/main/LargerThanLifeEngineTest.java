@@ -0,0 +1,255 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Rectangle;
+import java.beans.PropertyChangeEvent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class LargerThanLifeEngineTest
+{
+    /** Conway's Life expressed as a Larger than Life rule. */
+    private static final String         LIFE        =
+        "R1,C0,M0,S2..3,B3,NM";
+    /** Conway's Life survival states. */
+    private static final List<Integer>  SURVIVAL    = Arrays.asList( 2, 3 );
+    /** Conway's Life birth states. */
+    private static final List<Integer>  BIRTH       = Arrays.asList( 3 );
+
+    /**
+     * Verify that a range-1 Moore rule produces the same results
+     * as Utils.conwayPropagate.
+     */
+    @Test
+    public void testLife()
+    {
+        LargerThanLifeEngine    engine  =
+            new LargerThanLifeEngine( new LargerThanLifeRule( LIFE ) );
+        GridMap                 gridMap = getSoup( 400, 40, 2, 1 );
+        EngineTestUtils.compareToConway(
+            "soup",
+            gridMap,
+            SURVIVAL,
+            BIRTH,
+            engine,
+            30
+        );
+    }
+
+    /**
+     * Verify Moore rules of several ranges,
+     * including Bosco's Rule, against a straightforward
+     * implementation.
+     */
+    @Test
+    public void testMoore()
+    {
+        String[]    rules   =
+        {
+            "R5,C0,M1,S34..58,B34..45,NM",
+            "R2,C0,M0,S6..9,B7..8,NM",
+            "R10,C0,M1,S120..210,B125..170,NM",
+            "R3,C4,M1,S14..19,B14..17,NM",
+        };
+        for ( String rule : rules )
+            compareToReference( rule, 20 );
+    }
+
+    /**
+     * Verify von Neumann rules of several ranges
+     * against a straightforward implementation.
+     */
+    @Test
+    public void testVonNeumann()
+    {
+        String[]    rules   =
+        {
+            "R1,C0,M0,S1..2,B1,NN",
+            "R4,C0,M1,S14..28,B13..20,NN",
+            "R7,C0,M0,S40..80,B40..60,NN",
+            "R12,C3,M1,S100..200,B90..150,NN",
+        };
+        for ( String rule : rules )
+            compareToReference( rule, 20 );
+    }
+
+    /**
+     * Verify that changing the rule takes effect
+     * in the next generation,
+     * and that the survival and birth states passed to the engine
+     * are ignored.
+     */
+    /**
+     * Verify that an invalid Larger than Life rule,
+     * such as one read from a Properties file,
+     * is ignored rather than disabling propagation.
+     */
+    @Test
+    public void testInvalidRule()
+    {
+        Parameters      params          = Parameters.INSTANCE;
+        GridMap         saveGridMap     = params.getGridMap();
+        List<Integer>   saveSurvival    = params.getSurvivalStates();
+        List<Integer>   saveBirth       = params.getBirthStates();
+        params.setSurvivalStates( SURVIVAL );
+        params.setBirthStates( BIRTH );
+        try
+        {
+            Utils.INSTANCE.propertyChange(
+                new PropertyChangeEvent(
+                    params, CAConstants.CTRL_LTL_RULE_PN, "", "R1,Q9"
+                )
+            );
+            GridMap gridMap = new GridMap();
+            gridMap.put( 0, 0, true );
+            gridMap.put( 1, 0, true );
+            gridMap.put( 2, 0, true );
+            params.setGridMap( gridMap );
+            Utils.INSTANCE.propagate( CAConstants.PROP_PROC_TILE, null );
+            assertEquals( 1, gridMap.getState( 1, -1 ) );
+            assertEquals( 3, gridMap.size() );
+        }
+        finally
+        {
+            Utils.INSTANCE.propertyChange(
+                new PropertyChangeEvent(
+                    params, CAConstants.CTRL_LTL_RULE_PN, "", 
+                    params.getLargerThanLifeRule()
+                )
+            );
+            params.setGridMap( saveGridMap );
+            params.setSurvivalStates( saveSurvival );
+            params.setBirthStates( saveBirth );
+        }
+    }
+
+    @Test
+    public void testSetRule()
+    {
+        LargerThanLifeRule      rule1   = new LargerThanLifeRule( LIFE );
+        LargerThanLifeRule      rule2   =
+            new LargerThanLifeRule( "R1,C0,M0,S,B1,NN" );
+        LargerThanLifeEngine    engine  = new LargerThanLifeEngine( rule1 );
+        assertEquals( rule1, engine.getRule() );
+
+        GridMap     gridMap = new GridMap();
+        gridMap.put( 0, 0, true );
+        engine.nextGeneration( gridMap, SURVIVAL, BIRTH );
+        assertEquals( 0, gridMap.size() );
+
+        gridMap.put( 0, 0, true );
+        engine.setRule( rule2 );
+        assertEquals( rule2, engine.getRule() );
+        engine.nextGeneration( gridMap, SURVIVAL, BIRTH );
+        assertEquals( 4, gridMap.size() );
+        assertEquals( 1, gridMap.getState( 0, 1 ) );
+        assertEquals( 1, gridMap.getState( 1, 0 ) );
+        assertEquals( 1, gridMap.getState( 0, -1 ) );
+        assertEquals( 1, gridMap.getState( -1, 0 ) );
+    }
+
+    /**
+     * Runs a random soup through a number of generations
+     * using both the Larger than Life engine and
+     * a straightforward implementation,
+     * and verifies that the results are identical.
+     *
+     * @param spec          the rule to test
+     * @param generations   the number of generations to compare
+     */
+    private static void compareToReference( String spec, int generations )
+    {
+        LargerThanLifeRule      rule    = new LargerThanLifeRule( spec );
+        LargerThanLifeEngine    engine  = new LargerThanLifeEngine( rule );
+        int                     size    = 8 * rule.getRange() + 10;
+        GridMap                 actMap  =
+            getSoup( size * size / 2, size, rule.getStates(), spec.hashCode() );
+        GridMap                 expMap  = new GridMap( actMap );
+        for ( int gen = 1 ; gen <= generations ; ++gen )
+        {
+            engine.nextGeneration( actMap );
+            expMap = nextGeneration( expMap, rule );
+            assertEquals( expMap, actMap, spec + ": generation " + gen );
+        }
+    }
+
+    /**
+     * Creates a random soup of cells in every non-0 state.
+     *
+     * @param count     the number of cells to place
+     * @param size      the width and height of the soup
+     * @param states    the number of states
+     * @param seed      seed for the random number generator
+     *
+     * @return  the random soup
+     */
+    private static GridMap getSoup( int count, int size, int states, long seed )
+    {
+        Random  randy   = new Random( seed );
+        GridMap gridMap = new GridMap();
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            int xco     = randy.nextInt( size ) - size / 2;
+            int yco     = randy.nextInt( size ) - size / 2;
+            int state   = randy.nextInt( states - 1 ) + 1;
+            gridMap.putState( xco, yco, state );
+        }
+        return gridMap;
+    }
+
+    /**
+     * Calculates the next generation of a Larger than Life rule
+     * by counting the neighborhood of every cell within range
+     * of the live rectangle of a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     * @param rule      the rule
+     *
+     * @return  the next generation
+     */
+    private static GridMap nextGeneration(
+        GridMap gridMap,
+        LargerThanLifeRule rule
+    )
+    {
+        GridMap     result  = new GridMap();
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        int         range   = rule.getRange();
+        int         states  = rule.getStates();
+        rect.grow( range, range );
+        for ( int yco = rect.y ; yco < rect.y + rect.height ; ++yco )
+            for ( int xco = rect.x ; xco < rect.x + rect.width ; ++xco )
+            {
+                int count   = 0;
+                for ( int row = yco - range ; row <= yco + range ; ++row )
+                    for ( int col = xco - range ; col <= xco + range ; ++col )
+                    {
+                        int distance    =
+                            Math.abs( row - yco ) + Math.abs( col - xco );
+                        boolean inHood  =
+                            !rule.isVonNeumann() || distance <= range;
+                        boolean self    = row == yco && col == xco;
+                        if ( inHood
+                            && (!self || rule.isIncludeCenter())
+                            && gridMap.getState( col, row ) == 1 )
+                            ++count;
+                    }
+                int state   = gridMap.getState( xco, yco );
+                int next;
+                if ( state == 0 )
+                    next = rule.isBirth( count ) ? 1 : 0;
+                else if ( state == 1 )
+                    next = rule.isSurvival( count ) ? 1 : 2 % states;
+                else
+                    next = (state + 1) % states;
+                result.putState( xco, yco, next );
+            }
+        return result;
+    }
+}
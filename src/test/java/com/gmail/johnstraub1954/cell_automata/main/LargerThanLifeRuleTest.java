@@ -0,0 +1,96 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LargerThanLifeRuleTest
+{
+    /**
+     * Verify that the fields of a complete rule
+     * are parsed correctly.
+     */
+    @Test
+    public void testParse()
+    {
+        LargerThanLifeRule  rule    =
+            new LargerThanLifeRule( "R5,C0,M1,S34..58,B34..45,NM" );
+        assertEquals( 5, rule.getRange() );
+        assertEquals( 2, rule.getStates() );
+        assertTrue( rule.isIncludeCenter() );
+        assertFalse( rule.isVonNeumann() );
+        assertEquals( 121, rule.getMaxCount() );
+        for ( int count = 0 ; count <= rule.getMaxCount() ; ++count )
+        {
+            assertEquals( count >= 34 && count <= 58, rule.isSurvival( count ) );
+            assertEquals( count >= 34 && count <= 45, rule.isBirth( count ) );
+        }
+
+        rule = new LargerThanLifeRule( " r3 , c4, m0, s2, 5..6, 9, b3, nn " );
+        assertEquals( 3, rule.getRange() );
+        assertEquals( 4, rule.getStates() );
+        assertFalse( rule.isIncludeCenter() );
+        assertTrue( rule.isVonNeumann() );
+        assertEquals( 25, rule.getMaxCount() );
+        assertTrue( rule.isSurvival( 2 ) );
+        assertFalse( rule.isSurvival( 3 ) );
+        assertTrue( rule.isSurvival( 5 ) );
+        assertTrue( rule.isSurvival( 6 ) );
+        assertTrue( rule.isSurvival( 9 ) );
+        assertTrue( rule.isBirth( 3 ) );
+        assertFalse( rule.isBirth( 2 ) );
+    }
+
+    /**
+     * Verify default values, canonical formatting and equality.
+     */
+    @Test
+    public void testToString()
+    {
+        LargerThanLifeRule  rule1   =
+            new LargerThanLifeRule( "B3,S2..3,R1" );
+        LargerThanLifeRule  rule2   =
+            new LargerThanLifeRule( "R1,C2,M0,S2,3,B3..3,NM" );
+        assertEquals( "R1,C0,M0,S2..3,B3,NM", rule1.toString() );
+        assertEquals( rule1, rule2 );
+        assertEquals( rule1.hashCode(), rule2.hashCode() );
+
+        // counts larger than the neighborhood are discarded
+        LargerThanLifeRule  rule3   =
+            new LargerThanLifeRule( "R1,C3,M1,S,B4..100,NN" );
+        assertEquals( "R1,C3,M1,S,B4..5,NN", rule3.toString() );
+    }
+
+    /**
+     * Verify that invalid rules are rejected.
+     */
+    @Test
+    public void testInvalid()
+    {
+        String[]    specs   =
+        {
+            "",
+            "S2..3,B3",
+            "R0,S2..3,B3",
+            "R" + (LargerThanLifeRule.MAX_RANGE + 1) + ",S2..3,B3",
+            "R1,B3",
+            "R1,S2..3",
+            "R1,S3..2,B3",
+            "R1,Sx,B3",
+            "R1,S2,,B3",
+            "R1,S2,B3,NX",
+            "R1,S2,B3,Q1",
+            "R1,2,S2,B3",
+            "R1,C257,S2,B3",
+        };
+        for ( String spec : specs )
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> new LargerThanLifeRule( spec ),
+                spec
+            );
+    }
+}
@@ -0,0 +1,128 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class MortonEngineTest
+{
+    /**
+     * Verify that Morton keys preserve coordinates,
+     * including extreme and negative coordinates,
+     * and that keys are ordered by the coordinates
+     * when the other coordinate is fixed.
+     */
+    @Test
+    public void testKeys()
+    {
+        int[]   coords  =
+        { Integer.MIN_VALUE, -65, -1, 0, 1, 63, 1000, Integer.MAX_VALUE };
+        for ( int xco : coords )
+            for ( int yco : coords )
+            {
+                long    key     = MortonEngine.key( xco, yco );
+                assertEquals( xco, MortonEngine.xco( key ) );
+                assertEquals( yco, MortonEngine.yco( key ) );
+            }
+        for ( int inx = 1 ; inx < coords.length ; ++inx )
+        {
+            long    prev    = MortonEngine.key( coords[inx - 1], 7 );
+            long    next    = MortonEngine.key( coords[inx], 7 );
+            assertEquals( -1, Long.signum( Long.compareUnsigned( prev, next ) ) );
+        }
+    }
+
+    /**
+     * Verify that the Morton engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new MortonEngine(), 8 );
+    }
+
+    /**
+     * Verify that the Morton engine produces the same results
+     * as Utils.conwayPropagate under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new MortonEngine(), 8 );
+    }
+
+    /**
+     * Verify that the Morton engine detects changes made
+     * to the GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        EngineTestUtils.testExternalModification( new MortonEngine() );
+    }
+
+    /**
+     * Verify that the array of live cells grows as needed
+     * when the population more than doubles in a generation.
+     */
+    @Test
+    public void testGrowth()
+    {
+        GridMap             actMap      = new GridMap();
+        List<Integer>       survival    = Arrays.asList( 1 );
+        List<Integer>       birth       = Arrays.asList( 1 );
+        MortonEngine        engine      = new MortonEngine();
+        ScatterCountEngine  expEngine   = new ScatterCountEngine();
+        for ( int inx = 0 ; inx < 40 ; ++inx )
+            actMap.put( 100 * inx, 0, true );
+        GridMap             expMap      = new GridMap( actMap );
+        engine.nextGeneration( actMap, survival, birth );
+        expEngine.nextGeneration( expMap, survival, birth );
+        assertEquals( expMap, actMap );
+        assertEquals( 320, engine.getLiveCount() );
+    }
+
+    /**
+     * Verify that a large, scattered pattern,
+     * whose candidates are emitted and sorted in parallel,
+     * evolves exactly as under the scatter-count engine.
+     */
+    @Test
+    public void testParallel()
+    {
+        Random          randy       = new Random( 11 );
+        GridMap         actMap      = new GridMap();
+        // clusters of random cells scattered over a wide area
+        for ( int cluster = 0 ; cluster < 4000 ; ++cluster )
+        {
+            int     xco     = randy.nextInt( 2_000_000 ) - 1_000_000;
+            int     yco     = randy.nextInt( 2_000_000 ) - 1_000_000;
+            for ( int inx = 0 ; inx < 12 ; ++inx )
+                actMap.put( xco + randy.nextInt( 5 ), yco + randy.nextInt( 5 ), true );
+        }
+        GridMap             expMap      = new GridMap( actMap );
+        List<Integer>       survival    = Arrays.asList( 2, 3 );
+        List<Integer>       birth       = Arrays.asList( 3 );
+        MortonEngine        engine      = new MortonEngine();
+        ScatterCountEngine  expEngine   = new ScatterCountEngine();
+        assertEquals(
+            true,
+            8 * actMap.size() > MortonEngine.PARALLEL_THRESHOLD,
+            "pattern too small to sort in parallel"
+        );
+        for ( int gen = 1 ; gen <= 6 ; ++gen )
+        {
+            engine.nextGeneration( actMap, survival, birth );
+            expEngine.nextGeneration( expMap, survival, birth );
+            assertEquals( expMap, actMap, "generation " + gen );
+            assertEquals( actMap.size(), engine.getLiveCount() );
+        }
+    }
+}
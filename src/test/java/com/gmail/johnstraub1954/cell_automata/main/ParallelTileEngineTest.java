@@ -0,0 +1,92 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class ParallelTileEngineTest
+{
+    /**
+     * Verify that the parallel engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file,
+     * when every pattern is large enough to be calculated
+     * on multiple threads.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new ParallelTileEngine( 4, 0 ), 8 );
+    }
+
+    /**
+     * Verify that the parallel engine produces the same results
+     * as Utils.conwayPropagate under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new ParallelTileEngine( 4, 0 ), 8 );
+    }
+
+    /**
+     * Verify that the parallel engine detects changes made
+     * to the GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        EngineTestUtils.testExternalModification( new ParallelTileEngine( 4, 0 ) );
+    }
+
+    /**
+     * Verify that the parallel engine produces the same results
+     * as the serial tile engine for a pattern
+     * spanning many tiles, with various thread counts,
+     * including changes to the thread count between generations.
+     */
+    @Test
+    public void testCompareToTileEngine()
+    {
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        Random          randy       = new Random( 5 );
+        GridMap         expMap      = new GridMap();
+        for ( int inx = 0 ; inx < 40000 ; ++inx )
+        {
+            int xco = randy.nextInt( 1000 ) - 500;
+            int yco = randy.nextInt( 1000 ) - 500;
+            expMap.put( xco, yco, true );
+        }
+        GridMap             actMap      = new GridMap( expMap );
+        TileEngine          serial      = new TileEngine();
+        ParallelTileEngine  parallel    = new ParallelTileEngine( 1, 0 );
+        for ( int gen = 1 ; gen <= 12 ; ++gen )
+        {
+            parallel.setThreads( gen % 4 );
+            serial.nextGeneration( expMap, survival, birth );
+            parallel.nextGeneration( actMap, survival, birth );
+            assertEquals( expMap, actMap, "generation " + gen );
+        }
+    }
+
+    /**
+     * Verify that a negative thread count is rejected.
+     */
+    @Test
+    public void testInvalidThreads()
+    {
+        ParallelTileEngine  engine  = new ParallelTileEngine( 0, 0 );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> engine.setThreads( -1 )
+        );
+        assertEquals( Runtime.getRuntime().availableProcessors(), engine.getParallelism() );
+    }
+}
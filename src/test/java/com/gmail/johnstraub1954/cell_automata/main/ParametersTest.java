@@ -3,6 +3,8 @@ package com.gmail.johnstraub1954.cell_automata.main;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.Color;
@@ -540,6 +542,40 @@ class ParametersTest
         tester.test();
     }
     
+    /**
+     * Verify that replacing the GridMap with an equal map
+     * fires an event, and that setting the same map does not.
+     */
+    @Test
+    public void testSetGridMapEqualContents()
+    {
+        GridMap         oldVal  = new GridMap();
+        GridMap         newVal  = new GridMap();
+        String          name    = CAConstants.GRID_MAP_PN;
+        List<Object>    olds    = new ArrayList<>();
+        List<Object>    news    = new ArrayList<>();
+        oldVal.put( 0, 0, true );
+        newVal.put( 0, 0, true );
+        params.setGridMap( oldVal );
+        PropertyChangeListener  listener    = e -> {
+            olds.add( e.getOldValue() );
+            news.add( e.getNewValue() );
+        };
+        params.addPropertyChangeListener( name, listener );
+        try
+        {
+            params.setGridMap( newVal );
+            params.setGridMap( newVal );
+            assertEquals( 1, news.size() );
+            assertSame( oldVal, olds.get( 0 ) );
+            assertSame( newVal, news.get( 0 ) );
+        }
+        finally
+        {
+            params.removePropertyChangeListener( name, listener );
+        }
+    }
+    
     @Test
     public void testSetGetSurvivalStates()
     {
@@ -580,6 +616,78 @@ class ParametersTest
         tester.test();
     }
     
+    @Test
+    public void testSetGetGameStates()
+    {
+        int     oldVal  = params.getGameStates();
+        int     newVal  = oldVal + 1;
+        String  name    = CAConstants.CTRL_GAME_STATES_PN;
+        
+        params.setGameStates( oldVal );
+        assertEquals( oldVal, params.getGameStates() );
+        PropChangeTester    tester  = 
+            getPropChangeTester(
+                () -> params.getGameStates(),
+                name,
+                newVal
+            );
+        params.addPropertyChangeListener( name, tester );
+        params.setGameStates( newVal );
+        tester.test();
+        params.removePropertyChangeListener( name, tester );
+        params.setGameStates( oldVal );
+    }
+    
+    @Test
+    public void testSetGetIsotropicRule()
+    {
+        String  oldVal  = params.getIsotropicRule();
+        String  newVal  = "B2-a/S12";
+        String  name    = CAConstants.CTRL_ISOTROPIC_RULE_PN;
+        
+        params.setIsotropicRule( oldVal );
+        assertEquals( oldVal, params.getIsotropicRule() );
+        PropChangeTester    tester  = 
+            getPropChangeTester(
+                () -> params.getIsotropicRule(),
+                name,
+                newVal
+            );
+        params.addPropertyChangeListener( name, tester );
+        params.setIsotropicRule( newVal );
+        tester.test();
+        params.removePropertyChangeListener( name, tester );
+        params.setIsotropicRule( oldVal );
+    }
+    
+    @Test
+    public void testSetGetLargerThanLifeRule()
+    {
+        String  oldVal  = params.getLargerThanLifeRule();
+        String  newVal  = "R5,C0,M1,S34..58,B34..45,NM";
+        String  name    = CAConstants.CTRL_LTL_RULE_PN;
+        
+        params.setLargerThanLifeRule( oldVal );
+        assertEquals( oldVal, params.getLargerThanLifeRule() );
+        PropChangeTester    tester  = 
+            getPropChangeTester(
+                () -> params.getLargerThanLifeRule(),
+                name,
+                newVal
+            );
+        params.addPropertyChangeListener( name, tester );
+        params.setLargerThanLifeRule( newVal );
+        tester.test();
+        params.removePropertyChangeListener( name, tester );
+        params.setLargerThanLifeRule( oldVal );
+        
+        assertThrows( 
+            IllegalArgumentException.class,
+            () -> params.setLargerThanLifeRule( "R1,Q9" )
+        );
+        assertEquals( oldVal, params.getLargerThanLifeRule() );
+    }
+    
     @Test
     public void testSetGridCellOrigin()
     {
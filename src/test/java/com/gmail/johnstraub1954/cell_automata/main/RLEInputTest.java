@@ -0,0 +1,187 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RLEInputTest
+{
+    /**
+     * Verify that the survival and birth states are recognized
+     * regardless of the case or order of their tags.
+     */
+    @Test
+    public void testHeaderTags()
+    {
+        String[]    headers =
+        {
+            "x = 0, y = 0, rule = B3/S23",
+            "x = 0, y = 0, rule = b3/s23",
+            "x = 0, y = 0, rule = s23/b3",
+            "x = 0, y = 0, rule = S23/B3",
+            "x = 0, y = 0, rule = 23/3",
+        };
+        for ( String header : headers )
+        {
+            RLEInput    input   = getInput( header, "o!" );
+            assertEquals( Arrays.asList( 2, 3 ), input.getSurvivalRules(), header );
+            assertEquals( Arrays.asList( 3 ), input.getBirthRules(), header );
+            assertEquals( -1, input.getGameStates(), header );
+        }
+    }
+    
+    /**
+     * Verify that an empty list of states,
+     * and the number of states of a Generations rule,
+     * are recognized.
+     */
+    @Test
+    public void testGenerationsHeader()
+    {
+        RLEInput    input   = getInput( "x = 0, y = 0, rule = S/B2", "o!" );
+        assertEquals( Arrays.asList(), input.getSurvivalRules() );
+        assertEquals( Arrays.asList( 2 ), input.getBirthRules() );
+        
+        String[]    headers =
+        {
+            "x = 0, y = 0, rule = B2/S/3",
+            "x = 0, y = 0, rule = B2/S/C3",
+            "x = 0, y = 0, rule = /2/3",
+        };
+        for ( String header : headers )
+        {
+            input = getInput( header, "o!" );
+            assertEquals( Arrays.asList(), input.getSurvivalRules(), header );
+            assertEquals( Arrays.asList( 2 ), input.getBirthRules(), header );
+            assertEquals( 3, input.getGameStates(), header );
+        }
+        
+        assertThrows( 
+            CAException.class, 
+            () -> getInput( "x = 0, y = 0, rule = B/S", "o!" )
+        );
+    }
+    
+    /**
+     * Verify that isotropic non-totalistic rules are recognized,
+     * and that Hensel letters that are not valid for
+     * the preceding count are rejected.
+     */
+    @Test
+    public void testIsotropicHeader()
+    {
+        RLEInput    input   = getInput( "x = 0, y = 0, rule = B2-a/S12", "o!" );
+        assertEquals( "B2-a/S12", input.getIsotropicRule() );
+        assertEquals( Arrays.asList( 1, 2 ), input.getSurvivalRules() );
+        assertEquals( Arrays.asList( 2 ), input.getBirthRules() );
+        String  header  = new RLEDescriptor( input ).getHeaderLine();
+        assertTrue( header.endsWith( "rule = B2-a/S12" ), header );
+        
+        input = getInput( "x = 0, y = 0, rule = s2-i34Q/b3", "o!" );
+        assertEquals( "B3/S2-i34q", input.getIsotropicRule() );
+        assertEquals( Arrays.asList( 2, 3, 4 ), input.getSurvivalRules() );
+        
+        input = getInput( "x = 0, y = 0, rule = B3/S23", "o!" );
+        assertEquals( "", input.getIsotropicRule() );
+        
+        assertThrows( 
+            CAException.class, 
+            () -> getInput( "x = 0, y = 0, rule = B1k/S12", "o!" )
+        );
+    }
+    
+    /**
+     * Verify that multi-state cell codes are decoded.
+     */
+    @Test
+    public void testMultiStateDecode()
+    {
+        RLEInput    input   = 
+            getInput( "x = 0, y = 0, rule = B2/S/256", "A.2B$pA3yO$X!" );
+        GridMap     gridMap = input.getGridMap();
+        assertEquals( 1, gridMap.getState( 0, 0 ) );
+        assertEquals( 0, gridMap.getState( 1, 0 ) );
+        assertEquals( 2, gridMap.getState( 2, 0 ) );
+        assertEquals( 2, gridMap.getState( 3, 0 ) );
+        assertEquals( 25, gridMap.getState( 0, 1 ) );
+        assertEquals( 255, gridMap.getState( 1, 1 ) );
+        assertEquals( 255, gridMap.getState( 3, 1 ) );
+        assertEquals( 24, gridMap.getState( 0, 2 ) );
+        assertEquals( 8, gridMap.size() );
+    }
+    
+    /**
+     * Verify that a multi-state pattern survives
+     * a round trip through RLEDescriptor and RLEInput.
+     */
+    @Test
+    public void testMultiStateRoundTrip()
+    {
+        GridMap     expMap  = new GridMap();
+        for ( int state = 1 ; state < 256 ; ++state )
+            expMap.putState( state % 40, state / 40, state );
+        
+        RLEDescriptor   descrip = new RLEDescriptor();
+        descrip.setGridMap( expMap );
+        descrip.setBirthRules( Arrays.asList( 2 ) );
+        descrip.setSurvivalRules( Arrays.asList( 3 ) );
+        descrip.setGameStates( 256 );
+        descrip.setUpperLeftCorner( new Point( 0, 0 ) );
+        String          header  = descrip.getHeaderLine();
+        List<String>    lines   = descrip.getEncodedGrid();
+        for ( String line : lines )
+            assertEquals( true, line.length() <= 70, line );
+        
+        RLEInput    input   = getInput( header, String.join( "\n", lines ) );
+        assertEquals( 256, input.getGameStates() );
+        assertEquals( Arrays.asList( 3 ), input.getSurvivalRules() );
+        assertEquals( Arrays.asList( 2 ), input.getBirthRules() );
+        assertEquals( expMap, input.getGridMap() );
+    }
+    
+    /**
+     * Verify the translation of states to multi-state cell codes.
+     */
+    @Test
+    public void testToCode()
+    {
+        assertEquals( ".", RLEGridEncoder.toCode( 0 ) );
+        assertEquals( "A", RLEGridEncoder.toCode( 1 ) );
+        assertEquals( "X", RLEGridEncoder.toCode( 24 ) );
+        assertEquals( "pA", RLEGridEncoder.toCode( 25 ) );
+        assertEquals( "yO", RLEGridEncoder.toCode( 255 ) );
+        for ( int state = 0 ; state < 256 ; ++state )
+        {
+            String  code    = RLEGridEncoder.toCode( state );
+            assertEquals( state, RLEGridDecoder.toState( code ) );
+        }
+        assertThrows( 
+            IllegalArgumentException.class, 
+            () -> RLEGridEncoder.toCode( 256 )
+        );
+    }
+    
+    /**
+     * Creates an RLEInput object from a given header line
+     * and encoded grid.
+     * 
+     * @param header    the given header line
+     * @param grid      the given encoded grid
+     * 
+     * @return  the RLEInput object
+     */
+    private static RLEInput getInput( String header, String grid )
+    {
+        String      text    = header + "\n" + grid + "\n";
+        RLEInput    input   = 
+            new RLEInput( new ByteArrayInputStream( text.getBytes() ) );
+        return input;
+    }
+}
@@ -0,0 +1,301 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class RuleTableTest
+{
+    /**
+     * Verify the neighborhood table of every test rule
+     * against a direct evaluation of the rule.
+     */
+    @Test
+    public void testNeighborhoods()
+    {
+        for ( Integer[][] states : EngineTestUtils.RULES )
+        {
+            List<Integer>   survival    = Arrays.asList( states[0] );
+            List<Integer>   birth       = Arrays.asList( states[1] );
+            RuleTable       rule        = new RuleTable( survival, birth );
+            for ( int hood = 0 ; hood < RuleTable.NEIGHBORHOOD_SIZE ; ++hood )
+            {
+                boolean self    = (hood & RuleTable.SELF_BIT) != 0;
+                int     count   = Integer.bitCount( hood ) - (self ? 1 : 0);
+                boolean expect  = 
+                    self ? survival.contains( count ) : birth.contains( count );
+                assertEquals( expect, rule.isAliveNext( hood ) );
+            }
+        }
+    }
+
+    /**
+     * Verify the block table of every test rule
+     * against the neighborhood table.
+     */
+    @Test
+    public void testBlocks()
+    {
+        for ( Integer[][] states : EngineTestUtils.RULES )
+        {
+            List<Integer>   survival    = Arrays.asList( states[0] );
+            List<Integer>   birth       = Arrays.asList( states[1] );
+            RuleTable       rule        = new RuleTable( survival, birth );
+            for ( int block = 0 ; block < RuleTable.BLOCK_SIZE ; ++block )
+            {
+                int expect  = 0;
+                for ( int yco = 1 ; yco <= 2 ; ++yco )
+                    for ( int xco = 1 ; xco <= 2 ; ++xco )
+                    {
+                        int hood    = 0;
+                        int bit     = 1;
+                        for ( int row = yco - 1 ; row <= yco + 1 ; ++row )
+                            for ( int col = xco - 1 ; col <= xco + 1 ; ++col )
+                            {
+                                if ( (block & (1 << (4 * row + col))) != 0 )
+                                    hood |= bit;
+                                bit <<= 1;
+                            }
+                        if ( rule.isAliveNext( hood ) )
+                            expect |= 1 << (2 * (yco - 1) + (xco - 1));
+                    }
+                assertEquals( expect, rule.nextBlock( block ) );
+            }
+        }
+    }
+
+    /**
+     * Verify that the neighborhood of a cell in a GridMap
+     * is encoded correctly.
+     */
+    @Test
+    public void testGetNeighborhood()
+    {
+        GridMap gridMap = new GridMap();
+        gridMap.put( -1, -1, true );
+        gridMap.put( 1, 0, true );
+        gridMap.put( 0, 1, true );
+        gridMap.put( 5, 5, true );
+        int     hood    = RuleTable.getNeighborhood( gridMap, 0, 0 );
+        assertEquals( 1 | (1 << 5) | (1 << 7), hood );
+    }
+
+    /**
+     * Verify that the rule table maintained by Utils
+     * is rebuilt when the birth or survival states change.
+     */
+    @Test
+    public void testUtilsRebuild()
+    {
+        Parameters      params      = Parameters.INSTANCE;
+        List<Integer>   saveBirth   = params.getBirthStates();
+        List<Integer>   saveSurv    = params.getSurvivalStates();
+        try
+        {
+            params.setBirthStates( Arrays.asList( 3 ) );
+            params.setSurvivalStates( Arrays.asList( 2, 3 ) );
+            RuleTable   rule1   = Utils.INSTANCE.getRuleTable();
+            assertSame( rule1, Utils.INSTANCE.getRuleTable() );
+            // dead cell with 6 live neighbors
+            int         hood    = 0x06F;
+            assertEquals( false, rule1.isAliveNext( hood ) );
+            
+            params.setBirthStates( Arrays.asList( 3, 6 ) );
+            RuleTable   rule2   = Utils.INSTANCE.getRuleTable();
+            assertNotSame( rule1, rule2 );
+            assertEquals( true, rule2.isAliveNext( hood ) );
+            
+            params.setSurvivalStates( Arrays.asList( 2 ) );
+            assertNotSame( rule2, Utils.INSTANCE.getRuleTable() );
+        }
+        finally
+        {
+            params.setBirthStates( saveBirth );
+            params.setSurvivalStates( saveSurv );
+        }
+    }
+    
+    /**
+     * Verify that totalistic conditions in Hensel notation
+     * produce the same tables as lists of states.
+     */
+    @Test
+    public void testTotalisticNotation()
+    {
+        for ( Integer[][] states : EngineTestUtils.RULES )
+        {
+            List<Integer>   survival    = Arrays.asList( states[0] );
+            List<Integer>   birth       = Arrays.asList( states[1] );
+            StringBuilder   sBldr       = new StringBuilder();
+            survival.forEach( sBldr::append );
+            StringBuilder   bBldr       = new StringBuilder();
+            birth.forEach( bBldr::append );
+            
+            RuleTable   expRule = new RuleTable( survival, birth );
+            RuleTable   actRule = 
+                new RuleTable( sBldr.toString(), bBldr.toString() );
+            assertEquals( expRule, actRule );
+            assertTrue( actRule.isTotalistic() );
+            assertEquals( 
+                expRule, 
+                RuleTable.parse( "S" + sBldr + "/B" + bBldr ) 
+            );
+        }
+    }
+    
+    /**
+     * Verify that the Hensel letters for each neighbor count
+     * divide the arrangements of that many neighbors into
+     * classes of the expected sizes,
+     * that every class is closed under rotation and reflection,
+     * and that a sample of letters select the expected arrangements.
+     */
+    @Test
+    public void testHenselLetters()
+    {
+        String[]    letters =
+        {
+            "", "ce", "ceaikn", "ceaiknjqry", "ceaiknjqrytwz",
+            "ceaiknjqry", "ceaikn", "ce", "",
+        };
+        int[][]     sizes   =
+        {
+            { 1 },
+            { 4, 4 },
+            { 4, 4, 8, 2, 8, 2 },
+            { 4, 4, 4, 4, 4, 8, 8, 8, 8, 4 },
+            { 1, 1, 8, 4, 8, 8, 8, 4, 8, 8, 4, 4, 4 },
+        };
+        for ( int count = 0 ; count <= 8 ; ++count )
+        {
+            int     total   = 0;
+            String  valid   = letters[count];
+            int     classes = Math.max( 1, valid.length() );
+            for ( int inx = 0 ; inx < classes ; ++inx )
+            {
+                String      letter  = 
+                    valid.isEmpty() ? "" : valid.substring( inx, inx + 1 );
+                RuleTable   rule    = new RuleTable( "", count + letter );
+                int         births  = 0;
+                for ( int hood = 0 ; hood < RuleTable.NEIGHBORHOOD_SIZE ; ++hood )
+                    if ( (hood & RuleTable.SELF_BIT) == 0 
+                        && rule.isAliveNext( hood ) )
+                        ++births;
+                int         expect  = sizes[Math.min( count, 8 - count )][inx];
+                assertEquals( expect, births, count + letter );
+                assertSymmetric( rule );
+                total += births;
+            }
+            assertEquals( choose( 8, count ), total );
+        }
+        
+        // 3i is a row of three cells
+        RuleTable   rule    = new RuleTable( "", "3i" );
+        assertTrue( rule.isAliveNext( 0x007 ) );
+        assertFalse( rule.isAliveNext( 0x001 | 0x002 | 0x008 ) );
+        // 4t is a T; 4w is a staircase
+        rule = new RuleTable( "", "4t" );
+        assertTrue( rule.isAliveNext( 0x007 | 0x080 ) );
+        rule = new RuleTable( "", "4w" );
+        assertTrue( rule.isAliveNext( 0x001 | 0x008 | 0x080 | 0x100 ) );
+        // 2n is a pair of opposite corners; 6n is its complement
+        rule = new RuleTable( "6n", "2n" );
+        assertTrue( rule.isAliveNext( 0x001 | 0x100 ) );
+        int         complement  = 0x1EF & ~(0x001 | 0x100);
+        assertTrue( rule.isAliveNext( complement | RuleTable.SELF_BIT ) );
+        assertFalse( rule.isTotalistic() );
+    }
+    
+    /**
+     * Verify the rule B2-a/S12, and negated and combined conditions.
+     */
+    @Test
+    public void testNegation()
+    {
+        RuleTable   rule    = RuleTable.parse( "B2-a/S12" );
+        RuleTable   equiv   = RuleTable.parse( "S12/B2ceikn" );
+        assertEquals( rule, equiv );
+        assertFalse( rule.isTotalistic() );
+        // edge and adjacent corner: no birth
+        assertFalse( rule.isAliveNext( 0x003 ) );
+        // opposite edges: birth
+        assertTrue( rule.isAliveNext( 0x002 | 0x080 ) );
+        // live cell with 2 neighbors in any arrangement survives
+        assertTrue( rule.isAliveNext( 0x003 | RuleTable.SELF_BIT ) );
+        
+        RuleTable   upper   = RuleTable.parse( "b2-A/s12" );
+        assertEquals( rule, upper );
+    }
+    
+    /**
+     * Verify that invalid rules are rejected.
+     */
+    @Test
+    public void testInvalidHensel()
+    {
+        String[]    conditions  = { "2x", "9", "2-", "0c", "8e", "-a", "a" };
+        for ( String cond : conditions )
+            assertThrows( 
+                IllegalArgumentException.class, 
+                () -> new RuleTable( "23", cond ),
+                cond
+            );
+        String[]    rules       = { "B3", "B3/S23/S2", "B3/B2", "3/23", "" };
+        for ( String rule : rules )
+            assertThrows( 
+                IllegalArgumentException.class, 
+                () -> RuleTable.parse( rule ),
+                rule
+            );
+    }
+    
+    /**
+     * Verifies that a rule gives the same result for
+     * every rotation and reflection of every neighborhood.
+     * 
+     * @param rule  the rule to verify
+     */
+    private static void assertSymmetric( RuleTable rule )
+    {
+        for ( int hood = 0 ; hood < RuleTable.NEIGHBORHOOD_SIZE ; ++hood )
+        {
+            int rotated     = 0;
+            int reflected   = 0;
+            for ( int yco = 0 ; yco < 3 ; ++yco )
+                for ( int xco = 0 ; xco < 3 ; ++xco )
+                    if ( (hood & (1 << (3 * yco + xco))) != 0 )
+                    {
+                        rotated |= 1 << (3 * xco + (2 - yco));
+                        reflected |= 1 << (3 * yco + (2 - xco));
+                    }
+            assertEquals( rule.isAliveNext( hood ), rule.isAliveNext( rotated ) );
+            assertEquals( rule.isAliveNext( hood ), rule.isAliveNext( reflected ) );
+        }
+    }
+    
+    /**
+     * Returns the number of ways to choose k items from n.
+     * 
+     * @param n the number of items
+     * @param k the number of items to choose
+     * 
+     * @return  the number of ways to choose k items from n
+     */
+    private static int choose( int n, int k )
+    {
+        int result  = 1;
+        for ( int inx = 1 ; inx <= k ; ++inx )
+            result = result * (n - k + inx) / inx;
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class ScatterCountEngineTest
+{
+    /**
+     * Verify that the scatter-count engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new ScatterCountEngine(), 8 );
+    }
+
+    /**
+     * Verify that the scatter-count engine produces the same results
+     * as Utils.conwayPropagate under a variety of rules.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new ScatterCountEngine(), 8 );
+    }
+
+    /**
+     * Verify that the scatter-count engine detects changes made
+     * to the GridMap between generations.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        EngineTestUtils.testExternalModification( new ScatterCountEngine() );
+    }
+
+    /**
+     * Verify that isolated cells, which have no live neighbors,
+     * are subject to survival on 0 neighbors.
+     */
+    @Test
+    public void testIsolatedCells()
+    {
+        ScatterCountEngine  engine  = new ScatterCountEngine();
+        GridMap             gridMap = new GridMap();
+        List<Integer>       birth   = Arrays.asList( 3 );
+        gridMap.put( -1000, 1000, true );
+        gridMap.put( 1000, -1000, true );
+
+        engine.nextGeneration( gridMap, Arrays.asList( 0 ), birth );
+        assertEquals( 2, gridMap.size() );
+        engine.nextGeneration( gridMap, Arrays.asList( 2, 3 ), birth );
+        assertEquals( 0, gridMap.size() );
+    }
+}
@@ -0,0 +1,330 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import test_util.EngineTestUtils;
+
+class TileEngineTest
+{
+    /**
+     * Verify that the tile engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file.
+     */
+    @Test
+    public void testSampleFiles()
+    {
+        EngineTestUtils.compareSampleFiles( new TileEngine(), 8 );
+    }
+
+    /**
+     * Verify that the tile engine produces the same results
+     * as Utils.conwayPropagate for a random soup under a variety
+     * of rules, including patterns that straddle tile boundaries
+     * at negative coordinates.
+     */
+    @Test
+    public void testRules()
+    {
+        EngineTestUtils.compareRules( new TileEngine(), 8 );
+    }
+
+    /**
+     * Verify that the tile engine detects changes made
+     * to the GridMap between generations,
+     * and discards tiles that become empty.
+     */
+    @Test
+    public void testExternalModification()
+    {
+        TileEngine  engine  = new TileEngine();
+        EngineTestUtils.testExternalModification( engine );
+        assertEquals( 1, engine.getTileCount() );
+    }
+
+    /**
+     * Verify that, where the runtime supports the Vector API,
+     * the vector kernel produces the same results
+     * as Utils.conwayPropagate, for the sample RLE files
+     * and under a variety of rules;
+     * and that the kernel can be disabled.
+     */
+    @Test
+    public void testVectorKernel()
+    {
+        TileEngine  engine  = new TileEngine();
+        assertFalse( engine.isVectorKernel() );
+        assumeTrue( engine.setVectorKernel( true ), "Vector API unavailable" );
+        EngineTestUtils.compareSampleFiles( engine, 8 );
+        EngineTestUtils.compareRules( engine, 8 );
+
+        assertFalse( engine.setVectorKernel( false ) );
+        assertFalse( engine.isVectorKernel() );
+    }
+
+    /**
+     * Verify that the scalar kernel applies the rule
+     * given with each call,
+     * so that one kernel may serve several rules.
+     */
+    @Test
+    public void testScalarKernelRules()
+    {
+        // a row of three cells in the middle of the tile
+        long[]      midRows     = new long[TileEngine.TILE_SIZE + 2];
+        long[]      sideRows    = new long[TileEngine.TILE_SIZE + 2];
+        long[]      result      = new long[TileEngine.TILE_SIZE];
+        midRows[33] = 0b111L << 30;
+        TileKernel  kernel      = new ScalarTileKernel();
+
+        // B3/S23: a blinker
+        kernel.calculate( midRows, sideRows, sideRows, result, 0b1100, 0b1000 );
+        assertEquals( 1L << 31, result[31] );
+        assertEquals( 1L << 31, result[32] );
+        assertEquals( 1L << 31, result[33] );
+
+        // B2/S: the row dies, and the cells above and below
+        // its ends are born
+        kernel.calculate( midRows, sideRows, sideRows, result, 0, 0b100 );
+        assertEquals( 0, result[32] );
+        assertEquals( (1L << 30) | (1L << 32), result[31] );
+
+        // B3/S23 again
+        kernel.calculate( midRows, sideRows, sideRows, result, 0b1100, 0b1000 );
+        assertEquals( 1L << 31, result[32] );
+    }
+
+    /**
+     * Verify that memoized tiles produce the same results
+     * as Utils.conwayPropagate, for the sample RLE files
+     * and under a variety of rules.
+     */
+    @Test
+    public void testMemoResults()
+    {
+        TileEngine  engine  = new TileEngine();
+        engine.setMemoCapacity( 64 );
+        EngineTestUtils.compareSampleFiles( engine, 8 );
+        EngineTestUtils.compareRules( engine, 8 );
+        assertEquals( 64, engine.getMemo().getSize() );
+        assertTrue( engine.getMemo().getEvictions() > 0 );
+
+        // a memo large enough to be divided into segments
+        engine.setMemoCapacity( 1 << 12 );
+        EngineTestUtils.compareSampleFiles( engine, 8 );
+        EngineTestUtils.compareRules( engine, 8 );
+        assertTrue( engine.getMemo().toString().contains( "segments=16" ) );
+    }
+
+    /**
+     * Verify that a tile that changed in the last generation
+     * is calculated without consulting the tile memo.
+     */
+    @Test
+    public void testMemoChangedTiles()
+    {
+        // a blinker in one tile, and a block in another
+        GridMap         gridMap     = new GridMap();
+        gridMap.put( 10, 10, true );
+        gridMap.put( 11, 10, true );
+        gridMap.put( 12, 10, true );
+        gridMap.put( 74, 10, true );
+        gridMap.put( 75, 10, true );
+        gridMap.put( 74, 11, true );
+        gridMap.put( 75, 11, true );
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        TileEngine      engine      = new TileEngine();
+        engine.setMemoCapacity( 10 );
+        TileMemo        memo        = engine.getMemo();
+        for ( int gen = 1 ; gen <= 4 ; ++gen )
+            engine.nextGeneration( gridMap, survival, birth );
+
+        // both tiles are looked up in the first generation,
+        // only the block thereafter
+        assertEquals( 2, memo.getMisses() );
+        assertEquals( 3, memo.getHits() );
+        assertEquals( 7, gridMap.size() );
+    }
+
+    /**
+     * Verify the hit, miss and eviction counts of the tile memo,
+     * and that the memo may be resized and disabled.
+     */
+    @Test
+    public void testMemoCounts()
+    {
+        // ten identical blocks, one in each of ten tiles
+        GridMap         gridMap     = new GridMap();
+        for ( int tileX = 0 ; tileX < 10 ; ++tileX )
+        {
+            int xco = tileX * TileEngine.TILE_SIZE + 10;
+            gridMap.put( xco, 10, true );
+            gridMap.put( xco + 1, 10, true );
+            gridMap.put( xco, 11, true );
+            gridMap.put( xco + 1, 11, true );
+        }
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        TileEngine      engine      = new TileEngine();
+        engine.setMemoCapacity( 10 );
+        TileMemo        memo        = engine.getMemo();
+        engine.nextGeneration( gridMap, survival, birth );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 1, memo.getMisses() );
+        assertEquals( 19, memo.getHits() );
+        assertEquals( 0, memo.getEvictions() );
+        assertEquals( 40, gridMap.size() );
+
+        // the same tiles under a different rule are different transitions
+        engine.nextGeneration( gridMap, survival, Arrays.asList( 3, 6 ) );
+        assertEquals( 2, memo.getMisses() );
+        assertEquals( 2, memo.getSize() );
+
+        engine.setMemoCapacity( 1 );
+        memo = engine.getMemo();
+        engine.nextGeneration( gridMap, survival, birth );
+        engine.nextGeneration( gridMap, survival, Arrays.asList( 3, 6 ) );
+        assertEquals( 2, memo.getMisses() );
+        assertEquals( 1, memo.getEvictions() );
+        assertEquals( 1, memo.getSize() );
+
+        engine.setMemoCapacity( 0 );
+        assertNull( engine.getMemo() );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> engine.setMemoCapacity( -1 )
+        );
+    }
+
+    /**
+     * Verify that freezing tiles does not change the results
+     * for the sample RLE files and under a variety of rules,
+     * even when tiles are frozen after a single repetition.
+     */
+    @Test
+    public void testFreezeResults()
+    {
+        for ( int gens = 1 ; gens <= 3 ; gens += 2 )
+        {
+            TileEngine  engine  = new TileEngine();
+            engine.setFreezeGenerations( gens );
+            EngineTestUtils.compareSampleFiles( engine, 8 );
+            EngineTestUtils.compareRules( engine, 8 );
+        }
+    }
+
+    /**
+     * Verify that a soup run until it settles into ash
+     * evolves exactly as without freezing,
+     * that the ash is frozen,
+     * and that gliders fired into the ash wake it.
+     */
+    @Test
+    public void testFreezeAsh()
+    {
+        Random          randy       = new Random( 23 );
+        GridMap         actMap      = new GridMap();
+        for ( int inx = 0 ; inx < 8000 ; ++inx )
+            actMap.put( randy.nextInt( 200 ) - 100, randy.nextInt( 200 ) - 100, true );
+        GridMap         expMap      = new GridMap( actMap );
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        TileEngine      engine      = new TileEngine();
+        TileEngine      expEngine   = new TileEngine();
+        engine.setFreezeGenerations( 2 );
+        int             maxFrozen   = 0;
+        for ( int gen = 1 ; gen <= 1200 ; ++gen )
+        {
+            if ( gen % 300 == 0 )
+            {
+                // a glider headed southeast, into the ash
+                int[][] glider  = { { 1, 0 }, { 2, 1 }, { 0, 2 }, { 1, 2 }, { 2, 2 } };
+                int     xco     = randy.nextInt( 200 ) - 300;
+                int     yco     = randy.nextInt( 200 ) - 300;
+                for ( int[] cell : glider )
+                {
+                    actMap.put( xco + cell[0], yco + cell[1], true );
+                    expMap.put( xco + cell[0], yco + cell[1], true );
+                }
+            }
+            engine.nextGeneration( actMap, survival, birth );
+            expEngine.nextGeneration( expMap, survival, birth );
+            assertEquals( expMap, actMap, "generation " + gen );
+            maxFrozen = Math.max( maxFrozen, engine.getFrozenCount() );
+        }
+        assertTrue( maxFrozen > 0 );
+
+        engine.setFreezeGenerations( 0 );
+        assertEquals( 0, engine.getFrozenCount() );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> engine.setFreezeGenerations( -1 )
+        );
+    }
+
+    /**
+     * Verify that still lifes and blinkers are frozen,
+     * that frozen still lifes are not stepped,
+     * and that a frozen tile is woken
+     * when activity reaches its border.
+     */
+    @Test
+    public void testFreezeWake()
+    {
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        GridMap         gridMap     = new GridMap();
+        // a block in tile (0,0), a blinker in tile (1,0)
+        gridMap.put( 30, 30, true );
+        gridMap.put( 31, 30, true );
+        gridMap.put( 30, 31, true );
+        gridMap.put( 31, 31, true );
+        gridMap.put( 80, 10, true );
+        gridMap.put( 81, 10, true );
+        gridMap.put( 82, 10, true );
+        TileEngine      engine      = new TileEngine();
+        engine.setFreezeGenerations( 3 );
+        for ( int gen = 0 ; gen < 5 ; ++gen )
+            engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 2, engine.getTileCount() );
+        assertEquals( 2, engine.getFrozenCount() );
+        // only the blinker is stepped
+        assertEquals( 1, engine.getStepCount() );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 7, gridMap.size() );
+        assertTrue( gridMap.get( 82, 10 ).isAlive() );
+
+        // a glider, in tile (-1,-1), headed for the block;
+        // the modification rebuilds, and wakes, every tile
+        int[][]         glider      =
+        { { 1, 0 }, { 2, 1 }, { 0, 2 }, { 1, 2 }, { 2, 2 } };
+        for ( int[] cell : glider )
+            gridMap.put( cell[0] - 30, cell[1] - 30, true );
+        GridMap         expMap      = new GridMap( gridMap );
+        TileEngine      expEngine   = new TileEngine();
+        boolean         woken       = false;
+        int             prevFrozen  = 0;
+        for ( int gen = 1 ; gen <= 400 ; ++gen )
+        {
+            engine.nextGeneration( gridMap, survival, birth );
+            expEngine.nextGeneration( expMap, survival, birth );
+            assertEquals( expMap, gridMap, "generation " + gen );
+            int frozen  = engine.getFrozenCount();
+            woken |= frozen < prevFrozen;
+            prevFrozen = frozen;
+        }
+        assertTrue( woken );
+        assertTrue( prevFrozen > 0 );
+    }
+}
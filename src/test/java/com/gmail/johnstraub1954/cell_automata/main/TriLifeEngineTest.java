@@ -0,0 +1,170 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.gmail.johnstraub1954.cell_automata.geometry.Offset;
+import com.gmail.johnstraub1954.cell_automata.geometry.TriNeighborhood;
+
+class TriLifeEngineTest
+{
+    /** Neighborhood sizes to test. */
+    private static final int[]  SIZES   =
+    { TriNeighborhood.EDGE, TriNeighborhood.INNER, TriNeighborhood.VERTEX };
+
+    /** Rules to test, as { survival, birth }, for each size. */
+    private static final Integer[][][][]    RULES   =
+    {
+        {
+            { { 1, 2 }, { 1 } },
+            { { 0, 3 }, { 2 } },
+        },
+        {
+            { { 2, 3, 4 }, { 3 } },
+            { { 1, 2, 5 }, { 2, 4 } },
+        },
+        {
+            { { 2, 3, 4 }, { 4, 5, 6 } },
+            { { 1, 2, 3, 4, 5, 6, 7 }, { 3, 5, 8, 11 } },
+        },
+    };
+
+    /**
+     * Verify that the neighborhood relation is symmetric,
+     * that the neighborhoods are nested,
+     * and that the neighbors of a triangle are distinct,
+     * for triangles of both orientations.
+     */
+    @Test
+    public void testNeighborhoods()
+    {
+        for ( int row = -2 ; row <= 2 ; ++row )
+            for ( int col = -2 ; col <= 2 ; ++col )
+            {
+                Offset          self    = new Offset( col, row );
+                List<Offset>    prev    = Arrays.asList();
+                for ( int size : SIZES )
+                {
+                    List<Offset>    nbrs    =
+                        new TriNeighborhood( self, size ).getNeighbors();
+                    assertEquals( size, new HashSet<>( nbrs ).size() );
+                    assertEquals( prev, nbrs.subList( 0, prev.size() ) );
+                    for ( Offset nbr : nbrs )
+                    {
+                        Set<Offset> back    = new HashSet<>(
+                            new TriNeighborhood( nbr, size ).getNeighbors()
+                        );
+                        assertTrue( back.contains( self ), self + "->" + nbr );
+                    }
+                    prev = nbrs;
+                }
+            }
+        assertThrows(
+            CAException.class,
+            () -> new TriNeighborhood( new Offset( 0, 0 ), 6 )
+        );
+    }
+
+    /**
+     * Verify that, for every neighborhood size
+     * and under a variety of rules,
+     * the triangular engine produces the same results
+     * as a straightforward implementation
+     * using TriNeighborhood.
+     */
+    @Test
+    public void testRules()
+    {
+        for ( int inx = 0 ; inx < SIZES.length ; ++inx )
+            for ( Integer[][] rule : RULES[inx] )
+            {
+                int             size        = SIZES[inx];
+                List<Integer>   survival    = Arrays.asList( rule[0] );
+                List<Integer>   birth       = Arrays.asList( rule[1] );
+                TriLifeEngine   engine      = new TriLifeEngine( size );
+                GridMap         actMap      = getSoup( 300, 31 );
+                GridMap         expMap      = new GridMap( actMap );
+                String          name        =
+                    size + ": B" + birth + "/S" + survival;
+                for ( int gen = 1 ; gen <= 12 ; ++gen )
+                {
+                    engine.nextGeneration( actMap, survival, birth );
+                    expMap = nextGeneration( expMap, survival, birth, size );
+                    assertEquals( expMap, actMap, name + ", generation " + gen );
+                }
+            }
+    }
+
+    /**
+     * Creates a random soup of live cells
+     * centered on the origin.
+     *
+     * @param count the number of cells to place
+     * @param size  the width and height of the soup
+     *
+     * @return  the random soup
+     */
+    private static GridMap getSoup( int count, int size )
+    {
+        Random  randy   = new Random( count );
+        GridMap gridMap = new GridMap();
+        for ( int inx = 0 ; inx < count ; ++inx )
+        {
+            int xco     = randy.nextInt( size ) - size / 2;
+            int yco     = randy.nextInt( size ) - size / 2;
+            gridMap.put( xco, yco, true );
+        }
+        return gridMap;
+    }
+
+    /**
+     * Calculates the next generation of a triangular rule
+     * by evaluating the TriNeighborhood of every cell
+     * within reach of the live rectangle of a given GridMap.
+     *
+     * @param gridMap   the given GridMap
+     * @param survival  the survival states
+     * @param birth     the birth states
+     * @param size      the neighborhood size
+     *
+     * @return  the next generation
+     */
+    private static GridMap nextGeneration(
+        GridMap gridMap,
+        List<Integer> survival,
+        List<Integer> birth,
+        int size
+    )
+    {
+        GridMap     result  = new GridMap();
+        if ( gridMap.size() == 0 )
+            return result;
+
+        Rectangle   rect    = gridMap.getLiveRectangle();
+        for ( int yco = rect.y - 1 ; yco <= rect.y + rect.height ; ++yco )
+            for ( int xco = rect.x - 2 ; xco <= rect.x + rect.width + 1 ; ++xco )
+            {
+                Offset          self    = new Offset( xco, yco );
+                TriNeighborhood hood    = new TriNeighborhood( self, size );
+                int             count   = 0;
+                for ( Offset nbr : hood.getNeighbors() )
+                    count += gridMap.getState( nbr.col, nbr.row );
+                boolean         alive   = gridMap.getState( xco, yco ) != 0;
+                boolean         next    =
+                    alive ? survival.contains( count ) : birth.contains( count );
+                if ( next )
+                    result.put( xco, yco, true );
+            }
+        return result;
+    }
+}
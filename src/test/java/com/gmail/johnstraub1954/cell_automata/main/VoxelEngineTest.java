@@ -0,0 +1,268 @@
+package com.gmail.johnstraub1954.cell_automata.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class VoxelEngineTest
+{
+    /** Three-dimensional rules, as { survival, birth }. */
+    private static final Integer[][][]  RULES   =
+    {
+        { { 4, 5 }, { 5 } },
+        { { 5, 6, 7 }, { 6 } },
+        { { 2, 3 }, { 3 } },
+        { { 4 }, { 4 } },
+        { {}, { 1 } },
+        { { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 26 }, { 13, 14, 17, 18, 19 } },
+    };
+
+    /**
+     * Verify that the voxel map agrees with a set of coordinates
+     * through random edits,
+     * and that it discards chunks that die out.
+     */
+    @Test
+    public void testVoxelGridMap()
+    {
+        Random          randy       = new Random( 11 );
+        VoxelGridMap    voxelMap    = new VoxelGridMap();
+        Set<List<Integer>>  expSet  = new HashSet<>();
+        for ( int inx = 0 ; inx < 20000 ; ++inx )
+        {
+            int     xco     = randy.nextInt( 80 ) - 40;
+            int     yco     = randy.nextInt( 80 ) - 40;
+            int     zco     = randy.nextInt( 80 ) - 40;
+            boolean alive   = randy.nextInt( 3 ) != 0;
+            boolean prev    = expSet.contains( Arrays.asList( xco, yco, zco ) );
+            assertEquals( prev, voxelMap.put( xco, yco, zco, alive ) );
+            if ( alive )
+                expSet.add( Arrays.asList( xco, yco, zco ) );
+            else
+                expSet.remove( Arrays.asList( xco, yco, zco ) );
+        }
+        assertEquals( expSet.size(), voxelMap.size() );
+        for ( List<Integer> voxel : expSet )
+            assertTrue( voxelMap.get( voxel.get( 0 ), voxel.get( 1 ), voxel.get( 2 ) ) );
+
+        Set<List<Integer>>  actSet  = new HashSet<>();
+        voxelMap.forEachLive( (xco, yco, zco) ->
+            actSet.add( Arrays.asList( xco, yco, zco ) )
+        );
+        assertEquals( expSet, actSet );
+
+        VoxelGridMap    copy    = new VoxelGridMap( voxelMap );
+        assertEquals( voxelMap, copy );
+        assertEquals( voxelMap.hashCode(), copy.hashCode() );
+
+        GridMap slice   = voxelMap.getSlice( -17 );
+        int     count   = 0;
+        for ( List<Integer> voxel : expSet )
+            if ( voxel.get( 2 ) == -17 )
+            {
+                assertEquals( 1, slice.getState( voxel.get( 0 ), voxel.get( 1 ) ) );
+                ++count;
+            }
+        assertEquals( count, slice.size() );
+
+        for ( List<Integer> voxel : expSet )
+            voxelMap.put( voxel.get( 0 ), voxel.get( 1 ), voxel.get( 2 ), false );
+        assertEquals( 0, voxelMap.size() );
+        assertEquals( 0, voxelMap.getChunkCount() );
+        assertFalse( voxelMap.equals( copy ) );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> voxelMap.put( 0, VoxelGridMap.MAX_COORD + 1, 0, true )
+        );
+    }
+
+    /**
+     * Verify that the engine matches a voxel-by-voxel calculation
+     * under a variety of rules,
+     * on one thread and on several.
+     */
+    @Test
+    public void testReference()
+    {
+        for ( int threads : new int[] { 1, 4 } )
+        {
+            Random  randy   = new Random( 13 );
+            for ( Integer[][] rule : RULES )
+            {
+                List<Integer>   survival    = Arrays.asList( rule[0] );
+                List<Integer>   birth       = Arrays.asList( rule[1] );
+                VoxelEngine     engine      = new VoxelEngine( threads );
+                VoxelGridMap    voxelMap    = new VoxelGridMap();
+                Set<Long>       expSet      = new HashSet<>();
+                // a dense blob straddling chunk boundaries,
+                // and a few isolated voxels
+                for ( int inx = 0 ; inx < 6000 ; ++inx )
+                    add( randy.nextInt( 30 ) - 18, randy.nextInt( 30 ) - 3,
+                        randy.nextInt( 30 ) - 15, voxelMap, expSet );
+                for ( int inx = 0 ; inx < 20 ; ++inx )
+                    add( randy.nextInt( 400 ) - 200, randy.nextInt( 400 ) - 200,
+                        randy.nextInt( 400 ) - 200, voxelMap, expSet );
+
+                for ( int gen = 1 ; gen <= 6 ; ++gen )
+                {
+                    engine.nextGeneration( voxelMap, survival, birth );
+                    expSet = nextGeneration( expSet, survival, birth );
+                    String  desc    =
+                        survival + "/" + birth + " threads " + threads + " gen " + gen;
+                    assertEquals( expSet.size(), voxelMap.size(), desc );
+                    Set<Long>   actSet  = new HashSet<>();
+                    voxelMap.forEachLive( (xco, yco, zco) ->
+                        actSet.add( key( xco, yco, zco ) )
+                    );
+                    assertEquals( expSet, actSet, desc );
+                }
+            }
+        }
+    }
+
+    /**
+     * Verify that a rule with birth on 0 neighbors is rejected.
+     */
+    @Test
+    public void testBirthOnZero()
+    {
+        VoxelEngine engine  = new VoxelEngine( 1 );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> engine.nextGeneration(
+                new VoxelGridMap(), Arrays.asList( 1 ), Arrays.asList( 0, 1 )
+            )
+        );
+    }
+
+    /**
+     * Verify that Utils.voxelPropagate advances the voxel map
+     * under the current rule.
+     */
+    @Test
+    public void testVoxelPropagate()
+    {
+        Parameters      params          = Parameters.INSTANCE;
+        VoxelGridMap    saveVoxelMap    = params.getVoxelMap();
+        List<Integer>   saveSurvival    = params.getSurvivalStates();
+        List<Integer>   saveBirth       = params.getBirthStates();
+        List<Integer>   survival        = Arrays.asList( 4, 5 );
+        List<Integer>   birth           = Arrays.asList( 5 );
+        params.setSurvivalStates( survival );
+        params.setBirthStates( birth );
+        try
+        {
+            VoxelGridMap    voxelMap    = new VoxelGridMap();
+            Random          randy       = new Random( 17 );
+            for ( int inx = 0 ; inx < 500 ; ++inx )
+                voxelMap.put( randy.nextInt( 10 ), randy.nextInt( 10 ),
+                    randy.nextInt( 10 ), true );
+            VoxelGridMap    expMap      = new VoxelGridMap( voxelMap );
+            params.setVoxelMap( voxelMap );
+            Utils.INSTANCE.voxelPropagate( null );
+            new VoxelEngine( 1 ).nextGeneration( expMap, survival, birth );
+            assertEquals( expMap, voxelMap );
+        }
+        finally
+        {
+            params.setVoxelMap( saveVoxelMap );
+            params.setSurvivalStates( saveSurvival );
+            params.setBirthStates( saveBirth );
+        }
+    }
+
+    /**
+     * Makes a voxel alive in both a map and a set of keys.
+     *
+     * @param xco       the x-coordinate of the voxel
+     * @param yco       the y-coordinate of the voxel
+     * @param zco       the z-coordinate of the voxel
+     * @param voxelMap  the map
+     * @param expSet    the set of keys
+     */
+    private static void add(
+        int xco,
+        int yco,
+        int zco,
+        VoxelGridMap voxelMap,
+        Set<Long> expSet
+    )
+    {
+        voxelMap.put( xco, yco, zco, true );
+        expSet.add( key( xco, yco, zco ) );
+    }
+
+    /**
+     * Calculates the next generation of a set of voxels
+     * one voxel at a time.
+     *
+     * @param live      the keys of the live voxels
+     * @param survival  the survival states
+     * @param birth     the birth states
+     *
+     * @return  the keys of the live voxels in the next generation
+     */
+    private static Set<Long> nextGeneration(
+        Set<Long> live,
+        List<Integer> survival,
+        List<Integer> birth
+    )
+    {
+        Map<Long, Integer>  counts  = new HashMap<>();
+        for ( long key : live )
+            for ( int dz = -1 ; dz <= 1 ; ++dz )
+                for ( int dy = -1 ; dy <= 1 ; ++dy )
+                    for ( int dx = -1 ; dx <= 1 ; ++dx )
+                        if ( dx != 0 || dy != 0 || dz != 0 )
+                            counts.merge(
+                                key + dx + (dy << 20) + ((long)dz << 40),
+                                1,
+                                Integer::sum
+                            );
+        Set<Long>   next    = new HashSet<>();
+        for ( Map.Entry<Long, Integer> entry : counts.entrySet() )
+        {
+            boolean alive   = live.contains( entry.getKey() );
+            if ( alive ?
+                survival.contains( entry.getValue() ) :
+                birth.contains( entry.getValue() ) )
+                next.add( entry.getKey() );
+        }
+        // live voxels with no live neighbors
+        if ( survival.contains( 0 ) )
+            for ( long key : live )
+                if ( !counts.containsKey( key ) )
+                    next.add( key );
+        return next;
+    }
+
+    /**
+     * Packs the coordinates of a voxel into a single long,
+     * such that adding 1, 1 &lt;&lt; 20 or 1 &lt;&lt; 40
+     * moves the voxel by 1 along the x-, y- or z-axis.
+     *
+     * @param xco   the x-coordinate of the voxel
+     * @param yco   the y-coordinate of the voxel
+     * @param zco   the z-coordinate of the voxel
+     *
+     * @return  the packed coordinates
+     */
+    private static long key( int xco, int yco, int zco )
+    {
+        long    key = (xco + (1L << 19)) + ((yco + (1L << 19)) << 20)
+            + ((zco + (1L << 19)) << 40);
+        return key;
+    }
+}
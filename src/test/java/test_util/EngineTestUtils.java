@@ -0,0 +1,274 @@
+package test_util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.gmail.johnstraub1954.cell_automata.main.GenerationEngine;
+import com.gmail.johnstraub1954.cell_automata.main.GridMap;
+import com.gmail.johnstraub1954.cell_automata.main.Parameters;
+import com.gmail.johnstraub1954.cell_automata.main.RLEInput;
+import com.gmail.johnstraub1954.cell_automata.main.RuleTable;
+import com.gmail.johnstraub1954.cell_automata.main.RuleTableEngine;
+import com.gmail.johnstraub1954.cell_automata.main.Utils;
+
+/**
+ * Utilities for verifying generation engines.
+ * The reference for all comparisons is
+ * Utils.conwayPropagate,
+ * which is driven through the Parameters singleton;
+ * the singleton's grid map and rules are restored
+ * after every comparison.
+ *
+ * @author Jack Straub
+ */
+public class EngineTestUtils
+{
+    /** Directory containing the sample RLE files. */
+    public static final String      RLE_DIR     = "src/main/resources";
+
+    /**
+     * Rules, as survival/birth pairs, used to exercise engines
+     * beyond the rules of the sample files.
+     */
+    public static final Integer[][][]   RULES   =
+    {
+        { { 2, 3 }, { 3 } },
+        { { 2, 3 }, { 3, 6 } },
+        { { 1, 3, 5, 7 }, { 1, 3, 5, 7 } },
+        { {}, { 2 } },
+        { { 0, 1, 2, 3, 4, 5, 6, 7, 8 }, { 3 } },
+        { { 1, 2, 3, 4, 5 }, { 3, 4, 5, 6, 7, 8 } },
+    };
+
+    private static final Parameters params  = Parameters.INSTANCE;
+
+    /** Isotropic non-totalistic rules used by compareIsotropicRules. */
+    public static final String[]    ISOTROPIC_RULES =
+    {
+        "B2-a/S12",
+        "B3/S2-i34q",
+        "B2e3ai4k/S23-a4c",
+        "B3-cnry4c/S23-k",
+    };
+
+    /**
+     * Returns all sample RLE files.
+     *
+     * @return  all sample RLE files
+     */
+    public static File[] getSampleFiles()
+    {
+        File[]  files   = new File( RLE_DIR ).listFiles(
+            f -> f.getName().toLowerCase().endsWith( ".rle" )
+        );
+        assertTrue( files.length > 0 );
+        return files;
+    }
+
+    /**
+     * Verifies that a given engine produces the same results
+     * as Utils.conwayPropagate for every sample RLE file.
+     *
+     * @param engine        the given engine
+     * @param generations   the number of generations to compare
+     */
+    public static void compareSampleFiles(
+        GenerationEngine engine,
+        int generations
+    )
+    {
+        for ( File file : getSampleFiles() )
+        {
+            RLEInput    input   = new RLEInput( file );
+            compareToConway(
+                file.getName(),
+                input.getGridMap(),
+                input.getSurvivalRules(),
+                input.getBirthRules(),
+                engine,
+                generations
+            );
+        }
+    }
+
+    /**
+     * Verifies that a given engine produces the same results
+     * as Utils.conwayPropagate for a random soup
+     * under each of the rules in {@link #RULES}.
+     * The soup straddles the origin,
+     * so that negative coordinates are exercised.
+     *
+     * @param engine        the given engine
+     * @param generations   the number of generations to compare
+     */
+    public static void compareRules(
+        GenerationEngine engine,
+        int generations
+    )
+    {
+        Random  randy   = new Random( 3 );
+        for ( Integer[][] rule : RULES )
+        {
+            GridMap gridMap = new GridMap();
+            for ( int inx = 0 ; inx < 2000 ; ++inx )
+            {
+                int xco = randy.nextInt( 80 ) - 100;
+                int yco = randy.nextInt( 80 ) - 40;
+                gridMap.put( xco, yco, true );
+            }
+            compareToConway(
+                Arrays.toString( rule[0] ) + "/" + Arrays.toString( rule[1] ),
+                gridMap,
+                Arrays.asList( rule[0] ),
+                Arrays.asList( rule[1] ),
+                engine,
+                generations
+            );
+        }
+    }
+
+    /**
+     * Runs a random soup through a number of generations
+     * under each of a set of isotropic non-totalistic rules,
+     * using both Utils.conwayPropagate and a given engine,
+     * and verifies that the results are identical.
+     *
+     * @param engine        the given engine
+     * @param generations   the number of generations to compare
+     */
+    public static void compareIsotropicRules(
+        RuleTableEngine engine,
+        int generations
+    )
+    {
+        Random      randy       = new Random( 5 );
+        GridMap     saveGridMap = params.getGridMap();
+        String      saveRule    = params.getIsotropicRule();
+        try
+        {
+            for ( String rule : ISOTROPIC_RULES )
+            {
+                GridMap expMap  = new GridMap();
+                for ( int inx = 0 ; inx < 2000 ; ++inx )
+                {
+                    int xco = randy.nextInt( 80 ) - 100;
+                    int yco = randy.nextInt( 80 ) - 40;
+                    expMap.put( xco, yco, true );
+                }
+                GridMap actMap  = new GridMap( expMap );
+                
+                params.setGridMap( null );
+                params.setGridMap( expMap );
+                params.setIsotropicRule( null );
+                params.setIsotropicRule( rule );
+                RuleTable   table   = RuleTable.parse( rule );
+                for ( int gen = 1 ; gen <= generations ; ++gen )
+                {
+                    Utils.INSTANCE.conwayPropagate( null );
+                    engine.nextGeneration( actMap, table );
+                    assertEquals( expMap, actMap, rule + ", generation " + gen );
+                }
+            }
+        }
+        finally
+        {
+            params.setGridMap( saveGridMap );
+            params.setIsotropicRule( saveRule );
+        }
+    }
+
+    /**
+     * Verifies that a given engine detects changes made
+     * to the GridMap between generations.
+     *
+     * @param engine    the given engine
+     */
+    public static void testExternalModification( GenerationEngine engine )
+    {
+        List<Integer>   survival    = Arrays.asList( 2, 3 );
+        List<Integer>   birth       = Arrays.asList( 3 );
+        GridMap         gridMap     = new GridMap();
+
+        // blinker
+        gridMap.put( 0, 1, true );
+        gridMap.put( 1, 1, true );
+        gridMap.put( 2, 1, true );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 3, gridMap.size() );
+        assertTrue( gridMap.get( 1, 0 ).isAlive() );
+        assertTrue( gridMap.get( 1, 2 ).isAlive() );
+
+        // kill the blinker
+        gridMap.put( 1, 0, false );
+        engine.nextGeneration( gridMap, survival, birth );
+        assertEquals( 0, gridMap.size() );
+
+        // replace the map
+        GridMap newMap  = new GridMap();
+        newMap.put( 5, 5, true );
+        newMap.put( 5, 6, true );
+        newMap.put( 5, 7, true );
+        engine.nextGeneration( newMap, survival, birth );
+        assertEquals( 3, newMap.size() );
+        assertTrue( newMap.get( 4, 6 ).isAlive() );
+        assertTrue( newMap.get( 6, 6 ).isAlive() );
+    }
+
+    /**
+     * Runs a given pattern through a number of generations
+     * using both Utils.conwayPropagate and a given engine,
+     * and verifies that the results are identical.
+     *
+     * @param name          name of the pattern, for diagnostics
+     * @param gridMap       the given pattern
+     * @param survival      the survival states for the pattern
+     * @param birth         the birth states for the pattern
+     * @param engine        the given engine
+     * @param generations   the number of generations to compare
+     */
+    public static void compareToConway(
+        String name,
+        GridMap gridMap,
+        List<Integer> survival,
+        List<Integer> birth,
+        GenerationEngine engine,
+        int generations
+    )
+    {
+        GridMap         expMap          = new GridMap( gridMap );
+        GridMap         actMap          = new GridMap( gridMap );
+        GridMap         saveGridMap     = params.getGridMap();
+        List<Integer>   saveSurvival    = params.getSurvivalStates();
+        List<Integer>   saveBirth       = params.getBirthStates();
+
+        // Make sure the property change events actually fire,
+        // even if the new values are equal to the old ones.
+        params.setGridMap( null );
+        params.setGridMap( expMap );
+        params.setSurvivalStates( null );
+        params.setSurvivalStates( survival );
+        params.setBirthStates( null );
+        params.setBirthStates( birth );
+
+        try
+        {
+            for ( int gen = 1 ; gen <= generations ; ++gen )
+            {
+                Utils.INSTANCE.conwayPropagate( null );
+                engine.nextGeneration( actMap, survival, birth );
+                assertEquals( expMap, actMap, name + ", generation " + gen );
+            }
+        }
+        finally
+        {
+            params.setGridMap( saveGridMap );
+            params.setSurvivalStates( saveSurvival );
+            params.setBirthStates( saveBirth );
+        }
+    }
+}